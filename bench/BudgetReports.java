@@ -0,0 +1,65 @@
+import java.util.Collection;
+import java.util.Map;
+
+import components.budgetTracker.BudgetTracker;
+import components.budgetTracker.ReportQueries;
+
+/**
+ * {@code ReportQueries} over a {@code BudgetMaxMinReport} and a
+ * {@code BudgetFilterReport} of one tracker, calling them directly.
+ *
+ * @author Chenyang Zong
+ */
+public final class BudgetReports implements ReportQueries {
+    /**
+     * The extremes report.
+     */
+    private final BudgetMaxMinReport maxMinReport;
+
+    /**
+     * The filter report.
+     */
+    private final BudgetFilterReport filterReport;
+
+    /**
+     * Constructs the reports over {@code budgetTracker}.
+     *
+     * @param budgetTracker
+     *            the tracker to report on
+     */
+    public BudgetReports(BudgetTracker budgetTracker) {
+        this.maxMinReport = new BudgetMaxMinReport(budgetTracker);
+        this.filterReport = new BudgetFilterReport(budgetTracker);
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.maxMinReport.getMaxIncomeIndex();
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.maxMinReport.getMinIncomeIndex();
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.maxMinReport.getMaxExpenseIndex();
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.maxMinReport.getMinExpenseIndex();
+    }
+
+    @Override
+    public float reportTransactionsWithKeyword(String keyword) {
+        return this.filterReport.reportTransactionsWithKeyword(keyword);
+    }
+
+    @Override
+    public Map<String, ?> transactionsWithKeywords(
+            Collection<String> keywords) {
+        return this.filterReport.transactionsWithKeywords(keywords);
+    }
+}
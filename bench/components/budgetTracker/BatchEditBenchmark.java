@@ -0,0 +1,137 @@
+package components.budgetTracker;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of a reconciliation run of {@code edits} indexed edits at
+ * random indexes, applied one by one or through one {@code BatchEdit}. The
+ * edits replace and move records, so the ledger keeps its size from one run
+ * to the next.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BatchEditBenchmark {
+
+    /**
+     * Largest amount, in cents, of an edited record.
+     */
+    private static final int MAX_CENTS = 200000;
+
+    /**
+     * Simple name of the implementation to benchmark.
+     */
+    @Param({ "BudgetTracker1L", "BudgetTracker2", "BudgetTracker3",
+        "BudgetTracker5" })
+    private String implementation;
+
+    /**
+     * Number of records in the ledger.
+     */
+    @Param({ "10000", "100000" })
+    private int size;
+
+    /**
+     * Number of edits of a run.
+     */
+    @Param({ "100", "1000" })
+    private int edits;
+
+    /**
+     * Ledger under test.
+     */
+    private BudgetTracker tracker;
+
+    /**
+     * Index each edit works on.
+     */
+    private int[] indexes;
+
+    /**
+     * Index each move takes its record to.
+     */
+    private int[] targets;
+
+    /**
+     * Amount each replacement puts in.
+     */
+    private float[] amounts;
+
+    /**
+     * Builds the ledger and the edits of a run.
+     *
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        this.tracker = Ledgers.create(this.implementation, this.size);
+        Random random = new Random(this.edits);
+        this.indexes = new int[this.edits];
+        this.targets = new int[this.edits];
+        this.amounts = new float[this.edits];
+        for (int e = 0; e < this.edits; e++) {
+            this.indexes[e] = random.nextInt(this.size);
+            this.targets[e] = random.nextInt(this.size);
+            this.amounts[e] = random.nextInt(MAX_CENTS)
+                    / BudgetTracker.ROUNDING;
+        }
+    }
+
+    /**
+     * Applies the edits one by one.
+     *
+     * @return the length of the ledger
+     */
+    @Benchmark
+    public int sequential() {
+        for (int e = 0; e < this.edits; e++) {
+            if (e % 2 == 0) {
+                this.tracker.modifyIndex(this.indexes[e], this.amounts[e],
+                        "Reconciled");
+            } else {
+                this.tracker.changeIndex(this.indexes[e], this.targets[e]);
+            }
+        }
+        return this.tracker.length();
+    }
+
+    /**
+     * Applies the edits through one {@code BatchEdit}.
+     *
+     * @return the length of the ledger
+     */
+    @Benchmark
+    public int batch() {
+        BatchEdit edit = new BatchEdit(this.tracker);
+        for (int e = 0; e < this.edits; e++) {
+            if (e % 2 == 0) {
+                edit.modifyIndex(this.indexes[e], this.amounts[e],
+                        "Reconciled");
+            } else {
+                edit.changeIndex(this.indexes[e], this.targets[e]);
+            }
+        }
+        edit.commit();
+        return this.tracker.length();
+    }
+}
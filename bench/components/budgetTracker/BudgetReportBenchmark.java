@@ -0,0 +1,131 @@
+package components.budgetTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the {@code BudgetMaxMinReport} and
+ * {@code BudgetFilterReport} use cases. The reports live in the default
+ * package, which JMH benchmarks cannot import from, so they are reached
+ * through {@code ReportQueries}, whose one implementation calls them
+ * directly; only building it in the setup is reflective.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BudgetReportBenchmark {
+
+    /**
+     * Keyword that no generated description contains, so that the filter
+     * benchmark measures matching rather than console output.
+     */
+    private static final String ABSENT_KEYWORD = "Mortgage";
+
+    /**
+     * Number of keywords in the batch filter benchmark.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Number of distinct dates that generated descriptions mention.
+     */
+    private static final int DAYS = 28;
+
+    /**
+     * Simple name of the implementation under test.
+     */
+    @Param({ "BudgetTracker1L", "BudgetTracker2", "BudgetTracker3",
+        "BudgetTracker4", "BudgetTracker5" })
+    private String implementation;
+
+    /**
+     * Number of records in the ledger.
+     */
+    @Param({ "10", "1000", "100000", "10000000" })
+    private int size;
+
+    /**
+     * The reports over the ledger.
+     */
+    private ReportQueries reports;
+
+    /**
+     * The keywords of the batch filter benchmark: the dates that generated
+     * descriptions mention, padded with absent keywords.
+     */
+    private List<String> batch;
+
+    /**
+     * Builds the ledger and the reports over it.
+     *
+     * @throws ReflectiveOperationException
+     *             if the ledger or the reports cannot be constructed
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        BudgetTracker tracker = Ledgers.create(this.implementation, this.size);
+        this.reports = (ReportQueries) Class.forName("BudgetReports")
+                .getConstructor(BudgetTracker.class).newInstance(tracker);
+        this.batch = new ArrayList<>(BATCH_SIZE);
+        for (int day = 1; day <= DAYS; day++) {
+            this.batch.add("02/" + day);
+        }
+        for (int i = 0; this.batch.size() < BATCH_SIZE; i++) {
+            this.batch.add(ABSENT_KEYWORD + " " + i);
+        }
+    }
+
+    /**
+     * Benchmark of all four {@code BudgetMaxMinReport} queries, as a dashboard
+     * refresh issues them.
+     *
+     * @return the sum of the four indexes
+     */
+    @Benchmark
+    public int maxMinReport() {
+        return this.reports.maxIncomeIndex() + this.reports.minIncomeIndex()
+                + this.reports.maxExpenseIndex()
+                + this.reports.minExpenseIndex();
+    }
+
+    /**
+     * Benchmark of one {@code BudgetFilterReport} keyword query.
+     *
+     * @return the total amount of the matching records
+     */
+    @Benchmark
+    public float filterReport() {
+        return this.reports.reportTransactionsWithKeyword(ABSENT_KEYWORD);
+    }
+
+    /**
+     * Benchmark of one {@code BudgetFilterReport} batch query for
+     * {@code BATCH_SIZE} keywords, as a nightly job issues it.
+     *
+     * @return the per-keyword matches
+     */
+    @Benchmark
+    public Map<String, ?> batchFilterReport() {
+        return this.reports.transactionsWithKeywords(this.batch);
+    }
+}
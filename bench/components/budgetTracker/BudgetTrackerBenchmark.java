@@ -0,0 +1,281 @@
+package components.budgetTracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * JMH benchmarks for the kernel and secondary methods of every
+ * {@code BudgetTracker} implementation, across ledger sizes. Mutating
+ * benchmarks undo their own change, so the ledger keeps its size from one
+ * invocation to the next.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BudgetTrackerBenchmark {
+
+    /**
+     * Number of precomputed random indexes, a power of two.
+     */
+    private static final int INDEXES = 1024;
+
+    /**
+     * Number of records printed by {@code printNumOfRecords}.
+     */
+    private static final int PRINTED = 100;
+
+    /**
+     * Amount used for records added by the benchmarks.
+     */
+    private static final float AMOUNT = 12.34f;
+
+    /**
+     * Keyword that one category of generated descriptions contains.
+     */
+    private static final String KEYWORD = "Groceries";
+
+    /**
+     * Simple name of the implementation under test.
+     */
+    @Param({ "BudgetTracker1L", "BudgetTracker2", "BudgetTracker3",
+        "BudgetTracker4", "BudgetTracker5" })
+    private String implementation;
+
+    /**
+     * Number of records in the ledger.
+     */
+    @Param({ "10", "1000", "100000", "10000000" })
+    private int size;
+
+    /**
+     * The ledger under test.
+     */
+    private BudgetTracker tracker;
+
+    /**
+     * Random indexes into the ledger, cycled through by the benchmarks.
+     */
+    private int[] indexes;
+
+    /**
+     * Position of the next index to use.
+     */
+    private int next;
+
+    /**
+     * Scratch file that {@code printNumOfRecords} writes to.
+     */
+    private File scratch;
+
+    /**
+     * Writer to {@code scratch}.
+     */
+    private SimpleWriter out;
+
+    /**
+     * Builds the ledger, the random indexes and the output file.
+     *
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     * @throws IOException
+     *             if the scratch file cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        this.tracker = Ledgers.create(this.implementation, this.size);
+        Random random = new Random(this.size);
+        this.indexes = new int[INDEXES];
+        for (int i = 0; i < INDEXES; i++) {
+            this.indexes[i] = random.nextInt(this.size);
+        }
+        this.next = 0;
+        this.scratch = File.createTempFile("budget-bench", ".txt");
+        this.out = new SimpleWriter1L(this.scratch.getPath());
+    }
+
+    /**
+     * Closes and deletes the output file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.out.close();
+        this.scratch.delete();
+    }
+
+    /**
+     * Returns the next random index into the ledger.
+     *
+     * @return an index in {@code [0, size)}
+     */
+    private int nextIndex() {
+        this.next = (this.next + 1) & (INDEXES - 1);
+        return this.indexes[this.next];
+    }
+
+    /**
+     * Benchmark of {@code add} followed by {@code remove}.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    public Transaction addThenRemove() {
+        this.tracker.add(AMOUNT, "Benchmark");
+        return this.tracker.remove();
+    }
+
+    /**
+     * Benchmark of {@code remove} followed by re-adding the record.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    public Transaction removeThenAdd() {
+        Transaction record = this.tracker.remove();
+        this.tracker.add(record);
+        return record;
+    }
+
+    /**
+     * Benchmark of {@code balance}.
+     *
+     * @return the balance
+     */
+    @Benchmark
+    public float balance() {
+        return this.tracker.balance();
+    }
+
+    /**
+     * Benchmark of {@code addToIndex} followed by {@code removeIndex} at the
+     * same random index.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    public Transaction addToIndexThenRemoveIndex() {
+        int index = this.nextIndex();
+        this.tracker.addToIndex(index, AMOUNT, "Benchmark");
+        return this.tracker.removeIndex(index);
+    }
+
+    /**
+     * Benchmark of {@code removeIndex} at a random index followed by
+     * {@code addToIndex} of the same record.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    public Transaction removeIndexThenAddToIndex() {
+        int index = this.nextIndex();
+        Transaction record = this.tracker.removeIndex(index);
+        this.tracker.addToIndex(index, record.amount(), record.description());
+        return record;
+    }
+
+    /**
+     * Benchmark of {@code modifyIndex} at a random index, writing back the same
+     * record.
+     *
+     * @return the replaced record
+     */
+    @Benchmark
+    public Transaction modifyIndex() {
+        int index = this.nextIndex();
+        Transaction record = this.tracker.modifyIndex(index, AMOUNT,
+                "Benchmark");
+        return this.tracker.modifyIndex(index, record.amount(),
+                record.description());
+    }
+
+    /**
+     * Benchmark of {@code changeIndex} between two random indexes.
+     */
+    @Benchmark
+    public void changeIndex() {
+        this.tracker.changeIndex(this.nextIndex(), this.nextIndex());
+    }
+
+    /**
+     * Benchmark of {@code modifyIndex} at a random index followed by
+     * {@code maxIncomeIndex}, as a display refreshing its extremes after each
+     * edit would do; the record is written back afterwards.
+     *
+     * @return the index of the largest income
+     */
+    @Benchmark
+    public int modifyIndexThenMaxIncomeIndex() {
+        int index = this.nextIndex();
+        Transaction record = this.tracker.modifyIndex(index, AMOUNT,
+                "Benchmark");
+        int maxIncome = this.tracker.maxIncomeIndex();
+        this.tracker.modifyIndex(index, record.amount(), record.description());
+        return maxIncome;
+    }
+
+    /**
+     * Benchmark of {@code keywordTotal} for a keyword that about one record in
+     * eight matches.
+     *
+     * @return the total amount of the matching records
+     */
+    @Benchmark
+    public float keywordTotal() {
+        return this.tracker.keywordTotal(KEYWORD);
+    }
+
+    /**
+     * Benchmark of {@code printNumOfRecords} for up to {@code PRINTED}
+     * records.
+     */
+    @Benchmark
+    public void printNumOfRecords() {
+        this.tracker.printNumOfRecords(Math.min(PRINTED, this.size), this.out);
+    }
+
+    /**
+     * Benchmark of adding up the expenses with a sequential stream.
+     *
+     * @return the total of the expenses
+     */
+    @Benchmark
+    public double streamExpenses() {
+        return this.tracker.stream().mapToDouble(Transaction::amount)
+                .filter(amount -> amount < 0).sum();
+    }
+
+    /**
+     * Benchmark of adding up the expenses with a parallel stream.
+     *
+     * @return the total of the expenses
+     */
+    @Benchmark
+    public double parallelStreamExpenses() {
+        return this.tracker.parallelStream().mapToDouble(Transaction::amount)
+                .filter(amount -> amount < 0).sum();
+    }
+}
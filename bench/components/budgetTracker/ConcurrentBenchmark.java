@@ -0,0 +1,184 @@
+package components.budgetTracker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JMH benchmarks of many readers and one writer sharing a
+ * {@code BudgetTracker1L}, guarded either by {@code ConcurrentBudgetTracker}
+ * or by one {@code synchronized} block around every call. Readers ask for the
+ * balance or walk the latest records; the writer inserts a record in the
+ * middle of the ledger and takes it out again, which takes linear time in
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Group)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConcurrentBenchmark {
+
+    /**
+     * Number of latest records the readers walk.
+     */
+    private static final int WALKED = 100;
+
+    /**
+     * Amount used for records added by the writer.
+     */
+    private static final float AMOUNT = 12.34f;
+
+    /**
+     * Number of records in the ledger.
+     */
+    @Param({ "1000", "100000" })
+    private int size;
+
+    /**
+     * Ledger guarded by {@code ConcurrentBudgetTracker}.
+     */
+    private BudgetTracker concurrent;
+
+    /**
+     * Ledger guarded by {@code synchronized} blocks on itself.
+     */
+    private BudgetTracker locked;
+
+    /**
+     * Builds the two ledgers.
+     *
+     * @throws ReflectiveOperationException
+     *             if a ledger cannot be constructed
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        this.concurrent = new ConcurrentBudgetTracker(
+                Ledgers.create("BudgetTracker1L", this.size));
+        this.locked = Ledgers.create("BudgetTracker1L", this.size);
+    }
+
+    /**
+     * Adds up the amounts of the latest records of {@code tracker}.
+     *
+     * @param tracker
+     *            the ledger to walk
+     * @return the total of the latest records
+     */
+    private static float walk(BudgetTracker tracker) {
+        float total = 0.0f;
+        for (Transaction record : tracker.view(0, WALKED)) {
+            total += record.amount();
+        }
+        return total;
+    }
+
+    /**
+     * Inserts a record in the middle of {@code tracker} and removes it.
+     *
+     * @param tracker
+     *            the ledger to edit
+     * @return the removed record
+     */
+    private static Transaction edit(BudgetTracker tracker) {
+        int middle = tracker.length() / 2;
+        tracker.addToIndex(middle, AMOUNT, "Benchmark");
+        return tracker.removeIndex(middle);
+    }
+
+    /**
+     * Reader of the balance of the concurrent ledger.
+     *
+     * @return the balance
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(4)
+    public float concurrentBalance() {
+        return this.concurrent.balance();
+    }
+
+    /**
+     * Reader of the latest records of the concurrent ledger.
+     *
+     * @return the total of the latest records
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public float concurrentWalk() {
+        return walk(this.concurrent);
+    }
+
+    /**
+     * Writer of the concurrent ledger.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public Transaction concurrentEdit() {
+        return edit(this.concurrent);
+    }
+
+    /**
+     * Reader of the balance of the synchronized ledger.
+     *
+     * @return the balance
+     */
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(4)
+    public float synchronizedBalance() {
+        synchronized (this.locked) {
+            return this.locked.balance();
+        }
+    }
+
+    /**
+     * Reader of the latest records of the synchronized ledger.
+     *
+     * @return the total of the latest records
+     */
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(3)
+    public float synchronizedWalk() {
+        synchronized (this.locked) {
+            return walk(this.locked);
+        }
+    }
+
+    /**
+     * Writer of the synchronized ledger.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public Transaction synchronizedEdit() {
+        synchronized (this.locked) {
+            return edit(this.locked);
+        }
+    }
+}
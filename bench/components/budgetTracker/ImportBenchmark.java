@@ -0,0 +1,169 @@
+package components.budgetTracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JMH benchmarks for loading a statement into an empty tracker: importing a
+ * CSV file with {@code StatementImporter}, and, with the records already
+ * parsed, adding them one at a time against adding them with {@code addAll}.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ImportBenchmark {
+
+    /**
+     * Simple name of the implementation under test.
+     */
+    @Param({ "BudgetTracker1L", "BudgetTracker2", "BudgetTracker3",
+        "BudgetTracker4", "BudgetTracker5" })
+    private String implementation;
+
+    /**
+     * Number of records in the statement.
+     */
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    /**
+     * CSV statement of {@code size} records, oldest first.
+     */
+    private File statement;
+
+    /**
+     * Amounts of the records of the statement.
+     */
+    private float[] amounts;
+
+    /**
+     * Descriptions of the records of the statement.
+     */
+    private String[] descriptions;
+
+    /**
+     * Writes the statement of a generated ledger.
+     *
+     * @throws ReflectiveOperationException
+     *             if the ledger cannot be constructed
+     * @throws IOException
+     *             if the statement cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        BudgetTracker ledger = Ledgers.create("BudgetTracker2", this.size);
+        this.amounts = new float[this.size];
+        this.descriptions = new String[this.size];
+        int i = this.size;
+        for (Transaction record : ledger) {
+            i--;
+            this.amounts[i] = record.amount();
+            this.descriptions[i] = record.description();
+        }
+        this.statement = File.createTempFile("budget-bench", ".csv");
+        try (Writer out = Files.newBufferedWriter(this.statement.toPath())) {
+            out.write("Description,Amount\n");
+            for (i = 0; i < this.size; i++) {
+                out.write(this.descriptions[i]);
+                out.write(',');
+                out.write(Float.toString(this.amounts[i]));
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Deletes the statement.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.statement.delete();
+    }
+
+    /**
+     * Returns a new empty tracker of the implementation under test.
+     *
+     * @return the new tracker
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     */
+    private BudgetTracker newTracker() throws ReflectiveOperationException {
+        return (BudgetTracker) Class
+                .forName("components.budgetTracker." + this.implementation)
+                .getConstructor().newInstance();
+    }
+
+    /**
+     * Benchmark of importing the CSV statement.
+     *
+     * @return the loaded tracker
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     * @throws IOException
+     *             if the statement cannot be read
+     */
+    @Benchmark
+    public BudgetTracker importCsv()
+            throws ReflectiveOperationException, IOException {
+        BudgetTracker tracker = this.newTracker();
+        try (Reader in = Files.newBufferedReader(this.statement.toPath())) {
+            StatementImporter.importCsv(in, tracker, 1, 0, true);
+        }
+        return tracker;
+    }
+
+    /**
+     * Benchmark of adding the parsed records one at a time.
+     *
+     * @return the loaded tracker
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     */
+    @Benchmark
+    public BudgetTracker addEach() throws ReflectiveOperationException {
+        BudgetTracker tracker = this.newTracker();
+        for (int i = 0; i < this.size; i++) {
+            tracker.add(this.amounts[i], this.descriptions[i]);
+        }
+        return tracker;
+    }
+
+    /**
+     * Benchmark of adding the parsed records in one batch.
+     *
+     * @return the loaded tracker
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     */
+    @Benchmark
+    public BudgetTracker addAll() throws ReflectiveOperationException {
+        BudgetTracker tracker = this.newTracker();
+        tracker.addAll(this.amounts, this.descriptions, this.size);
+        return tracker;
+    }
+}
@@ -0,0 +1,147 @@
+package components.budgetTracker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of many threads adding records to one
+ * {@code BudgetTracker2}, either through {@code TransactionIngestor} with a
+ * consumer thread draining it, or by calling {@code add} inside one
+ * {@code synchronized} block. Run with JMH's {@code -t} option to choose the
+ * number of producer threads.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IngestBenchmark {
+
+    /**
+     * Number of records a ledger holds before it is cleared, so memory stays
+     * bounded however long the benchmark runs.
+     */
+    private static final int LIMIT = 1 << 20;
+
+    /**
+     * Number of stripes of the ingestor.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Number of records each stripe holds.
+     */
+    private static final int CAPACITY = 4096;
+
+    /**
+     * Amount used for the records added.
+     */
+    private static final float AMOUNT = 12.34f;
+
+    /**
+     * Front end the producers offer to.
+     */
+    private TransactionIngestor ingestor;
+
+    /**
+     * Ledger the consumer drains into.
+     */
+    private BudgetTracker drained;
+
+    /**
+     * Thread that drains the ingestor.
+     */
+    private Thread consumer;
+
+    /**
+     * Whether the consumer should keep draining.
+     */
+    private volatile boolean running;
+
+    /**
+     * Ledger guarded by {@code synchronized} blocks on itself.
+     */
+    private BudgetTracker locked;
+
+    /**
+     * Builds the ledgers and starts the consumer.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.ingestor = new TransactionIngestor(STRIPES, CAPACITY);
+        this.drained = new BudgetTracker2("Benchmark");
+        this.locked = new BudgetTracker2("Benchmark");
+        this.running = true;
+        this.consumer = new Thread(() -> {
+            while (this.running) {
+                if (this.ingestor.drainTo(this.drained) == 0) {
+                    Thread.onSpinWait();
+                }
+                if (this.drained.length() > LIMIT) {
+                    this.drained.clear();
+                }
+            }
+        });
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Stops the consumer.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        this.running = false;
+        this.consumer.join();
+    }
+
+    /**
+     * Offers one record to the ingestor, retrying while its stripe is full.
+     *
+     * @return whether the first offer was taken
+     */
+    @Benchmark
+    public boolean ingest() {
+        boolean first = this.ingestor.offer(AMOUNT, "Card swipe");
+        if (!first) {
+            while (!this.ingestor.offer(AMOUNT, "Card swipe")) {
+                Thread.onSpinWait();
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Adds one record to the synchronized ledger.
+     *
+     * @return the length of the ledger
+     */
+    @Benchmark
+    public int synchronizedAdd() {
+        synchronized (this.locked) {
+            this.locked.add(AMOUNT, "Card swipe");
+            if (this.locked.length() > LIMIT) {
+                this.locked.clear();
+            }
+            return this.locked.length();
+        }
+    }
+}
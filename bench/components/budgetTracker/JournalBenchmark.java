@@ -0,0 +1,130 @@
+package components.budgetTracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JMH benchmarks for {@code JournaledBudgetTracker}: the startup time of
+ * rebuilding a {@code BudgetTracker1L} from its journal, and the cost of a
+ * journaled {@code add} for different group-commit sizes.
+ *
+ * @author Chenyang Zong
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class JournalBenchmark {
+
+    /**
+     * Amount used for records added by the benchmarks.
+     */
+    private static final float AMOUNT = 12.34f;
+
+    /**
+     * Number of records in the journaled ledger.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    private int size;
+
+    /**
+     * Number of journaled mutations that share one {@code fsync}.
+     */
+    @Param({ "1", "64", "4096" })
+    private int groupSize;
+
+    /**
+     * Journal of a ledger of {@code size} records.
+     */
+    private File journal;
+
+    /**
+     * Journaled tracker that the append benchmark writes to.
+     */
+    private JournaledBudgetTracker tracker;
+
+    /**
+     * Scratch journal that the append benchmark writes to.
+     */
+    private File scratch;
+
+    /**
+     * Writes the journal of a generated ledger and opens a scratch journal.
+     *
+     * @throws ReflectiveOperationException
+     *             if the ledger cannot be constructed
+     * @throws IOException
+     *             if a journal cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        this.journal = File.createTempFile("budget-bench", ".btj");
+        JournaledBudgetTracker.create(this.journal.toPath(),
+                Ledgers.create("BudgetTracker1L", this.size), this.groupSize)
+                .close();
+        this.scratch = File.createTempFile("budget-bench", ".btj");
+        this.tracker = JournaledBudgetTracker.create(this.scratch.toPath(),
+                new BudgetTracker1L(), this.groupSize);
+    }
+
+    /**
+     * Closes and deletes the journals.
+     *
+     * @throws IOException
+     *             if the scratch journal cannot be committed
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.tracker.close();
+        this.journal.delete();
+        this.scratch.delete();
+    }
+
+    /**
+     * Benchmark of rebuilding the ledger from its journal, as at startup.
+     *
+     * @return the rebuilt ledger
+     * @throws IOException
+     *             if the journal cannot be read
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public BudgetTracker load() throws IOException {
+        return JournaledBudgetTracker.load(this.journal.toPath(),
+                BudgetTracker1L::new);
+    }
+
+    /**
+     * Benchmark of a journaled {@code add} followed by a journaled
+     * {@code remove}, so the ledger keeps its size.
+     *
+     * @return the removed record
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Transaction addThenRemove() {
+        this.tracker.add(AMOUNT, "Benchmark");
+        return this.tracker.remove();
+    }
+}
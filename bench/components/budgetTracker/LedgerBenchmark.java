@@ -0,0 +1,165 @@
+package components.budgetTracker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of reports across the accounts of a {@code BudgetLedger},
+ * run on a pool of {@code parallelism} worker threads, against the same
+ * reports run by one thread over a plain {@code HashMap} of trackers.
+ *
+ * @author Chenyang Zong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LedgerBenchmark {
+
+    /**
+     * Number of shards of the ledger.
+     */
+    private static final int SHARDS = 256;
+
+    /**
+     * Keyword the keyword reports look for.
+     */
+    private static final String KEYWORD = "Rent";
+
+    /**
+     * Number of accounts.
+     */
+    @Param({ "10000", "50000" })
+    private int accounts;
+
+    /**
+     * Number of records of each account.
+     */
+    @Param({ "100" })
+    private int records;
+
+    /**
+     * Number of worker threads the ledger reports run on.
+     */
+    @Param({ "1", "2", "4", "8", "16", "32" })
+    private int parallelism;
+
+    /**
+     * Pool the ledger reports run on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Ledger of the accounts.
+     */
+    private BudgetLedger ledger;
+
+    /**
+     * The same accounts in a plain map.
+     */
+    private Map<String, BudgetTracker> map;
+
+    /**
+     * Builds the accounts.
+     *
+     * @throws ReflectiveOperationException
+     *             if a tracker cannot be constructed
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        this.pool = new ForkJoinPool(this.parallelism);
+        this.ledger = new BudgetLedger(SHARDS, this.pool);
+        this.map = new HashMap<>();
+        for (int a = 0; a < this.accounts; a++) {
+            BudgetTracker tracker = Ledgers.create("BudgetTracker1L",
+                    this.records);
+            tracker.setAccountName("Account " + a);
+            this.ledger.put(tracker);
+            this.map.put(tracker.getAccountName(), tracker);
+        }
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Total balance of the ledger.
+     *
+     * @return the total balance in cents
+     */
+    @Benchmark
+    public long ledgerTotalBalance() {
+        return this.ledger.totalBalanceCents();
+    }
+
+    /**
+     * Largest expense of the ledger.
+     *
+     * @return the largest expense
+     */
+    @Benchmark
+    public BudgetLedger.AccountRecord ledgerMaxExpense() {
+        return this.ledger.maxExpense();
+    }
+
+    /**
+     * Keyword total of the ledger.
+     *
+     * @return the total of the matching records
+     */
+    @Benchmark
+    public float ledgerKeywordTotal() {
+        return this.ledger.keywordTotal(KEYWORD);
+    }
+
+    /**
+     * Total balance of the map, on one thread.
+     *
+     * @return the total balance in cents
+     */
+    @Benchmark
+    public long mapTotalBalance() {
+        long cents = 0L;
+        for (BudgetTracker tracker : this.map.values()) {
+            cents += Cents.of(tracker.balance());
+        }
+        return cents;
+    }
+
+    /**
+     * Keyword total of the map, on one thread.
+     *
+     * @return the total of the matching records
+     */
+    @Benchmark
+    public float mapKeywordTotal() {
+        long cents = 0L;
+        for (BudgetTracker tracker : this.map.values()) {
+            cents += Cents.of(tracker.keywordTotal(KEYWORD));
+        }
+        return Cents.toAmount(cents);
+    }
+}
@@ -0,0 +1,69 @@
+package components.budgetTracker;
+
+import java.util.Random;
+
+/**
+ * Builds reproducible ledgers for the benchmarks.
+ *
+ * @author Chenyang Zong
+ */
+public final class Ledgers {
+
+    /**
+     * Categories that descriptions are drawn from.
+     */
+    private static final String[] CATEGORIES = { "Salary", "Rent", "Lunch",
+        "Groceries", "Coffee", "Gas", "Utilities", "Refund" };
+
+    /**
+     * Number of distinct days that descriptions mention.
+     */
+    private static final int DAYS = 28;
+
+    /**
+     * Largest amount, in cents, of a generated record.
+     */
+    private static final int MAX_CENTS = 200000;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Ledgers() {
+    }
+
+    /**
+     * Returns a new tracker of the given implementation holding {@code size}
+     * generated records, half of them income and half expense.
+     *
+     * @param implementation
+     *            simple name of a {@code BudgetTracker} implementation in this
+     *            package
+     * @param size
+     *            the number of records to add
+     * @return the new ledger
+     * @throws ReflectiveOperationException
+     *             if the implementation cannot be constructed
+     */
+    public static BudgetTracker create(String implementation, int size)
+            throws ReflectiveOperationException {
+        BudgetTracker tracker = (BudgetTracker) Class
+                .forName("components.budgetTracker." + implementation)
+                .getConstructor(String.class).newInstance("Benchmark");
+        String[] descriptions = new String[CATEGORIES.length * DAYS];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = CATEGORIES[i % CATEGORIES.length] + " 02/"
+                    + (1 + i / CATEGORIES.length);
+        }
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            float amount = (1 + random.nextInt(MAX_CENTS))
+                    / BudgetTracker.ROUNDING;
+            if (i % 2 == 1) {
+                amount = -amount;
+            }
+            tracker.add(amount,
+                    descriptions[random.nextInt(descriptions.length)]);
+        }
+        return tracker;
+    }
+}
@@ -0,0 +1,61 @@
+package components.budgetTracker;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The report queries that {@code BudgetReportBenchmark} measures. The reports
+ * live in the default package, which a benchmark in a named package cannot
+ * import from, so {@code BudgetReports} in the default package implements
+ * this interface by calling them directly, and the benchmark calls it.
+ *
+ * @author Chenyang Zong
+ */
+public interface ReportQueries {
+
+    /**
+     * Returns {@code BudgetMaxMinReport.getMaxIncomeIndex}.
+     *
+     * @return the index of the largest income
+     */
+    int maxIncomeIndex();
+
+    /**
+     * Returns {@code BudgetMaxMinReport.getMinIncomeIndex}.
+     *
+     * @return the index of the smallest income
+     */
+    int minIncomeIndex();
+
+    /**
+     * Returns {@code BudgetMaxMinReport.getMaxExpenseIndex}.
+     *
+     * @return the index of the largest expense
+     */
+    int maxExpenseIndex();
+
+    /**
+     * Returns {@code BudgetMaxMinReport.getMinExpenseIndex}.
+     *
+     * @return the index of the smallest expense
+     */
+    int minExpenseIndex();
+
+    /**
+     * Returns {@code BudgetFilterReport.reportTransactionsWithKeyword}.
+     *
+     * @param keyword
+     *            the keyword to search for
+     * @return the total amount of the matching records
+     */
+    float reportTransactionsWithKeyword(String keyword);
+
+    /**
+     * Returns {@code BudgetFilterReport.transactionsWithKeywords}.
+     *
+     * @param keywords
+     *            the keywords to search for
+     * @return the matches of each keyword
+     */
+    Map<String, ?> transactionsWithKeywords(Collection<String> keywords);
+}
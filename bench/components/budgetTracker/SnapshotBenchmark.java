@@ -0,0 +1,85 @@
+package components.budgetTracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for {@code MappedBudgetTracker}: the startup time of mapping
+ * a snapshot and answering the first report queries, to compare with
+ * rebuilding a {@code BudgetTracker1L} in {@code JournalBenchmark}.
+ *
+ * @author Chenyang Zong
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SnapshotBenchmark {
+
+    /**
+     * Number of records in the snapshot.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    private int size;
+
+    /**
+     * Snapshot of a ledger of {@code size} records.
+     */
+    private File snapshot;
+
+    /**
+     * Writes the snapshot of a generated ledger.
+     *
+     * @throws ReflectiveOperationException
+     *             if the ledger cannot be constructed
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        this.snapshot = File.createTempFile("budget-bench", ".bts");
+        MappedBudgetTracker.writeSnapshot(
+                Ledgers.create("BudgetTracker2", this.size),
+                this.snapshot.toPath());
+    }
+
+    /**
+     * Deletes the snapshot.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.snapshot.delete();
+    }
+
+    /**
+     * Benchmark of mapping the snapshot and finding the largest income and
+     * the balance, as at startup.
+     *
+     * @return the balance before the largest income
+     * @throws IOException
+     *             if the snapshot cannot be mapped
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public float open() throws IOException {
+        MappedBudgetTracker tracker = new MappedBudgetTracker(
+                this.snapshot.toPath());
+        return tracker.balanceAt(tracker.maxIncomeIndex()) + tracker.balance();
+    }
+}
@@ -1,8 +1,13 @@
-
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import components.budgetTracker.BudgetTracker;
 import components.budgetTracker.BudgetTrackerKernel.Transaction;
+import components.budgetTracker.Cents;
 
 /**
  * Report the transactions in the {@code BudgetTracker} which contain the given
@@ -16,6 +21,57 @@ public class BudgetFilterReport {
      */
     private BudgetTracker budgetTracker;
 
+    /**
+     * The transactions matching one keyword of a batch, and their total.
+     */
+    public static final class KeywordMatches {
+        /**
+         * The matching transactions, latest first.
+         */
+        private final List<Transaction> transactions;
+
+        /**
+         * The total amount of the matching transactions in cents.
+         */
+        private long cents;
+
+        /**
+         * No-argument constructor.
+         */
+        private KeywordMatches() {
+            this.transactions = new ArrayList<>();
+        }
+
+        /**
+         * Adds a matching transaction.
+         *
+         * @param transaction
+         *            the matching transaction
+         */
+        private void accept(Transaction transaction) {
+            this.transactions.add(transaction);
+            this.cents += Cents.of(transaction);
+        }
+
+        /**
+         * Returns the matching transactions, latest first.
+         *
+         * @return the matching transactions
+         */
+        public List<Transaction> transactions() {
+            return this.transactions;
+        }
+
+        /**
+         * Returns the total amount of the matching transactions.
+         *
+         * @return the total amount of the matching transactions
+         */
+        public float total() {
+            return Cents.toAmount(this.cents);
+        }
+    }
+
     /**
      * Constructs a {@code BudgetFilterReport} with the given
      * {@code BudgetTracker}.
@@ -27,6 +83,57 @@ public class BudgetFilterReport {
         this.budgetTracker = budgetTracker;
     }
 
+    /**
+     * Returns the transactions in the {@code BudgetTracker} which contain the
+     * given keyword in their description, latest first, without printing
+     * them.
+     *
+     * @param keyword
+     *            the keyword to search for in the transaction descriptions
+     * @requires this.budgetTracker != null
+     * @ensures transactionsWithKeyword = [the transactions with the given
+     *          keyword in their description, in index order]
+     * @return the transactions with the given keyword in their description
+     */
+    public List<Transaction> transactionsWithKeyword(String keyword) {
+        assert this.budgetTracker != null : "BudgetTracker is null";
+        assert keyword != null : "Keyword is null";
+
+        int count = this.budgetTracker.keywordCount(keyword);
+        List<Transaction> matches = new ArrayList<>(count);
+        if (count > 0) {
+            // Descriptions repeat, so test each distinct one only once
+            Map<String, Boolean> seen = new HashMap<>();
+            for (Transaction transaction : this.budgetTracker) {
+                if (seen.computeIfAbsent(transaction.description(),
+                        description -> description.contains(keyword))) {
+                    matches.add(transaction);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the total amount of the transactions in the
+     * {@code BudgetTracker} which contain the given keyword in their
+     * description, without printing them.
+     *
+     * @param keyword
+     *            the keyword to search for in the transaction descriptions
+     * @requires this.budgetTracker != null
+     * @ensures totalWithKeyword = [the total amount of the transactions with
+     *          the given keyword in their description]
+     * @return the total amount of the transactions with the given keyword in
+     *         their description
+     */
+    public float totalWithKeyword(String keyword) {
+        assert this.budgetTracker != null : "BudgetTracker is null";
+        assert keyword != null : "Keyword is null";
+
+        return this.budgetTracker.keywordTotal(keyword);
+    }
+
     /**
      * Reports the transactions in the {@code BudgetTracker} which contain the
      * given keyword in their description.
@@ -43,15 +150,49 @@ public class BudgetFilterReport {
         assert this.budgetTracker != null : "BudgetTracker is null";
         assert keyword != null : "Keyword is null";
 
-        float totalAmount = 0;
-        Iterator<Transaction> iterator = this.budgetTracker.iterator();
-        while (iterator.hasNext()) {
-            Transaction transaction = iterator.next();
-            if (transaction.description().contains(keyword)) {
-                totalAmount += transaction.amount();
-                System.out.println(transaction);
+        StringBuilder out = new StringBuilder();
+        for (Transaction transaction : this.transactionsWithKeyword(keyword)) {
+            out.append(transaction).append(System.lineSeparator());
+        }
+        System.out.print(out);
+        return this.totalWithKeyword(keyword);
+    }
+
+    /**
+     * Returns, for each of the given keywords, the transactions in the
+     * {@code BudgetTracker} which contain it in their description and their
+     * total, from a single pass over the transactions. The keywords are
+     * matched together by a {@code KeywordAutomaton}, so the cost grows with
+     * the length of the descriptions rather than with the number of keywords.
+     *
+     * @param keywords
+     *            the keywords to search for in the transaction descriptions
+     * @requires this.budgetTracker != null and [keywords contains no null]
+     * @ensures transactionsWithKeywords = [a map from each distinct keyword,
+     *          in the given order, to the transactions with that keyword in
+     *          their description and their total amount]
+     * @return the matches of each keyword
+     */
+    public Map<String, KeywordMatches> transactionsWithKeywords(
+            Collection<String> keywords) {
+        assert this.budgetTracker != null : "BudgetTracker is null";
+        assert keywords != null : "Keywords is null";
+
+        KeywordAutomaton automaton = new KeywordAutomaton(keywords);
+        KeywordMatches[] matches = new KeywordMatches[automaton.size()];
+        Map<String, KeywordMatches> result = new LinkedHashMap<>();
+        for (int id = 0; id < matches.length; id++) {
+            matches[id] = new KeywordMatches();
+            result.put(automaton.keyword(id), matches[id]);
+        }
+        // Descriptions repeat, so run the automaton on each distinct one once
+        Map<String, int[]> seen = new HashMap<>();
+        for (Transaction transaction : this.budgetTracker) {
+            for (int id : seen.computeIfAbsent(transaction.description(),
+                    automaton::matches)) {
+                matches[id].accept(transaction);
             }
         }
-        return totalAmount;
+        return result;
     }
 }
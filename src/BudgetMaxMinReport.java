@@ -1,7 +1,4 @@
-import java.util.Iterator;
-
 import components.budgetTracker.BudgetTracker;
-import components.budgetTracker.BudgetTrackerKernel.Transaction;
 
 /**
  * Report the transaction index of the maximum or minimum transaction amount in
@@ -39,19 +36,7 @@ public class BudgetMaxMinReport {
     public int getMaxIncomeIndex() {
         assert this.budgetTracker != null : "BudgetTracker is null";
         assert this.budgetTracker.length() > 0 : "BudgetTracker is empty";
-        float maxIncome = 0;
-        int index = -1;
-        int maxIndex = 0;
-        Iterator<Transaction> iterator = this.budgetTracker.iterator();
-        while (iterator.hasNext()) {
-            Transaction transaction = iterator.next();
-            index++;
-            if (transaction.amount() > maxIncome) {
-                maxIncome = transaction.amount();
-                maxIndex = index;
-            }
-        }
-        return maxIndex;
+        return this.budgetTracker.maxIncomeIndex();
     }
 
     /**
@@ -67,19 +52,7 @@ public class BudgetMaxMinReport {
     public int getMinIncomeIndex() {
         assert this.budgetTracker != null : "BudgetTracker is null";
         assert this.budgetTracker.length() > 0 : "BudgetTracker is empty";
-        float minIncome = Float.MAX_VALUE;
-        int index = -1;
-        int minIndex = 0;
-        Iterator<Transaction> iterator = this.budgetTracker.iterator();
-        while (iterator.hasNext()) {
-            Transaction transaction = iterator.next();
-            index++;
-            if (transaction.amount() < minIncome && transaction.amount() > 0) {
-                minIncome = transaction.amount();
-                minIndex = index;
-            }
-        }
-        return minIndex;
+        return this.budgetTracker.minIncomeIndex();
     }
 
     /**
@@ -95,19 +68,7 @@ public class BudgetMaxMinReport {
     public int getMaxExpenseIndex() {
         assert this.budgetTracker != null : "BudgetTracker is null";
         assert this.budgetTracker.length() > 0 : "BudgetTracker is empty";
-        float maxExpense = 0;
-        int index = -1;
-        int maxIndex = 0;
-        Iterator<Transaction> iterator = this.budgetTracker.iterator();
-        while (iterator.hasNext()) {
-            Transaction transaction = iterator.next();
-            index++;
-            if (transaction.amount() < maxExpense) {
-                maxExpense = transaction.amount();
-                maxIndex = index;
-            }
-        }
-        return maxIndex;
+        return this.budgetTracker.maxExpenseIndex();
     }
 
     /**
@@ -123,18 +84,6 @@ public class BudgetMaxMinReport {
     public int getMinExpenseIndex() {
         assert this.budgetTracker != null : "BudgetTracker is null";
         assert this.budgetTracker.length() > 0 : "BudgetTracker is empty";
-        float minExpense = Float.NEGATIVE_INFINITY;
-        int index = -1;
-        int minIndex = 0;
-        Iterator<Transaction> iterator = this.budgetTracker.iterator();
-        while (iterator.hasNext()) {
-            Transaction transaction = iterator.next();
-            index++;
-            if (transaction.amount() > minExpense && transaction.amount() < 0) {
-                minExpense = transaction.amount();
-                minIndex = index;
-            }
-        }
-        return minIndex;
+        return this.budgetTracker.minExpenseIndex();
     }
 }
@@ -0,0 +1,401 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import components.budgetTracker.BudgetTracker;
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Report every extreme that {@code BudgetMaxMinReport} reports, together with
+ * the count, sum, mean and variance of the income and of the expenses in the
+ * {@code BudgetTracker}, from a single pass over the records.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetSummaryReport {
+    /**
+     * Smallest number of records a parallel task splits further.
+     */
+    private static final int MIN_CHUNK = 1 << 14;
+
+    /**
+     * Number of chunks per worker thread the parallel summary aims for.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The {@code BudgetTracker} to be reported on.
+     */
+    private BudgetTracker budgetTracker;
+
+    /**
+     * Statistics of the magnitudes of one kind of record (income or expense).
+     * Indexes follow {@code BudgetMaxMinReport}: ties go to the smallest
+     * index, and an index is 0 if there is no record of this kind.
+     */
+    public static final class Statistics {
+        /**
+         * Number of records seen.
+         */
+        private long count;
+
+        /**
+         * Sum of the magnitudes.
+         */
+        private double sum;
+
+        /**
+         * Running mean of the magnitudes.
+         */
+        private double mean;
+
+        /**
+         * Running sum of squared deviations from the mean.
+         */
+        private double squares;
+
+        /**
+         * Largest magnitude seen.
+         */
+        private float max;
+
+        /**
+         * Index of the first record with the largest magnitude.
+         */
+        private int maxIndex;
+
+        /**
+         * Smallest magnitude seen.
+         */
+        private float min;
+
+        /**
+         * Index of the first record with the smallest magnitude.
+         */
+        private int minIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private Statistics() {
+            this.max = Float.NEGATIVE_INFINITY;
+            this.min = Float.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Adds a record to the statistics; records must be added in increasing
+         * index order.
+         *
+         * @param index
+         *            the index of the record
+         * @param magnitude
+         *            the magnitude of the record's amount
+         */
+        private void accept(int index, float magnitude) {
+            this.count++;
+            this.sum += magnitude;
+            double delta = magnitude - this.mean;
+            this.mean += delta / this.count;
+            this.squares += delta * (magnitude - this.mean);
+            if (magnitude > this.max) {
+                this.max = magnitude;
+                this.maxIndex = index;
+            }
+            if (magnitude < this.min) {
+                this.min = magnitude;
+                this.minIndex = index;
+            }
+        }
+
+        /**
+         * Merges in the statistics of records that all come after the records
+         * of this.
+         *
+         * @param later
+         *            the statistics of the later records
+         */
+        private void merge(Statistics later) {
+            if (later.count > 0) {
+                long total = this.count + later.count;
+                double delta = later.mean - this.mean;
+                this.squares += later.squares
+                        + delta * delta * this.count * later.count / total;
+                this.mean += delta * later.count / total;
+                this.count = total;
+                this.sum += later.sum;
+                if (later.max > this.max) {
+                    this.max = later.max;
+                    this.maxIndex = later.maxIndex;
+                }
+                if (later.min < this.min) {
+                    this.min = later.min;
+                    this.minIndex = later.minIndex;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of records.
+         *
+         * @return the number of records
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the total magnitude of the records.
+         *
+         * @return the sum of the magnitudes
+         */
+        public double sum() {
+            return this.sum;
+        }
+
+        /**
+         * Returns the mean magnitude of the records, or 0 if there are none.
+         *
+         * @return the mean of the magnitudes
+         */
+        public double mean() {
+            return this.mean;
+        }
+
+        /**
+         * Returns the population variance of the magnitudes, or 0 if there are
+         * no records.
+         *
+         * @return the variance of the magnitudes
+         */
+        public double variance() {
+            double variance = 0.0;
+            if (this.count > 0) {
+                variance = this.squares / this.count;
+            }
+            return variance;
+        }
+
+        /**
+         * Returns the index of the record with the largest magnitude.
+         *
+         * @return the index of the largest record, or 0 if there is none
+         */
+        public int maxIndex() {
+            return this.maxIndex;
+        }
+
+        /**
+         * Returns the index of the record with the smallest magnitude.
+         *
+         * @return the index of the smallest record, or 0 if there is none
+         */
+        public int minIndex() {
+            return this.minIndex;
+        }
+    }
+
+    /**
+     * The result of a summary: statistics of the income and of the expenses.
+     */
+    public static final class Summary {
+        /**
+         * Statistics of the records with a positive amount.
+         */
+        private final Statistics income;
+
+        /**
+         * Statistics of the magnitudes of the records with a negative amount.
+         */
+        private final Statistics expense;
+
+        /**
+         * No-argument constructor.
+         */
+        private Summary() {
+            this.income = new Statistics();
+            this.expense = new Statistics();
+        }
+
+        /**
+         * Adds a record to the summary; records must be added in increasing
+         * index order.
+         *
+         * @param index
+         *            the index of the record
+         * @param amount
+         *            the amount of the record
+         */
+        private void accept(int index, float amount) {
+            if (amount > 0) {
+                this.income.accept(index, amount);
+            } else if (amount < 0) {
+                this.expense.accept(index, -amount);
+            }
+        }
+
+        /**
+         * Merges in the summary of records that all come after the records of
+         * this.
+         *
+         * @param later
+         *            the summary of the later records
+         */
+        private void merge(Summary later) {
+            this.income.merge(later.income);
+            this.expense.merge(later.expense);
+        }
+
+        /**
+         * Returns the statistics of the income.
+         *
+         * @return the income statistics
+         */
+        public Statistics income() {
+            return this.income;
+        }
+
+        /**
+         * Returns the statistics of the expenses, as positive magnitudes; the
+         * largest expense is the most negative amount.
+         *
+         * @return the expense statistics
+         */
+        public Statistics expense() {
+            return this.expense;
+        }
+    }
+
+    /**
+     * Task that summarizes a range of records, splitting it in halves until
+     * it is small enough.
+     */
+    private static final class SummaryTask extends RecursiveTask<Summary> {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The tracker to read.
+         */
+        private final transient BudgetTracker tracker;
+
+        /**
+         * Index of the first record in the range.
+         */
+        private final int from;
+
+        /**
+         * Index just past the last record in the range.
+         */
+        private final int to;
+
+        /**
+         * Largest range summarized without splitting.
+         */
+        private final int chunk;
+
+        /**
+         * Constructor for the task over {@code [from, to)}.
+         *
+         * @param tracker
+         *            the tracker to read
+         * @param from
+         *            the index of the first record in the range
+         * @param to
+         *            the index just past the last record in the range
+         * @param chunk
+         *            the largest range summarized without splitting
+         */
+        private SummaryTask(BudgetTracker tracker, int from, int to,
+                int chunk) {
+            this.tracker = tracker;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Summary compute() {
+            Summary summary;
+            if (this.to - this.from <= this.chunk) {
+                summary = summarize(this.tracker, this.from, this.to);
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                SummaryTask later = new SummaryTask(this.tracker, middle,
+                        this.to, this.chunk);
+                later.fork();
+                summary = new SummaryTask(this.tracker, this.from, middle,
+                        this.chunk).compute();
+                summary.merge(later.join());
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Constructs a {@code BudgetSummaryReport} with the given
+     * {@code BudgetTracker}.
+     *
+     * @param budgetTracker
+     *            the {@code BudgetTracker} to be reported on
+     */
+    public BudgetSummaryReport(BudgetTracker budgetTracker) {
+        this.budgetTracker = budgetTracker;
+    }
+
+    /**
+     * Summarizes the records with indexes in {@code [from, to)}.
+     *
+     * @param tracker
+     *            the tracker to read
+     * @param from
+     *            the index of the first record
+     * @param to
+     *            the index just past the last record
+     * @return the summary of the records
+     */
+    private static Summary summarize(BudgetTracker tracker, int from,
+            int to) {
+        Summary summary = new Summary();
+        int index = from;
+        for (Transaction transaction : tracker.view(from, to - from)) {
+            summary.accept(index, transaction.amount());
+            index++;
+        }
+        return summary;
+    }
+
+    /**
+     * Returns the summary of all records in the {@code BudgetTracker}, from a
+     * single pass.
+     *
+     * @requires this.budgetTracker != null
+     * @ensures summarize = [the statistics of the income and expenses]
+     * @return the summary of the records
+     */
+    public Summary summarize() {
+        assert this.budgetTracker != null : "BudgetTracker is null";
+        return summarize(this.budgetTracker, 0, this.budgetTracker.length());
+    }
+
+    /**
+     * Returns the summary of all records in the {@code BudgetTracker},
+     * computed by splitting the records into chunks that are summarized in
+     * parallel and merged. Each chunk is read through
+     * {@code BudgetTracker.view}, so this pays off for implementations whose
+     * views start in sub-linear time. The tracker must not change meanwhile.
+     *
+     * @requires this.budgetTracker != null
+     * @ensures summarizeParallel = summarize()
+     * @return the summary of the records
+     */
+    public Summary summarizeParallel() {
+        assert this.budgetTracker != null : "BudgetTracker is null";
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int length = this.budgetTracker.length();
+        int chunk = Math.max(MIN_CHUNK,
+                length / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+        return pool.invoke(
+                new SummaryTask(this.budgetTracker, 0, length, chunk));
+    }
+}
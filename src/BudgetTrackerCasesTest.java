@@ -1,3 +1,6 @@
+import java.util.List;
+import java.util.Map;
+
 import components.budgetTracker.BudgetTracker;
 import components.budgetTracker.BudgetTracker1L;
 import components.budgetTracker.BudgetTrackerKernel.Transaction;
@@ -102,5 +105,27 @@ public final class BudgetTrackerCasesTest {
         float totalExpense = budgetFilterReport
                 .reportTransactionsWithKeyword("Expense");
         System.out.println("Total expense: " + totalExpense);
+
+        // Test case 3: BudgetSummaryReport
+        System.out.println("\nBudget Summary Report:");
+        BudgetSummaryReport budgetSummaryReport = new BudgetSummaryReport(
+                budgetTracker);
+        BudgetSummaryReport.Summary summary = budgetSummaryReport.summarize();
+        System.out.println("Max income index: " + summary.income().maxIndex());
+        System.out.println("Max expense index: "
+                + summary.expense().maxIndex());
+        System.out.println("Mean income: " + summary.income().mean());
+        System.out.println("Expense variance: " + summary.expense().variance());
+
+        // Test case 4: BudgetFilterReport with a batch of keywords
+        System.out.println("\nBudget Filter Report for a batch of keywords:");
+        List<String> keywords = List.of("Income", "Expense", "1");
+        Map<String, BudgetFilterReport.KeywordMatches> batch;
+        batch = budgetFilterReport.transactionsWithKeywords(keywords);
+        for (String keyword : batch.keySet()) {
+            BudgetFilterReport.KeywordMatches matches = batch.get(keyword);
+            System.out.println(keyword + ": " + matches.transactions().size()
+                    + " transactions, total " + matches.total());
+        }
     }
 }
@@ -0,0 +1,246 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton that finds which of a set of keywords occur in a
+ * text in a single pass over the text, however many keywords there are. The
+ * keywords are compiled into a complete transition table over the characters
+ * they use, so every character of the text costs one table lookup. Finding
+ * the matches of a text reuses scratch space stamped with a generation per
+ * call, so it costs nothing per keyword that does not occur; {@code matches}
+ * is synchronized, since the scratch space is shared.
+ *
+ * @author Chenyang Zong
+ */
+public final class KeywordAutomaton {
+    /**
+     * Character class of every character that no keyword uses.
+     */
+    private static final int OTHER = 0;
+
+    /**
+     * Number of distinct {@code char} values.
+     */
+    private static final int CHARS = Character.MAX_VALUE + 1;
+
+    /**
+     * The distinct keywords, indexed by id.
+     */
+    private final String[] keywords;
+
+    /**
+     * Character class of every {@code char}.
+     */
+    private final char[] classes;
+
+    /**
+     * Number of character classes, including {@code OTHER}.
+     */
+    private final int width;
+
+    /**
+     * Transition table: the state after reading a character of class
+     * {@code c} in state {@code s} is {@code next[s * width + c]}.
+     */
+    private final int[] next;
+
+    /**
+     * Ids of the keywords that end at each state, including those ending at
+     * a proper suffix of it.
+     */
+    private final int[][] outputs;
+
+    /**
+     * Generation of the call of {@code matches} that last found each keyword.
+     */
+    private final int[] stamps;
+
+    /**
+     * Ids of the keywords found so far by the current call of
+     * {@code matches}.
+     */
+    private final int[] found;
+
+    /**
+     * Generation of the current call of {@code matches}; never 0, which is
+     * the stamp of keywords never found.
+     */
+    private int generation;
+
+    /**
+     * Compiles the automaton for {@code keywords}; repeated keywords count
+     * once.
+     *
+     * @param keywords
+     *            the keywords to look for
+     * @requires [keywords contains no null]
+     */
+    public KeywordAutomaton(Collection<String> keywords) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            assert keyword != null : "Keyword is null";
+            distinct.add(keyword);
+        }
+        this.keywords = distinct.toArray(new String[0]);
+        this.stamps = new int[this.keywords.length];
+        this.found = new int[this.keywords.length];
+
+        // Number the characters the keywords use, leaving 0 for the rest
+        this.classes = new char[CHARS];
+        int classCount = 1;
+        for (String keyword : this.keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (this.classes[c] == OTHER) {
+                    this.classes[c] = (char) classCount;
+                    classCount++;
+                }
+            }
+        }
+        this.width = classCount;
+
+        // Build the trie, with 0 meaning "no edge" since the root is state 0
+        int capacity = 1;
+        for (String keyword : this.keywords) {
+            capacity += keyword.length();
+        }
+        int[] trie = new int[capacity * this.width];
+        Map<Integer, int[]> ends = new HashMap<>();
+        int states = 1;
+        for (int id = 0; id < this.keywords.length; id++) {
+            String keyword = this.keywords[id];
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int edge = state * this.width + this.classes[keyword.charAt(i)];
+                if (trie[edge] == 0) {
+                    trie[edge] = states;
+                    states++;
+                }
+                state = trie[edge];
+            }
+            ends.put(state, new int[] { id });
+        }
+
+        // Fill in failure transitions breadth first, so that every state's
+        // suffix state is complete before the state itself
+        this.next = Arrays.copyOf(trie, states * this.width);
+        this.outputs = new int[states][];
+        this.outputs[0] = ends.getOrDefault(0, new int[0]);
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < this.width; c++) {
+            int child = this.next[c];
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            this.outputs[state] = concat(ends.getOrDefault(state, new int[0]),
+                    this.outputs[fail[state]]);
+            for (int c = 0; c < this.width; c++) {
+                int edge = state * this.width + c;
+                int suffix = this.next[fail[state] * this.width + c];
+                if (trie[edge] != 0) {
+                    fail[trie[edge]] = suffix;
+                    queue.add(trie[edge]);
+                } else {
+                    this.next[edge] = suffix;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the concatenation of two arrays.
+     *
+     * @param first
+     *            the first array
+     * @param second
+     *            the second array
+     * @return {@code first} followed by {@code second}
+     */
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Records the keywords in {@code ids} as found by the current call of
+     * {@code matches}, unless they already are.
+     *
+     * @param ids
+     *            the ids of the keywords to record
+     * @param count
+     *            the number of keywords found so far
+     * @updates this.stamps, this.found
+     * @return the number of keywords found, including {@code ids}
+     */
+    private int mark(int[] ids, int count) {
+        int size = count;
+        for (int id : ids) {
+            if (this.stamps[id] != this.generation) {
+                this.stamps[id] = this.generation;
+                this.found[size] = id;
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct keywords.
+     *
+     * @return the number of keywords
+     */
+    public int size() {
+        return this.keywords.length;
+    }
+
+    /**
+     * Returns the keyword with the given id; ids follow the order in which
+     * the keywords were first given.
+     *
+     * @param id
+     *            the id of the keyword
+     * @requires 0 <= id < size()
+     * @return the keyword with id {@code id}
+     */
+    public String keyword(int id) {
+        return this.keywords[id];
+    }
+
+    /**
+     * Returns the ids of the keywords that occur in {@code text}, each once,
+     * in increasing order.
+     *
+     * @param text
+     *            the text to search
+     * @return the ids of the keywords contained in {@code text}
+     */
+    public synchronized int[] matches(String text) {
+        this.generation++;
+        if (this.generation == 0) {
+            // The stamps wrapped around, so forget every earlier call
+            Arrays.fill(this.stamps, 0);
+            this.generation = 1;
+        }
+        int state = 0;
+        int count = this.mark(this.outputs[state], 0);
+        for (int i = 0; i < text.length(); i++) {
+            state = this.next[state * this.width
+                    + this.classes[text.charAt(i)]];
+            count = this.mark(this.outputs[state], count);
+        }
+        int[] ids = Arrays.copyOf(this.found, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,441 @@
+package components.budgetTracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Session that collects indexed edits of a {@code BudgetTracker} and applies
+ * them all at once. Each edit takes its indexes as if every earlier edit of
+ * the session had already been applied, so {@link #commit()} leaves the
+ * tracker exactly as calling the same methods on it one by one would; but
+ * where each such call unwinds the tracker down to its index and back,
+ * {@code commit} unwinds it once, down to the deepest record any edit
+ * touches, and puts the new records back with one {@code addAll}.
+ *
+ * <p>
+ * The session keeps the edited order as a list of pieces, sorted by index:
+ * runs of records of the tracker that keep their relative order, and single
+ * new records. Each edit splits at most two pieces, so recording E edits
+ * takes time in E squared, and committing them takes time in E plus the
+ * depth of the deepest edit. Edits check their requires clauses as they are
+ * recorded, against the length the tracker would have by then, and nothing
+ * touches the tracker before {@code commit}: either every edit applies, or,
+ * after {@link #discard()}, none does.
+ * </p>
+ *
+ * <p>
+ * A tracker may still fail partway through {@code commit}, as a
+ * {@code JournaledBudgetTracker} does when it cannot write its journal. Then
+ * {@code commit} takes back out the records it had added, puts back the
+ * records it had taken out, and rethrows, keeping the session so that it can
+ * be committed again or discarded. If putting the records back fails as
+ * well, that failure is suppressed in the one rethrown, and the tracker is
+ * left partly edited.
+ * </p>
+ *
+ * <p>
+ * This pays off for kernels whose indexed edits cost time in the index, such
+ * as {@code BudgetTracker1L} and {@code BudgetTracker2}; the treap kernels
+ * already edit in logarithmic time. A wrapper such as
+ * {@code UndoableBudgetTracker} sees the commit as a run of {@code remove}
+ * calls followed by one {@code addAll}. Over a {@code DatedBudgetTracker} the
+ * records put back keep their timestamps, and a modified record keeps the
+ * timestamp of the one it replaces, as with {@code modifyIndex}; records
+ * added by the session are undated. A {@code DatedBudgetTracker} under
+ * another wrapper is not seen, and every record put back comes out undated.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.pieces is in index order, holds no empty run, and its records are
+ *  the edited tracker, latest first] and
+ * [$this.pieces draws each of the $this.base latest records of
+ *  $this.tracker at most once] and
+ * [$this.length is the total number of records of $this.pieces]
+ * </pre>
+ * @correspondence <pre>
+ * edited tracker = [$this.tracker with the records of $this.pieces in place
+ *  of its latest $this.base records]
+ * </pre>
+ */
+public final class BatchEdit {
+    /*
+     * Private members
+     */
+
+    /**
+     * A piece of the edited tracker: either the {@code count} records of the
+     * tracker from index {@code from}, or the one new record {@code record}.
+     *
+     * @param from
+     *            the index in the tracker of the first record of the run, or,
+     *            for a new record, of the record it replaces, or -1
+     * @param count
+     *            the number of records of the piece
+     * @param record
+     *            the new record, or null for a run
+     */
+    private record Piece(int from, int count, Transaction record) {
+    }
+
+    /**
+     * The tracker being edited.
+     */
+    private final BudgetTracker tracker;
+
+    /**
+     * Length of the tracker when the session started.
+     */
+    private int base;
+
+    /**
+     * Length of the edited tracker.
+     */
+    private int length;
+
+    /**
+     * Pieces of the edited tracker, in index order.
+     */
+    private List<Piece> pieces;
+
+    /**
+     * Starts an empty session over the current records of the tracker.
+     */
+    private void createNewRep() {
+        this.base = this.tracker.length();
+        this.length = this.base;
+        this.pieces = new ArrayList<>();
+        if (this.base > 0) {
+            this.pieces.add(new Piece(0, this.base, null));
+        }
+    }
+
+    /**
+     * Splits the pieces so that one starts at {@code index}, and returns its
+     * position in {@code pieces}.
+     *
+     * @param index
+     *            the index of the edited tracker to split at
+     * @return the position of the first piece at or after {@code index}
+     * @requires 0 <= index <= length
+     */
+    private int split(int index) {
+        int position = 0;
+        int start = 0;
+        while (position < this.pieces.size()
+                && start + this.pieces.get(position).count() <= index) {
+            start += this.pieces.get(position).count();
+            position++;
+        }
+        if (start < index) {
+            Piece run = this.pieces.get(position);
+            int offset = index - start;
+            this.pieces.set(position, new Piece(run.from(), offset, null));
+            position++;
+            this.pieces.add(position, new Piece(run.from() + offset,
+                    run.count() - offset, null));
+        }
+        return position;
+    }
+
+    /**
+     * Splits the pieces so that the record at {@code index} is a piece of its
+     * own, and returns its position in {@code pieces}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the position of the piece holding only that record
+     * @requires 0 <= index < length
+     */
+    private int isolate(int index) {
+        int position = this.split(index);
+        this.split(index + 1);
+        return position;
+    }
+
+    /**
+     * Returns the timestamps of the {@code count} latest records of the
+     * tracker, latest first, all {@code UNDATED} unless it is a
+     * {@code DatedBudgetTracker}.
+     *
+     * @param count
+     *            the number of latest records
+     * @return their timestamps
+     * @requires count <= |tracker|
+     */
+    private long[] stamps(int count) {
+        long[] stamps = new long[count];
+        Arrays.fill(stamps, DatedBudgetTracker.UNDATED);
+        if (this.tracker instanceof DatedBudgetTracker) {
+            DatedBudgetTracker dated = (DatedBudgetTracker) this.tracker;
+            for (int i = 0; i < count; i++) {
+                stamps[i] = dated.timestampAt(i);
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * Adds a batch of records to the tracker, with their timestamps if it is
+     * a {@code DatedBudgetTracker}.
+     *
+     * @param amounts
+     *            the amounts of the records, earliest first
+     * @param descriptions
+     *            the descriptions of the records, earliest first
+     * @param timestamps
+     *            the timestamps of the records, earliest first
+     * @param count
+     *            the number of records to add
+     */
+    private void addAll(float[] amounts, String[] descriptions,
+            long[] timestamps, int count) {
+        if (this.tracker instanceof DatedBudgetTracker) {
+            ((DatedBudgetTracker) this.tracker).addAll(amounts, descriptions,
+                    timestamps, count);
+        } else {
+            this.tracker.addAll(amounts, descriptions, count);
+        }
+    }
+
+    /**
+     * Undoes a commit that failed: takes out the records it added on top of
+     * the {@code removed} records it took out, and puts those back. A
+     * failure while doing so is added to {@code failure} as suppressed.
+     *
+     * @param taken
+     *            the records taken out, latest first
+     * @param stamps
+     *            the timestamps of the records taken out, latest first
+     * @param removed
+     *            the number of records taken out
+     * @param failure
+     *            the exception that stopped the commit
+     */
+    private void restore(Transaction[] taken, long[] stamps, int removed,
+            RuntimeException failure) {
+        try {
+            int added = this.tracker.length() - (this.base - removed);
+            for (int i = 0; i < added; i++) {
+                this.tracker.remove();
+            }
+            float[] amounts = new float[removed];
+            String[] descriptions = new String[removed];
+            long[] timestamps = new long[removed];
+            for (int i = 0; i < removed; i++) {
+                amounts[removed - 1 - i] = taken[i].amount();
+                descriptions[removed - 1 - i] = taken[i].description();
+                timestamps[removed - 1 - i] = stamps[i];
+            }
+            this.addAll(amounts, descriptions, timestamps, removed);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor for an empty session over {@code tracker}.
+     *
+     * @param tracker
+     *            the tracker to edit
+     */
+    public BatchEdit(BudgetTracker tracker) {
+        assert tracker != null : "Violation of: tracker is not null";
+        this.tracker = tracker;
+        this.createNewRep();
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Returns the length the tracker will have once the edits so far are
+     * committed.
+     *
+     * @return the length of the edited tracker
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns the number of pieces the edits so far have split the tracker
+     * into, a measure of the work {@code commit} has left to do.
+     *
+     * @return the number of pieces
+     */
+    public int pieces() {
+        return this.pieces.size();
+    }
+
+    /**
+     * Records adding a record at {@code index}, as in
+     * {@link BudgetTracker#addToIndex}.
+     *
+     * @param index
+     *            the index of the record after the edit
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @requires index <= length() and index >= 0
+     */
+    public void addToIndex(int index, float amount, String description) {
+        assert index <= this.length && index >= 0 : ""
+                + "Violation of: index <= length() and index >= 0";
+        this.pieces.add(this.split(index),
+                new Piece(-1, 1, new Transaction(amount, description)));
+        this.length++;
+    }
+
+    /**
+     * Records replacing the record at {@code index}, as in
+     * {@link BudgetTracker#modifyIndex}.
+     *
+     * @param index
+     *            the index of the record
+     * @param amount
+     *            the new amount
+     * @param description
+     *            the new description
+     * @requires index < length() and index >= 0
+     */
+    public void modifyIndex(int index, float amount, String description) {
+        assert index < this.length && index >= 0 : ""
+                + "Violation of: index < length() and index >= 0";
+        int position = this.isolate(index);
+        // The new record keeps the timestamp of the one it replaces
+        this.pieces.set(position, new Piece(this.pieces.get(position).from(),
+                1, new Transaction(amount, description)));
+    }
+
+    /**
+     * Records removing the record at {@code index}, as in
+     * {@link BudgetTracker#removeIndex}.
+     *
+     * @param index
+     *            the index of the record
+     * @requires index < length() and index >= 0
+     */
+    public void removeIndex(int index) {
+        assert index < this.length && index >= 0 : ""
+                + "Violation of: index < length() and index >= 0";
+        this.pieces.remove(this.isolate(index));
+        this.length--;
+    }
+
+    /**
+     * Records moving the record at {@code curIndex} to {@code index}, as in
+     * {@link BudgetTracker#changeIndex}.
+     *
+     * @param curIndex
+     *            the index of the record before the edit
+     * @param index
+     *            the index of the record after the edit
+     * @requires index < length() and index >= 0 and curIndex < length() and
+     *           curIndex >= 0
+     */
+    public void changeIndex(int curIndex, int index) {
+        assert index < this.length && index >= 0 : ""
+                + "Violation of: index < length() and index >= 0";
+        assert curIndex < this.length && curIndex >= 0 : ""
+                + "Violation of: curIndex < length() and curIndex >= 0";
+        if (curIndex != index) {
+            Piece moved = this.pieces.remove(this.isolate(curIndex));
+            this.length--;
+            this.pieces.add(this.split(index), moved);
+            this.length++;
+        }
+    }
+
+    /**
+     * Applies every edit recorded since the session started, or was last
+     * committed or discarded, and starts an empty session over the result.
+     *
+     * @updates [the tracker]
+     * @requires [the tracker has not changed since the session started, or
+     *           was last committed or discarded]
+     * @ensures [the tracker is as if the edits had been applied to it one by
+     *          one, in the order they were recorded]; if the tracker throws,
+     *          [the tracker is as it was, unless putting it back threw too,
+     *          and the session keeps its edits]
+     */
+    public void commit() {
+        assert this.tracker.length() == this.base : ""
+                + "Violation of: [the tracker has not changed]";
+        /*
+         * Records from the start of an untouched last run stay where they are;
+         * every record above them is taken out once and put back in order
+         */
+        int keep = this.base;
+        int last = this.pieces.size() - 1;
+        if (last >= 0 && this.pieces.get(last).record() == null
+                && this.pieces.get(last).from()
+                        + this.pieces.get(last).count() == this.base) {
+            keep = this.pieces.get(last).from();
+        } else {
+            last++;
+        }
+        // A record moved out of the last run must be taken out too
+        for (int p = 0; p < last; p++) {
+            Piece piece = this.pieces.get(p);
+            if (piece.record() == null) {
+                keep = Math.max(keep, piece.from() + piece.count());
+            }
+        }
+        Transaction[] taken = new Transaction[keep];
+        long[] stamps = this.stamps(keep);
+        int removed = 0;
+        try {
+            while (removed < keep) {
+                taken[removed] = this.tracker.remove();
+                removed++;
+            }
+            int count = this.length - (this.base - keep);
+            float[] amounts = new float[count];
+            String[] descriptions = new String[count];
+            long[] timestamps = new long[count];
+            int i = count - 1;
+            for (int p = 0; p < this.pieces.size() && i >= 0; p++) {
+                Piece piece = this.pieces.get(p);
+                if (piece.record() != null) {
+                    amounts[i] = piece.record().amount();
+                    descriptions[i] = piece.record().description();
+                    timestamps[i] = DatedBudgetTracker.UNDATED;
+                    if (piece.from() >= 0) {
+                        timestamps[i] = stamps[piece.from()];
+                    }
+                    i--;
+                } else {
+                    int end = Math.min(piece.from() + piece.count(), keep);
+                    for (int from = piece.from(); from < end; from++) {
+                        amounts[i] = taken[from].amount();
+                        descriptions[i] = taken[from].description();
+                        timestamps[i] = stamps[from];
+                        i--;
+                    }
+                }
+            }
+            this.addAll(amounts, descriptions, timestamps, count);
+        } catch (RuntimeException e) {
+            this.restore(taken, stamps, removed, e);
+            throw e;
+        }
+        this.createNewRep();
+    }
+
+    /**
+     * Drops every edit recorded since the session started, or was last
+     * committed or discarded, leaving the tracker as it is.
+     */
+    public void discard() {
+        this.createNewRep();
+    }
+}
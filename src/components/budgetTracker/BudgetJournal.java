@@ -0,0 +1,714 @@
+package components.budgetTracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of the mutations of a {@code BudgetTracker}.
+ *
+ * <p>
+ * A journal starts with a magic number and a format version, followed by
+ * frames. Every frame is the length of its payload, the CRC-32 of the payload,
+ * and the payload itself: an operation code and its arguments, with amounts as
+ * IEEE floats and strings as a byte count followed by their UTF-8 bytes. The
+ * first frame is always a reset that holds the account name and opening
+ * balance, the balance in exact {@code long} cents. A payload may take at
+ * most 16 MiB; a larger one is refused when it is written, since the loader
+ * would take it for a torn frame.
+ * </p>
+ *
+ * <p>
+ * Frames are collected in a buffer and reach the disk in groups: the journal
+ * is forced to the device once every {@code groupSize} frames, or when
+ * {@code commit} or {@code close} is called, so a batch of mutations shares
+ * one {@code fsync}. A crash loses at most the frames since the last commit,
+ * and a frame torn by the crash fails its checksum and is dropped on load.
+ * </p>
+ *
+ * <p>
+ * A journal made by {@code unbound} has no file: it checks and encodes its
+ * frames like any other, then drops them.
+ * </p>
+ */
+final class BudgetJournal implements Closeable {
+
+    /**
+     * Magic number at the start of every journal ("BTJ1").
+     */
+    private static final int MAGIC = 0x42544A31;
+
+    /**
+     * Version of the frame format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Size in bytes of the file header.
+     */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Size in bytes of the length and checksum in front of every payload.
+     */
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Largest payload the writer accepts and the loader trusts; anything
+     * larger is a torn length.
+     */
+    private static final int MAX_PAYLOAD = 1 << 24;
+
+    /**
+     * Size in bytes of the write buffer.
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Size in bytes of the read buffer of the loader.
+     */
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * Number of descriptions the loader keeps decoded, a power of two.
+     */
+    private static final int STRING_CACHE_SIZE = 1 << 12;
+
+    /**
+     * Multiplier of the hash of a cached description's bytes.
+     */
+    private static final int STRING_HASH = 31;
+
+    /**
+     * Shift that folds the high bits of a hash into its cache slot.
+     */
+    private static final int STRING_HASH_SHIFT = 16;
+
+    /**
+     * Operation: replace the tracker with an empty one.
+     */
+    private static final byte RESET = 0;
+
+    /**
+     * Operation: {@code add}.
+     */
+    private static final byte ADD = 1;
+
+    /**
+     * Operation: {@code remove}.
+     */
+    private static final byte REMOVE = 2;
+
+    /**
+     * Operation: {@code setAccountName}.
+     */
+    private static final byte SET_NAME = 3;
+
+    /**
+     * Operation: {@code addToIndex}.
+     */
+    private static final byte ADD_AT = 4;
+
+    /**
+     * Operation: {@code modifyIndex}.
+     */
+    private static final byte MODIFY = 5;
+
+    /**
+     * Operation: {@code removeIndex}.
+     */
+    private static final byte REMOVE_AT = 6;
+
+    /**
+     * Operation: {@code changeIndex}.
+     */
+    private static final byte MOVE = 7;
+
+    /**
+     * The file the journal is appended to, or null if it is unbound.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Frames not yet written to {@code channel}.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Checksum of the payloads.
+     */
+    private final CRC32 crc;
+
+    /**
+     * Number of frames appended since the last commit.
+     */
+    private int pending;
+
+    /**
+     * Number of frames that share one {@code fsync}.
+     */
+    private final int groupSize;
+
+    /**
+     * Constructor over an open channel positioned at the end of the journal.
+     *
+     * @param channel
+     *            the file to append to, or null
+     * @param groupSize
+     *            the number of frames that share one {@code fsync}
+     */
+    private BudgetJournal(FileChannel channel, int groupSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.crc = new CRC32();
+        this.pending = 0;
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Creates a journal at {@code path}, replacing any file there, and writes
+     * its header.
+     *
+     * @param path
+     *            the file of the journal
+     * @param groupSize
+     *            the number of frames that share one {@code fsync}
+     * @return the new journal
+     * @throws IOException
+     *             if the file cannot be created
+     * @requires groupSize > 0
+     */
+    static BudgetJournal create(Path path, int groupSize) throws IOException {
+        assert groupSize > 0 : "Violation of: groupSize > 0";
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        BudgetJournal journal = new BudgetJournal(channel, groupSize);
+        journal.buffer.putInt(MAGIC).putInt(VERSION);
+        return journal;
+    }
+
+    /**
+     * Returns a journal without a file, which drops every frame.
+     *
+     * @return the unbound journal
+     */
+    static BudgetJournal unbound() {
+        return new BudgetJournal(null, 1);
+    }
+
+    /**
+     * Opens the journal at {@code path} for appending after its first
+     * {@code validBytes} bytes, cutting off anything after them.
+     *
+     * @param path
+     *            the file of the journal
+     * @param validBytes
+     *            the length of the intact part of the journal
+     * @param groupSize
+     *            the number of frames that share one {@code fsync}
+     * @return the journal
+     * @throws IOException
+     *             if the file cannot be opened
+     * @requires groupSize > 0
+     */
+    static BudgetJournal append(Path path, long validBytes, int groupSize)
+            throws IOException {
+        assert groupSize > 0 : "Violation of: groupSize > 0";
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE);
+        channel.truncate(validBytes);
+        channel.position(validBytes);
+        return new BudgetJournal(channel, groupSize);
+    }
+
+    /**
+     * Result of loading a journal: the rebuilt tracker and the length of the
+     * intact part of the file.
+     *
+     * @param tracker
+     *            the tracker rebuilt from the journal
+     * @param validBytes
+     *            the number of bytes up to the end of the last intact frame
+     */
+    record Loaded(BudgetTracker tracker, long validBytes) {
+    }
+
+    /**
+     * Rebuilds a tracker by replaying the journal at {@code path} with one
+     * sequential buffered read, stopping at the first frame that is cut short
+     * or fails its checksum.
+     *
+     * @param path
+     *            the file of the journal
+     * @param factory
+     *            makes an empty tracker from an account name and an opening
+     *            balance
+     * @return the rebuilt tracker and the length of the intact journal
+     * @throws IOException
+     *             if the file cannot be read or is not a journal
+     */
+    static Loaded load(Path path,
+            BiFunction<String, Float, BudgetTracker> factory)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            in.flip();
+            if (!fill(channel, in, HEADER_BYTES) || in.getInt() != MAGIC
+                    || in.getInt() != VERSION) {
+                throw new IOException("Not a budget journal: " + path);
+            }
+            Replay replay = new Replay(factory);
+            long valid = HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            boolean intact = fill(channel, in, FRAME_HEADER_BYTES);
+            while (intact) {
+                int length = in.getInt();
+                int checksum = in.getInt();
+                intact = length > 0 && length <= MAX_PAYLOAD;
+                if (intact && length > in.capacity()) {
+                    in = ByteBuffer.allocate(length).put(in).flip();
+                }
+                intact = intact && fill(channel, in, length);
+                if (intact) {
+                    int payload = in.position();
+                    crc.reset();
+                    crc.update(in.array(), payload, length);
+                    intact = (int) crc.getValue() == checksum;
+                    if (intact) {
+                        replay.apply(in);
+                        in.position(payload + length);
+                        valid += FRAME_HEADER_BYTES + length;
+                        intact = fill(channel, in, FRAME_HEADER_BYTES);
+                    }
+                }
+            }
+            if (replay.tracker == null) {
+                throw new IOException("Budget journal has no reset: " + path);
+            }
+            return new Loaded(replay.tracker, valid);
+        }
+    }
+
+    /**
+     * Reads from {@code channel} into {@code in} until at least
+     * {@code needed} bytes are left to read in it, or the file ends.
+     *
+     * @param channel
+     *            the file being read
+     * @param in
+     *            the read buffer, ready for reading
+     * @param needed
+     *            the number of bytes wanted
+     * @return whether {@code needed} bytes are left to read in {@code in}
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires needed <= in.capacity()
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer in,
+            int needed) throws IOException {
+        if (in.remaining() < needed) {
+            in.compact();
+            int read = 0;
+            while (in.position() < needed && read >= 0) {
+                read = channel.read(in);
+            }
+            in.flip();
+        }
+        return in.remaining() >= needed;
+    }
+
+    /**
+     * State of a replay: the tracker being rebuilt and a cache of recent
+     * descriptions, so that repeated descriptions are decoded once and share
+     * one {@code String}.
+     */
+    private static final class Replay {
+
+        /**
+         * Makes an empty tracker from an account name and opening balance.
+         */
+        private final BiFunction<String, Float, BudgetTracker> factory;
+
+        /**
+         * UTF-8 bytes of the cached descriptions, by hash slot.
+         */
+        private final byte[][] cachedBytes;
+
+        /**
+         * The cached descriptions, by hash slot.
+         */
+        private final String[] cachedStrings;
+
+        /**
+         * The tracker being rebuilt, or null before the first reset.
+         */
+        private BudgetTracker tracker;
+
+        /**
+         * Constructor.
+         *
+         * @param factory
+         *            makes an empty tracker from an account name and an
+         *            opening balance
+         */
+        private Replay(BiFunction<String, Float, BudgetTracker> factory) {
+            this.factory = factory;
+            this.cachedBytes = new byte[STRING_CACHE_SIZE][];
+            this.cachedStrings = new String[STRING_CACHE_SIZE];
+        }
+
+        /**
+         * Reads a length-prefixed UTF-8 string.
+         *
+         * @param in
+         *            the payload, positioned at the string
+         * @return the string, shared with earlier equal strings
+         */
+        private String string(ByteBuffer in) {
+            int length = in.getInt();
+            byte[] array = in.array();
+            int from = in.arrayOffset() + in.position();
+            int to = from + length;
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = STRING_HASH * hash + array[i];
+            }
+            int slot = (hash ^ (hash >>> STRING_HASH_SHIFT))
+                    & (STRING_CACHE_SIZE - 1);
+            byte[] cached = this.cachedBytes[slot];
+            if (cached == null || !Arrays.equals(cached, 0, cached.length,
+                    array, from, to)) {
+                this.cachedBytes[slot] = Arrays.copyOfRange(array, from, to);
+                this.cachedStrings[slot] = new String(array, from, length,
+                        StandardCharsets.UTF_8);
+            }
+            in.position(in.position() + length);
+            return this.cachedStrings[slot];
+        }
+
+        /**
+         * Applies the operation in {@code in} to the tracker.
+         *
+         * @param in
+         *            the payload of one frame
+         * @throws IOException
+         *             if the frame does not hold a known operation that fits
+         *             the tracker
+         */
+        private void apply(ByteBuffer in) throws IOException {
+            byte op = in.get();
+            if (this.tracker == null && op != RESET) {
+                throw new IOException("Budget journal does not start with a "
+                        + "reset");
+            }
+            switch (op) {
+                case RESET:
+                    long opening = in.getLong();
+                    this.tracker = this.factory.apply(this.string(in),
+                            Cents.toAmount(opening));
+                    break;
+                case ADD:
+                    float amount = in.getFloat();
+                    this.tracker.add(amount, this.string(in));
+                    break;
+                case REMOVE:
+                    this.tracker.remove();
+                    break;
+                case SET_NAME:
+                    this.tracker.setAccountName(this.string(in));
+                    break;
+                case ADD_AT:
+                    int index = in.getInt();
+                    float added = in.getFloat();
+                    this.tracker.addToIndex(index, added, this.string(in));
+                    break;
+                case MODIFY:
+                    int modified = in.getInt();
+                    float replaced = in.getFloat();
+                    this.tracker.modifyIndex(modified, replaced,
+                            this.string(in));
+                    break;
+                case REMOVE_AT:
+                    this.tracker.removeIndex(in.getInt());
+                    break;
+                case MOVE:
+                    int from = in.getInt();
+                    this.tracker.changeIndex(from, in.getInt());
+                    break;
+                default:
+                    throw new IOException("Unknown budget journal operation "
+                            + op);
+            }
+        }
+    }
+
+    /**
+     * Starts a frame for operation {@code op} whose arguments take
+     * {@code argumentBytes} bytes, making room for it in the buffer.
+     *
+     * @param op
+     *            the operation
+     * @param argumentBytes
+     *            the size of the arguments in bytes
+     * @return the position of the frame in the buffer
+     * @throws IOException
+     *             if the buffer cannot be written out, or the payload is
+     *             larger than the loader accepts
+     */
+    private int begin(byte op, int argumentBytes) throws IOException {
+        if (argumentBytes > MAX_PAYLOAD - 1) {
+            throw new IOException("Budget journal frame of " + argumentBytes
+                    + " bytes is too large");
+        }
+        int needed = FRAME_HEADER_BYTES + 1 + argumentBytes;
+        if (needed > this.buffer.remaining()) {
+            this.drain();
+            if (needed > this.buffer.capacity()) {
+                this.buffer = ByteBuffer.allocate(needed);
+            }
+        }
+        int start = this.buffer.position();
+        this.buffer.position(start + FRAME_HEADER_BYTES);
+        this.buffer.put(op);
+        return start;
+    }
+
+    /**
+     * Fills in the length and checksum of the frame at {@code start} and
+     * commits the group if it is full.
+     *
+     * @param start
+     *            the position of the frame in the buffer
+     * @throws IOException
+     *             if the group cannot be committed
+     */
+    private void end(int start) throws IOException {
+        int payload = start + FRAME_HEADER_BYTES;
+        int length = this.buffer.position() - payload;
+        this.crc.reset();
+        this.crc.update(this.buffer.array(), payload, length);
+        this.buffer.putInt(start, length);
+        this.buffer.putInt(start + Integer.BYTES, (int) this.crc.getValue());
+        this.pending++;
+        if (this.pending >= this.groupSize) {
+            this.commit();
+        }
+    }
+
+    /**
+     * Writes the buffered frames to the file, without forcing them to the
+     * device.
+     *
+     * @throws IOException
+     *             if the frames cannot be written
+     */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        while (this.channel != null && this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Appends a frame for {@code op} with a float and a string argument,
+     * preceded by {@code ints} int arguments.
+     *
+     * @param op
+     *            the operation
+     * @param ints
+     *            the leading int arguments
+     * @param amount
+     *            the float argument
+     * @param text
+     *            the string argument
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    private void appendWithText(byte op, int[] ints, float amount,
+            String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int start = this.begin(op, Integer.BYTES * ints.length + Float.BYTES
+                + Integer.BYTES + bytes.length);
+        for (int value : ints) {
+            this.buffer.putInt(value);
+        }
+        this.buffer.putFloat(amount).putInt(bytes.length).put(bytes);
+        this.end(start);
+    }
+
+    /**
+     * Appends a frame for {@code op} with int arguments only.
+     *
+     * @param op
+     *            the operation
+     * @param ints
+     *            the int arguments
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    private void appendInts(byte op, int... ints) throws IOException {
+        int start = this.begin(op, Integer.BYTES * ints.length);
+        for (int value : ints) {
+            this.buffer.putInt(value);
+        }
+        this.end(start);
+    }
+
+    /**
+     * Appends a reset to an empty tracker.
+     *
+     * @param accountName
+     *            the account name of the empty tracker
+     * @param opening
+     *            the opening balance of the empty tracker, in cents
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void reset(String accountName, long opening) throws IOException {
+        byte[] bytes = accountName.getBytes(StandardCharsets.UTF_8);
+        int start = this.begin(RESET,
+                Long.BYTES + Integer.BYTES + bytes.length);
+        this.buffer.putLong(opening).putInt(bytes.length).put(bytes);
+        this.end(start);
+    }
+
+    /**
+     * Appends an {@code add}.
+     *
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void add(float amount, String description) throws IOException {
+        this.appendWithText(ADD, new int[0], amount, description);
+    }
+
+    /**
+     * Appends a {@code remove}.
+     *
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void remove() throws IOException {
+        this.appendInts(REMOVE);
+    }
+
+    /**
+     * Appends a {@code setAccountName}.
+     *
+     * @param name
+     *            the new account name
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void setAccountName(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int start = this.begin(SET_NAME, Integer.BYTES + bytes.length);
+        this.buffer.putInt(bytes.length).put(bytes);
+        this.end(start);
+    }
+
+    /**
+     * Appends an {@code addToIndex}.
+     *
+     * @param index
+     *            the index of the new record
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void addToIndex(int index, float amount, String description)
+            throws IOException {
+        this.appendWithText(ADD_AT, new int[] { index }, amount, description);
+    }
+
+    /**
+     * Appends a {@code modifyIndex}.
+     *
+     * @param index
+     *            the index of the record
+     * @param amount
+     *            the new amount of the record
+     * @param description
+     *            the new description of the record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void modifyIndex(int index, float amount, String description)
+            throws IOException {
+        this.appendWithText(MODIFY, new int[] { index }, amount, description);
+    }
+
+    /**
+     * Appends a {@code removeIndex}.
+     *
+     * @param index
+     *            the index of the record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void removeIndex(int index) throws IOException {
+        this.appendInts(REMOVE_AT, index);
+    }
+
+    /**
+     * Appends a {@code changeIndex}.
+     *
+     * @param curIndex
+     *            the current index of the record
+     * @param index
+     *            the new index of the record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    void changeIndex(int curIndex, int index) throws IOException {
+        this.appendInts(MOVE, curIndex, index);
+    }
+
+    /**
+     * Writes every appended frame to the file and forces it to the device.
+     *
+     * @throws IOException
+     *             if the frames cannot be written
+     */
+    void commit() throws IOException {
+        this.drain();
+        if (this.channel != null) {
+            this.channel.force(false);
+        }
+        this.pending = 0;
+    }
+
+    /**
+     * Commits the appended frames and closes the file.
+     *
+     * @throws IOException
+     *             if the frames cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.commit();
+        } finally {
+            if (this.channel != null) {
+                this.channel.close();
+            }
+        }
+    }
+}
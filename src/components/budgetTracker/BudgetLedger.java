@@ -0,0 +1,435 @@
+package components.budgetTracker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Collection of many {@code BudgetTracker}s, one per account, keyed by account
+ * name, with reports across every account. The trackers are spread over
+ * shards by the hash of their account name; each shard is a hash map with its
+ * own lock, so threads working on different accounts rarely wait for each
+ * other. Reports run on a {@code ForkJoinPool}, one task per run of shards,
+ * so they spread over every worker thread.
+ *
+ * <p>
+ * Reports read the trackers while other threads may use the ledger, but not
+ * while other threads change the trackers themselves; a tracker that is
+ * changed concurrently should be thread-safe, such as a
+ * {@code ConcurrentBudgetTracker}. A tracker must not be renamed while it is
+ * in the ledger.
+ * </p>
+ *
+ * @author Chenyang Zong
+ */
+public final class BudgetLedger {
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of shards per worker thread of the default pool.
+     */
+    private static final int SHARDS_PER_THREAD = 8;
+
+    /**
+     * The record of an account that a report picked out.
+     *
+     * @param accountName
+     *            the name of the account
+     * @param index
+     *            the index of the record in the tracker of the account
+     * @param transaction
+     *            the record
+     */
+    public record AccountRecord(String accountName, int index,
+            Transaction transaction) {
+    }
+
+    /**
+     * Shards of trackers, keyed by account name; each is guarded by itself.
+     */
+    private final Map<String, BudgetTracker>[] shards;
+
+    /**
+     * Pool the reports run on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Returns the shard that holds the account named {@code accountName}.
+     *
+     * @param accountName
+     *            the name of the account
+     * @return the shard of the account
+     */
+    private Map<String, BudgetTracker> shard(String accountName) {
+        int hash = accountName.hashCode();
+        // Spread the high bits, as HashMap does
+        hash ^= hash >>> (Integer.SIZE / 2);
+        return this.shards[hash & (this.shards.length - 1)];
+    }
+
+    /**
+     * Task that reduces a run of shards, splitting it in halves down to single
+     * shards.
+     *
+     * @param <R>
+     *            type of the result
+     */
+    private static final class ReportTask<R> extends RecursiveTask<R> {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The shards of the ledger.
+         */
+        private final transient Map<String, BudgetTracker>[] shards;
+
+        /**
+         * Index of the first shard of the run.
+         */
+        private final int from;
+
+        /**
+         * Index just past the last shard of the run.
+         */
+        private final int to;
+
+        /**
+         * Reduces one shard, called while holding its lock.
+         */
+        private final transient Function<Map<String, BudgetTracker>, R> map;
+
+        /**
+         * Combines the results of two runs.
+         */
+        private final transient BinaryOperator<R> combine;
+
+        /**
+         * Constructor for the task over shards {@code [from, to)}.
+         *
+         * @param shards
+         *            the shards of the ledger
+         * @param from
+         *            the index of the first shard of the run
+         * @param to
+         *            the index just past the last shard of the run
+         * @param map
+         *            reduces one shard
+         * @param combine
+         *            combines the results of two runs
+         */
+        private ReportTask(Map<String, BudgetTracker>[] shards, int from,
+                int to, Function<Map<String, BudgetTracker>, R> map,
+                BinaryOperator<R> combine) {
+            this.shards = shards;
+            this.from = from;
+            this.to = to;
+            this.map = map;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            R result;
+            if (this.to - this.from == 1) {
+                synchronized (this.shards[this.from]) {
+                    result = this.map.apply(this.shards[this.from]);
+                }
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                ReportTask<R> later = new ReportTask<>(this.shards, middle,
+                        this.to, this.map, this.combine);
+                later.fork();
+                result = new ReportTask<>(this.shards, this.from, middle,
+                        this.map, this.combine).compute();
+                result = this.combine.apply(result, later.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the result of reducing every shard with {@code map} and
+     * combining the results with {@code combine}, in parallel.
+     *
+     * @param <R>
+     *            type of the result
+     * @param map
+     *            reduces one shard
+     * @param combine
+     *            combines the results of two runs of shards
+     * @return the combined result
+     */
+    private <R> R report(Function<Map<String, BudgetTracker>, R> map,
+            BinaryOperator<R> combine) {
+        return this.pool.invoke(new ReportTask<>(this.shards, 0,
+                this.shards.length, map, combine));
+    }
+
+    /**
+     * Returns the better of two picked records: the one of larger
+     * {@code sign * amount}, or of the smaller account name on a tie.
+     *
+     * @param a
+     *            a picked record, possibly null
+     * @param b
+     *            a picked record, possibly null
+     * @param sign
+     *            1 to prefer larger amounts, -1 to prefer smaller ones
+     * @return the better record, or null if both are null
+     */
+    private static AccountRecord better(AccountRecord a, AccountRecord b,
+            int sign) {
+        AccountRecord result = a;
+        if (a == null) {
+            result = b;
+        } else if (b != null) {
+            int order = sign * Float.compare(b.transaction().amount(),
+                    a.transaction().amount());
+            if (order > 0 || (order == 0
+                    && b.accountName().compareTo(a.accountName()) < 0)) {
+                result = b;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the extreme record of one shard, taking each tracker's
+     * extreme from {@code extreme}.
+     *
+     * @param shard
+     *            the shard
+     * @param extreme
+     *            returns the index of the extreme of a tracker
+     * @param sign
+     *            1 for income, -1 for expenses
+     * @return the extreme record of the shard, or null if there is none
+     */
+    private static AccountRecord extreme(Map<String, BudgetTracker> shard,
+            ToIntFunction<BudgetTracker> extreme, int sign) {
+        AccountRecord best = null;
+        for (Map.Entry<String, BudgetTracker> entry : shard.entrySet()) {
+            BudgetTracker tracker = entry.getValue();
+            if (tracker.length() > 0) {
+                int index = extreme.applyAsInt(tracker);
+                Transaction record = tracker.view(index, 1).iterator().next();
+                if (sign * record.amount() > 0) {
+                    best = better(best, new AccountRecord(entry.getKey(),
+                            index, record), sign);
+                }
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor, with reports on the common pool.
+     */
+    public BudgetLedger() {
+        this(Integer.highestOneBit(ForkJoinPool.getCommonPoolParallelism()
+                * SHARDS_PER_THREAD * 2 - 1), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with the number of shards and the pool reports run on.
+     *
+     * @param shards
+     *            the number of shards
+     * @param pool
+     *            the pool the reports run on
+     * @requires shards > 0 and [shards is a power of two]
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public BudgetLedger(int shards, ForkJoinPool pool) {
+        assert shards > 0 && Integer.bitCount(shards) == 1 : ""
+                + "Violation of: shards > 0 and [shards is a power of two]";
+        assert pool != null : "Violation of: pool is not null";
+        this.shards = new Map[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new HashMap<>();
+        }
+        this.pool = pool;
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Adds {@code tracker} under its account name, replacing the tracker
+     * of the same account, if any.
+     *
+     * @param tracker
+     *            the tracker to add
+     * @return the tracker it replaced, or null if there was none
+     * @requires tracker is not null
+     */
+    public BudgetTracker put(BudgetTracker tracker) {
+        assert tracker != null : "Violation of: tracker is not null";
+        String accountName = tracker.getAccountName();
+        Map<String, BudgetTracker> shard = this.shard(accountName);
+        synchronized (shard) {
+            return shard.put(accountName, tracker);
+        }
+    }
+
+    /**
+     * Returns the tracker of the account named {@code accountName}.
+     *
+     * @param accountName
+     *            the name of the account
+     * @return the tracker of the account, or null if there is none
+     */
+    public BudgetTracker get(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        Map<String, BudgetTracker> shard = this.shard(accountName);
+        synchronized (shard) {
+            return shard.get(accountName);
+        }
+    }
+
+    /**
+     * Removes the tracker of the account named {@code accountName}.
+     *
+     * @param accountName
+     *            the name of the account
+     * @return the removed tracker, or null if there was none
+     */
+    public BudgetTracker remove(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        Map<String, BudgetTracker> shard = this.shard(accountName);
+        synchronized (shard) {
+            return shard.remove(accountName);
+        }
+    }
+
+    /**
+     * Returns the number of accounts in the ledger.
+     *
+     * @return the number of accounts
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, BudgetTracker> shard : this.shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total balance of every account, in exact cents.
+     *
+     * @return the total balance in cents
+     */
+    public long totalBalanceCents() {
+        return this.report(shard -> {
+            long cents = 0L;
+            for (BudgetTracker tracker : shard.values()) {
+                cents += tracker.balanceCents();
+            }
+            return cents;
+        }, Long::sum);
+    }
+
+    /**
+     * Returns the total balance of every account.
+     *
+     * @return the total balance
+     */
+    public float totalBalance() {
+        return Cents.toAmount(this.totalBalanceCents());
+    }
+
+    /**
+     * Returns the largest income of any account; ties go to the smallest
+     * account name, and within an account to the smallest index.
+     *
+     * @return the largest income, or null if no account has income
+     */
+    public AccountRecord maxIncome() {
+        return this.report(
+                shard -> extreme(shard, BudgetTracker::maxIncomeIndex, 1),
+                (a, b) -> better(a, b, 1));
+    }
+
+    /**
+     * Returns the largest expense, the most negative amount, of any account;
+     * ties go to the smallest account name, and within an account to the
+     * smallest index.
+     *
+     * @return the largest expense, or null if no account has expenses
+     */
+    public AccountRecord maxExpense() {
+        return this.report(
+                shard -> extreme(shard, BudgetTracker::maxExpenseIndex, -1),
+                (a, b) -> better(a, b, -1));
+    }
+
+    /**
+     * Returns the number of records of every account whose description
+     * contains {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to look for
+     * @return the number of matching records
+     */
+    public long keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.report(shard -> {
+            long count = 0L;
+            for (BudgetTracker tracker : shard.values()) {
+                count += tracker.keywordCount(keyword);
+            }
+            return count;
+        }, Long::sum);
+    }
+
+    /**
+     * Returns the total amount of the records of every account whose
+     * description contains {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to look for
+     * @return the total amount of the matching records
+     */
+    public float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    /**
+     * Returns the total amount, in exact cents, of the records of every
+     * account whose description contains {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to look for
+     * @return the total amount of the matching records in cents
+     */
+    public long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.report(shard -> {
+            long cents = 0L;
+            for (BudgetTracker tracker : shard.values()) {
+                cents += tracker.keywordTotalCents(keyword);
+            }
+            return cents;
+        }, Long::sum);
+    }
+}
@@ -1,5 +1,9 @@
 package components.budgetTracker;
 
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
 import components.simplewriter.SimpleWriter;
 
 /**
@@ -87,4 +91,219 @@ public interface BudgetTracker extends BudgetTrackerKernel {
      * </pre>
      */
     void changeIndex(int curIndex, int index);
+
+    /**
+     * Reports the total amount of the records from {@code from} (inclusive) to
+     * {@code to} (exclusive), rounded according to {@code ROUNDING}.
+     *
+     * @param from
+     *            the index of the first record in the range
+     * @param to
+     *            the index just past the last record in the range
+     * @return the total amount of the records in the range
+     * @requires 0 <= from <= to <= |this|
+     * @ensures <pre> rangeSum = [sum of the amounts in middle] where
+     * this = front * middle * back and |back| = from and
+     * |middle| = to - from </pre>
+     */
+    float rangeSum(int from, int to);
+
+    /**
+     * Reports the balance as of the record at {@code index}, that is, the
+     * current balance without the records added after it, rounded according
+     * to {@code ROUNDING}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the balance right after the record at {@code index}
+     * @requires 0 <= index <= |this|
+     * @ensures balanceAt = balance - rangeSum(0, index)
+     */
+    float balanceAt(int index);
+
+    /**
+     * Reports the index of the largest income, that is, of the record with
+     * the largest positive amount; ties go to the smallest index.
+     *
+     * @return the index of the largest income, or 0 if there is none
+     * @ensures <pre> if [some record in this has a positive amount] then
+     * [the record at maxIncomeIndex has the largest positive amount, and no
+     *  smaller index holds that amount] else maxIncomeIndex = 0 </pre>
+     */
+    int maxIncomeIndex();
+
+    /**
+     * Reports the index of the smallest income, that is, of the record with
+     * the smallest positive amount; ties go to the smallest index.
+     *
+     * @return the index of the smallest income, or 0 if there is none
+     * @ensures <pre> if [some record in this has a positive amount] then
+     * [the record at minIncomeIndex has the smallest positive amount, and no
+     *  smaller index holds that amount] else minIncomeIndex = 0 </pre>
+     */
+    int minIncomeIndex();
+
+    /**
+     * Reports the index of the largest expense, that is, of the record with
+     * the most negative amount; ties go to the smallest index.
+     *
+     * @return the index of the largest expense, or 0 if there is none
+     * @ensures <pre> if [some record in this has a negative amount] then
+     * [the record at maxExpenseIndex has the most negative amount, and no
+     *  smaller index holds that amount] else maxExpenseIndex = 0 </pre>
+     */
+    int maxExpenseIndex();
+
+    /**
+     * Reports the index of the smallest expense, that is, of the record with
+     * the negative amount closest to zero; ties go to the smallest index.
+     *
+     * @return the index of the smallest expense, or 0 if there is none
+     * @ensures <pre> if [some record in this has a negative amount] then
+     * [the record at minExpenseIndex has the negative amount closest to zero,
+     *  and no smaller index holds that amount] else minExpenseIndex = 0 </pre>
+     */
+    int minExpenseIndex();
+
+    /**
+     * Reports the number of records whose description contains
+     * {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to search for in the descriptions
+     * @return the number of records whose description contains
+     *         {@code keyword}
+     * @requires keyword is not null
+     * @ensures keywordCount = |[records in this whose description contains
+     *          keyword]|
+     */
+    int keywordCount(String keyword);
+
+    /**
+     * Reports the total amount of the records whose description contains
+     * {@code keyword}, added up in cents.
+     *
+     * @param keyword
+     *            the keyword to search for in the descriptions
+     * @return the total amount of the records whose description contains
+     *         {@code keyword}
+     * @requires keyword is not null
+     * @ensures keywordTotal = [sum of the amounts of the records in this whose
+     *          description contains keyword]
+     */
+    float keywordTotal(String keyword);
+
+    /**
+     * Reports the balance in exact cents, which {@code balance} rounds to a
+     * float.
+     *
+     * @return the balance in cents
+     * @ensures balanceCents = this.balance * ROUNDING
+     */
+    long balanceCents();
+
+    /**
+     * Reports the total amount, in exact cents, of the records whose
+     * description contains {@code keyword}, which {@code keywordTotal} rounds
+     * to a float.
+     *
+     * @param keyword
+     *            the keyword to search for in the descriptions
+     * @return the total amount in cents of the records whose description
+     *         contains {@code keyword}
+     * @requires keyword is not null
+     * @ensures keywordTotalCents = [sum of the amounts of the records in this
+     *          whose description contains keyword] * ROUNDING
+     */
+    long keywordTotalCents(String keyword);
+
+    /**
+     * Adds {@code count} records in one batch, as if by calling {@code add}
+     * with each of them in turn, so the last one becomes the latest record.
+     * Implementations make room for the whole batch at once.
+     *
+     * @param amounts
+     *            the amounts of money of the records
+     * @param descriptions
+     *            the descriptions of the records
+     * @param count
+     *            the number of records to add
+     * @updates this
+     * @requires <pre> 0 <= count <= |amounts| and count <= |descriptions| and
+     * [descriptions[0, count) are not null] </pre>
+     * @ensures <pre> this = #this * <(amounts[0], descriptions[0]), ...,
+     * (amounts[count - 1], descriptions[count - 1])> </pre>
+     */
+    void addAll(float[] amounts, String[] descriptions, int count);
+
+    /**
+     * Moves every record of {@code source} onto the end of {@code this}, as
+     * the latest records, keeping their order. The balance of {@code this}
+     * grows by the total of the moved records, added up in cents; the opening
+     * balance of {@code source} is not a record and is not moved.
+     * Implementations of the same kind splice their representations when they
+     * can.
+     *
+     * @param source
+     *            the tracker whose records are moved
+     * @updates this
+     * @clears source
+     * @requires source is not this
+     * @ensures this = #this * #source
+     */
+    void append(BudgetTracker source);
+
+    /**
+     * Moves every record of {@code source} into {@code this}, interleaving
+     * the two ledgers so that the result is ordered by {@code order}, from
+     * the earliest to the latest record. Records that {@code order} ranks
+     * equal keep their order, and those of {@code this} come first. Only the
+     * records of {@code this} later than the earliest record of
+     * {@code source} are taken out and put back. The balance changes as for
+     * {@code append}.
+     *
+     * @param source
+     *            the tracker whose records are moved
+     * @param order
+     *            the order of the records, earliest first
+     * @updates this
+     * @clears source
+     * @requires <pre> source is not this and
+     * [#this and #source are each ordered by order, earliest first] </pre>
+     * @ensures <pre> [this is ordered by order, earliest first] and
+     * [this is a permutation of #this * #source that keeps the order of the
+     *  records of #this and of the records of #source] </pre>
+     */
+    void mergeOrdered(BudgetTracker source, Comparator<Transaction> order);
+
+    /**
+     * Returns a spliterator over the records, latest first, that knows its
+     * exact size. Representations with indexed access split it into halves
+     * of equal size; others may split off batches of growing size instead.
+     * It must not be used after the tracker is changed.
+     *
+     * @return a spliterator over the records of this
+     * @ensures <pre> [spliterator reports SIZED, SUBSIZED and ORDERED, and
+     * covers the records of this, latest first] </pre>
+     */
+    @Override
+    Spliterator<Transaction> spliterator();
+
+    /**
+     * Returns a sequential stream of the records, latest first. It must not
+     * be used after the tracker is changed.
+     *
+     * @return a stream of the records of this
+     * @ensures stream = [the records of this, latest first]
+     */
+    Stream<Transaction> stream();
+
+    /**
+     * Returns a parallel stream of the records, latest first, split with
+     * {@code spliterator}. It must not be used after the tracker is changed.
+     *
+     * @return a parallel stream of the records of this
+     * @ensures parallelStream = [the records of this, latest first]
+     */
+    Stream<Transaction> parallelStream();
 }
@@ -1,6 +1,10 @@
 package components.budgetTracker;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 import components.stack.Stack;
 import components.stack.Stack2;
@@ -9,9 +13,26 @@ import components.stack.Stack2;
  * {@code budgetTracker} represented as a {@link components.stack.Stack2
  * components.stack.Stack2} with implementations of primary methods.
  *
+ * <p>
+ * The running totals behind {@code rangeSum} and {@code balanceAt}, the
+ * running extremes behind the extreme queries, and the keyword index, are
+ * each built in linear time by the first query that needs them, and from then
+ * on kept up to date in constant time per record; a tracker that is never
+ * asked such a query does not pay for them. Building is synchronized, so
+ * queries may run side by side while no mutator runs.
+ * </p>
+ *
  * @convention <pre>
  * [$this.rep is not null]
  * [$this.accountName is not null]
+ * [$this.balance is the opening balance plus the total amount of $this.rep,
+ *  in cents]
+ * [$this.prefix is null or $this.prefix[p] is the total amount in cents of
+ *  the p records at the bottom of $this.rep, for 0 <= p <= |$this.rep|]
+ * [$this.extremes is null or holds the amounts of $this.rep, from the
+ *  bottom]
+ * [$this.keywords is null or holds the postings of the records of
+ *  $this.rep]
  * </pre>
  * @correspondence <pre>
  * this = [value of $this.rep based on Stack]
@@ -22,6 +43,11 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
      * Private members
      */
 
+    /**
+     * Number of running totals allocated for an empty tracker.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
     /**
      * The stack that represents the budget tracker.
      */
@@ -33,9 +59,28 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
     private String accountName;
 
     /**
-     * The balance of the budget tracker.
+     * The balance of the budget tracker in cents.
      */
-    private float balance;
+    private long balance;
+
+    /**
+     * Running totals in cents of the records, from the bottom of the stack,
+     * or null until the first range query; since records only come and go at
+     * the top, they are kept up to date in constant time.
+     */
+    private long[] prefix;
+
+    /**
+     * Running extremes of the records, from the bottom of the stack, or null
+     * until the first extreme query.
+     */
+    private ExtremeStack extremes;
+
+    /**
+     * Keyword index over the descriptions of the records, or null until the
+     * first keyword query.
+     */
+    private KeywordIndex keywords;
 
     /**
      * Creator of initial representation.
@@ -43,7 +88,134 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
     private void createNewRep() {
         this.rep = new Stack2<>();
         this.accountName = "Default Account";
-        this.balance = 0.0f;
+        this.balance = 0L;
+        this.prefix = null;
+        this.extremes = null;
+        this.keywords = null;
+    }
+
+    /**
+     * Extends the balance, and the running totals, extremes and keyword
+     * postings that have been built, with a record pushed on top of the
+     * stack.
+     *
+     * @param record
+     *            the pushed record
+     */
+    private void pushRunning(Transaction record) {
+        long cents = Cents.of(record);
+        this.balance += cents;
+        if (this.prefix != null) {
+            int n = this.rep.length();
+            if (n == this.prefix.length) {
+                this.prefix = Arrays.copyOf(this.prefix, 2 * n);
+            }
+            this.prefix[n] = this.prefix[n - 1] + cents;
+        }
+        if (this.extremes != null) {
+            this.extremes.push(record.amount());
+        }
+        if (this.keywords != null) {
+            this.keywords.adjust(record.description(), 1, cents);
+        }
+    }
+
+    /**
+     * Returns the records, from the bottom of the stack.
+     *
+     * @return the records, earliest first
+     */
+    private Transaction[] fromBottom() {
+        Transaction[] records = new Transaction[this.rep.length()];
+        int i = records.length - 1;
+        for (Transaction t : this.rep) {
+            records[i] = t;
+            i--;
+        }
+        return records;
+    }
+
+    /**
+     * Returns the running totals, building them from the records if this
+     * tracker has not needed them before.
+     *
+     * @return the running totals in cents, from the bottom of the stack
+     */
+    private synchronized long[] prefix() {
+        if (this.prefix == null) {
+            Transaction[] records = this.fromBottom();
+            long[] totals = new long[Math.max(INITIAL_CAPACITY,
+                    records.length + 1)];
+            for (int p = 0; p < records.length; p++) {
+                totals[p + 1] = totals[p] + Cents.of(records[p]);
+            }
+            this.prefix = totals;
+        }
+        return this.prefix;
+    }
+
+    /**
+     * Returns the keyword index, building it from the records if this
+     * tracker has not needed it before.
+     *
+     * @return the keyword index over the records
+     */
+    private synchronized KeywordIndex keywords() {
+        if (this.keywords == null) {
+            KeywordIndex index = new KeywordIndex();
+            for (Transaction t : this.rep) {
+                index.adjust(t.description(), 1, Cents.of(t));
+            }
+            this.keywords = index;
+        }
+        return this.keywords;
+    }
+
+    /**
+     * Returns the running extremes, building them from the records if this
+     * tracker has not needed them before.
+     *
+     * @return the running extremes, from the bottom of the stack
+     */
+    private synchronized ExtremeStack extremes() {
+        if (this.extremes == null) {
+            Transaction[] records = this.fromBottom();
+            ExtremeStack stack = new ExtremeStack();
+            stack.reserve(records.length);
+            for (Transaction t : records) {
+                stack.push(t.amount());
+            }
+            this.extremes = stack;
+        }
+        return this.extremes;
+    }
+
+    /**
+     * Converts a stack position, counted from the bottom, into an index.
+     *
+     * @param position
+     *            the position of a record, or -1 if there is none
+     * @return the index of the record, or 0 if there is none
+     */
+    private int indexOf(int position) {
+        int index = 0;
+        if (position >= 0) {
+            index = this.rep.length() - 1 - position;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the total amount in cents of the {@code count} latest records.
+     *
+     * @param count
+     *            the number of latest records to add up
+     * @return the total amount of the latest {@code count} records in cents
+     */
+    private long latestCents(int count) {
+        long[] totals = this.prefix();
+        int n = this.rep.length();
+        return totals[n] - totals[n - count];
     }
 
     /*
@@ -81,7 +253,7 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
         assert accountName != null : "Violation of: accountName is not null";
         this.createNewRep();
         this.accountName = accountName;
-        this.balance = balance;
+        this.balance = Cents.of(balance);
     }
 
     /*
@@ -113,6 +285,9 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
         this.rep = localSource.rep;
         this.accountName = localSource.accountName;
         this.balance = localSource.balance;
+        this.prefix = localSource.prefix;
+        this.extremes = localSource.extremes;
+        this.keywords = localSource.keywords;
         localSource.createNewRep();
     }
 
@@ -129,7 +304,13 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
     public final Transaction remove() {
         assert this.length() > 0 : "Violation of: |this| > 0";
         Transaction t = this.rep.pop();
-        this.balance -= t.amount();
+        this.balance -= Cents.of(t);
+        if (this.extremes != null) {
+            this.extremes.truncate(this.rep.length());
+        }
+        if (this.keywords != null) {
+            this.keywords.adjust(t.description(), -1, -Cents.of(t));
+        }
         return t;
     }
 
@@ -137,18 +318,18 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
     public final void add(float amount, String description) {
         Transaction t = new Transaction(amount, description);
         this.rep.push(t);
-        this.balance += amount;
+        this.pushRunning(t);
     }
 
     @Override
     public final void add(Transaction record) {
         this.rep.push(record);
-        this.balance += record.amount();
+        this.pushRunning(record);
     }
 
     @Override
     public final float balance() {
-        return Math.round(this.balance * ROUNDING) / ROUNDING;
+        return Cents.toAmount(this.balance);
     }
 
     @Override
@@ -162,8 +343,178 @@ public class BudgetTracker1L extends BudgetTrackerSecondary {
         return this.accountName;
     }
 
+    @Override
+    public final Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> new BudgetTracker1LView(fromIndex, count);
+    }
+
     @Override
     public final Iterator<Transaction> iterator() {
         return this.rep.iterator();
     }
+
+    @Override
+    public final Spliterator<Transaction> spliterator() {
+        // A view of the stack starts in linear time, so split off batches
+        // copied from one walk of the stack instead of ranges of indexes;
+        // the batches grow, so the splits are not halves of equal size
+        return Spliterators.spliterator(this.rep.iterator(), this.length(),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for views of
+     * {@code BudgetTracker1L}, walking part of the stack from the top down.
+     */
+    private final class BudgetTracker1LView implements Iterator<Transaction> {
+
+        /**
+         * Iterator over the whole stack, positioned at the next record.
+         */
+        private final Iterator<Transaction> records;
+
+        /**
+         * The number of records still to be returned.
+         */
+        private int remaining;
+
+        /**
+         * Constructor for a view of {@code count} records from
+         * {@code fromIndex}.
+         *
+         * @param fromIndex
+         *            the index of the first record in the view
+         * @param count
+         *            the number of records in the view
+         */
+        private BudgetTracker1LView(int fromIndex, int count) {
+            this.records = BudgetTracker1L.this.rep.iterator();
+            for (int i = 0; i < fromIndex; i++) {
+                this.records.next();
+            }
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.remaining--;
+            return this.records.next();
+        }
+    }
+
+    /*
+     * Secondary methods overridden with the running totals, extremes and
+     * keyword postings
+     */
+
+    @Override
+    public final float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(this.latestCents(to) - this.latestCents(from));
+    }
+
+    @Override
+    public final float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.balance - this.latestCents(index));
+    }
+
+    @Override
+    public final int maxIncomeIndex() {
+        return this.indexOf(this.extremes().maxIncome());
+    }
+
+    @Override
+    public final int minIncomeIndex() {
+        return this.indexOf(this.extremes().minIncome());
+    }
+
+    @Override
+    public final int maxExpenseIndex() {
+        return this.indexOf(this.extremes().maxExpense());
+    }
+
+    @Override
+    public final int minExpenseIndex() {
+        return this.indexOf(this.extremes().minExpense());
+    }
+
+    @Override
+    public final int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().count(keyword);
+    }
+
+    @Override
+    public final float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public final long balanceCents() {
+        return this.balance;
+    }
+
+    @Override
+    public final long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().total(keyword);
+    }
+
+    /*
+     * Bulk add, growing the running totals and extremes once per batch and
+     * adding to the balance once
+     */
+
+    @Override
+    public final void addAll(float[] amounts, String[] descriptions,
+            int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        int n = this.rep.length();
+        if (this.prefix != null && n + count >= this.prefix.length) {
+            this.prefix = Arrays.copyOf(this.prefix,
+                    Math.max(2 * this.prefix.length, n + count + 1));
+        }
+        if (this.extremes != null) {
+            this.extremes.reserve(n + count);
+        }
+        long[] running = this.prefix;
+        ExtremeStack localExtremes = this.extremes;
+        KeywordIndex localKeywords = this.keywords;
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            Transaction t = new Transaction(amounts[i], descriptions[i]);
+            long cents = Cents.of(t);
+            this.rep.push(t);
+            if (running != null) {
+                running[n + i + 1] = running[n + i] + cents;
+            }
+            if (localExtremes != null) {
+                localExtremes.push(t.amount());
+            }
+            if (localKeywords != null) {
+                localKeywords.adjust(t.description(), 1, cents);
+            }
+            total += cents;
+        }
+        this.balance += total;
+    }
 }
@@ -0,0 +1,646 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@code BudgetTracker} represented as growable parallel arrays (columns) of
+ * amounts in cents and dictionary-encoded descriptions, oldest first, with
+ * implementations of primary methods and random-access overrides of the
+ * secondary methods. {@code Transaction} objects are only built when a record
+ * is handed out. Amounts are kept in fixed point, so the balance is exact and
+ * never drifts; {@code float} amounts are rounded to the nearest cent when they
+ * are added (see {@link Cents}).
+ *
+ * <p>
+ * The prefix sums and running extremes behind the report queries are kept
+ * lazily: an edit cuts them back to the oldest position it touches, and the
+ * next query catches up from there. The running extremes are only built by
+ * the first extreme query. So a query after records are added at the end
+ * costs constant time per new record, but the first query after an edit near
+ * the oldest record takes time linear in the length of the tracker.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.amounts, $this.codes, $this.dictionary are not null] and
+ * |$this.amounts| = |$this.codes| and
+ * 0 <= $this.length <= |$this.amounts| and
+ * [$this.codes[0, $this.length) are codes of $this.dictionary] and
+ * [$this.keywords indexes $this.dictionary and holds the postings of
+ *  the records in $this.amounts[0, $this.length)] and
+ * [$this.extremes is null or holds a prefix of $this.amounts] and
+ * [$this.accountName is not null]
+ * </pre>
+ * @correspondence <pre>
+ * this = <(amounts[0] / ROUNDING, dictionary.decode(codes[0])), ...,
+ *         (amounts[length - 1] / ROUNDING,
+ *          dictionary.decode(codes[length - 1]))>
+ * </pre>
+ */
+public class BudgetTracker2 extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * Capacity of the columns created for an empty tracker.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The amounts of the records in cents, oldest first; the record at index
+     * {@code i} of the tracker is at position {@code length - 1 - i}.
+     */
+    private long[] amounts;
+
+    /**
+     * The dictionary codes of the descriptions, parallel to {@code amounts}.
+     */
+    private int[] codes;
+
+    /**
+     * The dictionary of distinct descriptions.
+     */
+    private DescriptionDictionary dictionary;
+
+    /**
+     * Keyword index over {@code dictionary}.
+     */
+    private KeywordIndex keywords;
+
+    /**
+     * Prefix sums over {@code amounts}, for range queries.
+     */
+    private FenwickIndex sums;
+
+    /**
+     * Running extremes over a prefix of {@code amounts}, or null until the
+     * first extreme query; edits only cut it back, and it is extended again
+     * when an extreme is asked for.
+     */
+    private ExtremeStack extremes;
+
+    /**
+     * The number of records in use at the front of the columns.
+     */
+    private int length;
+
+    /**
+     * The name of the account associated with this budget tracker.
+     */
+    private String accountName;
+
+    /**
+     * The balance of the budget tracker in cents.
+     */
+    private long balance;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.amounts = new long[INITIAL_CAPACITY];
+        this.codes = new int[INITIAL_CAPACITY];
+        this.dictionary = new DescriptionDictionary();
+        this.keywords = new KeywordIndex(this.dictionary);
+        this.sums = new FenwickIndex();
+        this.extremes = null;
+        this.length = 0;
+        this.accountName = "Default Account";
+        this.balance = 0L;
+    }
+
+    /**
+     * Returns the array position of the record at the given tracker index.
+     *
+     * @param index
+     *            the index of the record, counted from the latest record
+     * @return the position of the record in the columns
+     */
+    private int position(int index) {
+        return this.length - 1 - index;
+    }
+
+    /**
+     * Builds the record stored at the given position.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     * @return the record at {@code pos}
+     */
+    private Transaction recordAt(int pos) {
+        return new Transaction(Cents.toAmount(this.amounts[pos]),
+                this.dictionary.decode(this.codes[pos]));
+    }
+
+    /**
+     * Stores a record at the given position.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     * @param amount
+     *            the amount of money of the record in cents
+     * @param description
+     *            the description of the record
+     */
+    private void store(int pos, long amount, String description) {
+        this.amounts[pos] = amount;
+        this.codes[pos] = this.dictionary.encode(description);
+        this.keywords.adjust(this.codes[pos], 1, amount);
+    }
+
+    /**
+     * Takes the record at the given position out of the keyword postings,
+     * before it is overwritten or dropped.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     */
+    private void discard(int pos) {
+        this.keywords.adjust(this.codes[pos], -1, -this.amounts[pos]);
+    }
+
+    /**
+     * Drops the descriptions no record carries from the dictionary, once
+     * there are more of them than records, and renumbers the codes column.
+     * The work is linear in the length of the tracker and the size of the
+     * dictionary, and is paid for by the edits that left those descriptions
+     * unused, so a tracker whose descriptions churn keeps a dictionary in
+     * proportion to its length.
+     */
+    private void reclaim() {
+        if (this.keywords.unused() > this.length + INITIAL_CAPACITY) {
+            int[] renumbered = this.keywords.compact();
+            for (int pos = 0; pos < this.length; pos++) {
+                this.codes[pos] = renumbered[this.codes[pos]];
+            }
+        }
+    }
+
+    /**
+     * Moves {@code count} records from position {@code from} to position
+     * {@code to} in every column.
+     *
+     * @param from
+     *            the first position to move
+     * @param to
+     *            the position the first record moves to
+     * @param count
+     *            the number of records to move
+     */
+    private void move(int from, int to, int count) {
+        System.arraycopy(this.amounts, from, this.amounts, to, count);
+        System.arraycopy(this.codes, from, this.codes, to, count);
+    }
+
+    /**
+     * Returns the total amount in cents of the {@code count} latest records.
+     *
+     * @param count
+     *            the number of latest records to add up
+     * @return the total amount of the latest {@code count} records in cents
+     */
+    private long latestCents(int count) {
+        int n = this.length;
+        return this.sums.prefix(this.amounts, n, n)
+                - this.sums.prefix(this.amounts, n, n - count);
+    }
+
+    /**
+     * Cuts the running extremes, if they have been built, back to the first
+     * {@code size} positions.
+     *
+     * @param size
+     *            the number of positions that did not change
+     */
+    private void truncateExtremes(int size) {
+        if (this.extremes != null) {
+            this.extremes.truncate(size);
+        }
+    }
+
+    /**
+     * Returns the running extremes, building them on the first call and
+     * bringing them up to date with the columns. Catching up takes time in
+     * the number of positions past the earliest one edited since the last
+     * call; it is synchronized, since queries may run side by side.
+     *
+     * @return the running extremes, up to date
+     */
+    private synchronized ExtremeStack extremes() {
+        if (this.extremes == null) {
+            this.extremes = new ExtremeStack();
+        }
+        for (int pos = this.extremes.size(); pos < this.length; pos++) {
+            this.extremes.push(Cents.toAmount(this.amounts[pos]));
+        }
+        return this.extremes;
+    }
+
+    /**
+     * Converts the position of one of the running extremes into an index.
+     *
+     * @param kind
+     *            which extreme to report: 0 for the largest income, 1 for the
+     *            smallest income, 2 for the largest expense, and 3 for the
+     *            smallest expense
+     * @return the index of the extreme, or 0 if there is none
+     */
+    private int extremeIndex(int kind) {
+        ExtremeStack stack = this.extremes();
+        int position;
+        switch (kind) {
+            case 0:
+                position = stack.maxIncome();
+                break;
+            case 1:
+                position = stack.minIncome();
+                break;
+            case 2:
+                position = stack.maxExpense();
+                break;
+            default:
+                position = stack.minExpense();
+                break;
+        }
+        int index = 0;
+        if (position >= 0) {
+            index = this.position(position);
+        }
+        return index;
+    }
+
+    /**
+     * Makes room for at least {@code count} more records, at least doubling
+     * the columns if they are too short.
+     *
+     * @param count
+     *            the number of records about to be added
+     */
+    private void ensureRoomFor(int count) {
+        if (this.length + count > this.amounts.length) {
+            int capacity = Math.max(2 * this.amounts.length,
+                    this.length + count);
+            this.amounts = Arrays.copyOf(this.amounts, capacity);
+            this.codes = Arrays.copyOf(this.codes, capacity);
+        }
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public BudgetTracker2() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor with account name.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     */
+    public BudgetTracker2(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+    }
+
+    /**
+     * Constructor with account name and balance.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     * @param balance
+     *            the initial balance of the budget tracker
+     */
+    public BudgetTracker2(String accountName, float balance) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+        this.balance = Cents.of(balance);
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public final BudgetTracker newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BudgetTracker2 : "Violation of: "
+                + "source is of dynamic type BudgetTracker2";
+        BudgetTracker2 localSource = (BudgetTracker2) source;
+        this.amounts = localSource.amounts;
+        this.codes = localSource.codes;
+        this.dictionary = localSource.dictionary;
+        this.keywords = localSource.keywords;
+        this.sums = localSource.sums;
+        this.extremes = localSource.extremes;
+        this.length = localSource.length;
+        this.accountName = localSource.accountName;
+        this.balance = localSource.balance;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final int length() {
+        return this.length;
+    }
+
+    @Override
+    public final Transaction remove() {
+        assert this.length() > 0 : "Violation of: |this| > 0";
+        this.length--;
+        this.balance -= this.amounts[this.length];
+        this.sums.invalidateFrom(this.length);
+        this.truncateExtremes(this.length);
+        this.discard(this.length);
+        Transaction record = this.recordAt(this.length);
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final void add(float amount, String description) {
+        this.addCents(Cents.of(amount), description);
+    }
+
+    @Override
+    public final void add(Transaction record) {
+        this.add(record.amount(), record.description());
+    }
+
+    @Override
+    public final float balance() {
+        return Cents.toAmount(this.balance);
+    }
+
+    @Override
+    public final void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.accountName = name;
+    }
+
+    @Override
+    public final String getAccountName() {
+        return this.accountName;
+    }
+
+    /**
+     * Add a record whose amount is given in cents to the tracker.
+     *
+     * @param amount
+     *            the amount of money of the record in cents
+     * @param description
+     *            the description of the record
+     * @updates this
+     * @ensures this = #this * <(amount / ROUNDING, description)>
+     */
+    public final void addCents(long amount, String description) {
+        this.ensureRoomFor(1);
+        this.store(this.length, amount, description);
+        this.length++;
+        this.balance += amount;
+    }
+
+
+    @Override
+    public final Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> new BudgetTracker2Iterator(fromIndex, count);
+    }
+
+    @Override
+    public final Iterator<Transaction> iterator() {
+        return new BudgetTracker2Iterator(0, this.length);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code BudgetTracker2},
+     * walking a run of records from the latest to the earliest.
+     */
+    private final class BudgetTracker2Iterator
+            implements Iterator<Transaction> {
+
+        /**
+         * Position of the next record to return.
+         */
+        private int next;
+
+        /**
+         * Position of the record just before the run.
+         */
+        private final int end;
+
+        /**
+         * Constructor for a run of {@code count} records from
+         * {@code fromIndex}.
+         *
+         * @param fromIndex
+         *            the index of the first record in the run
+         * @param count
+         *            the number of records in the run
+         */
+        private BudgetTracker2Iterator(int fromIndex, int count) {
+            this.next = BudgetTracker2.this.position(fromIndex);
+            this.end = this.next - count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next > this.end;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction t = BudgetTracker2.this.recordAt(this.next);
+            this.next--;
+            return t;
+        }
+    }
+
+    /*
+     * Secondary methods overridden with random access
+     */
+
+    @Override
+    public final void addToIndex(int index, float amount, String description) {
+        assert index <= this.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        this.ensureRoomFor(1);
+        // The new record lands after the records older than it
+        int pos = this.length - index;
+        long cents = Cents.of(amount);
+        this.sums.invalidateFrom(pos);
+        this.truncateExtremes(pos);
+        this.move(pos, pos + 1, index);
+        this.store(pos, cents, description);
+        this.length++;
+        this.balance += cents;
+    }
+
+    @Override
+    public final Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        int pos = this.position(index);
+        Transaction record = this.recordAt(pos);
+        long cents = Cents.of(amount);
+        this.balance += cents - this.amounts[pos];
+        this.sums.add(pos, cents - this.amounts[pos]);
+        this.truncateExtremes(pos);
+        this.discard(pos);
+        this.store(pos, cents, description);
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final Transaction removeIndex(int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        int pos = this.position(index);
+        Transaction record = this.recordAt(pos);
+        this.balance -= this.amounts[pos];
+        this.sums.invalidateFrom(pos);
+        this.truncateExtremes(pos);
+        this.discard(pos);
+        this.move(pos + 1, pos, index);
+        this.length--;
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final void changeIndex(int curIndex, int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.length()
+                && curIndex >= 0 : "Violation of: curIndex < |this| and curIndex >= 0";
+        int from = this.position(curIndex);
+        int to = this.position(index);
+        long amount = this.amounts[from];
+        int code = this.codes[from];
+        this.sums.invalidateFrom(Math.min(from, to));
+        this.truncateExtremes(Math.min(from, to));
+        // Slide the records in between one slot towards the vacated position
+        if (from < to) {
+            this.move(from + 1, from, to - from);
+        } else {
+            this.move(to, to + 1, from - to);
+        }
+        this.amounts[to] = amount;
+        this.codes[to] = code;
+    }
+
+    @Override
+    public final float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(this.latestCents(to) - this.latestCents(from));
+    }
+
+    @Override
+    public final float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.balance - this.latestCents(index));
+    }
+
+    @Override
+    public final int maxIncomeIndex() {
+        return this.extremeIndex(0);
+    }
+
+    @Override
+    public final int minIncomeIndex() {
+        return this.extremeIndex(1);
+    }
+
+    @Override
+    public final int maxExpenseIndex() {
+        return this.extremeIndex(2);
+    }
+
+    @Override
+    public final int minExpenseIndex() {
+        return this.extremeIndex(3);
+    }
+
+    @Override
+    public final int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords.count(keyword);
+    }
+
+    @Override
+    public final float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public final long balanceCents() {
+        return this.balance;
+    }
+
+    @Override
+    public final long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords.total(keyword);
+    }
+
+    /*
+     * Bulk add, growing the columns once per batch
+     */
+
+    @Override
+    public final void addAll(float[] amounts, String[] descriptions,
+            int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        this.ensureRoomFor(count);
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            long cents = Cents.of(amounts[i]);
+            this.store(this.length + i, cents, descriptions[i]);
+            total += cents;
+        }
+        this.length += count;
+        this.balance += total;
+    }
+}
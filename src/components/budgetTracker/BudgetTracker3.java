@@ -0,0 +1,402 @@
+package components.budgetTracker;
+
+import java.util.Iterator;
+
+import components.budgetTracker.Treap.Node;
+
+/**
+ * {@code BudgetTracker} represented as a mutable implicit treap (see
+ * {@code Treap}): a randomized balanced binary tree ordered by index, where
+ * every node records the size, the total amount and the extremes of its
+ * subtree. Indexed secondary methods are overridden to run in expected
+ * O(log n) time.
+ *
+ * <p>
+ * The keyword index is built from the records by the first keyword query and
+ * kept up to date from then on. {@code append} drops it rather than merge in
+ * the index of the other tracker, which would take time in the number of
+ * distinct descriptions, so that splicing stays O(log n); the next keyword
+ * query builds it again.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.root is a treap: every node's priority is at least its children's] and
+ * [every node's size = 1 + size(left) + size(right)] and
+ * [every node's sum = cents(record) + sum(left) + sum(right)] and
+ * [for each kind of extreme, every node's best = the largest key(amount, kind)
+ *  in its subtree] and
+ * [$this.keywords is null or holds the postings of the records of
+ *  $this.root] and
+ * [$this.accountName is not null]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the records of $this.root from its rightmost to its leftmost node]
+ * </pre>
+ */
+public class BudgetTracker3 extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * The root of the treap.
+     */
+    private Node root;
+
+    /**
+     * Keyword index over the descriptions of the records, or null until the
+     * first keyword query.
+     */
+    private KeywordIndex keywords;
+
+    /**
+     * The name of the account associated with this budget tracker.
+     */
+    private String accountName;
+
+    /**
+     * The initial balance of the budget tracker in cents.
+     */
+    private long opening;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.keywords = null;
+        this.accountName = "Default Account";
+        this.opening = 0L;
+    }
+
+    /**
+     * Returns the keyword index, building it from the records if this tracker
+     * has not needed it before.
+     *
+     * @return the keyword index over the records
+     */
+    private synchronized KeywordIndex keywords() {
+        if (this.keywords == null) {
+            KeywordIndex index = new KeywordIndex();
+            for (Transaction record : this) {
+                index.adjust(record.description(), 1, Cents.of(record));
+            }
+            this.keywords = index;
+        }
+        return this.keywords;
+    }
+
+    /**
+     * Records in the keyword index, if there is one, that {@code count}
+     * records with {@code description} and a total of {@code cents} were
+     * added, or removed if negative.
+     *
+     * @param description
+     *            the description of the records
+     * @param count
+     *            the number of records added
+     * @param cents
+     *            the total amount in cents of the records added
+     */
+    private void adjustKeywords(String description, int count, long cents) {
+        if (this.keywords != null) {
+            this.keywords.adjust(description, count, cents);
+        }
+    }
+
+    /**
+     * Removes and returns the record at {@code index}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the removed record
+     * @requires 0 <= index < |this|
+     */
+    private Transaction take(int index) {
+        Node[] removed = new Node[1];
+        this.root = Treap.MUTABLE.delete(this.root, index, removed);
+        Transaction record = removed[0].record();
+        this.adjustKeywords(record.description(), -1, -removed[0].cents());
+        return record;
+    }
+
+    /**
+     * Inserts {@code record} at {@code index}.
+     *
+     * @param index
+     *            the index of the new record
+     * @param record
+     *            the record to insert
+     * @requires 0 <= index <= |this|
+     */
+    private void put(int index, Transaction record) {
+        Node node = new Node(record);
+        this.root = Treap.MUTABLE.insert(this.root, index, node);
+        this.adjustKeywords(record.description(), 1, node.cents());
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public BudgetTracker3() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor with account name.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     */
+    public BudgetTracker3(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+    }
+
+    /**
+     * Constructor with account name and balance.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     * @param balance
+     *            the initial balance of the budget tracker
+     */
+    public BudgetTracker3(String accountName, float balance) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+        this.opening = Cents.of(balance);
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public final BudgetTracker newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BudgetTracker3 : "Violation of: "
+                + "source is of dynamic type BudgetTracker3";
+        BudgetTracker3 localSource = (BudgetTracker3) source;
+        this.root = localSource.root;
+        this.keywords = localSource.keywords;
+        this.accountName = localSource.accountName;
+        this.opening = localSource.opening;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final int length() {
+        return Treap.size(this.root);
+    }
+
+    @Override
+    public final Transaction remove() {
+        assert this.length() > 0 : "Violation of: |this| > 0";
+        return this.take(0);
+    }
+
+    @Override
+    public final void add(float amount, String description) {
+        this.put(0, new Transaction(amount, description));
+    }
+
+    @Override
+    public final void add(Transaction record) {
+        this.put(0, record);
+    }
+
+    @Override
+    public final float balance() {
+        return Cents.toAmount(this.opening + Treap.sum(this.root));
+    }
+
+    @Override
+    public final void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.accountName = name;
+    }
+
+    @Override
+    public final String getAccountName() {
+        return this.accountName;
+    }
+
+    @Override
+    public final Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> Treap.iterator(this.root, fromIndex, count);
+    }
+
+    @Override
+    public final Iterator<Transaction> iterator() {
+        return Treap.iterator(this.root, 0, this.length());
+    }
+
+    /*
+     * Secondary methods overridden with tree operations and aggregates
+     */
+
+    @Override
+    public final void addToIndex(int index, float amount, String description) {
+        assert index <= this.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        this.put(index, new Transaction(amount, description));
+    }
+
+    @Override
+    public final Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        Transaction record = new Transaction(amount, description);
+        Transaction[] old = new Transaction[1];
+        this.root = Treap.MUTABLE.replace(this.root, index, record, old);
+        this.adjustKeywords(old[0].description(), -1, -Cents.of(old[0]));
+        this.adjustKeywords(description, 1, Cents.of(record));
+        return old[0];
+    }
+
+    @Override
+    public final Transaction removeIndex(int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        return this.take(index);
+    }
+
+    @Override
+    public final void changeIndex(int curIndex, int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.length()
+                && curIndex >= 0 : "Violation of: curIndex < |this| and curIndex >= 0";
+        if (curIndex != index) {
+            this.put(index, this.take(curIndex));
+        }
+    }
+
+    @Override
+    public final float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(
+                Treap.prefix(this.root, to) - Treap.prefix(this.root, from));
+    }
+
+    @Override
+    public final float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.opening + Treap.sum(this.root)
+                - Treap.prefix(this.root, index));
+    }
+
+    @Override
+    public final int maxIncomeIndex() {
+        return Treap.extremeIndex(this.root, Treap.MAX_INCOME);
+    }
+
+    @Override
+    public final int minIncomeIndex() {
+        return Treap.extremeIndex(this.root, Treap.MIN_INCOME);
+    }
+
+    @Override
+    public final int maxExpenseIndex() {
+        return Treap.extremeIndex(this.root, Treap.MAX_EXPENSE);
+    }
+
+    @Override
+    public final int minExpenseIndex() {
+        return Treap.extremeIndex(this.root, Treap.MIN_EXPENSE);
+    }
+
+    @Override
+    public final int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().count(keyword);
+    }
+
+    @Override
+    public final float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public final long balanceCents() {
+        return this.opening + Treap.sum(this.root);
+    }
+
+    @Override
+    public final long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().total(keyword);
+    }
+
+    /*
+     * Bulk add, building the batch as a treap and merging it in once, and
+     * append, merging in the treap of another tracker
+     */
+
+    @Override
+    public final void addAll(float[] amounts, String[] descriptions,
+            int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        // The last record of the batch becomes the latest, at index 0
+        Transaction[] records = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            Transaction record = new Transaction(amounts[i], descriptions[i]);
+            records[count - 1 - i] = record;
+            this.adjustKeywords(descriptions[i], 1, Cents.of(record));
+        }
+        this.root = Treap.MUTABLE.merge(Treap.build(records), this.root);
+    }
+
+    @Override
+    public final void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        if (source instanceof BudgetTracker3) {
+            BudgetTracker3 localSource = (BudgetTracker3) source;
+            // Rebuilt from the records on the next keyword query
+            this.keywords = null;
+            // The records of source become the latest, on the left
+            this.root = Treap.MUTABLE.merge(localSource.root, this.root);
+            localSource.createNewRep();
+        } else {
+            super.append(source);
+        }
+    }
+}
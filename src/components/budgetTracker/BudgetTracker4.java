@@ -0,0 +1,618 @@
+package components.budgetTracker;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+import components.budgetTracker.Treap.Node;
+
+/**
+ * {@code BudgetTracker} represented as a persistent implicit treap (see
+ * {@code Treap}): the same tree as {@code BudgetTracker3}, but its nodes never
+ * change once built. Every edit copies the nodes on the path it touches and
+ * shares the rest with the tree it started from, so {@link #snapshot} takes
+ * constant time and returns a read-only tracker that later edits of this one
+ * never reach. Indexed secondary methods run in expected O(log n) time, and
+ * each edit allocates an expected O(log n) nodes.
+ *
+ * <p>
+ * Since the nodes never change, a snapshot can be handed to another thread,
+ * through an executor, a concurrent queue or any other safe hand-off, and
+ * read there while this tracker keeps changing. The keyword index is not
+ * shared: each tracker and snapshot builds its own from its records the first
+ * time it is asked a keyword query, under its own monitor, and a tracker
+ * keeps it up to date from then on.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.root is a treap: every node's priority is at least its children's] and
+ * [every node's size = 1 + size(left) + size(right)] and
+ * [every node's sum = cents(record) + sum(left) + sum(right)] and
+ * [for each kind of extreme, every node's best = the largest key(amount, kind)
+ *  in its subtree] and
+ * [no node reachable from $this.root is ever changed] and
+ * [$this.keywords is null or holds the postings of the records of
+ *  $this.root] and
+ * [$this.accountName is not null]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the records of $this.root from its rightmost to its leftmost node]
+ * </pre>
+ */
+public class BudgetTracker4 extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * The root of the treap.
+     */
+    private Node root;
+
+    /**
+     * Keyword index over the descriptions of the records, or null until the
+     * first keyword query.
+     */
+    private KeywordIndex keywords;
+
+    /**
+     * The name of the account associated with this budget tracker.
+     */
+    private String accountName;
+
+    /**
+     * The initial balance of the budget tracker in cents.
+     */
+    private long opening;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.keywords = null;
+        this.accountName = "Default Account";
+        this.opening = 0L;
+    }
+
+    /**
+     * Returns the keyword index, building it from the records if this tracker
+     * has not needed it before.
+     *
+     * @return the keyword index over the records
+     */
+    private synchronized KeywordIndex keywords() {
+        if (this.keywords == null) {
+            KeywordIndex index = new KeywordIndex();
+            for (Transaction record : this) {
+                index.adjust(record.description(), 1, Cents.of(record));
+            }
+            this.keywords = index;
+        }
+        return this.keywords;
+    }
+
+    /**
+     * Records in the keyword index, if there is one, that {@code count}
+     * records with {@code description} and a total of {@code cents} were
+     * added, or removed if negative.
+     *
+     * @param description
+     *            the description of the records
+     * @param count
+     *            the number of records added
+     * @param cents
+     *            the total amount in cents of the records added
+     */
+    private void adjustKeywords(String description, int count, long cents) {
+        if (this.keywords != null) {
+            this.keywords.adjust(description, count, cents);
+        }
+    }
+
+    /**
+     * Removes and returns the record at {@code index}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the removed record
+     * @requires 0 <= index < |this|
+     */
+    private Transaction take(int index) {
+        Node[] removed = new Node[1];
+        this.root = Treap.PERSISTENT.delete(this.root, index, removed);
+        Transaction record = removed[0].record();
+        this.adjustKeywords(record.description(), -1, -removed[0].cents());
+        return record;
+    }
+
+    /**
+     * Inserts {@code record} at {@code index}.
+     *
+     * @param index
+     *            the index of the new record
+     * @param record
+     *            the record to insert
+     * @requires 0 <= index <= |this|
+     */
+    private void put(int index, Transaction record) {
+        Node node = new Node(record);
+        this.root = Treap.PERSISTENT.insert(this.root, index, node);
+        this.adjustKeywords(record.description(), 1, node.cents());
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public BudgetTracker4() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor with account name.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     */
+    public BudgetTracker4(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+    }
+
+    /**
+     * Constructor with account name and balance.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     * @param balance
+     *            the initial balance of the budget tracker
+     */
+    public BudgetTracker4(String accountName, float balance) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+        this.opening = Cents.of(balance);
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public final BudgetTracker newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BudgetTracker4 : "Violation of: "
+                + "source is of dynamic type BudgetTracker4";
+        BudgetTracker4 localSource = (BudgetTracker4) source;
+        this.root = localSource.root;
+        this.keywords = localSource.keywords;
+        this.accountName = localSource.accountName;
+        this.opening = localSource.opening;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Persistence
+     */
+
+    /**
+     * Read-only {@code BudgetTracker} over the records of a
+     * {@code BudgetTracker4} as they were when the snapshot was taken. Queries
+     * go to a private tracker that shares the nodes of the original, and
+     * every method that would change the tracker throws
+     * {@code UnsupportedOperationException}. {@code newInstance} returns an
+     * empty {@code BudgetTracker4}, which can be changed.
+     */
+    private static final class Snapshot extends BudgetTrackerSecondary {
+
+        /**
+         * The tracker holding the records of the snapshot, never changed.
+         */
+        private final BudgetTracker4 rep;
+
+        /**
+         * Constructor over a tracker that nothing else refers to.
+         *
+         * @param rep
+         *            the tracker holding the records of the snapshot
+         */
+        private Snapshot(BudgetTracker4 rep) {
+            this.rep = rep;
+        }
+
+        /**
+         * Returns the exception thrown by every method that would change the
+         * snapshot.
+         *
+         * @return the exception to throw
+         */
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException(
+                    "BudgetTracker4 snapshot is read-only");
+        }
+
+        @Override
+        public BudgetTracker newInstance() {
+            return new BudgetTracker4();
+        }
+
+        @Override
+        public void clear() {
+            throw readOnly();
+        }
+
+        @Override
+        public void transferFrom(BudgetTracker source) {
+            throw readOnly();
+        }
+
+        @Override
+        public int length() {
+            return this.rep.length();
+        }
+
+        @Override
+        public Transaction remove() {
+            throw readOnly();
+        }
+
+        @Override
+        public void add(float amount, String description) {
+            throw readOnly();
+        }
+
+        @Override
+        public void add(Transaction record) {
+            throw readOnly();
+        }
+
+        @Override
+        public float balance() {
+            return this.rep.balance();
+        }
+
+        @Override
+        public void setAccountName(String name) {
+            throw readOnly();
+        }
+
+        @Override
+        public String getAccountName() {
+            return this.rep.getAccountName();
+        }
+
+        @Override
+        public Iterable<Transaction> view(int fromIndex, int count) {
+            return this.rep.view(fromIndex, count);
+        }
+
+        @Override
+        public Iterator<Transaction> iterator() {
+            return this.rep.iterator();
+        }
+
+        @Override
+        public void addToIndex(int index, float amount, String description) {
+            throw readOnly();
+        }
+
+        @Override
+        public Transaction modifyIndex(int index, float amount,
+                String description) {
+            throw readOnly();
+        }
+
+        @Override
+        public Transaction removeIndex(int index) {
+            throw readOnly();
+        }
+
+        @Override
+        public void changeIndex(int curIndex, int index) {
+            throw readOnly();
+        }
+
+        @Override
+        public float rangeSum(int from, int to) {
+            return this.rep.rangeSum(from, to);
+        }
+
+        @Override
+        public float balanceAt(int index) {
+            return this.rep.balanceAt(index);
+        }
+
+        @Override
+        public int maxIncomeIndex() {
+            return this.rep.maxIncomeIndex();
+        }
+
+        @Override
+        public int minIncomeIndex() {
+            return this.rep.minIncomeIndex();
+        }
+
+        @Override
+        public int maxExpenseIndex() {
+            return this.rep.maxExpenseIndex();
+        }
+
+        @Override
+        public int minExpenseIndex() {
+            return this.rep.minExpenseIndex();
+        }
+
+        @Override
+        public int keywordCount(String keyword) {
+            return this.rep.keywordCount(keyword);
+        }
+
+        @Override
+        public float keywordTotal(String keyword) {
+            return this.rep.keywordTotal(keyword);
+        }
+
+        @Override
+        public long balanceCents() {
+            return this.rep.balanceCents();
+        }
+
+        @Override
+        public long keywordTotalCents(String keyword) {
+            return this.rep.keywordTotalCents(keyword);
+        }
+
+        @Override
+        public void addAll(float[] amounts, String[] descriptions,
+                int count) {
+            throw readOnly();
+        }
+
+        @Override
+        public void append(BudgetTracker source) {
+            throw readOnly();
+        }
+
+        @Override
+        public void mergeOrdered(BudgetTracker source,
+                Comparator<Transaction> order) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * Returns a read-only tracker holding the same records, account name and
+     * balance as {@code this}, in constant time. The two share every node,
+     * and the snapshot never sees the changes later made to {@code this}, so
+     * it can be read on another thread while {@code this} keeps changing.
+     * Every method of the snapshot that would change it throws
+     * {@code UnsupportedOperationException}.
+     *
+     * @return the snapshot
+     * @ensures snapshot = this
+     */
+    public final BudgetTracker snapshot() {
+        BudgetTracker4 copy = new BudgetTracker4(this.accountName);
+        copy.root = this.root;
+        copy.opening = this.opening;
+        return new Snapshot(copy);
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final int length() {
+        return Treap.size(this.root);
+    }
+
+    @Override
+    public final Transaction remove() {
+        assert this.length() > 0 : "Violation of: |this| > 0";
+        return this.take(0);
+    }
+
+    @Override
+    public final void add(float amount, String description) {
+        this.put(0, new Transaction(amount, description));
+    }
+
+    @Override
+    public final void add(Transaction record) {
+        this.put(0, record);
+    }
+
+    @Override
+    public final float balance() {
+        return Cents.toAmount(this.opening + Treap.sum(this.root));
+    }
+
+    @Override
+    public final void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.accountName = name;
+    }
+
+    @Override
+    public final String getAccountName() {
+        return this.accountName;
+    }
+
+    @Override
+    public final Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> Treap.iterator(this.root, fromIndex, count);
+    }
+
+    @Override
+    public final Iterator<Transaction> iterator() {
+        return Treap.iterator(this.root, 0, this.length());
+    }
+
+    /*
+     * Secondary methods overridden with tree operations and aggregates
+     */
+
+    @Override
+    public final void addToIndex(int index, float amount, String description) {
+        assert index <= this.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        this.put(index, new Transaction(amount, description));
+    }
+
+    @Override
+    public final Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        Transaction record = new Transaction(amount, description);
+        Transaction[] old = new Transaction[1];
+        this.root = Treap.PERSISTENT.replace(this.root, index, record, old);
+        this.adjustKeywords(old[0].description(), -1, -Cents.of(old[0]));
+        this.adjustKeywords(description, 1, Cents.of(record));
+        return old[0];
+    }
+
+    @Override
+    public final Transaction removeIndex(int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        return this.take(index);
+    }
+
+    @Override
+    public final void changeIndex(int curIndex, int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.length()
+                && curIndex >= 0 : "Violation of: curIndex < |this| and curIndex >= 0";
+        if (curIndex != index) {
+            this.put(index, this.take(curIndex));
+        }
+    }
+
+    @Override
+    public final float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(
+                Treap.prefix(this.root, to) - Treap.prefix(this.root, from));
+    }
+
+    @Override
+    public final float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.opening + Treap.sum(this.root)
+                - Treap.prefix(this.root, index));
+    }
+
+    @Override
+    public final int maxIncomeIndex() {
+        return Treap.extremeIndex(this.root, Treap.MAX_INCOME);
+    }
+
+    @Override
+    public final int minIncomeIndex() {
+        return Treap.extremeIndex(this.root, Treap.MIN_INCOME);
+    }
+
+    @Override
+    public final int maxExpenseIndex() {
+        return Treap.extremeIndex(this.root, Treap.MAX_EXPENSE);
+    }
+
+    @Override
+    public final int minExpenseIndex() {
+        return Treap.extremeIndex(this.root, Treap.MIN_EXPENSE);
+    }
+
+    @Override
+    public final int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().count(keyword);
+    }
+
+    @Override
+    public final float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public final long balanceCents() {
+        return this.opening + Treap.sum(this.root);
+    }
+
+    @Override
+    public final long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords().total(keyword);
+    }
+
+    /*
+     * Bulk add, building the batch as a treap and merging it in once, and
+     * append, merging in the treap of another tracker
+     */
+
+    @Override
+    public final void addAll(float[] amounts, String[] descriptions,
+            int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        // The last record of the batch becomes the latest, at index 0
+        Transaction[] records = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            Transaction record = new Transaction(amounts[i], descriptions[i]);
+            records[count - 1 - i] = record;
+            this.adjustKeywords(descriptions[i], 1, Cents.of(record));
+        }
+        this.root = Treap.PERSISTENT.merge(Treap.build(records), this.root);
+    }
+
+    @Override
+    public final void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        if (source instanceof BudgetTracker4) {
+            BudgetTracker4 localSource = (BudgetTracker4) source;
+            if (this.keywords != null && localSource.keywords != null) {
+                this.keywords.merge(localSource.keywords);
+            } else {
+                // Rebuilt from the records on the next keyword query
+                this.keywords = null;
+            }
+            // The records of source become the latest, on the left
+            this.root = Treap.PERSISTENT.merge(localSource.root, this.root);
+            localSource.createNewRep();
+        } else {
+            super.append(source);
+        }
+    }
+}
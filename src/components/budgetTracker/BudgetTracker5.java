@@ -0,0 +1,753 @@
+package components.budgetTracker;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@code BudgetTracker} represented as off-heap columns, oldest first: the
+ * amounts in cents and the dictionary codes of the descriptions, like
+ * {@code BudgetTracker2}, plus running totals and running extremes for the
+ * report queries. The columns live in direct buffers (see {@code OffHeap}),
+ * so a ledger of any length puts no per-record objects on the heap and adds
+ * nothing for the garbage collector to trace; the heap only holds one
+ * {@code String} per distinct description, with its keyword postings, and the
+ * short-lived {@code Transaction} values built when a record is handed out.
+ * The columns hold up to {@code Integer.MAX_VALUE / 8} records.
+ *
+ * <p>
+ * Old columns, dropped when the tracker grows, is cleared, or is transferred
+ * into, are never freed by hand: the garbage collector returns their memory
+ * once nothing refers to them. Freeing them at once would leave any
+ * iterator, view or spliterator still reading them, for example on another
+ * thread, reading freed native memory, which can crash the JVM rather than
+ * throw. As with every kernel, such a reader must not be used after the
+ * tracker changes; if it is, it reads the current columns through the
+ * tracker, so it sees wrong records or a bounds check fails, but memory is
+ * never corrupted.
+ * </p>
+ *
+ * <p>
+ * Running totals and extremes are kept for a prefix of the columns: an edit
+ * cuts the prefix back to the position it touches, and a report query
+ * extends it again, so records added at the end cost constant time to keep
+ * up to date, but the first query after an edit near the oldest record takes
+ * time linear in the length of the tracker. Amounts are kept in fixed point,
+ * so the balance is exact.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.amounts, $this.codes, $this.totals and $this.best[k] are views of
+ *  $this.blocks, with room for $this.capacity records each] and
+ * 0 <= $this.length <= $this.capacity and
+ * [$this.codes[0, $this.length) are codes of $this.dictionary] and
+ * [$this.keywords indexes $this.dictionary and holds the postings of
+ *  the records in $this.amounts[0, $this.length)] and
+ * 0 <= $this.valid <= $this.length and
+ * [for 0 <= p < $this.valid, $this.totals[p] is the sum of
+ *  $this.amounts[0, p], and $this.best[k][p] is the position of extreme k
+ *  among $this.amounts[0, p], or -1 if there is none] and
+ * [$this.accountName is not null]
+ * </pre>
+ * @correspondence <pre>
+ * this = <(amounts[0] / ROUNDING, dictionary.decode(codes[0])), ...,
+ *         (amounts[length - 1] / ROUNDING,
+ *          dictionary.decode(codes[length - 1]))>
+ * </pre>
+ */
+public class BudgetTracker5 extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * Capacity of the columns created for an empty tracker.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Largest capacity of the columns: the longest column of 8-byte values
+     * one direct buffer can hold.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / Long.BYTES;
+
+    /**
+     * Number of running extremes: the largest and smallest income, and the
+     * largest and smallest expense.
+     */
+    private static final int EXTREMES = 4;
+
+    /**
+     * Index in {@code blocks} of the block of {@code amounts}.
+     */
+    private static final int AMOUNTS = 0;
+
+    /**
+     * Index in {@code blocks} of the block of {@code totals}.
+     */
+    private static final int TOTALS = 1;
+
+    /**
+     * Index in {@code blocks} of the block of {@code codes}.
+     */
+    private static final int CODES = 2;
+
+    /**
+     * Index in {@code blocks} of the block of {@code best[0]}; the other
+     * extremes follow.
+     */
+    private static final int BEST = 3;
+
+    /**
+     * The direct buffers that own the memory of the columns.
+     */
+    private ByteBuffer[] blocks;
+
+    /**
+     * The amounts of the records in cents, oldest first; the record at index
+     * {@code i} of the tracker is at position {@code length - 1 - i}.
+     */
+    private LongBuffer amounts;
+
+    /**
+     * Running totals of {@code amounts}, for range queries.
+     */
+    private LongBuffer totals;
+
+    /**
+     * The dictionary codes of the descriptions, parallel to {@code amounts}.
+     */
+    private IntBuffer codes;
+
+    /**
+     * Positions of the running extremes, indexed as in {@code extremeIndex}.
+     */
+    private IntBuffer[] best;
+
+    /**
+     * The number of records the columns have room for.
+     */
+    private int capacity;
+
+    /**
+     * The dictionary of distinct descriptions.
+     */
+    private DescriptionDictionary dictionary;
+
+    /**
+     * Keyword index over {@code dictionary}.
+     */
+    private KeywordIndex keywords;
+
+    /**
+     * The number of records in use at the front of the columns.
+     */
+    private int length;
+
+    /**
+     * The number of positions whose running totals and extremes are up to
+     * date.
+     */
+    private int valid;
+
+    /**
+     * The name of the account associated with this budget tracker.
+     */
+    private String accountName;
+
+    /**
+     * The balance of the budget tracker in cents.
+     */
+    private long balance;
+
+    /**
+     * Allocates empty columns with room for {@code capacity} records.
+     *
+     * @param capacity
+     *            the number of records to make room for
+     */
+    private void allocate(int capacity) {
+        this.blocks = new ByteBuffer[BEST + EXTREMES];
+        this.blocks[AMOUNTS] = OffHeap.allocate((long) capacity * Long.BYTES);
+        this.blocks[TOTALS] = OffHeap.allocate((long) capacity * Long.BYTES);
+        this.blocks[CODES] = OffHeap.allocate((long) capacity * Integer.BYTES);
+        this.best = new IntBuffer[EXTREMES];
+        for (int k = 0; k < EXTREMES; k++) {
+            this.blocks[BEST + k] = OffHeap
+                    .allocate((long) capacity * Integer.BYTES);
+            this.best[k] = this.blocks[BEST + k].asIntBuffer();
+        }
+        this.amounts = this.blocks[AMOUNTS].asLongBuffer();
+        this.totals = this.blocks[TOTALS].asLongBuffer();
+        this.codes = this.blocks[CODES].asIntBuffer();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.allocate(INITIAL_CAPACITY);
+        this.dictionary = new DescriptionDictionary();
+        this.keywords = new KeywordIndex(this.dictionary);
+        this.length = 0;
+        this.valid = 0;
+        this.accountName = "Default Account";
+        this.balance = 0L;
+    }
+
+    /**
+     * Returns the array position of the record at the given tracker index.
+     *
+     * @param index
+     *            the index of the record, counted from the latest record
+     * @return the position of the record in the columns
+     */
+    private int position(int index) {
+        return this.length - 1 - index;
+    }
+
+    /**
+     * Builds the record stored at the given position.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     * @return the record at {@code pos}
+     */
+    private Transaction recordAt(int pos) {
+        return new Transaction(Cents.toAmount(this.amounts.get(pos)),
+                this.dictionary.decode(this.codes.get(pos)));
+    }
+
+    /**
+     * Stores a record at the given position.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     * @param amount
+     *            the amount of money of the record in cents
+     * @param description
+     *            the description of the record
+     */
+    private void store(int pos, long amount, String description) {
+        int code = this.dictionary.encode(description);
+        this.amounts.put(pos, amount);
+        this.codes.put(pos, code);
+        this.keywords.adjust(code, 1, amount);
+    }
+
+    /**
+     * Takes the record at the given position out of the keyword postings,
+     * before it is overwritten or dropped.
+     *
+     * @param pos
+     *            the position of the record in the columns
+     */
+    private void discard(int pos) {
+        this.keywords.adjust(this.codes.get(pos), -1, -this.amounts.get(pos));
+    }
+
+    /**
+     * Drops the descriptions no record carries from the dictionary, once
+     * there are more of them than records, and renumbers the codes column.
+     * The work is linear in the length of the tracker and the size of the
+     * dictionary, and is paid for by the edits that left those descriptions
+     * unused, so a tracker whose descriptions churn keeps a dictionary in
+     * proportion to its length.
+     */
+    private void reclaim() {
+        if (this.keywords.unused() > this.length + INITIAL_CAPACITY) {
+            int[] renumbered = this.keywords.compact();
+            for (int pos = 0; pos < this.length; pos++) {
+                this.codes.put(pos, renumbered[this.codes.get(pos)]);
+            }
+        }
+    }
+
+    /**
+     * Moves {@code count} records from position {@code from} to position
+     * {@code to}, and cuts the running totals and extremes back to the first
+     * position that changes.
+     *
+     * @param from
+     *            the first position to move
+     * @param to
+     *            the position the first record moves to
+     * @param count
+     *            the number of records to move
+     */
+    private void move(int from, int to, int count) {
+        // Bulk puts within one buffer copy as if through a temporary
+        this.amounts.put(to, this.amounts, from, count);
+        this.codes.put(to, this.codes, from, count);
+        this.valid = Math.min(this.valid, Math.min(from, to));
+    }
+
+    /**
+     * Makes room for at least {@code count} more records, at least doubling
+     * the columns if they are too short.
+     *
+     * @param count
+     *            the number of records about to be added
+     */
+    private void ensureRoomFor(int count) {
+        if (this.length + count > this.capacity) {
+            assert this.length + count <= MAX_CAPACITY : ""
+                    + "Violation of: |this| <= Integer.MAX_VALUE / 8";
+            long grown = Math.max(2L * this.capacity, this.length + count);
+            LongBuffer oldAmounts = this.amounts;
+            LongBuffer oldTotals = this.totals;
+            IntBuffer oldCodes = this.codes;
+            IntBuffer[] oldBest = this.best;
+            this.allocate((int) Math.min(grown, MAX_CAPACITY));
+            this.amounts.put(0, oldAmounts, 0, this.length);
+            this.codes.put(0, oldCodes, 0, this.length);
+            this.totals.put(0, oldTotals, 0, this.valid);
+            for (int k = 0; k < EXTREMES; k++) {
+                this.best[k].put(0, oldBest[k], 0, this.valid);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the running extreme after {@code amount} at
+     * position {@code pos}, given the running extreme before it.
+     *
+     * @param k
+     *            which extreme
+     * @param pos
+     *            the position of {@code amount}
+     * @param amount
+     *            the amount at {@code pos}, in cents
+     * @param qualifies
+     *            whether {@code amount} is of the right kind
+     * @param larger
+     *            whether larger amounts are better
+     * @return the position of the extreme among the amounts up to {@code pos}
+     */
+    private int next(int k, int pos, long amount, boolean qualifies,
+            boolean larger) {
+        int previous = -1;
+        if (pos > 0) {
+            previous = this.best[k].get(pos - 1);
+        }
+        int result = previous;
+        // On ties the later position wins, which is the smaller index
+        if (qualifies) {
+            if (previous < 0) {
+                result = pos;
+            } else if (larger && amount >= this.amounts.get(previous)) {
+                result = pos;
+            } else if (!larger && amount <= this.amounts.get(previous)) {
+                result = pos;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Brings the running totals and extremes up to date with every record.
+     * Synchronized, so that queries running side by side extend them once.
+     */
+    private synchronized void extend() {
+        long total = 0L;
+        if (this.valid > 0) {
+            total = this.totals.get(this.valid - 1);
+        }
+        for (int pos = this.valid; pos < this.length; pos++) {
+            long amount = this.amounts.get(pos);
+            total += amount;
+            this.totals.put(pos, total);
+            this.best[0].put(pos, this.next(0, pos, amount, amount > 0, true));
+            this.best[1].put(pos,
+                    this.next(1, pos, amount, amount > 0, false));
+            this.best[2].put(pos,
+                    this.next(2, pos, amount, amount < 0, false));
+            this.best[3].put(pos, this.next(3, pos, amount, amount < 0, true));
+        }
+        this.valid = this.length;
+    }
+
+    /**
+     * Returns the total amount in cents of the {@code count} latest records.
+     *
+     * @param count
+     *            the number of latest records to add up
+     * @return the total amount of the latest {@code count} records in cents
+     */
+    private long latestCents(int count) {
+        this.extend();
+        long all = 0L;
+        if (this.length > 0) {
+            all = this.totals.get(this.length - 1);
+        }
+        long earlier = 0L;
+        if (count < this.length) {
+            earlier = this.totals.get(this.length - count - 1);
+        }
+        return all - earlier;
+    }
+
+    /**
+     * Brings the running extremes up to date and converts the position of one
+     * of them into an index.
+     *
+     * @param kind
+     *            which extreme to report: 0 for the largest income, 1 for the
+     *            smallest income, 2 for the largest expense, and 3 for the
+     *            smallest expense
+     * @return the index of the extreme, or 0 if there is none
+     */
+    private int extremeIndex(int kind) {
+        this.extend();
+        int index = 0;
+        if (this.length > 0) {
+            int position = this.best[kind].get(this.length - 1);
+            if (position >= 0) {
+                index = this.position(position);
+            }
+        }
+        return index;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public BudgetTracker5() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor with account name.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     */
+    public BudgetTracker5(String accountName) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+    }
+
+    /**
+     * Constructor with account name and balance.
+     *
+     * @param accountName
+     *            the name of the account associated with this budget tracker
+     * @param balance
+     *            the initial balance of the budget tracker
+     */
+    public BudgetTracker5(String accountName, float balance) {
+        assert accountName != null : "Violation of: accountName is not null";
+        this.createNewRep();
+        this.accountName = accountName;
+        this.balance = Cents.of(balance);
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public final BudgetTracker newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BudgetTracker5 : "Violation of: "
+                + "source is of dynamic type BudgetTracker5";
+        BudgetTracker5 localSource = (BudgetTracker5) source;
+        this.blocks = localSource.blocks;
+        this.amounts = localSource.amounts;
+        this.totals = localSource.totals;
+        this.codes = localSource.codes;
+        this.best = localSource.best;
+        this.capacity = localSource.capacity;
+        this.dictionary = localSource.dictionary;
+        this.keywords = localSource.keywords;
+        this.length = localSource.length;
+        this.valid = localSource.valid;
+        this.accountName = localSource.accountName;
+        this.balance = localSource.balance;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final int length() {
+        return this.length;
+    }
+
+    @Override
+    public final Transaction remove() {
+        assert this.length() > 0 : "Violation of: |this| > 0";
+        this.length--;
+        this.balance -= this.amounts.get(this.length);
+        this.valid = Math.min(this.valid, this.length);
+        this.discard(this.length);
+        Transaction record = this.recordAt(this.length);
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final void add(float amount, String description) {
+        this.ensureRoomFor(1);
+        long cents = Cents.of(amount);
+        this.store(this.length, cents, description);
+        this.length++;
+        this.balance += cents;
+    }
+
+    @Override
+    public final void add(Transaction record) {
+        this.add(record.amount(), record.description());
+    }
+
+    @Override
+    public final float balance() {
+        return Cents.toAmount(this.balance);
+    }
+
+    @Override
+    public final void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.accountName = name;
+    }
+
+    @Override
+    public final String getAccountName() {
+        return this.accountName;
+    }
+
+    @Override
+    public final Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> new BudgetTracker5Iterator(fromIndex, count);
+    }
+
+    @Override
+    public final Iterator<Transaction> iterator() {
+        return new BudgetTracker5Iterator(0, this.length);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code BudgetTracker5},
+     * walking a run of records from the latest to the earliest. It reads the
+     * columns through the tracker, never holding on to a released column.
+     */
+    private final class BudgetTracker5Iterator
+            implements Iterator<Transaction> {
+
+        /**
+         * Position of the next record to return.
+         */
+        private int next;
+
+        /**
+         * Position of the record just before the run.
+         */
+        private final int end;
+
+        /**
+         * Constructor for a run of {@code count} records from
+         * {@code fromIndex}.
+         *
+         * @param fromIndex
+         *            the index of the first record in the run
+         * @param count
+         *            the number of records in the run
+         */
+        private BudgetTracker5Iterator(int fromIndex, int count) {
+            this.next = BudgetTracker5.this.position(fromIndex);
+            this.end = this.next - count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next > this.end;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction t = BudgetTracker5.this.recordAt(this.next);
+            this.next--;
+            return t;
+        }
+    }
+
+    /*
+     * Secondary methods overridden with random access
+     */
+
+    @Override
+    public final void addToIndex(int index, float amount, String description) {
+        assert index <= this.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        this.ensureRoomFor(1);
+        // The new record lands after the records older than it
+        int pos = this.length - index;
+        long cents = Cents.of(amount);
+        this.move(pos, pos + 1, index);
+        this.store(pos, cents, description);
+        this.length++;
+        this.balance += cents;
+    }
+
+    @Override
+    public final Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        int pos = this.position(index);
+        Transaction record = this.recordAt(pos);
+        long cents = Cents.of(amount);
+        this.balance += cents - this.amounts.get(pos);
+        this.valid = Math.min(this.valid, pos);
+        this.discard(pos);
+        this.store(pos, cents, description);
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final Transaction removeIndex(int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        int pos = this.position(index);
+        Transaction record = this.recordAt(pos);
+        this.balance -= this.amounts.get(pos);
+        this.discard(pos);
+        this.move(pos + 1, pos, index);
+        this.length--;
+        this.reclaim();
+        return record;
+    }
+
+    @Override
+    public final void changeIndex(int curIndex, int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.length()
+                && curIndex >= 0 : "Violation of: curIndex < |this| and curIndex >= 0";
+        int from = this.position(curIndex);
+        int to = this.position(index);
+        long amount = this.amounts.get(from);
+        int code = this.codes.get(from);
+        // Slide the records in between one slot towards the vacated position
+        if (from < to) {
+            this.move(from + 1, from, to - from);
+        } else {
+            this.move(to, to + 1, from - to);
+        }
+        this.amounts.put(to, amount);
+        this.codes.put(to, code);
+    }
+
+    @Override
+    public final float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(this.latestCents(to) - this.latestCents(from));
+    }
+
+    @Override
+    public final float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.balance - this.latestCents(index));
+    }
+
+    @Override
+    public final int maxIncomeIndex() {
+        return this.extremeIndex(0);
+    }
+
+    @Override
+    public final int minIncomeIndex() {
+        return this.extremeIndex(1);
+    }
+
+    @Override
+    public final int maxExpenseIndex() {
+        return this.extremeIndex(2);
+    }
+
+    @Override
+    public final int minExpenseIndex() {
+        return this.extremeIndex(3);
+    }
+
+    @Override
+    public final int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords.count(keyword);
+    }
+
+    @Override
+    public final float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public final long balanceCents() {
+        return this.balance;
+    }
+
+    @Override
+    public final long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return this.keywords.total(keyword);
+    }
+
+    /*
+     * Bulk add, growing the columns once per batch
+     */
+
+    @Override
+    public final void addAll(float[] amounts, String[] descriptions,
+            int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        this.ensureRoomFor(count);
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            long cents = Cents.of(amounts[i]);
+            this.store(this.length + i, cents, descriptions[i]);
+            total += cents;
+        }
+        this.length += count;
+        this.balance += total;
+    }
+}
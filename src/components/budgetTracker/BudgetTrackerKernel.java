@@ -74,6 +74,22 @@ public interface BudgetTrackerKernel
      */
     void add(Transaction record);
 
+    /**
+     * Returns a read-only view of {@code count} records starting at
+     * {@code fromIndex}, latest first. Walking the view does not change the
+     * tracker; the view must not be used after the tracker is changed.
+     *
+     * @param fromIndex
+     *            the index of the first record in the view
+     * @param count
+     *            the number of records in the view
+     * @return the records in the view, latest first
+     * @requires 0 <= fromIndex and 0 <= count and fromIndex + count <= |this|
+     * @ensures <pre> view = rev(middle) where this = front * middle * back and
+     * |back| = fromIndex and |middle| = count </pre>
+     */
+    Iterable<Transaction> view(int fromIndex, int count);
+
     /**
      * Reports the current balance, rounded according to {@code ROUNDING}.
      *
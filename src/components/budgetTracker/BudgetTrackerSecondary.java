@@ -1,5 +1,12 @@
 package components.budgetTracker;
 
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import components.simplewriter.SimpleWriter;
 import components.stack.Stack;
 import components.stack.Stack2;
@@ -8,6 +15,16 @@ import components.stack.Stack2;
  * Layered implementations of secondary methods for {@code BudgetTracker}.
  */
 public abstract class BudgetTrackerSecondary implements BudgetTracker {
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of characters buffered by {@code printNumOfRecords} before they
+     * are written out.
+     */
+    private static final int PRINT_BUFFER_SIZE = 8192;
+
     /*
      * Common methods (from Object)
      */
@@ -41,27 +58,30 @@ public abstract class BudgetTrackerSecondary implements BudgetTracker {
     /*
      * Other non-kernel methods
      */
+
     @Override
-    public final void printNumOfRecords(int num, SimpleWriter out) {
+    public void printNumOfRecords(int num, SimpleWriter out) {
         assert num <= this.length() && out
                 .isOpen() : "Violation of: num <= |this| and out.isOpen()";
-        // Use a stack to store the last num records
-        Stack<Transaction> stack = new Stack2<>();
-        for (int i = 0; i < num; i++) {
-            Transaction record = this.remove();
-            out.println(i + ": " + String.format("%.2f", record.amount()) + "$ "
-                    + record.description());
-            stack.push(record);
-        }
-
-        // Add the records back
-        while (stack.length() > 0) {
-            this.add(stack.pop());
+        // Format the last num records into one buffer, read through a view
+        String newline = System.lineSeparator();
+        StringBuilder buffer = new StringBuilder(PRINT_BUFFER_SIZE);
+        int i = 0;
+        for (Transaction record : this.view(0, num)) {
+            buffer.append(i).append(": ");
+            Cents.appendTo(buffer, record.amount());
+            buffer.append("$ ").append(record.description()).append(newline);
+            if (buffer.length() >= PRINT_BUFFER_SIZE) {
+                out.print(buffer.toString());
+                buffer.setLength(0);
+            }
+            i++;
         }
+        out.print(buffer.toString());
     }
 
     @Override
-    public final void addToIndex(int index, float amount, String description) {
+    public void addToIndex(int index, float amount, String description) {
         assert index <= this.length()
                 && index >= 0 : "Violation of: index <= |this| and index >= 0";
         // Use a stack to store the records before the index
@@ -80,7 +100,7 @@ public abstract class BudgetTrackerSecondary implements BudgetTracker {
     }
 
     @Override
-    public final Transaction modifyIndex(int index, float amount,
+    public Transaction modifyIndex(int index, float amount,
             String description) {
         assert index < this.length()
                 && index >= 0 : "Violation of: index < |this| and index >= 0";
@@ -104,7 +124,7 @@ public abstract class BudgetTrackerSecondary implements BudgetTracker {
     }
 
     @Override
-    public final Transaction removeIndex(int index) {
+    public Transaction removeIndex(int index) {
         assert index < this.length()
                 && index >= 0 : "Violation of: index < |this| and index >= 0";
         // Use a stack to store the records before the index
@@ -126,7 +146,7 @@ public abstract class BudgetTrackerSecondary implements BudgetTracker {
     }
 
     @Override
-    public final void changeIndex(int curIndex, int index) {
+    public void changeIndex(int curIndex, int index) {
         assert index < this.length()
                 && index >= 0 : "Violation of: index < |this| and index >= 0";
         assert curIndex < this.length()
@@ -162,4 +182,326 @@ public abstract class BudgetTrackerSecondary implements BudgetTracker {
             this.add(stack.pop());
         }
     }
+
+    @Override
+    public float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to
+                && to <= this.length() : "Violation of: 0 <= from <= to <= |this|";
+        // Walk the records without removing them, adding up the range
+        long total = 0L;
+        Iterator<Transaction> it = this.iterator();
+        for (int i = 0; i < to; i++) {
+            Transaction record = it.next();
+            if (i >= from) {
+                total += Cents.of(record);
+            }
+        }
+        return Cents.toAmount(total);
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        assert 0 <= index
+                && index <= this.length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(
+                Cents.of(this.balance()) - Cents.of(this.rangeSum(0, index)));
+    }
+
+    /**
+     * Scans the records for the first one with the extreme amount of a kind.
+     *
+     * @param income
+     *            whether to look at positive amounts rather than negative ones
+     * @param largest
+     *            whether to look for the largest magnitude rather than the
+     *            smallest
+     * @return the index of the extreme record, or 0 if there is none
+     */
+    private int extremeIndex(boolean income, boolean largest) {
+        int best = 0;
+        float bestMagnitude = -1.0f;
+        int index = 0;
+        for (Transaction record : this) {
+            float magnitude = record.amount();
+            if (!income) {
+                magnitude = -magnitude;
+            }
+            if (magnitude > 0 && (bestMagnitude < 0
+                    || (largest && magnitude > bestMagnitude)
+                    || (!largest && magnitude < bestMagnitude))) {
+                best = index;
+                bestMagnitude = magnitude;
+            }
+            index++;
+        }
+        return best;
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.extremeIndex(true, true);
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.extremeIndex(true, false);
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.extremeIndex(false, true);
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.extremeIndex(false, false);
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        int count = 0;
+        for (Transaction record : this) {
+            if (record.description().contains(keyword)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public long balanceCents() {
+        // The opening balance is only known as a float; kernels override this
+        long cents = Cents.of(this.balanceAt(this.length()));
+        for (Transaction record : this) {
+            cents += Cents.of(record);
+        }
+        return cents;
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        long total = 0L;
+        for (Transaction record : this) {
+            if (record.description().contains(keyword)) {
+                total += Cents.of(record);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        for (int i = 0; i < count; i++) {
+            this.add(amounts[i], descriptions[i]);
+        }
+    }
+
+    /**
+     * Returns the records of {@code tracker}, earliest first.
+     *
+     * @param tracker
+     *            the tracker to read
+     * @return the records of {@code tracker}, earliest first
+     */
+    private static Transaction[] earliestFirst(BudgetTracker tracker) {
+        Transaction[] records = new Transaction[tracker.length()];
+        int i = records.length - 1;
+        for (Transaction record : tracker) {
+            records[i] = record;
+            i--;
+        }
+        return records;
+    }
+
+    @Override
+    public void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        Transaction[] records = earliestFirst(source);
+        float[] amounts = new float[records.length];
+        String[] descriptions = new String[records.length];
+        for (int i = 0; i < records.length; i++) {
+            amounts[i] = records[i].amount();
+            descriptions[i] = records[i].description();
+        }
+        this.addAll(amounts, descriptions, records.length);
+        source.clear();
+    }
+
+    @Override
+    public void mergeOrdered(BudgetTracker source,
+            Comparator<Transaction> order) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert order != null : "Violation of: order is not null";
+        Transaction[] later = earliestFirst(source);
+        // Only the records of this after the earliest of source move
+        int moved = 0;
+        if (later.length > 0) {
+            Iterator<Transaction> records = this.iterator();
+            boolean after = true;
+            while (after && records.hasNext()) {
+                after = order.compare(records.next(), later[0]) > 0;
+                if (after) {
+                    moved++;
+                }
+            }
+        }
+        Transaction[] tail = new Transaction[moved];
+        for (int i = moved - 1; i >= 0; i--) {
+            tail[i] = this.remove();
+        }
+        int count = moved + later.length;
+        float[] amounts = new float[count];
+        String[] descriptions = new String[count];
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < count; i++) {
+            Transaction next;
+            if (b == later.length || (a < moved
+                    && order.compare(tail[a], later[b]) <= 0)) {
+                next = tail[a];
+                a++;
+            } else {
+                next = later[b];
+                b++;
+            }
+            amounts[i] = next.amount();
+            descriptions[i] = next.description();
+        }
+        this.addAll(amounts, descriptions, count);
+        source.clear();
+    }
+
+    /*
+     * Streams, split into ranges of indexes read through views
+     */
+
+    /**
+     * Spliterator over a range of indexes of a tracker, which reads its range
+     * through one {@code view}, opened on first use, and splits the range in
+     * halves.
+     */
+    private static final class ViewSpliterator
+            implements Spliterator<Transaction> {
+
+        /**
+         * Characteristics of every {@code ViewSpliterator}.
+         */
+        private static final int CHARACTERISTICS = Spliterator.ORDERED
+                | Spliterator.SIZED | Spliterator.SUBSIZED
+                | Spliterator.NONNULL;
+
+        /**
+         * The tracker to read.
+         */
+        private final BudgetTracker tracker;
+
+        /**
+         * Index of the next record.
+         */
+        private int from;
+
+        /**
+         * Index just past the last record of the range.
+         */
+        private final int to;
+
+        /**
+         * The records of the range, once the first one has been read.
+         */
+        private Iterator<Transaction> records;
+
+        /**
+         * Constructor for the range {@code [from, to)} of {@code tracker}.
+         *
+         * @param tracker
+         *            the tracker to read
+         * @param from
+         *            the index of the first record of the range
+         * @param to
+         *            the index just past the last record of the range
+         */
+        private ViewSpliterator(BudgetTracker tracker, int from, int to) {
+            this.tracker = tracker;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Transaction> action) {
+            boolean advanced = this.from < this.to;
+            if (advanced) {
+                if (this.records == null) {
+                    this.records = this.tracker
+                            .view(this.from, this.to - this.from).iterator();
+                }
+                this.from++;
+                action.accept(this.records.next());
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Transaction> action) {
+            if (this.from < this.to) {
+                if (this.records == null) {
+                    this.records = this.tracker
+                            .view(this.from, this.to - this.from).iterator();
+                }
+                this.from = this.to;
+                this.records.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<Transaction> trySplit() {
+            Spliterator<Transaction> prefix = null;
+            // Split only before the view is opened, and never into nothing
+            if (this.records == null && this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                prefix = new ViewSpliterator(this.tracker, this.from, middle);
+                this.from = middle;
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.to - this.from;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return new ViewSpliterator(this, 0, this.length());
+    }
+
+    @Override
+    public Stream<Transaction> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    @Override
+    public Stream<Transaction> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
@@ -0,0 +1,520 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@code BudgetTracker} that files every record of another tracker under a
+ * category, such as "Lunch" for "Lunch 02/17", and keeps the count and total
+ * of every category up to date through every mutation, so
+ * {@link #categoryTotal} answers "total spent on X" in constant time instead
+ * of scanning descriptions. A categorizer, given at construction, names the
+ * category of each description; by default a description is its own
+ * category.
+ *
+ * <p>
+ * Descriptions and categories are dictionary-encoded (see
+ * {@code DescriptionDictionary}). Each distinct description is categorized
+ * once and stored once: records added through this hand the wrapped tracker
+ * the one shared copy of their description, so a ledger whose descriptions
+ * repeat holds one {@code String} per distinct description rather than one
+ * per record, and the category id of a record is found from the code of its
+ * description. The number of records with each description is counted too,
+ * and once the descriptions no record carries outnumber those in use plus
+ * {@code INITIAL_CAPACITY}, both dictionaries are compacted, so a ledger
+ * whose descriptions churn keeps dictionaries in proportion to what it holds.
+ * </p>
+ *
+ * <p>
+ * {@code newInstance} returns an empty tracker of the wrapped kind with the
+ * same categorizer.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.rep is not null] and
+ * [every description of $this.rep has a code in $this.descriptions] and
+ * [$this.categoryOf[code] is the code in $this.categories of the category
+ *  that $this.categorizer gives $this.descriptions.decode(code)] and
+ * [$this.uses[code] is the number of records of $this.rep whose description
+ *  has code code, and $this.inUse the number of codes with uses > 0] and
+ * [$this.counts[id] and $this.cents[id] are the number of records of
+ *  $this.rep in the category with code id, and the sum of their amounts in
+ *  cents]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.rep
+ * </pre>
+ */
+public final class CategorizedBudgetTracker extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * Categorizer that makes each description its own category.
+     */
+    private static final UnaryOperator<String> OWN_CATEGORY = d -> d;
+
+    /**
+     * Initial capacity of the arrays indexed by code.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The tracker whose records are categorized.
+     */
+    private BudgetTracker rep;
+
+    /**
+     * Names the category of a description.
+     */
+    private final UnaryOperator<String> categorizer;
+
+    /**
+     * The distinct descriptions of the records.
+     */
+    private DescriptionDictionary descriptions;
+
+    /**
+     * Category id of each description, by description code.
+     */
+    private int[] categoryOf;
+
+    /**
+     * Number of records with each description, by description code.
+     */
+    private int[] uses;
+
+    /**
+     * Number of descriptions carried by at least one record.
+     */
+    private int inUse;
+
+    /**
+     * The distinct categories.
+     */
+    private DescriptionDictionary categories;
+
+    /**
+     * Number of records of each category, by category id.
+     */
+    private int[] counts;
+
+    /**
+     * Total amount of each category in cents, by category id.
+     */
+    private long[] cents;
+
+    /**
+     * Creates empty dictionaries and totals.
+     */
+    private void createNewCategories() {
+        this.descriptions = new DescriptionDictionary();
+        this.categoryOf = new int[INITIAL_CAPACITY];
+        this.uses = new int[INITIAL_CAPACITY];
+        this.inUse = 0;
+        this.categories = new DescriptionDictionary();
+        this.counts = new int[INITIAL_CAPACITY];
+        this.cents = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the code of {@code description}, encoding and categorizing it
+     * if it is new.
+     *
+     * @param description
+     *            the description
+     * @return its code
+     */
+    private int encode(String description) {
+        int size = this.descriptions.size();
+        int code = this.descriptions.encode(description);
+        if (code == size) {
+            String category = this.categorizer.apply(description);
+            assert category != null : "Violation of: category is not null";
+            int known = this.categories.size();
+            int id = this.categories.encode(category);
+            if (code == this.categoryOf.length) {
+                this.categoryOf = Arrays.copyOf(this.categoryOf, 2 * code);
+                this.uses = Arrays.copyOf(this.uses, 2 * code);
+            }
+            this.categoryOf[code] = id;
+            if (id == known && id == this.counts.length) {
+                this.counts = Arrays.copyOf(this.counts, 2 * id);
+                this.cents = Arrays.copyOf(this.cents, 2 * id);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Returns the shared copy of {@code description}, and counts a record of
+     * {@code amount} in its category.
+     *
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @return the shared copy of {@code description}
+     */
+    private String count(float amount, String description) {
+        int code = this.encode(description);
+        int id = this.categoryOf[code];
+        if (this.uses[code] == 0) {
+            this.inUse++;
+        }
+        this.uses[code]++;
+        this.counts[id]++;
+        this.cents[id] += Cents.of(amount);
+        return this.descriptions.decode(code);
+    }
+
+    /**
+     * Takes {@code record} out of the count of its category.
+     *
+     * @param record
+     *            the record
+     */
+    private void uncount(Transaction record) {
+        int code = this.descriptions.find(record.description());
+        int id = this.categoryOf[code];
+        this.uses[code]--;
+        this.counts[id]--;
+        this.cents[id] -= Cents.of(record.amount());
+        if (this.uses[code] == 0) {
+            this.inUse--;
+            if (this.descriptions.size() - this.inUse > this.inUse
+                    + INITIAL_CAPACITY) {
+                this.compact();
+            }
+        }
+    }
+
+    /**
+     * Drops the descriptions no record carries, and the categories left
+     * without records, from the dictionaries, and renumbers the tables
+     * indexed by their codes.
+     */
+    private void compact() {
+        int[] renumbered = this.descriptions.compact(this.uses);
+        int[] ids = this.categories.compact(this.counts);
+        int capacity = Math.max(INITIAL_CAPACITY, this.inUse);
+        int[] newCategoryOf = new int[capacity];
+        int[] newUses = new int[capacity];
+        for (int code = 0; code < renumbered.length; code++) {
+            if (renumbered[code] >= 0) {
+                newCategoryOf[renumbered[code]] = ids[this.categoryOf[code]];
+                newUses[renumbered[code]] = this.uses[code];
+            }
+        }
+        this.categoryOf = newCategoryOf;
+        this.uses = newUses;
+        capacity = Math.max(INITIAL_CAPACITY, this.categories.size());
+        int[] newCounts = new int[capacity];
+        long[] newCents = new long[capacity];
+        for (int id = 0; id < ids.length; id++) {
+            if (ids[id] >= 0) {
+                newCounts[ids[id]] = this.counts[id];
+                newCents[ids[id]] = this.cents[id];
+            }
+        }
+        this.counts = newCounts;
+        this.cents = newCents;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}, with
+     * categories named by {@code categorizer}.
+     *
+     * @param tracker
+     *            the tracker whose records to categorize
+     * @param categorizer
+     *            names the category of a description
+     * @clears tracker
+     * @requires tracker is not a MappedBudgetTracker
+     * @ensures this = #tracker
+     */
+    public CategorizedBudgetTracker(BudgetTracker tracker,
+            UnaryOperator<String> categorizer) {
+        assert tracker != null : "Violation of: tracker is not null";
+        assert !(tracker instanceof MappedBudgetTracker) : "Violation of: "
+                + "tracker is not a MappedBudgetTracker";
+        assert categorizer != null : "Violation of: categorizer is not null";
+        this.categorizer = categorizer;
+        this.rep = tracker.newInstance();
+        this.rep.transferFrom(tracker);
+        this.createNewCategories();
+        for (Transaction record : this.rep) {
+            this.count(record.amount(), record.description());
+        }
+    }
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}, with each
+     * description its own category.
+     *
+     * @param tracker
+     *            the tracker whose records to categorize
+     * @clears tracker
+     * @ensures this = #tracker
+     */
+    public CategorizedBudgetTracker(BudgetTracker tracker) {
+        this(tracker, OWN_CATEGORY);
+    }
+
+    /*
+     * Category methods
+     */
+
+    /**
+     * Returns the category of the record at {@code index}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the name of its category
+     * @requires index < |this| and index >= 0
+     */
+    public String categoryAt(int index) {
+        assert index < this.rep.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        String description = this.rep.view(index, 1).iterator().next()
+                .description();
+        return this.categories.decode(
+                this.categoryOf[this.descriptions.find(description)]);
+    }
+
+    /**
+     * Returns the number of records in {@code category}.
+     *
+     * @param category
+     *            the name of the category
+     * @return the number of its records
+     */
+    public int categoryCount(String category) {
+        assert category != null : "Violation of: category is not null";
+        int id = this.categories.find(category);
+        int count = 0;
+        if (id >= 0) {
+            count = this.counts[id];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total amount of the records in {@code category}.
+     *
+     * @param category
+     *            the name of the category
+     * @return the sum of the amounts of its records
+     */
+    public float categoryTotal(String category) {
+        assert category != null : "Violation of: category is not null";
+        int id = this.categories.find(category);
+        long total = 0L;
+        if (id >= 0) {
+            total = this.cents[id];
+        }
+        return Cents.toAmount(total);
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        return new CategorizedBudgetTracker(this.rep.newInstance(),
+                this.categorizer);
+    }
+
+    @Override
+    public void clear() {
+        this.rep.clear();
+        this.createNewCategories();
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof CategorizedBudgetTracker : "Violation of: "
+                + "source is of dynamic type CategorizedBudgetTracker";
+        CategorizedBudgetTracker localSource =
+                (CategorizedBudgetTracker) source;
+        assert this.categorizer == localSource.categorizer : ""
+                + "Violation of: source has the categorizer of this";
+        this.rep = localSource.rep;
+        this.descriptions = localSource.descriptions;
+        this.categoryOf = localSource.categoryOf;
+        this.uses = localSource.uses;
+        this.inUse = localSource.inUse;
+        this.categories = localSource.categories;
+        this.counts = localSource.counts;
+        this.cents = localSource.cents;
+        localSource.rep = this.rep.newInstance();
+        localSource.createNewCategories();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.rep.length();
+    }
+
+    @Override
+    public Transaction remove() {
+        assert this.rep.length() > 0 : "Violation of: |this| > 0";
+        Transaction record = this.rep.remove();
+        this.uncount(record);
+        return record;
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        assert description != null : "Violation of: description is not null";
+        this.rep.add(amount, this.count(amount, description));
+    }
+
+    @Override
+    public void add(Transaction record) {
+        assert record != null : "Violation of: record is not null";
+        this.add(record.amount(), record.description());
+    }
+
+    @Override
+    public float balance() {
+        return this.rep.balance();
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        this.rep.setAccountName(name);
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.rep.getAccountName();
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        return this.rep.view(fromIndex, count);
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return this.rep.iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return this.rep.spliterator();
+    }
+
+    /*
+     * Secondary methods: edits keep the categories in step, queries go to the
+     * wrapped tracker
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        assert description != null : "Violation of: description is not null";
+        this.rep.addToIndex(index, amount, this.count(amount, description));
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert description != null : "Violation of: description is not null";
+        Transaction old = this.rep.modifyIndex(index, amount,
+                this.count(amount, description));
+        this.uncount(old);
+        return old;
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        Transaction old = this.rep.removeIndex(index);
+        this.uncount(old);
+        return old;
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        this.rep.changeIndex(curIndex, index);
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : ""
+                        + "Violation of: 0 <= count <= |amounts| and "
+                        + "count <= |descriptions|";
+        String[] shared = new String[count];
+        for (int i = 0; i < count; i++) {
+            shared[i] = this.count(amounts[i], descriptions[i]);
+        }
+        this.rep.addAll(amounts, shared, count);
+    }
+
+    @Override
+    public float rangeSum(int from, int to) {
+        return this.rep.rangeSum(from, to);
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        return this.rep.balanceAt(index);
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.rep.maxIncomeIndex();
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.rep.minIncomeIndex();
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.rep.maxExpenseIndex();
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.rep.minExpenseIndex();
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        return this.rep.keywordCount(keyword);
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        return this.rep.keywordTotal(keyword);
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.rep.balanceCents();
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        return this.rep.keywordTotalCents(keyword);
+    }
+}
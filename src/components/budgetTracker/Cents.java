@@ -0,0 +1,94 @@
+package components.budgetTracker;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Conversions between the {@code float} amounts of the {@code Transaction}
+ * API and exact {@code long} amounts in minor units (cents), for
+ * implementations that keep their amounts in fixed point.
+ *
+ * @author Chenyang Zong
+ */
+public final class Cents {
+
+    /**
+     * The number of cents in one unit of money.
+     */
+    private static final long CENTS_PER_UNIT = 100L;
+
+    /**
+     * The smallest two-digit number of cents.
+     */
+    private static final long TENS = 10L;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Cents() {
+    }
+
+    /**
+     * Returns {@code amount} in cents, rounded to the nearest cent.
+     *
+     * @param amount
+     *            the amount of money
+     * @return {@code amount} in cents
+     * @ensures of = [amount * ROUNDING rounded to the nearest integer]
+     */
+    public static long of(float amount) {
+        return Math.round((double) amount * BudgetTrackerKernel.ROUNDING);
+    }
+
+    /**
+     * Returns the amount of {@code record} in cents, rounded to the nearest
+     * cent.
+     *
+     * @param record
+     *            the record
+     * @return the amount of {@code record} in cents
+     * @ensures of = of(record.amount())
+     */
+    public static long of(Transaction record) {
+        return of(record.amount());
+    }
+
+    /**
+     * Appends {@code amount} to {@code out} with two decimal places, as
+     * {@code String.format("%.2f", amount)} would, but without going through
+     * a {@code Formatter}.
+     *
+     * @param out
+     *            the buffer to append to
+     * @param amount
+     *            the amount of money
+     * @updates out
+     * @ensures out = #out * [amount with two decimal places]
+     */
+    public static void appendTo(StringBuilder out, float amount) {
+        // Round the magnitude so that halves go away from zero, like %.2f
+        long cents = of(Math.abs(amount));
+        if (amount < 0) {
+            out.append('-');
+        }
+        long fraction = cents % CENTS_PER_UNIT;
+        out.append(cents / CENTS_PER_UNIT).append('.');
+        if (fraction < TENS) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    /**
+     * Returns {@code cents} as a {@code float} amount of money.
+     *
+     * @param cents
+     *            the amount in cents
+     * @return the amount of money
+     * @ensures toAmount = [cents / ROUNDING rounded once to the nearest
+     *          float]
+     */
+    public static float toAmount(long cents) {
+        // Divide in double, so that the quotient is rounded to float only once
+        return (float) (cents / (double) BudgetTrackerKernel.ROUNDING);
+    }
+}
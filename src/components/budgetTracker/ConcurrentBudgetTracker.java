@@ -0,0 +1,520 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe {@code BudgetTracker} that guards another tracker with a
+ * {@code StampedLock}. Writers take the lock exclusively and publish what
+ * they changed when they finish, so readers of the common queries rarely
+ * wait for them:
+ * <ul>
+ * <li>{@code length}, {@code balance} and {@code getAccountName} read an
+ * immutable summary that every write publishes, and never block, even while a
+ * long {@code addToIndex} is running;</li>
+ * <li>{@code iterator} walks an immutable copy of the records, shared by
+ * every reader until the next write; a write drops the copy only once it is
+ * done, so a reader that finds one uses it without any lock, and only the
+ * first reader after a write copies the records, under the shared read lock;
+ * {@code view} uses the same copy when there is one, and otherwise copies
+ * just its run;</li>
+ * <li>{@code rangeSum}, {@code balanceAt}, the extremes and the keyword
+ * queries take the shared read lock, so they run side by side; the kernels
+ * synchronize the lazy indexes they bring up to date while answering
+ * them.</li>
+ * </ul>
+ *
+ * <p>
+ * Iterators, spliterators and streams never throw because of concurrent
+ * writes: they see the records as of the write before they were created.
+ * {@code newInstance} returns an empty thread-safe tracker over an empty
+ * tracker of the wrapped kind.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.rep is not null and is only used while holding $this.lock] and
+ * [$this.summary holds |$this.rep|, $this.rep.balance and
+ *  $this.rep.accountName] and
+ * [$this.records is null or holds the records of $this.rep, latest first]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.rep
+ * </pre>
+ */
+public final class ConcurrentBudgetTracker extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * What readers see of the tracker without taking the lock.
+     *
+     * @param length
+     *            the number of records
+     * @param balanceCents
+     *            the balance in cents
+     * @param accountName
+     *            the name of the account
+     */
+    private record Summary(int length, long balanceCents, String accountName) {
+    }
+
+    /**
+     * Guards {@code rep}.
+     */
+    private final StampedLock lock;
+
+    /**
+     * The tracker being guarded.
+     */
+    private BudgetTracker rep;
+
+    /**
+     * Summary of {@code rep} as of the last write.
+     */
+    private volatile Summary summary;
+
+    /**
+     * Copy of the records of {@code rep}, latest first, or null if it has to
+     * be made again after a write.
+     */
+    private volatile Transaction[] records;
+
+    /**
+     * Publishes the state of {@code rep} after a write; called while holding
+     * the write lock.
+     */
+    private void publish() {
+        this.records = null;
+        this.summary = new Summary(this.rep.length(), this.rep.balanceCents(),
+                this.rep.getAccountName());
+    }
+
+    /**
+     * Returns the records as of the last write, copying them unless another
+     * reader already has since that write.
+     *
+     * @return the records, latest first
+     */
+    private Transaction[] records() {
+        Transaction[] copy = this.records;
+        if (copy == null) {
+            long stamp = this.lock.readLock();
+            try {
+                copy = this.records;
+                if (copy == null) {
+                    // Readers that race here make equal copies
+                    copy = new Transaction[this.rep.length()];
+                    int i = 0;
+                    for (Transaction record : this.rep) {
+                        copy[i] = record;
+                        i++;
+                    }
+                    this.records = copy;
+                }
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Takes the tracker out of {@code source}, leaving it an empty tracker of
+     * the same kind; called while holding no lock, so that two trackers
+     * moving records into each other cannot deadlock.
+     *
+     * @param source
+     *            the tracker to empty
+     * @return the tracker that {@code source} guarded
+     */
+    private static BudgetTracker detach(ConcurrentBudgetTracker source) {
+        BudgetTracker taken;
+        long stamp = source.lock.writeLock();
+        try {
+            taken = source.rep;
+            source.rep = taken.newInstance();
+            source.publish();
+        } finally {
+            source.lock.unlockWrite(stamp);
+        }
+        return taken;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}.
+     *
+     * @param tracker
+     *            the tracker to guard
+     * @clears tracker
+     * @requires tracker is not a MappedBudgetTracker
+     * @ensures this = #tracker
+     */
+    public ConcurrentBudgetTracker(BudgetTracker tracker) {
+        assert tracker != null : "Violation of: tracker is not null";
+        assert !(tracker instanceof MappedBudgetTracker) : "Violation of: "
+                + "tracker is not a MappedBudgetTracker";
+        this.lock = new StampedLock();
+        this.rep = tracker.newInstance();
+        this.rep.transferFrom(tracker);
+        this.publish();
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        long stamp = this.lock.readLock();
+        try {
+            return new ConcurrentBudgetTracker(this.rep.newInstance());
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = this.lock.writeLock();
+        try {
+            // Clearing in place keeps whatever the rep holds, such as a journal
+            this.rep.clear();
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof ConcurrentBudgetTracker : "Violation of: "
+                + "source is of dynamic type ConcurrentBudgetTracker";
+        BudgetTracker taken = detach((ConcurrentBudgetTracker) source);
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep = taken;
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.summary.length();
+    }
+
+    @Override
+    public Transaction remove() {
+        long stamp = this.lock.writeLock();
+        try {
+            assert this.rep.length() > 0 : "Violation of: |this| > 0";
+            Transaction t = this.rep.remove();
+            this.publish();
+            return t;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.add(amount, description);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void add(Transaction record) {
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.add(record);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public float balance() {
+        return Cents.toAmount(this.summary.balanceCents());
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.setAccountName(name);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.summary.accountName();
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        Transaction[] copy = this.records;
+        int from = fromIndex;
+        if (copy == null) {
+            // Copy only the run, rather than every record
+            long stamp = this.lock.readLock();
+            try {
+                assert 0 <= fromIndex && 0 <= count && fromIndex
+                        + count <= this.rep.length() : "Violation of: "
+                                + "0 <= fromIndex and 0 <= count and "
+                                + "fromIndex + count <= |this|";
+                copy = new Transaction[count];
+                int i = 0;
+                for (Transaction record : this.rep.view(fromIndex, count)) {
+                    copy[i] = record;
+                    i++;
+                }
+                from = 0;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        assert 0 <= from && 0 <= count && from + count <= copy.length
+                : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return Collections.unmodifiableList(
+                Arrays.asList(copy).subList(from, from + count));
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(this.records()))
+                .iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        // The shared copy never changes, so streams may outlive later writes
+        return Spliterators.spliterator(this.records(),
+                Spliterator.ORDERED | Spliterator.NONNULL
+                        | Spliterator.IMMUTABLE);
+    }
+
+    /*
+     * Secondary methods: edits take the lock exclusively
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.addToIndex(index, amount, description);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        long stamp = this.lock.writeLock();
+        try {
+            Transaction t = this.rep.modifyIndex(index, amount, description);
+            this.publish();
+            return t;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        long stamp = this.lock.writeLock();
+        try {
+            Transaction t = this.rep.removeIndex(index);
+            this.publish();
+            return t;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.changeIndex(curIndex, index);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.addAll(amounts, descriptions, count);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        // A thread-safe source is emptied first, without holding this lock
+        BudgetTracker records = source;
+        if (source instanceof ConcurrentBudgetTracker) {
+            records = detach((ConcurrentBudgetTracker) source);
+        }
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.append(records);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void mergeOrdered(BudgetTracker source,
+            Comparator<Transaction> order) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        BudgetTracker records = source;
+        if (source instanceof ConcurrentBudgetTracker) {
+            records = detach((ConcurrentBudgetTracker) source);
+        }
+        long stamp = this.lock.writeLock();
+        try {
+            this.rep.mergeOrdered(records, order);
+            this.publish();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Secondary queries: shared, since the kernels synchronize lazy indexes
+     */
+
+    @Override
+    public float rangeSum(int from, int to) {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.rangeSum(from, to);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.balanceAt(index);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.maxIncomeIndex();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.minIncomeIndex();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.maxExpenseIndex();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.minExpenseIndex();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.keywordCount(keyword);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.keywordTotal(keyword);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.summary.balanceCents();
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        long stamp = this.lock.readLock();
+        try {
+            return this.rep.keywordTotalCents(keyword);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,715 @@
+package components.budgetTracker;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.TreeMap;
+
+/**
+ * {@code BudgetTracker} that gives the records of another tracker optional
+ * timestamps, in epoch milliseconds, and keeps them in a time index, so that
+ * {@link #between} finds the records of a period in O(log n + k) time instead
+ * of parsing dates out of every description. It also keeps the net amount of
+ * every calendar day and month, in exact cents, updated by every mutator, so
+ * {@link #dayTotal} and {@link #monthTotal} are hash lookups, in constant
+ * time.
+ *
+ * <p>
+ * Records added through the {@code BudgetTracker} methods are undated, with
+ * timestamp {@link #UNDATED}, and appear in neither the index nor the totals;
+ * the overloads that take timestamps add dated records. {@code modifyIndex}
+ * keeps the timestamp of the record it replaces, and {@code changeIndex} moves
+ * the timestamp with its record. {@code append}, {@code mergeOrdered} and
+ * {@code transferFrom} keep the timestamps of a {@code DatedBudgetTracker}
+ * source. Timestamps sit in an array beside the wrapped tracker, so an edit
+ * in the middle also shifts the timestamps above it.
+ * </p>
+ *
+ * <p>
+ * Code that takes records out and adds them back through the
+ * {@code BudgetTracker} methods alone dates them anew as undated. A
+ * {@code BatchEdit} and an {@code UndoableBudgetTracker} working on this
+ * tracker directly use the overloads with timestamps, so their records keep
+ * theirs; wrapped in another tracker first, this tracker is hidden from
+ * them, and the records they put back are undated.
+ * </p>
+ *
+ * <p>
+ * {@code newInstance} returns an empty tracker of the wrapped kind, with the
+ * same time zone.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.rep is not null] and
+ * [$this.stamps[0, |$this.rep|) holds the timestamp of every record of
+ *  $this.rep, earliest first] and
+ * [$this.times maps every timestamp other than UNDATED to the records of
+ *  $this.rep with that timestamp, in the order they were added] and
+ * [$this.days and $this.months map every day and month of $this.zone with
+ *  dated records to the sum of their amounts in cents, if not zero]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.rep
+ * </pre>
+ */
+public final class DatedBudgetTracker extends BudgetTrackerSecondary {
+    /*
+     * Public members
+     */
+
+    /**
+     * Timestamp of a record without a date.
+     */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Initial capacity of the timestamp array.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The tracker whose records are dated.
+     */
+    private BudgetTracker rep;
+
+    /**
+     * Time zone that days and months are taken in.
+     */
+    private final ZoneId zone;
+
+    /**
+     * Timestamps of the records, earliest first.
+     */
+    private long[] stamps;
+
+    /**
+     * Dated records by timestamp.
+     */
+    private NavigableMap<Long, List<Transaction>> times;
+
+    /**
+     * Net amount of every day, in cents.
+     */
+    private Map<LocalDate, Long> days;
+
+    /**
+     * Net amount of every month, in cents.
+     */
+    private Map<YearMonth, Long> months;
+
+    /**
+     * Creates an empty time index, with room for the timestamps of
+     * {@code capacity} records, all undated.
+     *
+     * @param capacity
+     *            the number of records to make room for
+     */
+    private void createNewIndex(int capacity) {
+        this.stamps = new long[Math.max(capacity, INITIAL_CAPACITY)];
+        Arrays.fill(this.stamps, UNDATED);
+        this.times = new TreeMap<>();
+        this.days = new HashMap<>();
+        this.months = new HashMap<>();
+    }
+
+    /**
+     * Adds {@code cents} to the total of {@code key} in {@code totals},
+     * dropping totals that come to zero.
+     *
+     * @param <K>
+     *            type of the key
+     * @param totals
+     *            the totals to update
+     * @param key
+     *            the key whose total changes
+     * @param cents
+     *            the amount to add, in cents
+     */
+    private static <K> void adjust(Map<K, Long> totals, K key, long cents) {
+        long total = totals.getOrDefault(key, 0L) + cents;
+        if (total == 0L) {
+            totals.remove(key);
+        } else {
+            totals.put(key, total);
+        }
+    }
+
+    /**
+     * Adds {@code record}, dated {@code stamp}, to the index and the totals,
+     * or takes it out of them.
+     *
+     * @param record
+     *            the record
+     * @param stamp
+     *            the timestamp of the record
+     * @param in
+     *            whether to add the record rather than take it out
+     */
+    private void index(Transaction record, long stamp, boolean in) {
+        if (stamp != UNDATED) {
+            long cents = Cents.of(record.amount());
+            if (in) {
+                this.times.computeIfAbsent(stamp, t -> new ArrayList<>(1))
+                        .add(record);
+            } else {
+                List<Transaction> records = this.times.get(stamp);
+                records.remove(record);
+                if (records.isEmpty()) {
+                    this.times.remove(stamp);
+                }
+                cents = -cents;
+            }
+            LocalDate day = Instant.ofEpochMilli(stamp).atZone(this.zone)
+                    .toLocalDate();
+            adjust(this.days, day, cents);
+            adjust(this.months, YearMonth.from(day), cents);
+        }
+    }
+
+    /**
+     * Makes room for the timestamp of one more record at {@code index}.
+     *
+     * @param index
+     *            the index of the new record
+     * @param stamp
+     *            its timestamp
+     * @requires index <= |$this.rep| and [the new record is not added to
+     *           $this.rep yet]
+     */
+    private void insertStamp(int index, long stamp) {
+        int length = this.rep.length();
+        if (length == this.stamps.length) {
+            this.stamps = Arrays.copyOf(this.stamps, 2 * length);
+        }
+        int position = length - index;
+        System.arraycopy(this.stamps, position, this.stamps, position + 1,
+                index);
+        this.stamps[position] = stamp;
+    }
+
+    /**
+     * Drops the timestamp of the record at {@code index}, and returns it.
+     *
+     * @param index
+     *            the index of the record
+     * @return its timestamp
+     * @requires index < |$this.rep| and [the record is not removed from
+     *           $this.rep yet]
+     */
+    private long removeStamp(int index) {
+        int length = this.rep.length();
+        int position = length - 1 - index;
+        long stamp = this.stamps[position];
+        System.arraycopy(this.stamps, position + 1, this.stamps, position,
+                index);
+        return stamp;
+    }
+
+    /**
+     * Returns the timestamps of the records of {@code tracker}, earliest
+     * first, all {@code UNDATED} unless it is a {@code DatedBudgetTracker}.
+     *
+     * @param tracker
+     *            the tracker
+     * @return the timestamps of its records
+     */
+    private static long[] stampsOf(BudgetTracker tracker) {
+        long[] stamps = new long[tracker.length()];
+        if (tracker instanceof DatedBudgetTracker) {
+            DatedBudgetTracker dated = (DatedBudgetTracker) tracker;
+            System.arraycopy(dated.stamps, 0, stamps, 0, stamps.length);
+        } else {
+            Arrays.fill(stamps, UNDATED);
+        }
+        return stamps;
+    }
+
+    /**
+     * Returns the records of {@code tracker}, earliest first.
+     *
+     * @param tracker
+     *            the tracker
+     * @return its records
+     */
+    private static Transaction[] recordsOf(BudgetTracker tracker) {
+        Transaction[] records = new Transaction[tracker.length()];
+        int i = records.length - 1;
+        for (Transaction record : tracker) {
+            records[i] = record;
+            i--;
+        }
+        return records;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}, all
+     * undated, with days and months taken in {@code zone}.
+     *
+     * @param tracker
+     *            the tracker whose records to date
+     * @param zone
+     *            the time zone of days and months
+     * @clears tracker
+     * @requires tracker is not a MappedBudgetTracker
+     * @ensures this = #tracker
+     */
+    public DatedBudgetTracker(BudgetTracker tracker, ZoneId zone) {
+        assert tracker != null : "Violation of: tracker is not null";
+        assert !(tracker instanceof MappedBudgetTracker) : "Violation of: "
+                + "tracker is not a MappedBudgetTracker";
+        assert zone != null : "Violation of: zone is not null";
+        this.rep = tracker.newInstance();
+        this.rep.transferFrom(tracker);
+        this.zone = zone;
+        this.createNewIndex(this.rep.length());
+    }
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}, all
+     * undated, with days and months taken in UTC.
+     *
+     * @param tracker
+     *            the tracker whose records to date
+     * @clears tracker
+     * @ensures this = #tracker
+     */
+    public DatedBudgetTracker(BudgetTracker tracker) {
+        this(tracker, ZoneOffset.UTC);
+    }
+
+    /*
+     * Time methods
+     */
+
+    /**
+     * Adds a record dated {@code timestamp} as the latest record.
+     *
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @param timestamp
+     *            the time of the record, in epoch milliseconds, or
+     *            {@code UNDATED}
+     * @updates this
+     * @ensures this = #this * <(amount, description)>
+     */
+    public void add(float amount, String description, long timestamp) {
+        this.addToIndex(0, amount, description, timestamp);
+    }
+
+    /**
+     * Adds a record dated {@code timestamp} at {@code index}.
+     *
+     * @param index
+     *            the index of the new record
+     * @param amount
+     *            the amount of the record
+     * @param description
+     *            the description of the record
+     * @param timestamp
+     *            the time of the record, in epoch milliseconds, or
+     *            {@code UNDATED}
+     * @updates this
+     * @requires index <= |this| and index >= 0
+     * @ensures [this is #this with (amount, description) at index]
+     */
+    public void addToIndex(int index, float amount, String description,
+            long timestamp) {
+        assert index <= this.rep.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        this.insertStamp(index, timestamp);
+        if (index == 0) {
+            this.rep.add(amount, description);
+        } else {
+            this.rep.addToIndex(index, amount, description);
+        }
+        this.index(this.rep.view(index, 1).iterator().next(), timestamp, true);
+    }
+
+    /**
+     * Adds a batch of dated records, as in
+     * {@link BudgetTracker#addAll(float[], String[], int)}.
+     *
+     * @param amounts
+     *            the amounts of the records, earliest first
+     * @param descriptions
+     *            the descriptions of the records, earliest first
+     * @param timestamps
+     *            the times of the records, earliest first, in epoch
+     *            milliseconds or {@code UNDATED}
+     * @param count
+     *            the number of records to add
+     * @updates this
+     * @requires 0 <= count <= |amounts| and count <= |descriptions| and
+     *           count <= |timestamps|
+     * @ensures [this is #this with the count records added, the last one
+     *          latest]
+     */
+    public void addAll(float[] amounts, String[] descriptions,
+            long[] timestamps, int count) {
+        assert timestamps != null : "Violation of: timestamps is not null";
+        assert count <= timestamps.length : ""
+                + "Violation of: count <= |timestamps|";
+        int length = this.rep.length();
+        this.rep.addAll(amounts, descriptions, count);
+        if (length + count > this.stamps.length) {
+            this.stamps = Arrays.copyOf(this.stamps,
+                    Math.max(length + count, 2 * this.stamps.length));
+        }
+        System.arraycopy(timestamps, 0, this.stamps, length, count);
+        boolean dated = false;
+        for (int i = 0; i < count; i++) {
+            dated |= timestamps[i] != UNDATED;
+        }
+        if (dated) {
+            int i = count - 1;
+            for (Transaction record : this.rep.view(0, count)) {
+                this.index(record, timestamps[i], true);
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Returns the timestamp of the record at {@code index}.
+     *
+     * @param index
+     *            the index of the record
+     * @return its time in epoch milliseconds, or {@code UNDATED}
+     * @requires index < |this| and index >= 0
+     */
+    public long timestampAt(int index) {
+        assert index < this.rep.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        return this.stamps[this.rep.length() - 1 - index];
+    }
+
+    /**
+     * Returns the dated records from {@code from} up to but not including
+     * {@code to}, in time order; records of the same time come in the order
+     * they were added.
+     *
+     * @param from
+     *            the start of the period, in epoch milliseconds
+     * @param to
+     *            the end of the period, in epoch milliseconds
+     * @return the records of the period
+     * @requires from <= to
+     */
+    public List<Transaction> between(long from, long to) {
+        assert from <= to : "Violation of: from <= to";
+        List<Transaction> records = new ArrayList<>();
+        for (List<Transaction> same : this.times.subMap(from, true, to, false)
+                .values()) {
+            records.addAll(same);
+        }
+        return records;
+    }
+
+    /**
+     * Returns the net amount of the records dated on {@code day}.
+     *
+     * @param day
+     *            the day, in the time zone of this
+     * @return the sum of the amounts of its records
+     */
+    public float dayTotal(LocalDate day) {
+        assert day != null : "Violation of: day is not null";
+        return Cents.toAmount(this.days.getOrDefault(day, 0L));
+    }
+
+    /**
+     * Returns the net amount of the records dated in {@code month}.
+     *
+     * @param month
+     *            the month, in the time zone of this
+     * @return the sum of the amounts of its records
+     */
+    public float monthTotal(YearMonth month) {
+        assert month != null : "Violation of: month is not null";
+        return Cents.toAmount(this.months.getOrDefault(month, 0L));
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        return new DatedBudgetTracker(this.rep.newInstance(), this.zone);
+    }
+
+    @Override
+    public void clear() {
+        this.rep.clear();
+        this.createNewIndex(0);
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof DatedBudgetTracker : ""
+                + "Violation of: source is of dynamic type DatedBudgetTracker";
+        DatedBudgetTracker localSource = (DatedBudgetTracker) source;
+        assert this.zone.equals(localSource.zone) : ""
+                + "Violation of: source has the time zone of this";
+        this.rep = localSource.rep;
+        this.stamps = localSource.stamps;
+        this.times = localSource.times;
+        this.days = localSource.days;
+        this.months = localSource.months;
+        localSource.rep = this.rep.newInstance();
+        localSource.createNewIndex(0);
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.rep.length();
+    }
+
+    @Override
+    public Transaction remove() {
+        assert this.rep.length() > 0 : "Violation of: |this| > 0";
+        long stamp = this.removeStamp(0);
+        Transaction record = this.rep.remove();
+        this.index(record, stamp, false);
+        return record;
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        this.addToIndex(0, amount, description, UNDATED);
+    }
+
+    @Override
+    public void add(Transaction record) {
+        assert record != null : "Violation of: record is not null";
+        this.insertStamp(0, UNDATED);
+        this.rep.add(record);
+    }
+
+    @Override
+    public float balance() {
+        return this.rep.balance();
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        this.rep.setAccountName(name);
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.rep.getAccountName();
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        return this.rep.view(fromIndex, count);
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return this.rep.iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return this.rep.spliterator();
+    }
+
+    /*
+     * Secondary methods: edits keep the timestamps in step, queries go to the
+     * wrapped tracker
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        this.addToIndex(index, amount, description, UNDATED);
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.rep.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        long stamp = this.timestampAt(index);
+        Transaction old = this.rep.modifyIndex(index, amount, description);
+        this.index(old, stamp, false);
+        this.index(this.rep.view(index, 1).iterator().next(), stamp, true);
+        return old;
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        assert index < this.rep.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        long stamp = this.removeStamp(index);
+        Transaction old = this.rep.removeIndex(index);
+        this.index(old, stamp, false);
+        return old;
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        assert index < this.rep.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.rep.length() && curIndex >= 0 : ""
+                + "Violation of: curIndex < |this| and curIndex >= 0";
+        long stamp = this.removeStamp(curIndex);
+        this.rep.changeIndex(curIndex, index);
+        // The timestamp array is one short until the record is back in it
+        int length = this.rep.length() - 1;
+        int position = length - index;
+        System.arraycopy(this.stamps, position, this.stamps, position + 1,
+                index);
+        this.stamps[position] = stamp;
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        long[] timestamps = new long[count];
+        Arrays.fill(timestamps, UNDATED);
+        this.addAll(amounts, descriptions, timestamps, count);
+    }
+
+    @Override
+    public void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        Transaction[] records = recordsOf(source);
+        float[] amounts = new float[records.length];
+        String[] descriptions = new String[records.length];
+        for (int i = 0; i < records.length; i++) {
+            amounts[i] = records[i].amount();
+            descriptions[i] = records[i].description();
+        }
+        this.addAll(amounts, descriptions, stampsOf(source), records.length);
+        source.clear();
+    }
+
+    @Override
+    public void mergeOrdered(BudgetTracker source,
+            Comparator<Transaction> order) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert order != null : "Violation of: order is not null";
+        Transaction[] later = recordsOf(source);
+        long[] laterStamps = stampsOf(source);
+        // Only the records of this after the earliest of source move
+        int moved = 0;
+        if (later.length > 0) {
+            Iterator<Transaction> records = this.rep.iterator();
+            boolean after = true;
+            while (after && records.hasNext()) {
+                after = order.compare(records.next(), later[0]) > 0;
+                if (after) {
+                    moved++;
+                }
+            }
+        }
+        Transaction[] tail = new Transaction[moved];
+        long[] tailStamps = new long[moved];
+        for (int i = moved - 1; i >= 0; i--) {
+            tailStamps[i] = this.timestampAt(0);
+            tail[i] = this.remove();
+        }
+        int count = moved + later.length;
+        float[] amounts = new float[count];
+        String[] descriptions = new String[count];
+        long[] timestamps = new long[count];
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < count; i++) {
+            if (b == later.length || (a < moved
+                    && order.compare(tail[a], later[b]) <= 0)) {
+                amounts[i] = tail[a].amount();
+                descriptions[i] = tail[a].description();
+                timestamps[i] = tailStamps[a];
+                a++;
+            } else {
+                amounts[i] = later[b].amount();
+                descriptions[i] = later[b].description();
+                timestamps[i] = laterStamps[b];
+                b++;
+            }
+        }
+        this.addAll(amounts, descriptions, timestamps, count);
+        source.clear();
+    }
+
+    @Override
+    public float rangeSum(int from, int to) {
+        return this.rep.rangeSum(from, to);
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        return this.rep.balanceAt(index);
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.rep.maxIncomeIndex();
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.rep.minIncomeIndex();
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.rep.maxExpenseIndex();
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.rep.minExpenseIndex();
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        return this.rep.keywordCount(keyword);
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        return this.rep.keywordTotal(keyword);
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.rep.balanceCents();
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        return this.rep.keywordTotalCents(keyword);
+    }
+}
@@ -0,0 +1,198 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary that encodes each distinct description as a small {@code int}
+ * code, so that columnar representations store one reference per distinct
+ * description instead of one per record. Codes are handed out densely from 0
+ * in order of first appearance.
+ *
+ * <p>
+ * Codes are not reference-counted and are never reused on their own, so the
+ * dictionary holds every description it was ever asked to encode, including
+ * those no record carries any more, and grows with them. An owner whose
+ * descriptions churn counts the uses of each code itself and calls
+ * {@link #compact} once the unused codes outnumber the used ones; that drops
+ * the unused descriptions and renumbers the rest, and the owner renumbers
+ * every code it stores.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.values[0, $this.size) are distinct and not null] and
+ * [$this.slots is an open-addressing table whose length is a power of two,
+ *  holding code + 1 for every code in [0, $this.size), 0 elsewhere]
+ * </pre>
+ */
+final class DescriptionDictionary {
+
+    /**
+     * Capacity of the tables created for an empty dictionary.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The descriptions, indexed by code.
+     */
+    private String[] values;
+
+    /**
+     * Open-addressing hash table holding {@code code + 1}, or 0 if empty.
+     */
+    private int[] slots;
+
+    /**
+     * The number of codes, which run from 0 to {@code size - 1}.
+     */
+    private int size;
+
+    /**
+     * No-argument constructor.
+     */
+    DescriptionDictionary() {
+        this.values = new String[INITIAL_CAPACITY];
+        this.slots = new int[2 * INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the slot where {@code description} is stored, or the empty slot
+     * where it would be stored.
+     *
+     * @param description
+     *            the description to look up
+     * @return the slot for {@code description}
+     */
+    private int slotOf(String description) {
+        int mask = this.slots.length - 1;
+        int slot = description.hashCode() & mask;
+        while (this.slots[slot] != 0
+                && !this.values[this.slots[slot] - 1].equals(description)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Resizes the tables to hold {@code capacity} descriptions and rehashes
+     * every description.
+     *
+     * @param capacity
+     *            the new capacity, a power of two times
+     *            {@code INITIAL_CAPACITY}
+     * @requires capacity >= this.size
+     */
+    private void resize(int capacity) {
+        this.values = Arrays.copyOf(this.values, capacity);
+        this.slots = new int[2 * capacity];
+        for (int code = 0; code < this.size; code++) {
+            this.slots[this.slotOf(this.values[code])] = code + 1;
+        }
+    }
+
+    /**
+     * Doubles the tables and rehashes every description.
+     */
+    private void grow() {
+        this.resize(2 * this.values.length);
+    }
+
+    /**
+     * Returns the code of {@code description}, assigning a new one if it has
+     * not been seen before.
+     *
+     * @param description
+     *            the description to encode
+     * @return the code of {@code description}
+     * @updates this
+     * @ensures decode(encode) = description
+     */
+    int encode(String description) {
+        assert description != null : "Violation of: description is not null";
+        int slot = this.slotOf(description);
+        if (this.slots[slot] == 0) {
+            if (this.size == this.values.length) {
+                this.grow();
+                slot = this.slotOf(description);
+            }
+            this.values[this.size] = description;
+            this.size++;
+            this.slots[slot] = this.size;
+        }
+        return this.slots[slot] - 1;
+    }
+
+    /**
+     * Returns the code of {@code description}, without assigning one.
+     *
+     * @param description
+     *            the description to look up
+     * @return the code of {@code description}, or -1 if it has none
+     */
+    int find(String description) {
+        assert description != null : "Violation of: description is not null";
+        return this.slots[this.slotOf(description)] - 1;
+    }
+
+    /**
+     * Returns the description with the given code.
+     *
+     * @param code
+     *            the code to decode
+     * @return the description with code {@code code}
+     * @requires 0 <= code < [number of codes handed out]
+     */
+    String decode(int code) {
+        assert code >= 0 && code < this.size : "Violation of: code is valid";
+        return this.values[code];
+    }
+
+    /**
+     * Drops every description whose code has no use in {@code uses}, and
+     * renumbers the rest densely from 0, keeping their order. Returns the new
+     * code of each old code, or -1 for the dropped ones; takes time linear in
+     * the number of codes.
+     *
+     * @param uses
+     *            the number of uses of each code; codes past its length have
+     *            none
+     * @return the new code of each old code, or -1 if it was dropped
+     * @updates this
+     * @ensures <pre>
+     * [this holds the descriptions of #this whose codes c have
+     *  c < |uses| and uses[c] > 0, in the same order] and
+     * [compact[c] is the code in this of the description with code c in
+     *  #this, or -1 if it was dropped]
+     * </pre>
+     */
+    int[] compact(int[] uses) {
+        assert uses != null : "Violation of: uses is not null";
+        int[] renumbered = new int[this.size];
+        int kept = 0;
+        for (int code = 0; code < this.size; code++) {
+            renumbered[code] = -1;
+            if (code < uses.length && uses[code] > 0) {
+                renumbered[code] = kept;
+                this.values[kept] = this.values[code];
+                kept++;
+            }
+        }
+        Arrays.fill(this.values, kept, this.size, null);
+        this.size = kept;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < kept) {
+            capacity *= 2;
+        }
+        this.resize(capacity);
+        return renumbered;
+    }
+
+    /**
+     * Returns the number of distinct descriptions encoded so far.
+     *
+     * @return the number of codes handed out
+     */
+    int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,211 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+
+/**
+ * Stack of running extremes over a sequence of amounts, oldest first. For
+ * every position it remembers where the largest and smallest income and
+ * expense among the amounts up to that position are, so pushing or popping an
+ * amount keeps all four extremes current in constant time. On ties the later
+ * position wins, which is the smaller index in a tracker.
+ *
+ * @convention <pre>
+ * 0 <= $this.size <= |$this.amounts| and
+ * [for 0 <= p < $this.size, each best array holds at p the position of the
+ *  extreme among $this.amounts[0, p], or -1 if there is none]
+ * </pre>
+ */
+final class ExtremeStack {
+
+    /**
+     * Number of positions allocated for an empty stack.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The amounts, oldest first.
+     */
+    private float[] amounts;
+
+    /**
+     * Position of the largest positive amount up to each position.
+     */
+    private int[] maxIncome;
+
+    /**
+     * Position of the smallest positive amount up to each position.
+     */
+    private int[] minIncome;
+
+    /**
+     * Position of the most negative amount up to each position.
+     */
+    private int[] maxExpense;
+
+    /**
+     * Position of the negative amount closest to zero up to each position.
+     */
+    private int[] minExpense;
+
+    /**
+     * The number of amounts on the stack.
+     */
+    private int size;
+
+    /**
+     * No-argument constructor.
+     */
+    ExtremeStack() {
+        this.amounts = new float[INITIAL_CAPACITY];
+        this.maxIncome = new int[INITIAL_CAPACITY];
+        this.minIncome = new int[INITIAL_CAPACITY];
+        this.maxExpense = new int[INITIAL_CAPACITY];
+        this.minExpense = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the position of the running extreme after pushing
+     * {@code amount}, given the running extreme before it.
+     *
+     * @param best
+     *            the running extremes
+     * @param amount
+     *            the amount being pushed
+     * @param qualifies
+     *            whether {@code amount} is of the right kind
+     * @param larger
+     *            whether larger amounts are better
+     * @return the position of the extreme including {@code amount}
+     */
+    private int next(int[] best, float amount, boolean qualifies,
+            boolean larger) {
+        int previous = -1;
+        if (this.size > 0) {
+            previous = best[this.size - 1];
+        }
+        int result = previous;
+        if (qualifies) {
+            if (previous < 0) {
+                result = this.size;
+            } else if (larger && amount >= this.amounts[previous]) {
+                result = this.size;
+            } else if (!larger && amount <= this.amounts[previous]) {
+                result = this.size;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of amounts on the stack.
+     *
+     * @return the number of amounts
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Makes room for at least {@code capacity} amounts, so that pushes up to
+     * that size do not reallocate.
+     *
+     * @param capacity
+     *            the number of amounts to make room for
+     * @updates this
+     */
+    void reserve(int capacity) {
+        if (capacity > this.amounts.length) {
+            int grown = Math.max(2 * this.amounts.length, capacity);
+            this.amounts = Arrays.copyOf(this.amounts, grown);
+            this.maxIncome = Arrays.copyOf(this.maxIncome, grown);
+            this.minIncome = Arrays.copyOf(this.minIncome, grown);
+            this.maxExpense = Arrays.copyOf(this.maxExpense, grown);
+            this.minExpense = Arrays.copyOf(this.minExpense, grown);
+        }
+    }
+
+    /**
+     * Pushes {@code amount} on the stack.
+     *
+     * @param amount
+     *            the amount to push
+     * @updates this
+     */
+    void push(float amount) {
+        this.reserve(this.size + 1);
+        this.maxIncome[this.size] = this.next(this.maxIncome, amount,
+                amount > 0, true);
+        this.minIncome[this.size] = this.next(this.minIncome, amount,
+                amount > 0, false);
+        this.maxExpense[this.size] = this.next(this.maxExpense, amount,
+                amount < 0, false);
+        this.minExpense[this.size] = this.next(this.minExpense, amount,
+                amount < 0, true);
+        this.amounts[this.size] = amount;
+        this.size++;
+    }
+
+    /**
+     * Pops amounts until {@code newSize} remain.
+     *
+     * @param newSize
+     *            the number of amounts to keep
+     * @updates this
+     * @requires newSize >= 0
+     */
+    void truncate(int newSize) {
+        this.size = Math.min(this.size, newSize);
+    }
+
+    /**
+     * Returns the position of the running extreme at the top of the stack.
+     *
+     * @param best
+     *            the running extremes
+     * @return the position of the extreme, or -1 if there is none
+     */
+    private int top(int[] best) {
+        int position = -1;
+        if (this.size > 0) {
+            position = best[this.size - 1];
+        }
+        return position;
+    }
+
+    /**
+     * Returns the position of the largest positive amount.
+     *
+     * @return the position of the largest income, or -1 if there is none
+     */
+    int maxIncome() {
+        return this.top(this.maxIncome);
+    }
+
+    /**
+     * Returns the position of the smallest positive amount.
+     *
+     * @return the position of the smallest income, or -1 if there is none
+     */
+    int minIncome() {
+        return this.top(this.minIncome);
+    }
+
+    /**
+     * Returns the position of the most negative amount.
+     *
+     * @return the position of the largest expense, or -1 if there is none
+     */
+    int maxExpense() {
+        return this.top(this.maxExpense);
+    }
+
+    /**
+     * Returns the position of the negative amount closest to zero.
+     *
+     * @return the position of the smallest expense, or -1 if there is none
+     */
+    int minExpense() {
+        return this.top(this.minExpense);
+    }
+}
@@ -0,0 +1,118 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+
+/**
+ * Fenwick (binary indexed) tree of prefix sums over a {@code long} column
+ * owned by a columnar representation. The tree is maintained lazily: edits
+ * that shift the column only lower a watermark, and the nodes above the
+ * watermark are rebuilt from the column, in time linear in their number, the
+ * next time a prefix sum is asked for. The rebuild is synchronized, so
+ * several threads may ask for prefix sums at once, as long as no edit is
+ * reported meanwhile.
+ *
+ * @convention <pre>
+ * 0 <= $this.valid < |$this.tree| and
+ * [for 1 <= i <= $this.valid, $this.tree[i] = sum of the column over
+ *  positions [i - lowbit(i), i)]
+ * </pre>
+ */
+final class FenwickIndex {
+
+    /**
+     * Number of nodes allocated for an empty index.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The nodes of the tree, 1-based; {@code tree[0]} is unused.
+     */
+    private long[] tree;
+
+    /**
+     * The number of leading nodes that are up to date.
+     */
+    private int valid;
+
+    /**
+     * No-argument constructor.
+     */
+    FenwickIndex() {
+        this.tree = new long[INITIAL_CAPACITY + 1];
+        this.valid = 0;
+    }
+
+    /**
+     * Marks every node covering position {@code pos} or later as stale.
+     *
+     * @param pos
+     *            the first position of the column that changed
+     * @updates this
+     */
+    void invalidateFrom(int pos) {
+        this.valid = Math.min(this.valid, pos);
+    }
+
+    /**
+     * Records that {@code delta} was added to the column at {@code pos}.
+     *
+     * @param pos
+     *            the position of the column that changed
+     * @param delta
+     *            the change of the value at {@code pos}
+     * @updates this
+     */
+    void add(int pos, long delta) {
+        for (int i = pos + 1; i <= this.valid; i += Integer.lowestOneBit(i)) {
+            this.tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of {@code column} over positions {@code [0, k)}.
+     *
+     * @param column
+     *            the column this index covers
+     * @param size
+     *            the number of positions in use in {@code column}
+     * @param k
+     *            the number of leading positions to add up
+     * @return the sum of the first {@code k} values of {@code column}
+     * @updates this
+     * @requires 0 <= k <= size <= |column| and [column is the column whose
+     *           edits, including truncation to size, were reported to this]
+     */
+    long prefix(long[] column, int size, int k) {
+        this.rebuild(column, size);
+        long sum = 0L;
+        for (int i = k; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Brings the nodes up to date with the first {@code size} positions of
+     * {@code column}.
+     *
+     * @param column
+     *            the column this index covers
+     * @param size
+     *            the number of positions in use in {@code column}
+     */
+    private synchronized void rebuild(long[] column, int size) {
+        if (this.tree.length <= size) {
+            this.tree = Arrays.copyOf(this.tree,
+                    Math.max(2 * this.tree.length, size + 1));
+        }
+        for (int i = this.valid + 1; i <= size; i++) {
+            // Node i covers its own position plus the nodes just below it
+            long node = column[i - 1];
+            for (int j = 1; j < Integer.lowestOneBit(i); j <<= 1) {
+                node += this.tree[i - j];
+            }
+            this.tree[i] = node;
+        }
+        this.valid = size;
+    }
+}
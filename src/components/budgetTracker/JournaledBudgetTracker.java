@@ -0,0 +1,466 @@
+package components.budgetTracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+
+/**
+ * {@code BudgetTracker} that keeps another tracker durable by writing each of
+ * its mutations to an append-only binary journal (see {@code BudgetJournal})
+ * before applying it. Queries go straight to the wrapped tracker. Journal
+ * writes are batched, so a mutation is only durable once its group has been
+ * committed; {@link #commit()} and {@link #close()} commit immediately.
+ * Mutators report a failed journal write as an {@code UncheckedIOException},
+ * without applying the mutation.
+ *
+ * <p>
+ * {@code newInstance} returns an empty journaled tracker of the wrapped kind
+ * whose journal has no file and drops its frames. {@code transferFrom} moves
+ * the journal together with the records, so a decorator that takes this
+ * tracker over, such as {@code ConcurrentBudgetTracker}, keeps writing the
+ * file; the emptied source is left with the journal of the receiver, reset to
+ * match. Since the decorator cannot commit, mutations made through it are
+ * durable once their group is full.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.rep is not null] and [$this.journal is not null] and
+ * [replaying $this.journal gives a tracker equal to $this.rep, except for the
+ *  frames that are not committed yet]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.rep
+ * </pre>
+ */
+public final class JournaledBudgetTracker extends BudgetTrackerSecondary
+        implements Closeable {
+    /*
+     * Private members
+     */
+
+    /**
+     * The tracker whose mutations are journaled.
+     */
+    private BudgetTracker rep;
+
+    /**
+     * The journal of {@code rep}.
+     */
+    private BudgetJournal journal;
+
+    /**
+     * Constructor over a tracker and its journal.
+     *
+     * @param rep
+     *            the tracker whose mutations are journaled
+     * @param journal
+     *            the journal of {@code rep}
+     */
+    private JournaledBudgetTracker(BudgetTracker rep, BudgetJournal journal) {
+        this.rep = rep;
+        this.journal = journal;
+    }
+
+    /**
+     * Writes a reset to the state of {@code tracker} followed by its records,
+     * oldest first.
+     *
+     * @param journal
+     *            the journal to write to
+     * @param tracker
+     *            the tracker to record
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    private static void record(BudgetJournal journal, BudgetTracker tracker)
+            throws IOException {
+        int length = tracker.length();
+        // The opening is what is left of the exact balance without the records
+        long opening = tracker.balanceCents();
+        Transaction[] records = new Transaction[length];
+        int i = length;
+        for (Transaction record : tracker) {
+            i--;
+            records[i] = record;
+            opening -= Cents.of(record);
+        }
+        journal.reset(tracker.getAccountName(), opening);
+        for (Transaction record : records) {
+            journal.add(record.amount(), record.description());
+        }
+    }
+
+    /**
+     * Returns {@code e} wrapped for a mutator, which cannot throw checked
+     * exceptions.
+     *
+     * @param e
+     *            the exception
+     * @return the unchecked exception to throw
+     */
+    private static UncheckedIOException failed(IOException e) {
+        return new UncheckedIOException("Cannot write budget journal", e);
+    }
+
+    /*
+     * Factories
+     */
+
+    /**
+     * Starts a journal at {@code path}, replacing any file there, with the
+     * current contents of {@code tracker}, and returns a journaled tracker
+     * that takes those contents over.
+     *
+     * @param path
+     *            the file of the journal
+     * @param tracker
+     *            the tracker to journal
+     * @param groupSize
+     *            the number of mutations that share one {@code fsync}
+     * @return the journaled tracker
+     * @throws IOException
+     *             if the journal cannot be written
+     * @clears tracker
+     * @requires groupSize > 0 and tracker is not a MappedBudgetTracker
+     * @ensures create = #tracker
+     */
+    public static JournaledBudgetTracker create(Path path,
+            BudgetTracker tracker, int groupSize) throws IOException {
+        assert path != null : "Violation of: path is not null";
+        assert tracker != null : "Violation of: tracker is not null";
+        assert !(tracker instanceof MappedBudgetTracker) : "Violation of: "
+                + "tracker is not a MappedBudgetTracker";
+        BudgetJournal journal = BudgetJournal.create(path, groupSize);
+        record(journal, tracker);
+        journal.commit();
+        BudgetTracker rep = tracker.newInstance();
+        rep.transferFrom(tracker);
+        return new JournaledBudgetTracker(rep, journal);
+    }
+
+    /**
+     * Rebuilds the tracker journaled at {@code path} and opens the journal to
+     * keep recording it. Frames cut short by a crash are dropped from the end
+     * of the journal.
+     *
+     * @param path
+     *            the file of the journal
+     * @param factory
+     *            makes an empty tracker from an account name and an opening
+     *            balance, such as {@code BudgetTracker1L::new}
+     * @param groupSize
+     *            the number of mutations that share one {@code fsync}
+     * @return the journaled tracker
+     * @throws IOException
+     *             if the journal cannot be read or is not a journal
+     * @requires groupSize > 0
+     * @ensures open = [the tracker recorded in the journal at path]
+     */
+    public static JournaledBudgetTracker open(Path path,
+            BiFunction<String, Float, BudgetTracker> factory, int groupSize)
+            throws IOException {
+        assert path != null : "Violation of: path is not null";
+        assert factory != null : "Violation of: factory is not null";
+        BudgetJournal.Loaded loaded = BudgetJournal.load(path, factory);
+        BudgetJournal journal = BudgetJournal.append(path,
+                loaded.validBytes(), groupSize);
+        return new JournaledBudgetTracker(loaded.tracker(), journal);
+    }
+
+    /**
+     * Rebuilds the tracker journaled at {@code path} without opening the
+     * journal for writing.
+     *
+     * @param path
+     *            the file of the journal
+     * @param factory
+     *            makes an empty tracker from an account name and an opening
+     *            balance, such as {@code BudgetTracker1L::new}
+     * @return the tracker recorded in the journal
+     * @throws IOException
+     *             if the journal cannot be read or is not a journal
+     * @ensures load = [the tracker recorded in the journal at path]
+     */
+    public static BudgetTracker load(Path path,
+            BiFunction<String, Float, BudgetTracker> factory)
+            throws IOException {
+        assert path != null : "Violation of: path is not null";
+        assert factory != null : "Violation of: factory is not null";
+        return BudgetJournal.load(path, factory).tracker();
+    }
+
+    /*
+     * Durability
+     */
+
+    /**
+     * Forces every journaled mutation to the device.
+     *
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    public void commit() throws IOException {
+        this.journal.commit();
+    }
+
+    /**
+     * Commits the journal and closes its file; the tracker must not be changed
+     * afterwards.
+     *
+     * @throws IOException
+     *             if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.journal.close();
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        return new JournaledBudgetTracker(this.rep.newInstance(),
+                BudgetJournal.unbound());
+    }
+
+    @Override
+    public void clear() {
+        BudgetTracker empty = this.rep.newInstance();
+        try {
+            this.journal.reset(empty.getAccountName(),
+                    Cents.of(empty.balance()));
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep = empty;
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof JournaledBudgetTracker : "Violation of: "
+                + "source is of dynamic type JournaledBudgetTracker";
+        JournaledBudgetTracker localSource = (JournaledBudgetTracker) source;
+        // The journal of the source already replays to its records
+        BudgetJournal taken = localSource.journal;
+        localSource.journal = this.journal;
+        this.journal = taken;
+        BudgetTracker records = localSource.rep;
+        localSource.rep = this.rep;
+        this.rep = records;
+        localSource.clear();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.rep.length();
+    }
+
+    @Override
+    public Transaction remove() {
+        assert this.length() > 0 : "Violation of: |this| > 0";
+        try {
+            this.journal.remove();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        return this.rep.remove();
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        try {
+            this.journal.add(amount, description);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep.add(amount, description);
+    }
+
+    @Override
+    public void add(Transaction record) {
+        try {
+            this.journal.add(record.amount(), record.description());
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep.add(record);
+    }
+
+    @Override
+    public float balance() {
+        return this.rep.balance();
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        try {
+            this.journal.setAccountName(name);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep.setAccountName(name);
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.rep.getAccountName();
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        return this.rep.view(fromIndex, count);
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return this.rep.iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return this.rep.spliterator();
+    }
+
+    /*
+     * Secondary methods journaled as one frame per record
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        assert index <= this.length()
+                && index >= 0 : "Violation of: index <= |this| and index >= 0";
+        try {
+            this.journal.addToIndex(index, amount, description);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep.addToIndex(index, amount, description);
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        try {
+            this.journal.modifyIndex(index, amount, description);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        return this.rep.modifyIndex(index, amount, description);
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        try {
+            this.journal.removeIndex(index);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        return this.rep.removeIndex(index);
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        assert index < this.length()
+                && index >= 0 : "Violation of: index < |this| and index >= 0";
+        assert curIndex < this.length()
+                && curIndex >= 0 : "Violation of: curIndex < |this| and curIndex >= 0";
+        try {
+            this.journal.changeIndex(curIndex, index);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+        this.rep.changeIndex(curIndex, index);
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        assert amounts != null : "Violation of: amounts is not null";
+        assert descriptions != null : "Violation of: descriptions is not null";
+        assert 0 <= count && count <= amounts.length
+                && count <= descriptions.length : "Violation of: "
+                        + "0 <= count <= |amounts| and count <= |descriptions|";
+        int journaled = 0;
+        try {
+            while (journaled < count) {
+                this.journal.add(amounts[journaled], descriptions[journaled]);
+                journaled++;
+            }
+        } catch (IOException e) {
+            // Keep the tracker in step with the records already journaled
+            this.rep.addAll(amounts, descriptions, journaled);
+            throw failed(e);
+        }
+        this.rep.addAll(amounts, descriptions, count);
+    }
+
+    /*
+     * Secondary queries answered by the wrapped tracker
+     */
+
+    @Override
+    public float rangeSum(int from, int to) {
+        return this.rep.rangeSum(from, to);
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        return this.rep.balanceAt(index);
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.rep.maxIncomeIndex();
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.rep.minIncomeIndex();
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.rep.maxExpenseIndex();
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.rep.minExpenseIndex();
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        return this.rep.keywordCount(keyword);
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        return this.rep.keywordTotal(keyword);
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.rep.balanceCents();
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        return this.rep.keywordTotalCents(keyword);
+    }
+}
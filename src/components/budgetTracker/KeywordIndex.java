@@ -0,0 +1,457 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from substrings of descriptions to the records holding them.
+ * Every distinct description gets a code from a {@code DescriptionDictionary}
+ * and a posting with the number and total amount in cents of the records that
+ * carry it; the tracker's mutators keep those postings current. A trigram
+ * index over the distinct descriptions narrows a keyword down to the
+ * descriptions that may contain it, so a keyword total costs time in the
+ * number of candidate descriptions rather than in the number of records.
+ *
+ * <p>
+ * New descriptions are added to the trigram index lazily, the next time a
+ * keyword is looked up. A description whose last record goes away is taken
+ * out of the trigram index at once, and put back if a record carries it
+ * again, so the trigram postings only ever hold descriptions in use.
+ * </p>
+ *
+ * <p>
+ * The postings count the uses of every code, so they tell which descriptions
+ * of the dictionary no record carries any more. An index over a dictionary of
+ * its own compacts it once those outnumber the descriptions in use plus
+ * {@code INITIAL_CAPACITY}. An index over a dictionary shared with a tracker
+ * leaves that to the tracker, which stores codes of its own: it calls
+ * {@link #compact} and renumbers its codes with the result.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.dictionary is not null] and
+ * 0 <= $this.indexed <= $this.dictionary.size and
+ * [$this.trigrams maps every trigram of the descriptions with codes c in
+ *  [0, $this.indexed) and $this.counts[c] > 0 to the set of those codes, and
+ *  holds no other trigram] and
+ * [$this.counts[c] and $this.sums[c] are the number and total amount in cents
+ *  of the records whose description has code c, or 0 past their length] and
+ * [$this.inUse is the number of codes c with $this.counts[c] > 0]
+ * </pre>
+ */
+final class KeywordIndex {
+
+    /**
+     * Number of characters in an n-gram of the index.
+     */
+    private static final int GRAM = 3;
+
+    /**
+     * Number of bits a character takes in a packed trigram.
+     */
+    private static final int CHAR_BITS = 16;
+
+    /**
+     * Capacity of the per-description tables created for an empty index.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Unordered set of the codes of the descriptions containing a trigram.
+     */
+    private static final class Postings {
+
+        /**
+         * The codes, in no particular order.
+         */
+        private int[] codes = new int[2];
+
+        /**
+         * The number of codes in use.
+         */
+        private int size;
+
+        /**
+         * Appends {@code code} unless it is already the last code, as it is
+         * when a description holds the same trigram twice.
+         *
+         * @param code
+         *            a code not in the set, or the last code appended
+         */
+        private void append(int code) {
+            if (this.size == 0 || this.codes[this.size - 1] != code) {
+                if (this.size == this.codes.length) {
+                    this.codes = Arrays.copyOf(this.codes, 2 * this.size);
+                }
+                this.codes[this.size] = code;
+                this.size++;
+            }
+        }
+
+        /**
+         * Removes {@code code}, if it is in the set, moving the last code
+         * into its place.
+         *
+         * @param code
+         *            the code to remove
+         */
+        private void remove(int code) {
+            int i = 0;
+            while (i < this.size && this.codes[i] != code) {
+                i++;
+            }
+            if (i < this.size) {
+                this.size--;
+                this.codes[i] = this.codes[this.size];
+            }
+        }
+    }
+
+    /**
+     * The dictionary of distinct descriptions.
+     */
+    private final DescriptionDictionary dictionary;
+
+    /**
+     * Whether {@code dictionary} belongs to this index alone, so that the
+     * index may compact it.
+     */
+    private final boolean owned;
+
+    /**
+     * Postings of every trigram, keyed by its three characters packed into a
+     * {@code long}.
+     */
+    private final Map<Long, Postings> trigrams;
+
+    /**
+     * The number of descriptions added to {@code trigrams} so far.
+     */
+    private int indexed;
+
+    /**
+     * The number of records with each description, indexed by code.
+     */
+    private int[] counts;
+
+    /**
+     * The total amount in cents of the records with each description, indexed
+     * by code.
+     */
+    private long[] sums;
+
+    /**
+     * The number of descriptions carried by at least one record.
+     */
+    private int inUse;
+
+    /**
+     * Constructor for an index over {@code dictionary}.
+     *
+     * @param dictionary
+     *            the dictionary of distinct descriptions
+     * @param owned
+     *            whether the index may compact {@code dictionary}
+     */
+    private KeywordIndex(DescriptionDictionary dictionary, boolean owned) {
+        this.dictionary = dictionary;
+        this.owned = owned;
+        this.trigrams = new HashMap<>();
+        this.indexed = 0;
+        this.counts = new int[INITIAL_CAPACITY];
+        this.sums = new long[INITIAL_CAPACITY];
+        this.inUse = 0;
+    }
+
+    /**
+     * Constructor for an index over a dictionary of its own.
+     */
+    KeywordIndex() {
+        this(new DescriptionDictionary(), true);
+    }
+
+    /**
+     * Constructor for an index over a dictionary shared with a tracker that
+     * already encodes its descriptions.
+     *
+     * @param dictionary
+     *            the dictionary of distinct descriptions
+     */
+    KeywordIndex(DescriptionDictionary dictionary) {
+        this(dictionary, false);
+    }
+
+    /**
+     * Returns the trigram of {@code text} starting at {@code start}, packed
+     * into a {@code long}.
+     *
+     * @param text
+     *            the text
+     * @param start
+     *            the position of the first character of the trigram
+     * @return the packed trigram
+     * @requires 0 <= start and start + GRAM <= |text|
+     */
+    private static long trigram(String text, int start) {
+        long key = 0L;
+        for (int i = start; i < start + GRAM; i++) {
+            key = (key << CHAR_BITS) | text.charAt(i);
+        }
+        return key;
+    }
+
+    /**
+     * Adds the description with code {@code code} to the postings of each of
+     * its trigrams.
+     *
+     * @param code
+     *            the code of the description
+     */
+    private void list(int code) {
+        String description = this.dictionary.decode(code);
+        for (int i = 0; i + GRAM <= description.length(); i++) {
+            this.trigrams.computeIfAbsent(trigram(description, i),
+                    key -> new Postings()).append(code);
+        }
+    }
+
+    /**
+     * Takes the description with code {@code code} out of the postings of
+     * each of its trigrams, dropping the postings it leaves empty.
+     *
+     * @param code
+     *            the code of the description
+     */
+    private void unlist(int code) {
+        String description = this.dictionary.decode(code);
+        for (int i = 0; i + GRAM <= description.length(); i++) {
+            Long key = trigram(description, i);
+            Postings postings = this.trigrams.get(key);
+            if (postings != null) {
+                postings.remove(code);
+                if (postings.size == 0) {
+                    this.trigrams.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the descriptions in use that were encoded since the last lookup
+     * to the trigram index. Synchronized, since lookups that run side by side
+     * under a shared lock may both find the index behind.
+     */
+    private synchronized void catchUp() {
+        while (this.indexed < this.dictionary.size()) {
+            if (this.indexed < this.counts.length
+                    && this.counts[this.indexed] > 0) {
+                this.list(this.indexed);
+            }
+            this.indexed++;
+        }
+    }
+
+    /**
+     * Returns the codes of the descriptions that contain {@code keyword} and
+     * are carried by at least one record.
+     *
+     * @param keyword
+     *            the keyword to look up
+     * @return the matching codes
+     */
+    private int[] matches(String keyword) {
+        this.catchUp();
+        int[] candidates = null;
+        int candidateCount = this.indexed;
+        if (keyword.length() >= GRAM) {
+            // Any trigram of the keyword will do; the rarest is the cheapest
+            candidateCount = 0;
+            Postings rarest = null;
+            for (int i = 0; i + GRAM <= keyword.length()
+                    && (i == 0 || rarest != null); i++) {
+                Postings postings = this.trigrams.get(trigram(keyword, i));
+                if (rarest == null || postings == null
+                        || postings.size < rarest.size) {
+                    rarest = postings;
+                }
+            }
+            if (rarest != null) {
+                candidates = rarest.codes;
+                candidateCount = rarest.size;
+            }
+        }
+        int[] matches = new int[candidateCount];
+        int size = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int code = i;
+            if (candidates != null) {
+                code = candidates[i];
+            }
+            if (code < this.counts.length && this.counts[code] > 0
+                    && this.dictionary.decode(code).contains(keyword)) {
+                matches[size] = code;
+                size++;
+            }
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    /**
+     * Returns the code of {@code description}, encoding it if needed.
+     *
+     * @param description
+     *            the description
+     * @return the code of {@code description}
+     * @updates this
+     */
+    int encode(String description) {
+        return this.dictionary.encode(description);
+    }
+
+    /**
+     * Adds {@code count} records with the description of code {@code code}
+     * and a total of {@code cents} to the postings; negative arguments take
+     * records away.
+     *
+     * @param code
+     *            the code of the description
+     * @param count
+     *            the number of records added
+     * @param cents
+     *            the total amount in cents of the records added
+     * @updates this
+     * @requires 0 <= code < [number of codes in the dictionary]
+     */
+    void adjust(int code, int count, long cents) {
+        if (code >= this.counts.length) {
+            int capacity = Math.max(2 * this.counts.length, code + 1);
+            this.counts = Arrays.copyOf(this.counts, capacity);
+            this.sums = Arrays.copyOf(this.sums, capacity);
+        }
+        int before = this.counts[code];
+        this.counts[code] += count;
+        this.sums[code] += cents;
+        if (before == 0 && this.counts[code] > 0) {
+            this.inUse++;
+            if (code < this.indexed) {
+                this.list(code);
+            }
+        } else if (before > 0 && this.counts[code] == 0) {
+            this.inUse--;
+            if (code < this.indexed) {
+                this.unlist(code);
+            }
+            if (this.owned
+                    && this.unused() > this.inUse + INITIAL_CAPACITY) {
+                this.compact();
+            }
+        }
+    }
+
+    /**
+     * Adds {@code count} records with {@code description} and a total of
+     * {@code cents} to the postings; negative arguments take records away.
+     *
+     * @param description
+     *            the description of the records
+     * @param count
+     *            the number of records added
+     * @param cents
+     *            the total amount in cents of the records added
+     * @updates this
+     */
+    void adjust(String description, int count, long cents) {
+        this.adjust(this.encode(description), count, cents);
+    }
+
+    /**
+     * Returns the number of descriptions of the dictionary that no record
+     * carries.
+     *
+     * @return the number of unused codes
+     */
+    int unused() {
+        return this.dictionary.size() - this.inUse;
+    }
+
+    /**
+     * Drops the descriptions no record carries from the dictionary and
+     * renumbers the rest, as {@link DescriptionDictionary#compact} does, and
+     * renumbers the postings to match. The trigram index is rebuilt at the
+     * next lookup. Returns the new code of each old code, or -1 for the
+     * dropped ones, for a tracker sharing the dictionary to renumber the
+     * codes it stores.
+     *
+     * @return the new code of each old code, or -1 if it was dropped
+     * @updates this
+     */
+    int[] compact() {
+        int[] renumbered = this.dictionary.compact(this.counts);
+        int capacity = Math.max(INITIAL_CAPACITY, this.inUse);
+        int[] newCounts = new int[capacity];
+        long[] newSums = new long[capacity];
+        for (int code = 0; code < renumbered.length; code++) {
+            if (renumbered[code] >= 0) {
+                newCounts[renumbered[code]] = this.counts[code];
+                newSums[renumbered[code]] = this.sums[code];
+            }
+        }
+        this.counts = newCounts;
+        this.sums = newSums;
+        this.trigrams.clear();
+        this.indexed = 0;
+        return renumbered;
+    }
+
+    /**
+     * Adds the postings of {@code other} to these, as if every record it
+     * indexes were added here too; takes time in the number of distinct
+     * descriptions of {@code other}.
+     *
+     * @param other
+     *            the index whose postings are added
+     * @updates this
+     */
+    void merge(KeywordIndex other) {
+        int distinct = Math.min(other.dictionary.size(), other.counts.length);
+        for (int code = 0; code < distinct; code++) {
+            if (other.counts[code] != 0 || other.sums[code] != 0) {
+                this.adjust(other.dictionary.decode(code), other.counts[code],
+                        other.sums[code]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records whose description contains
+     * {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to look up
+     * @return the number of matching records
+     */
+    int count(String keyword) {
+        int count = 0;
+        for (int code : this.matches(keyword)) {
+            count += this.counts[code];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total amount in cents of the records whose description
+     * contains {@code keyword}.
+     *
+     * @param keyword
+     *            the keyword to look up
+     * @return the total amount of the matching records in cents
+     */
+    long total(String keyword) {
+        long total = 0L;
+        for (int code : this.matches(keyword)) {
+            total += this.sums[code];
+        }
+        return total;
+    }
+}
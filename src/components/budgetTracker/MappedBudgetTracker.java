@@ -0,0 +1,768 @@
+package components.budgetTracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only {@code BudgetTracker} served straight from a memory-mapped
+ * columnar snapshot file, written by {@link #writeSnapshot}. Opening a
+ * snapshot only maps it, so startup costs the same for ten records as for ten
+ * million; pages are read from disk as queries touch them. Every query that
+ * {@code BudgetMaxMinReport} and {@code BudgetFilterReport} make is answered
+ * from precomputed columns: the extremes are in the header, range sums come
+ * from a prefix-sum column, and keyword queries scan the distinct
+ * descriptions and their per-description totals.
+ *
+ * <p>
+ * Mutators, {@code clear} and {@code transferFrom} throw
+ * {@code UnsupportedOperationException}; {@code newInstance} returns an empty
+ * {@code BudgetTracker2}. A snapshot holds at most {@code MAX_RECORDS}
+ * records, so that every column maps as one buffer.
+ * </p>
+ *
+ * <p>
+ * Since its contents cannot be taken over, a {@code MappedBudgetTracker}
+ * cannot be the tracker of any decorator: {@code ConcurrentBudgetTracker},
+ * {@code UndoableBudgetTracker}, {@code JournaledBudgetTracker},
+ * {@code DatedBudgetTracker} and {@code CategorizedBudgetTracker} all
+ * require so, and assert it. To decorate the records of a snapshot, add
+ * them, earliest first, to the tracker from {@code newInstance} first.
+ * </p>
+ *
+ * <p>
+ * The snapshot is a header followed by sections, each starting at a multiple
+ * of eight bytes: the account name in UTF-8; the amounts in cents, latest
+ * first; the prefix sums of the amounts; the description code of every
+ * record; the number and total in cents of the records with each
+ * description; the offsets of the descriptions in the UTF-8 blob that ends
+ * the file.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.amounts, $this.prefix, $this.codes, $this.counts, $this.sums,
+ *  $this.offsets and $this.blob map the sections of one snapshot] and
+ * $this.descriptions[c] is null or the description with code c
+ * </pre>
+ * @correspondence <pre>
+ * this = <(amounts[0] / ROUNDING, [description with code codes[0]]), ...,
+ *         (amounts[length - 1] / ROUNDING,
+ *          [description with code codes[length - 1]])>
+ * </pre>
+ */
+public final class MappedBudgetTracker extends BudgetTrackerSecondary {
+
+    /**
+     * Largest number of records a snapshot holds.
+     */
+    public static final int MAX_RECORDS = Integer.MAX_VALUE / Long.BYTES - 1;
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Magic number at the start of every snapshot ("BTS1").
+     */
+    private static final int MAGIC = 0x42545331;
+
+    /**
+     * Version of the snapshot format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size in bytes of the header.
+     */
+    private static final int HEADER_BYTES = 48;
+
+    /**
+     * Position in the header of the number of records.
+     */
+    private static final int LENGTH_AT = 8;
+
+    /**
+     * Position in the header of the number of distinct descriptions.
+     */
+    private static final int DESCRIPTIONS_AT = 12;
+
+    /**
+     * Position in the header of the balance in cents.
+     */
+    private static final int BALANCE_AT = 16;
+
+    /**
+     * Position in the header of the four extreme indexes.
+     */
+    private static final int EXTREMES_AT = 24;
+
+    /**
+     * Position in the header of the size of the account name in bytes.
+     */
+    private static final int NAME_BYTES_AT = 40;
+
+    /**
+     * Position in the header of the size of the description blob in bytes.
+     */
+    private static final int BLOB_BYTES_AT = 44;
+
+    /**
+     * Alignment of every section.
+     */
+    private static final int ALIGNMENT = Long.BYTES;
+
+    /**
+     * Size in bytes of the buffer the writer fills before each write.
+     */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * The amounts in cents, latest first.
+     */
+    private final LongBuffer amounts;
+
+    /**
+     * {@code prefix.get(k)} is the total in cents of the {@code k} latest
+     * records.
+     */
+    private final LongBuffer prefix;
+
+    /**
+     * The description code of every record, latest first.
+     */
+    private final IntBuffer codes;
+
+    /**
+     * The number of records with each description.
+     */
+    private final IntBuffer counts;
+
+    /**
+     * The total amount in cents of the records with each description.
+     */
+    private final LongBuffer sums;
+
+    /**
+     * Start of every description in {@code blob}, and the end of the last.
+     */
+    private final IntBuffer offsets;
+
+    /**
+     * The UTF-8 bytes of the descriptions.
+     */
+    private final ByteBuffer blob;
+
+    /**
+     * The descriptions decoded so far, by code.
+     */
+    private final String[] descriptions;
+
+    /**
+     * The number of records.
+     */
+    private final int length;
+
+    /**
+     * The balance in cents.
+     */
+    private final long balance;
+
+    /**
+     * The four extreme indexes: largest and smallest income, largest and
+     * smallest expense.
+     */
+    private final int[] extremes;
+
+    /**
+     * The name of the account.
+     */
+    private final String accountName;
+
+    /**
+     * Rounds {@code position} up to the next section boundary.
+     *
+     * @param position
+     *            a position in the file
+     * @return the first aligned position at or after {@code position}
+     */
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Maps {@code size} bytes of {@code channel} from {@code position}.
+     *
+     * @param channel
+     *            the snapshot file
+     * @param position
+     *            the start of the section
+     * @param size
+     *            the size of the section in bytes
+     * @return the mapped section
+     * @throws IOException
+     *             if the section cannot be mapped
+     */
+    private static MappedByteBuffer map(FileChannel channel, long position,
+            long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * Returns the description with code {@code code}, decoding it from the
+     * blob the first time it is asked for.
+     *
+     * @param code
+     *            the code of the description
+     * @return the description
+     */
+    private String description(int code) {
+        String description = this.descriptions[code];
+        if (description == null) {
+            int from = this.offsets.get(code);
+            byte[] bytes = new byte[this.offsets.get(code + 1) - from];
+            this.blob.get(from, bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+            this.descriptions[code] = description;
+        }
+        return description;
+    }
+
+    /**
+     * Builds the record at {@code index}.
+     *
+     * @param index
+     *            the index of the record
+     * @return the record
+     */
+    private Transaction recordAt(int index) {
+        return new Transaction(Cents.toAmount(this.amounts.get(index)),
+                this.description(this.codes.get(index)));
+    }
+
+    /**
+     * Returns the exception every mutator of a read-only tracker throws.
+     *
+     * @return the exception to throw
+     */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException(
+                "MappedBudgetTracker is read-only");
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor that maps the snapshot at {@code path}.
+     *
+     * @param path
+     *            the snapshot file
+     * @throws IOException
+     *             if the file cannot be mapped or is not a snapshot
+     */
+    public MappedBudgetTracker(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header);
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC
+                    || header.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Not a budget snapshot: " + path);
+            }
+            this.length = header.getInt(LENGTH_AT);
+            int distinct = header.getInt(DESCRIPTIONS_AT);
+            this.balance = header.getLong(BALANCE_AT);
+            this.extremes = new int[2 * 2];
+            for (int i = 0; i < this.extremes.length; i++) {
+                this.extremes[i] = header
+                        .getInt(EXTREMES_AT + i * Integer.BYTES);
+            }
+            int nameBytes = header.getInt(NAME_BYTES_AT);
+            int blobBytes = header.getInt(BLOB_BYTES_AT);
+
+            long at = HEADER_BYTES;
+            byte[] name = new byte[nameBytes];
+            map(channel, at, nameBytes).get(name);
+            this.accountName = new String(name, StandardCharsets.UTF_8);
+            at = align(at + nameBytes);
+            long size = (long) Long.BYTES * this.length;
+            this.amounts = map(channel, at, size).asLongBuffer();
+            at += size;
+            size = (long) Long.BYTES * (this.length + 1);
+            this.prefix = map(channel, at, size).asLongBuffer();
+            at += size;
+            size = (long) Integer.BYTES * this.length;
+            this.codes = map(channel, at, size).asIntBuffer();
+            at = align(at + size);
+            size = (long) Integer.BYTES * distinct;
+            this.counts = map(channel, at, size).asIntBuffer();
+            at = align(at + size);
+            size = (long) Long.BYTES * distinct;
+            this.sums = map(channel, at, size).asLongBuffer();
+            at += size;
+            size = (long) Integer.BYTES * (distinct + 1);
+            this.offsets = map(channel, at, size).asIntBuffer();
+            at += size;
+            this.blob = map(channel, at, blobBytes);
+            this.descriptions = new String[distinct];
+        }
+    }
+
+    /*
+     * Snapshot writer
+     */
+
+    /**
+     * Writes a snapshot of {@code tracker} to {@code path}, replacing any file
+     * there. The snapshot is written to a temporary file next to
+     * {@code path} and then moved over it, so a crash never leaves a partial
+     * snapshot behind.
+     *
+     * @param tracker
+     *            the tracker to write
+     * @param path
+     *            the snapshot file
+     * @throws IOException
+     *             if the snapshot cannot be written
+     * @requires |tracker| <= MAX_RECORDS
+     */
+    public static void writeSnapshot(BudgetTracker tracker, Path path)
+            throws IOException {
+        assert tracker != null : "Violation of: tracker is not null";
+        assert tracker.length() <= MAX_RECORDS
+                : "Violation of: |tracker| <= MAX_RECORDS";
+        int length = tracker.length();
+        long[] cents = new long[length];
+        int[] codes = new int[length];
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+        int i = 0;
+        for (Transaction record : tracker) {
+            cents[i] = Cents.of(record);
+            codes[i] = dictionary.encode(record.description());
+            i++;
+        }
+        int distinct = dictionary.size();
+        int[] counts = new int[distinct];
+        long[] sums = new long[distinct];
+        for (i = 0; i < length; i++) {
+            counts[codes[i]]++;
+            sums[codes[i]] += cents[i];
+        }
+        byte[][] descriptions = new byte[distinct][];
+        int blobBytes = 0;
+        for (int code = 0; code < distinct; code++) {
+            descriptions[code] = dictionary.decode(code)
+                    .getBytes(StandardCharsets.UTF_8);
+            blobBytes += descriptions[code].length;
+        }
+        byte[] name = tracker.getAccountName()
+                .getBytes(StandardCharsets.UTF_8);
+
+        Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(),
+                path.getFileName().toString(), ".tmp");
+        try (SnapshotWriter out = new SnapshotWriter(temporary)) {
+            out.buffer.putInt(MAGIC).putInt(VERSION).putInt(length)
+                    .putInt(distinct).putLong(Cents.of(tracker.balance()))
+                    .putInt(tracker.maxIncomeIndex())
+                    .putInt(tracker.minIncomeIndex())
+                    .putInt(tracker.maxExpenseIndex())
+                    .putInt(tracker.minExpenseIndex()).putInt(name.length)
+                    .putInt(blobBytes);
+            out.bytes(name);
+            out.pad();
+            for (long amount : cents) {
+                out.room(Long.BYTES).putLong(amount);
+            }
+            long total = 0L;
+            out.room(Long.BYTES).putLong(total);
+            for (long amount : cents) {
+                total += amount;
+                out.room(Long.BYTES).putLong(total);
+            }
+            for (int code : codes) {
+                out.room(Integer.BYTES).putInt(code);
+            }
+            out.pad();
+            for (int count : counts) {
+                out.room(Integer.BYTES).putInt(count);
+            }
+            out.pad();
+            for (long sum : sums) {
+                out.room(Long.BYTES).putLong(sum);
+            }
+            int offset = 0;
+            out.room(Integer.BYTES).putInt(offset);
+            for (byte[] description : descriptions) {
+                offset += description.length;
+                out.room(Integer.BYTES).putInt(offset);
+            }
+            for (byte[] description : descriptions) {
+                out.bytes(description);
+            }
+            out.commit();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sequential writer of a snapshot file through one reused buffer.
+     */
+    private static final class SnapshotWriter implements AutoCloseable {
+
+        /**
+         * The file being written.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Bytes not yet written to {@code channel}.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Number of bytes written to {@code channel} so far.
+         */
+        private long written;
+
+        /**
+         * Constructor.
+         *
+         * @param path
+         *            the file to write
+         * @throws IOException
+         *             if the file cannot be opened
+         */
+        private SnapshotWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+            this.written = 0L;
+        }
+
+        /**
+         * Writes out the buffer.
+         *
+         * @throws IOException
+         *             if the file cannot be written
+         */
+        private void drain() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.written += this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Makes room for {@code bytes} more bytes in the buffer.
+         *
+         * @param bytes
+         *            the number of bytes about to be put
+         * @return the buffer
+         * @throws IOException
+         *             if the file cannot be written
+         */
+        private ByteBuffer room(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.drain();
+            }
+            return this.buffer;
+        }
+
+        /**
+         * Appends {@code bytes}, however many there are.
+         *
+         * @param bytes
+         *            the bytes to append
+         * @throws IOException
+         *             if the file cannot be written
+         */
+        private void bytes(byte[] bytes) throws IOException {
+            int from = 0;
+            while (from < bytes.length) {
+                int chunk = Math.min(bytes.length - from,
+                        this.room(1).remaining());
+                this.buffer.put(bytes, from, chunk);
+                from += chunk;
+            }
+        }
+
+        /**
+         * Appends zero bytes up to the next section boundary.
+         *
+         * @throws IOException
+         *             if the file cannot be written
+         */
+        private void pad() throws IOException {
+            long position = this.written + this.buffer.position();
+            for (long i = position; i < align(position); i++) {
+                this.room(1).put((byte) 0);
+            }
+        }
+
+        /**
+         * Writes out the buffer and forces the file to the device.
+         *
+         * @throws IOException
+         *             if the file cannot be written
+         */
+        private void commit() throws IOException {
+            this.drain();
+            this.channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        return new BudgetTracker2();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        throw readOnly();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public Transaction remove() {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(Transaction record) {
+        throw readOnly();
+    }
+
+    @Override
+    public float balance() {
+        return Cents.toAmount(this.balance);
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.accountName;
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        assert 0 <= fromIndex && 0 <= count && fromIndex + count <= this
+                .length() : "Violation of: 0 <= fromIndex and 0 <= count and "
+                        + "fromIndex + count <= |this|";
+        return () -> new MappedBudgetTrackerIterator(fromIndex, count);
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new MappedBudgetTrackerIterator(0, this.length);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code MappedBudgetTracker}, reading a run of records from the mapped
+     * columns.
+     */
+    private final class MappedBudgetTrackerIterator
+            implements Iterator<Transaction> {
+
+        /**
+         * Index of the next record to return.
+         */
+        private int next;
+
+        /**
+         * Index just past the run.
+         */
+        private final int end;
+
+        /**
+         * Constructor for a run of {@code count} records from
+         * {@code fromIndex}.
+         *
+         * @param fromIndex
+         *            the index of the first record in the run
+         * @param count
+         *            the number of records in the run
+         */
+        private MappedBudgetTrackerIterator(int fromIndex, int count) {
+            this.next = fromIndex;
+            this.end = fromIndex + count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.end;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction t = MappedBudgetTracker.this.recordAt(this.next);
+            this.next++;
+            return t;
+        }
+    }
+
+    /*
+     * Secondary methods: edits are unsupported, queries read the columns
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        throw readOnly();
+    }
+
+    @Override
+    public void append(BudgetTracker source) {
+        throw readOnly();
+    }
+
+    @Override
+    public void mergeOrdered(BudgetTracker source,
+            Comparator<Transaction> order) {
+        throw readOnly();
+    }
+
+    @Override
+    public float rangeSum(int from, int to) {
+        assert 0 <= from && from <= to && to <= this
+                .length() : "Violation of: 0 <= from <= to <= |this|";
+        return Cents.toAmount(this.prefix.get(to) - this.prefix.get(from));
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        assert 0 <= index && index <= this
+                .length() : "Violation of: 0 <= index <= |this|";
+        return Cents.toAmount(this.balance - this.prefix.get(index));
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.extremes[0];
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.extremes[1];
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.extremes[2];
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.extremes[2 + 1];
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        int count = 0;
+        for (int code = 0; code < this.descriptions.length; code++) {
+            if (this.counts.get(code) > 0
+                    && this.description(code).contains(keyword)) {
+                count += this.counts.get(code);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        return Cents.toAmount(this.keywordTotalCents(keyword));
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.balance;
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        assert keyword != null : "Violation of: keyword is not null";
+        long total = 0L;
+        for (int code = 0; code < this.descriptions.length; code++) {
+            if (this.counts.get(code) > 0
+                    && this.description(code).contains(keyword)) {
+                total += this.sums.get(code);
+            }
+        }
+        return total;
+    }
+}
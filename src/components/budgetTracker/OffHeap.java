@@ -0,0 +1,36 @@
+package components.budgetTracker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates the direct buffers that off-heap representations keep their
+ * columns in. Their memory is returned by the garbage collector once a buffer
+ * and all its views are unreachable, and never freed by hand, so a reader
+ * still holding a view can never touch freed memory; running low on direct
+ * memory makes the JDK collect before it allocates more.
+ */
+final class OffHeap {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private OffHeap() {
+    }
+
+    /**
+     * Returns a new direct buffer of {@code bytes} bytes, in the native byte
+     * order.
+     *
+     * @param bytes
+     *            the size of the buffer
+     * @return the new buffer
+     * @requires 0 <= bytes <= Integer.MAX_VALUE
+     */
+    static ByteBuffer allocate(long bytes) {
+        assert 0 <= bytes && bytes <= Integer.MAX_VALUE : ""
+                + "Violation of: 0 <= bytes <= Integer.MAX_VALUE";
+        return ByteBuffer.allocateDirect((int) bytes)
+                .order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,966 @@
+package components.budgetTracker;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming importer of bank statements, in CSV or OFX, into a
+ * {@code BudgetTracker}. The statement is read into one reused character
+ * buffer and parsed in place: fields are located by offsets rather than split
+ * into strings, amounts are parsed straight into cents, and descriptions are
+ * looked up in a table of those seen before, so a description that repeats
+ * is only turned into a {@code String} once. Parsed records are handed to
+ * {@link BudgetTracker#addAll} in batches.
+ *
+ * <p>
+ * Records are added in the order the statement lists them, so the last one
+ * becomes the latest record of the tracker. If the statement is malformed, the
+ * records before the bad one are added and an {@code IOException} reports
+ * where parsing stopped. The caller owns the {@code Reader} and closes it.
+ * </p>
+ *
+ * <p>
+ * Amounts may carry a sign or be in parentheses to mark them negative, a
+ * currency symbol, spaces, and commas between digit groups; digits beyond the
+ * cents are rounded half away from zero. An amount of more than 18 digits of
+ * cents does not fit the parser and is rejected as not an amount.
+ * </p>
+ */
+public final class StatementImporter {
+
+    /**
+     * Number of records handed to {@code addAll} at a time.
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    /**
+     * Number of characters the buffer holds at first; it grows to fit a
+     * record that does not fit.
+     */
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    /**
+     * Number of slots the description table starts with; a power of two.
+     */
+    private static final int TABLE_SIZE = 1 << 12;
+
+    /**
+     * Multiplier of the description hash.
+     */
+    private static final int HASH = 31;
+
+    /**
+     * Shift that folds the high bits of the hash into the slot.
+     */
+    private static final int HASH_SHIFT = 16;
+
+    /**
+     * Base of the digits of an amount.
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * Number of digits after the decimal point kept in cents.
+     */
+    private static final int CENT_DIGITS = 2;
+
+    /**
+     * Digit from which a dropped digit rounds the cents up.
+     */
+    private static final int HALF = 5;
+
+    /**
+     * Most digits an amount in cents may have, so that it fits in a
+     * {@code long}.
+     */
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * The statement being read.
+     */
+    private final Reader in;
+
+    /**
+     * The tracker the records go to.
+     */
+    private final BudgetTracker tracker;
+
+    /**
+     * Characters read from the statement; those in
+     * {@code [position, limit)} are not parsed yet.
+     */
+    private char[] buffer;
+
+    /**
+     * Position of the first character not parsed yet.
+     */
+    private int position;
+
+    /**
+     * Position just past the last character read.
+     */
+    private int limit;
+
+    /**
+     * Unescaped characters of the current field, when it needed unescaping.
+     */
+    private char[] scratch;
+
+    /**
+     * Characters of the current field: {@code buffer} or {@code scratch}.
+     */
+    private char[] field;
+
+    /**
+     * Start of the current field in {@code field}.
+     */
+    private int fieldFrom;
+
+    /**
+     * End of the current field in {@code field}.
+     */
+    private int fieldTo;
+
+    /**
+     * Number of line breaks inside the quoted fields of the last record read.
+     */
+    private int recordLines;
+
+    /**
+     * Characters of the descriptions seen so far, by hash slot; an open
+     * addressing table that is kept at most half full.
+     */
+    private char[][] tableChars;
+
+    /**
+     * The descriptions seen so far, by hash slot.
+     */
+    private String[] tableStrings;
+
+    /**
+     * The hashes of the descriptions seen so far, by hash slot.
+     */
+    private int[] tableHashes;
+
+    /**
+     * The number of descriptions seen so far.
+     */
+    private int distinct;
+
+    /**
+     * Amounts of the records parsed but not added yet.
+     */
+    private final float[] amounts;
+
+    /**
+     * Descriptions of the records parsed but not added yet.
+     */
+    private final String[] descriptions;
+
+    /**
+     * Number of records parsed but not added yet.
+     */
+    private int pending;
+
+    /**
+     * Number of records added so far.
+     */
+    private int imported;
+
+    /**
+     * Constructor.
+     *
+     * @param in
+     *            the statement to read
+     * @param tracker
+     *            the tracker the records go to
+     */
+    private StatementImporter(Reader in, BudgetTracker tracker) {
+        this.in = in;
+        this.tracker = tracker;
+        this.buffer = new char[BUFFER_CHARS];
+        this.position = 0;
+        this.limit = 0;
+        this.scratch = new char[BUFFER_CHARS];
+        this.tableChars = new char[TABLE_SIZE][];
+        this.tableStrings = new String[TABLE_SIZE];
+        this.tableHashes = new int[TABLE_SIZE];
+        this.distinct = 0;
+        this.recordLines = 0;
+        this.amounts = new float[BATCH_SIZE];
+        this.descriptions = new String[BATCH_SIZE];
+        this.pending = 0;
+        this.imported = 0;
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Imports a CSV statement (RFC 4180: fields separated by commas, records
+     * by line breaks, fields that hold commas, quotes or line breaks in
+     * double quotes, and a quote in a quoted field doubled). Blank lines are
+     * skipped; other fields than the amount and the description are ignored.
+     *
+     * @param in
+     *            the statement
+     * @param tracker
+     *            the tracker the records go to
+     * @param amountColumn
+     *            the column of the amounts, counting from 0
+     * @param descriptionColumn
+     *            the column of the descriptions, counting from 0
+     * @param header
+     *            whether the first record is a header to skip
+     * @return the number of records added
+     * @throws IOException
+     *             if the statement cannot be read, or a record has no valid
+     *             amount or no description; the records before that one
+     *             have already been added to {@code tracker}
+     * @updates tracker
+     * @requires amountColumn >= 0 and descriptionColumn >= 0
+     * @ensures <pre> if an IOException is thrown then
+     *   tracker = #tracker * [the records before the one that failed]
+     * else
+     *   tracker = #tracker * [the records of the statement] and
+     *   importCsv = |[the records of the statement]| </pre>
+     */
+    public static int importCsv(Reader in, BudgetTracker tracker,
+            int amountColumn, int descriptionColumn, boolean header)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+        assert tracker != null : "Violation of: tracker is not null";
+        assert amountColumn >= 0 && descriptionColumn >= 0 : "Violation of: "
+                + "amountColumn >= 0 and descriptionColumn >= 0";
+        StatementImporter importer = new StatementImporter(in, tracker);
+        try {
+            importer.csv(amountColumn, descriptionColumn, header);
+        } finally {
+            importer.flush();
+        }
+        return importer.imported;
+    }
+
+    /**
+     * Imports the transactions ({@code <STMTTRN>} aggregates) of an OFX
+     * statement, in either the SGML form of OFX 1 or the XML form of OFX 2.
+     * The amount of a transaction is its {@code <TRNAMT>}, and its
+     * description is its {@code <NAME>}, or its {@code <MEMO>} if it has no
+     * name, or empty if it has neither.
+     *
+     * @param in
+     *            the statement
+     * @param tracker
+     *            the tracker the records go to
+     * @return the number of records added
+     * @throws IOException
+     *             if the statement cannot be read, or a transaction has no
+     *             valid amount; the transactions before that one have
+     *             already been added to {@code tracker}
+     * @updates tracker
+     * @ensures <pre> if an IOException is thrown then
+     *   tracker = #tracker * [the transactions before the one that failed]
+     * else
+     *   tracker = #tracker * [the transactions of the statement] and
+     *   importOfx = |[the transactions of the statement]| </pre>
+     */
+    public static int importOfx(Reader in, BudgetTracker tracker)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+        assert tracker != null : "Violation of: tracker is not null";
+        StatementImporter importer = new StatementImporter(in, tracker);
+        try {
+            importer.ofx();
+        } finally {
+            importer.flush();
+        }
+        return importer.imported;
+    }
+
+    /*
+     * Buffering and batching
+     */
+
+    /**
+     * Reads more of the statement, first moving the characters not parsed
+     * yet to the front of the buffer, or growing the buffer if they fill it.
+     * Offsets counted from {@code position} stay valid.
+     *
+     * @return whether any characters were read
+     * @throws IOException
+     *             if the statement cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (this.position > 0) {
+            System.arraycopy(this.buffer, this.position, this.buffer, 0,
+                    this.limit - this.position);
+            this.limit -= this.position;
+            this.position = 0;
+        } else if (this.limit == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, 2 * this.buffer.length);
+        }
+        int read = this.in.read(this.buffer, this.limit,
+                this.buffer.length - this.limit);
+        if (read > 0) {
+            this.limit += read;
+        }
+        return read > 0;
+    }
+
+    /**
+     * Makes sure the character at {@code offset} from {@code position} has
+     * been read.
+     *
+     * @param offset
+     *            the offset of the character from {@code position}
+     * @return whether the statement is long enough to hold the character
+     * @throws IOException
+     *             if the statement cannot be read
+     */
+    private boolean has(int offset) throws IOException {
+        boolean more = true;
+        while (more && this.position + offset >= this.limit) {
+            more = this.fill();
+        }
+        return this.position + offset < this.limit;
+    }
+
+    /**
+     * Queues a record for the tracker, handing the queue over when it is
+     * full.
+     *
+     * @param cents
+     *            the amount of the record in cents
+     * @param description
+     *            the description of the record
+     */
+    private void emit(long cents, String description) {
+        this.amounts[this.pending] = Cents.toAmount(cents);
+        this.descriptions[this.pending] = description;
+        this.pending++;
+        if (this.pending == BATCH_SIZE) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Hands the queued records over to the tracker.
+     */
+    private void flush() {
+        this.tracker.addAll(this.amounts, this.descriptions, this.pending);
+        this.imported += this.pending;
+        Arrays.fill(this.descriptions, 0, this.pending, null);
+        this.pending = 0;
+    }
+
+    /*
+     * Fields
+     */
+
+    /**
+     * Makes the characters {@code [from, to)} of the buffer the current
+     * field, without copying them.
+     *
+     * @param from
+     *            the start of the field in the buffer
+     * @param to
+     *            the end of the field in the buffer
+     */
+    private void field(int from, int to) {
+        this.field = this.buffer;
+        this.fieldFrom = from;
+        this.fieldTo = to;
+    }
+
+    /**
+     * Makes the first {@code length} characters of {@code scratch} the
+     * current field.
+     *
+     * @param length
+     *            the number of characters in the field
+     */
+    private void scratchField(int length) {
+        this.field = this.scratch;
+        this.fieldFrom = 0;
+        this.fieldTo = length;
+    }
+
+    /**
+     * Appends {@code c} to {@code scratch} at {@code at}, growing it if
+     * needed.
+     *
+     * @param at
+     *            the position to write
+     * @param c
+     *            the character to write
+     * @return the position after {@code c}
+     */
+    private int put(int at, char c) {
+        if (at == this.scratch.length) {
+            this.scratch = Arrays.copyOf(this.scratch, 2 * at);
+        }
+        this.scratch[at] = c;
+        return at + 1;
+    }
+
+    /**
+     * Drops white space from both ends of the current field.
+     */
+    private void trimField() {
+        while (this.fieldFrom < this.fieldTo
+                && Character.isWhitespace(this.field[this.fieldFrom])) {
+            this.fieldFrom++;
+        }
+        while (this.fieldTo > this.fieldFrom
+                && Character.isWhitespace(this.field[this.fieldTo - 1])) {
+            this.fieldTo--;
+        }
+    }
+
+    /**
+     * Returns the first free slot of the description table for
+     * {@code hash}, or the slot of the description equal to
+     * {@code chars[from, to)}.
+     *
+     * @param hash
+     *            the hash of the description
+     * @param chars
+     *            the characters of the description
+     * @param from
+     *            the start of the description in {@code chars}
+     * @param to
+     *            the end of the description in {@code chars}
+     * @return the slot of the description
+     */
+    private int slotOf(int hash, char[] chars, int from, int to) {
+        int mask = this.tableChars.length - 1;
+        int slot = (hash ^ (hash >>> HASH_SHIFT)) & mask;
+        while (this.tableChars[slot] != null
+                && (this.tableHashes[slot] != hash
+                        || !Arrays.equals(this.tableChars[slot], 0,
+                                this.tableChars[slot].length, chars, from,
+                                to))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the current field as a string, shared with every earlier equal
+     * field.
+     *
+     * @return the current field
+     */
+    private String description() {
+        char[] chars = this.field;
+        int from = this.fieldFrom;
+        int to = this.fieldTo;
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = HASH * hash + chars[i];
+        }
+        int slot = this.slotOf(hash, chars, from, to);
+        if (this.tableChars[slot] == null) {
+            if (2 * (this.distinct + 1) > this.tableChars.length) {
+                char[][] oldChars = this.tableChars;
+                String[] oldStrings = this.tableStrings;
+                int[] oldHashes = this.tableHashes;
+                this.tableChars = new char[2 * oldChars.length][];
+                this.tableStrings = new String[2 * oldChars.length];
+                this.tableHashes = new int[2 * oldChars.length];
+                for (int i = 0; i < oldChars.length; i++) {
+                    if (oldChars[i] != null) {
+                        int moved = this.slotOf(oldHashes[i], oldChars[i], 0,
+                                oldChars[i].length);
+                        this.tableChars[moved] = oldChars[i];
+                        this.tableStrings[moved] = oldStrings[i];
+                        this.tableHashes[moved] = oldHashes[i];
+                    }
+                }
+                slot = this.slotOf(hash, chars, from, to);
+            }
+            this.tableChars[slot] = Arrays.copyOfRange(chars, from, to);
+            this.tableStrings[slot] = new String(chars, from, to - from);
+            this.tableHashes[slot] = hash;
+            this.distinct++;
+        }
+        return this.tableStrings[slot];
+    }
+
+    /**
+     * Parses the current field as an amount in cents.
+     *
+     * @param where
+     *            what {@code number} counts, for the error message
+     * @param number
+     *            the number of the line or transaction the field is in
+     * @return the amount in cents
+     * @throws IOException
+     *             if the field is not an amount
+     */
+    private long cents(String where, int number) throws IOException {
+        boolean negative = false;
+        boolean digits = false;
+        boolean point = false;
+        int decimals = 0;
+        boolean roundUp = false;
+        long cents = 0L;
+        int significant = 0;
+        boolean valid = true;
+        for (int i = this.fieldFrom; i < this.fieldTo && valid; i++) {
+            char c = this.field[i];
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!point || decimals < CENT_DIGITS) {
+                    if (cents != 0L || c != '0') {
+                        significant++;
+                        valid = significant <= MAX_DIGITS;
+                    }
+                    cents = RADIX * cents + (c - '0');
+                    if (point) {
+                        decimals++;
+                    }
+                } else if (decimals == CENT_DIGITS) {
+                    roundUp = c - '0' >= HALF;
+                    decimals++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else if (c == '-' || c == '(') {
+                valid = !negative && !digits;
+                negative = true;
+            } else if (c == '+' || c == ')' || c == ','
+                    || Character.isWhitespace(c)
+                    || Character.getType(c) == Character.CURRENCY_SYMBOL) {
+                valid = c != ')' || negative;
+            } else {
+                valid = false;
+            }
+        }
+        /*
+         * The cents digits not written are zeros that still have to fit
+         */
+        int missing = CENT_DIGITS - Math.min(decimals, CENT_DIGITS);
+        if (significant > 0 && significant + missing > MAX_DIGITS) {
+            valid = false;
+        }
+        if (!valid || !digits) {
+            throw new IOException("Not an amount " + where + number + ": \""
+                    + new String(this.field, this.fieldFrom,
+                            this.fieldTo - this.fieldFrom)
+                    + "\"");
+        }
+        for (int i = Math.min(decimals, CENT_DIGITS); i < CENT_DIGITS; i++) {
+            cents *= RADIX;
+        }
+        if (roundUp) {
+            cents++;
+        }
+        if (negative) {
+            cents = -cents;
+        }
+        return cents;
+    }
+
+    /*
+     * CSV
+     */
+
+    /**
+     * Skips line breaks before the next record.
+     *
+     * @param line
+     *            the number of the line the parser is on
+     * @return the number of the line the next record starts on
+     * @throws IOException
+     *             if the statement cannot be read
+     */
+    private int skipLineBreaks(int line) throws IOException {
+        int result = line;
+        while (this.has(0) && (this.buffer[this.position] == '\n'
+                || this.buffer[this.position] == '\r')) {
+            if (this.buffer[this.position] == '\n') {
+                result++;
+            }
+            this.position++;
+        }
+        return result;
+    }
+
+    /**
+     * Reads up to the end of the next record, so that the whole record is in
+     * the buffer from {@code position}, and counts the line breaks in its
+     * quoted fields in {@code recordLines}.
+     *
+     * @return the length of the record, not counting its line break
+     * @throws IOException
+     *             if the statement cannot be read
+     */
+    private int record() throws IOException {
+        boolean quoted = false;
+        int offset = 0;
+        boolean inRecord = true;
+        while (inRecord && this.has(offset)) {
+            // Scan what has been read before reading more
+            int i = this.position + offset;
+            while (inRecord && i < this.limit) {
+                char c = this.buffer[i];
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' || c == '\r') {
+                    inRecord = quoted;
+                    if (c == '\n' && quoted) {
+                        this.recordLines++;
+                    }
+                }
+                if (inRecord) {
+                    i++;
+                }
+            }
+            offset = i - this.position;
+        }
+        return offset;
+    }
+
+    /**
+     * Makes the field that starts at {@code from} the current field.
+     *
+     * @param from
+     *            the start of the field in the buffer
+     * @param end
+     *            the end of the record in the buffer
+     * @return the position of the comma after the field, or {@code end}
+     */
+    private int csvField(int from, int end) {
+        int next;
+        if (from < end && this.buffer[from] == '"') {
+            // Copy only when a doubled quote has to be undone
+            int i = from + 1;
+            int length = 0;
+            boolean copying = false;
+            boolean inQuotes = true;
+            while (i < end && inQuotes) {
+                char c = this.buffer[i];
+                if (c == '"' && i + 1 < end && this.buffer[i + 1] == '"') {
+                    if (!copying) {
+                        for (int j = from + 1; j < i; j++) {
+                            length = this.put(length, this.buffer[j]);
+                        }
+                        copying = true;
+                    }
+                    length = this.put(length, '"');
+                    i += 2;
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    if (copying) {
+                        length = this.put(length, c);
+                    }
+                    i++;
+                }
+            }
+            if (copying) {
+                this.scratchField(length);
+            } else {
+                this.field(from + 1, i);
+            }
+            next = i;
+            while (next < end && this.buffer[next] != ',') {
+                next++;
+            }
+        } else {
+            next = from;
+            while (next < end && this.buffer[next] != ',') {
+                next++;
+            }
+            this.field(from, next);
+        }
+        return next;
+    }
+
+    /**
+     * Parses a CSV statement.
+     *
+     * @param amountColumn
+     *            the column of the amounts
+     * @param descriptionColumn
+     *            the column of the descriptions
+     * @param header
+     *            whether the first record is a header to skip
+     * @throws IOException
+     *             if the statement cannot be read or is malformed
+     */
+    private void csv(int amountColumn, int descriptionColumn, boolean header)
+            throws IOException {
+        int lastColumn = Math.max(amountColumn, descriptionColumn);
+        boolean skip = header;
+        int line = this.skipLineBreaks(1);
+        while (this.has(0)) {
+            // Reading the record may move it to the front of the buffer
+            int length = this.record();
+            int end = this.position + length;
+            if (skip) {
+                skip = false;
+            } else {
+                long cents = 0L;
+                String description = null;
+                int at = this.position;
+                int column = 0;
+                while (column <= lastColumn && at <= end) {
+                    at = this.csvField(at, end) + 1;
+                    if (column == amountColumn) {
+                        cents = this.cents("on line ", line);
+                    } else if (column == descriptionColumn) {
+                        this.trimField();
+                        description = this.description();
+                    }
+                    column++;
+                }
+                if (column <= lastColumn) {
+                    throw new IOException("Missing column on line " + line);
+                }
+                this.emit(cents, description);
+            }
+            line += this.recordLines;
+            this.recordLines = 0;
+            this.position = end;
+            line = this.skipLineBreaks(line);
+        }
+    }
+
+    /*
+     * OFX
+     */
+
+    /**
+     * Reports whether the tag in {@code [from, to)} of the buffer is
+     * {@code name}, ignoring case.
+     *
+     * @param from
+     *            the start of the tag name in the buffer
+     * @param to
+     *            the end of the tag name in the buffer
+     * @param name
+     *            the name to compare with
+     * @return whether the tag is {@code name}
+     */
+    private boolean isTag(int from, int to, String name) {
+        boolean same = to - from == name.length();
+        for (int i = 0; same && i < name.length(); i++) {
+            same = Character.toUpperCase(this.buffer[from + i]) == name
+                    .charAt(i);
+        }
+        return same;
+    }
+
+    /**
+     * Makes the value in {@code [from, to)} of the buffer the current field,
+     * with its character entities decoded and its white space trimmed.
+     *
+     * @param from
+     *            the start of the value in the buffer
+     * @param to
+     *            the end of the value in the buffer
+     */
+    private void ofxValue(int from, int to) {
+        int amp = from;
+        while (amp < to && this.buffer[amp] != '&') {
+            amp++;
+        }
+        if (amp == to) {
+            this.field(from, to);
+        } else {
+            int length = 0;
+            int i = from;
+            while (i < to) {
+                int c = this.buffer[i];
+                int semicolon = i + 1;
+                while (c == '&' && semicolon < to
+                        && this.buffer[semicolon] != ';') {
+                    semicolon++;
+                }
+                if (c == '&' && semicolon < to) {
+                    c = this.entity(i + 1, semicolon);
+                }
+                if (c < 0) {
+                    // Not an entity we know: keep the ampersand as it is
+                    length = this.put(length, '&');
+                    i++;
+                } else {
+                    length = this.put(length, (char) c);
+                    if (this.buffer[i] == '&' && semicolon < to) {
+                        i = semicolon + 1;
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            this.scratchField(length);
+        }
+        this.trimField();
+    }
+
+    /**
+     * Decodes the character entity named in {@code [from, to)} of the buffer.
+     *
+     * @param from
+     *            the start of the entity name, after the ampersand
+     * @param to
+     *            the end of the entity name, at the semicolon
+     * @return the character, or -1 if the entity is not known
+     */
+    private int entity(int from, int to) {
+        int c = -1;
+        if (this.isTag(from, to, "AMP")) {
+            c = '&';
+        } else if (this.isTag(from, to, "LT")) {
+            c = '<';
+        } else if (this.isTag(from, to, "GT")) {
+            c = '>';
+        } else if (this.isTag(from, to, "QUOT")) {
+            c = '"';
+        } else if (this.isTag(from, to, "APOS")) {
+            c = '\'';
+        } else if (this.isTag(from, to, "NBSP")) {
+            c = ' ';
+        } else if (to - from > 1 && this.buffer[from] == '#') {
+            c = 0;
+            for (int i = from + 1; i < to && c >= 0; i++) {
+                int digit = Character.digit(this.buffer[i], RADIX);
+                if (digit < 0 || c > Character.MAX_VALUE / RADIX) {
+                    c = -1;
+                } else {
+                    c = RADIX * c + digit;
+                }
+            }
+            if (c > Character.MAX_VALUE) {
+                c = -1;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Parses an OFX statement, one tag and the value after it at a time.
+     *
+     * @throws IOException
+     *             if the statement cannot be read or is malformed
+     */
+    private void ofx() throws IOException {
+        Transactions state = new Transactions();
+        // Skip the header that comes before the first tag in OFX 1
+        while (this.has(0) && this.buffer[this.position] != '<') {
+            this.position++;
+        }
+        while (this.has(0)) {
+            // Read the tag and its value, up to the next tag
+            int close = 1;
+            while (this.has(close)
+                    && this.buffer[this.position + close] != '>') {
+                close++;
+            }
+            int next = close + 1;
+            while (this.has(next)
+                    && this.buffer[this.position + next] != '<') {
+                next++;
+            }
+            if (next > this.limit - this.position) {
+                // A tag cut off by the end of the statement
+                this.position = this.limit;
+            } else {
+                int tagTo = this.position + close;
+                this.ofxTag(state, this.position + 1, tagTo,
+                        this.position + next);
+                this.position += next;
+            }
+        }
+    }
+
+    /**
+     * The transaction an OFX statement is in the middle of.
+     */
+    private static final class Transactions {
+
+        /**
+         * Whether the parser is inside a {@code <STMTTRN>} aggregate.
+         */
+        private boolean open;
+
+        /**
+         * Whether the transaction has had its amount.
+         */
+        private boolean hasAmount;
+
+        /**
+         * The amount of the transaction in cents.
+         */
+        private long cents;
+
+        /**
+         * The name of the transaction, or null if it has none yet.
+         */
+        private String name;
+
+        /**
+         * The memo of the transaction, or null if it has none yet.
+         */
+        private String memo;
+
+        /**
+         * The number of transactions begun so far.
+         */
+        private int count;
+    }
+
+    /**
+     * Applies one OFX tag and the value that follows it.
+     *
+     * @param state
+     *            the transaction being parsed
+     * @param tagFrom
+     *            the start of the tag name in the buffer
+     * @param tagTo
+     *            the end of the tag name in the buffer
+     * @param valueTo
+     *            the end of the value in the buffer
+     * @throws IOException
+     *             if the value is not what the tag calls for
+     */
+    private void ofxTag(Transactions state, int tagFrom, int tagTo,
+            int valueTo) throws IOException {
+        int valueFrom = tagTo + 1;
+        if (this.isTag(tagFrom, tagTo, "STMTTRN")) {
+            state.open = true;
+            state.hasAmount = false;
+            state.name = null;
+            state.memo = null;
+            state.count++;
+        } else if (state.open && this.isTag(tagFrom, tagTo, "TRNAMT")) {
+            this.ofxValue(valueFrom, valueTo);
+            state.cents = this.cents("in transaction ", state.count);
+            state.hasAmount = true;
+        } else if (state.open && this.isTag(tagFrom, tagTo, "NAME")) {
+            this.ofxValue(valueFrom, valueTo);
+            state.name = this.description();
+        } else if (state.open && this.isTag(tagFrom, tagTo, "MEMO")) {
+            this.ofxValue(valueFrom, valueTo);
+            state.memo = this.description();
+        } else if (state.open && this.isTag(tagFrom, tagTo, "/STMTTRN")) {
+            if (!state.hasAmount) {
+                throw new IOException(
+                        "Missing amount in transaction " + state.count);
+            }
+            String description = state.name;
+            if (description == null) {
+                description = state.memo;
+            }
+            if (description == null) {
+                description = "";
+            }
+            this.emit(state.cents, description);
+            state.open = false;
+        }
+    }
+}
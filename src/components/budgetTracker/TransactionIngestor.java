@@ -0,0 +1,227 @@
+package components.budgetTracker;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free front end that many threads can hand records to while one thread
+ * drains them into a {@code BudgetTracker} in batches, through
+ * {@link BudgetTracker#addAll}. Producers never block: {@link #offer} either
+ * claims a slot with one compare-and-set and returns at once, or returns
+ * {@code false} when the buffer is full.
+ *
+ * <p>
+ * To spread contention, the buffer is split into stripes, and each producer
+ * thread always uses the same stripe. Each stripe is a bounded
+ * multi-producer ring whose slots carry sequence numbers that tell the
+ * consumer when a record is ready and tell producers when a slot is free. The
+ * records of one thread reach the tracker in the order that thread offered
+ * them; there is no order between threads.
+ * </p>
+ *
+ * @convention <pre>
+ * [every stripe has |$this.amounts| / |$this.tails| * PADDING slots] and
+ * [for each stripe, $this.heads[s] <= $this.tails[s * PADDING] <=
+ *  $this.heads[s] + slots per stripe] and
+ * [the slot of position p of a stripe holds sequence p + 1 once the record
+ *  at p is ready, and p + slots per stripe once it has been drained]
+ * </pre>
+ */
+public final class TransactionIngestor {
+    /*
+     * Private members
+     */
+
+    /**
+     * Spacing of the stripe tails in {@code tails}, so that no two tails
+     * share a cache line.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * Number of slots in each stripe; a power of two.
+     */
+    private final int capacity;
+
+    /**
+     * Number of stripes minus one; the number of stripes is a power of two.
+     */
+    private final int stripeMask;
+
+    /**
+     * Next position to claim in each stripe, at index {@code s * PADDING}.
+     */
+    private final AtomicLongArray tails;
+
+    /**
+     * Sequence number of every slot, stripe after stripe.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Amount of the record in every slot, stripe after stripe.
+     */
+    private final float[] amounts;
+
+    /**
+     * Description of the record in every slot, stripe after stripe.
+     */
+    private final String[] descriptions;
+
+    /**
+     * Next position to drain in each stripe; only the consumer uses it.
+     */
+    private final long[] heads;
+
+    /**
+     * Amounts of the batch being drained.
+     */
+    private final float[] batchAmounts;
+
+    /**
+     * Descriptions of the batch being drained.
+     */
+    private final String[] batchDescriptions;
+
+    /**
+     * Returns the index of the slot at {@code position} of {@code stripe}.
+     *
+     * @param stripe
+     *            the stripe
+     * @param position
+     *            the position in the stripe
+     * @return the index of the slot in the slot arrays
+     */
+    private int slot(int stripe, long position) {
+        return stripe * this.capacity + (int) (position & (this.capacity - 1));
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param stripes
+     *            the number of stripes producers are spread over; a power of
+     *            two, at least the number of cores is a good choice
+     * @param capacity
+     *            the number of records each stripe holds; a power of two
+     * @requires <pre> stripes > 0 and [stripes is a power of two] and
+     * capacity > 0 and [capacity is a power of two] and
+     * stripes * max(capacity, PADDING) <= Integer.MAX_VALUE </pre>
+     */
+    public TransactionIngestor(int stripes, int capacity) {
+        assert stripes > 0 && Integer.bitCount(stripes) == 1 : ""
+                + "Violation of: stripes > 0 and [stripes is a power of two]";
+        assert capacity > 0 && Integer.bitCount(capacity) == 1 : ""
+                + "Violation of: capacity > 0 and [capacity is a power of two]";
+        this.capacity = capacity;
+        this.stripeMask = stripes - 1;
+        this.tails = new AtomicLongArray(stripes * PADDING);
+        this.sequences = new AtomicLongArray(stripes * capacity);
+        this.amounts = new float[stripes * capacity];
+        this.descriptions = new String[stripes * capacity];
+        this.heads = new long[stripes];
+        for (int s = 0; s < stripes; s++) {
+            for (int p = 0; p < capacity; p++) {
+                this.sequences.set(this.slot(s, p), p);
+            }
+        }
+        this.batchAmounts = new float[capacity];
+        this.batchDescriptions = new String[capacity];
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Hands a record over to be added to the tracker by the next
+     * {@code drainTo}, unless the stripe of the calling thread is full. Safe
+     * to call from any number of threads; never blocks.
+     *
+     * @param amount
+     *            the amount of money of the record
+     * @param description
+     *            the description of the record
+     * @return whether the record was taken
+     * @requires description is not null
+     */
+    public boolean offer(float amount, String description) {
+        assert description != null : "Violation of: description is not null";
+        // Thread.getId is the only stable thread number on Java 17
+        int stripe = (int) Thread.currentThread().getId() & this.stripeMask;
+        int tail = stripe * PADDING;
+        long position = this.tails.get(tail);
+        boolean claimed = false;
+        boolean full = false;
+        while (!claimed && !full) {
+            long sequence = this.sequences
+                    .getAcquire(this.slot(stripe, position));
+            if (sequence == position) {
+                claimed = this.tails.compareAndSet(tail, position,
+                        position + 1);
+                if (!claimed) {
+                    position = this.tails.get(tail);
+                }
+            } else if (sequence < position) {
+                // The slot still holds a record from one lap ago
+                full = true;
+            } else {
+                position = this.tails.get(tail);
+            }
+        }
+        if (claimed) {
+            int slot = this.slot(stripe, position);
+            this.amounts[slot] = amount;
+            this.descriptions[slot] = description;
+            this.sequences.setRelease(slot, position + 1);
+        }
+        return claimed;
+    }
+
+    /**
+     * Adds the records that are ready to {@code tracker}, up to one stripe's
+     * worth from each stripe, with one {@code addAll} per stripe. Bounding the
+     * batches keeps a drain short even while producers keep offering. Only one
+     * thread may drain at a time.
+     *
+     * @param tracker
+     *            the tracker to add the records to
+     * @return the number of records added
+     * @updates tracker
+     * @requires [no other thread is draining this]
+     * @ensures <pre> tracker = #tracker * [the records that were ready, at
+     * most one stripe's worth from each stripe, each thread's in the order
+     * they were offered] </pre>
+     */
+    public int drainTo(BudgetTracker tracker) {
+        assert tracker != null : "Violation of: tracker is not null";
+        int drained = 0;
+        for (int stripe = 0; stripe <= this.stripeMask; stripe++) {
+            long head = this.heads[stripe];
+            int count = 0;
+            int slot = this.slot(stripe, head);
+            while (count < this.capacity
+                    && this.sequences.getAcquire(slot) == head + 1) {
+                this.batchAmounts[count] = this.amounts[slot];
+                this.batchDescriptions[count] = this.descriptions[slot];
+                this.descriptions[slot] = null;
+                this.sequences.setRelease(slot, head + this.capacity);
+                head++;
+                count++;
+                slot = this.slot(stripe, head);
+            }
+            if (count > 0) {
+                tracker.addAll(this.batchAmounts, this.batchDescriptions,
+                        count);
+                this.heads[stripe] = head;
+                drained += count;
+            }
+        }
+        Arrays.fill(this.batchDescriptions, null);
+        return drained;
+    }
+}
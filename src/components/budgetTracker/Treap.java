@@ -0,0 +1,707 @@
+package components.budgetTracker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Implicit treap of records shared by {@code BudgetTracker3} and
+ * {@code BudgetTracker4}: a randomized balanced binary tree ordered by index,
+ * where every node records the size, the total amount in cents and the
+ * extremes of its subtree. The leftmost node holds the latest record.
+ *
+ * <p>
+ * A treap is either mutable, where an edit relinks and updates the nodes on
+ * the path it touches, or persistent, where it copies those nodes instead and
+ * never changes a node once built, so every earlier root still holds the
+ * records it held. {@link #MUTABLE} and {@link #PERSISTENT} carry out the
+ * edits of each kind; the queries read both kinds alike.
+ * </p>
+ */
+final class Treap {
+
+    /**
+     * Kind of extreme: the largest positive amount.
+     */
+    static final int MAX_INCOME = 0;
+
+    /**
+     * Kind of extreme: the smallest positive amount.
+     */
+    static final int MIN_INCOME = 1;
+
+    /**
+     * Kind of extreme: the most negative amount.
+     */
+    static final int MAX_EXPENSE = 2;
+
+    /**
+     * Kind of extreme: the negative amount closest to zero.
+     */
+    static final int MIN_EXPENSE = 3;
+
+    /**
+     * Edits that relink the nodes they touch.
+     */
+    static final Treap MUTABLE = new Treap(false);
+
+    /**
+     * Edits that copy the nodes they touch.
+     */
+    static final Treap PERSISTENT = new Treap(true);
+
+    /**
+     * Node of the treap; its in-order position is its index in the tracker.
+     */
+    static final class Node {
+
+        /**
+         * The record stored in this node.
+         */
+        private Transaction record;
+
+        /**
+         * The amount of {@code record} in cents.
+         */
+        private long cents;
+
+        /**
+         * The heap priority of this node.
+         */
+        private final int priority;
+
+        /**
+         * The left child, holding later records.
+         */
+        private Node left;
+
+        /**
+         * The right child, holding earlier records.
+         */
+        private Node right;
+
+        /**
+         * The number of nodes in the subtree rooted here.
+         */
+        private int size;
+
+        /**
+         * The total amount in cents of the subtree rooted here.
+         */
+        private long sum;
+
+        /**
+         * The largest income in the subtree, as a key of {@code MAX_INCOME}.
+         */
+        private float maxIncome;
+
+        /**
+         * The smallest income in the subtree, as a key of {@code MIN_INCOME}.
+         */
+        private float minIncome;
+
+        /**
+         * The largest expense in the subtree, as a key of {@code MAX_EXPENSE}.
+         */
+        private float maxExpense;
+
+        /**
+         * The smallest expense in the subtree, as a key of
+         * {@code MIN_EXPENSE}.
+         */
+        private float minExpense;
+
+        /**
+         * Constructor for a node over the given record and children.
+         *
+         * @param record
+         *            the record stored in the node
+         * @param cents
+         *            the amount of {@code record} in cents
+         * @param priority
+         *            the heap priority of the node
+         * @param left
+         *            the left child, possibly null
+         * @param right
+         *            the right child, possibly null
+         */
+        private Node(Transaction record, long cents, int priority, Node left,
+                Node right) {
+            this.record = record;
+            this.cents = cents;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.update();
+        }
+
+        /**
+         * Constructor for a leaf holding {@code record}, with a random
+         * priority.
+         *
+         * @param record
+         *            the record stored in the node
+         */
+        Node(Transaction record) {
+            this(record, Cents.of(record),
+                    ThreadLocalRandom.current().nextInt(), null, null);
+        }
+
+        /**
+         * Returns the record stored in this node.
+         *
+         * @return the record
+         */
+        Transaction record() {
+            return this.record;
+        }
+
+        /**
+         * Returns the amount of the record stored in this node, in cents.
+         *
+         * @return the amount in cents
+         */
+        long cents() {
+            return this.cents;
+        }
+
+        /**
+         * Returns the largest of the key of this node's record and the
+         * extremes of its children, for one kind of extreme.
+         *
+         * @param kind
+         *            the kind of extreme
+         * @return the extreme of the subtree rooted here, as a key
+         */
+        private float combine(int kind) {
+            return Math.max(key(this.record.amount(), kind),
+                    Math.max(best(this.left, kind), best(this.right, kind)));
+        }
+
+        /**
+         * Recomputes {@code size}, {@code sum} and the extremes from the
+         * record and the children.
+         */
+        private void update() {
+            this.size = 1 + size(this.left) + size(this.right);
+            this.sum = this.cents + sum(this.left) + sum(this.right);
+            this.maxIncome = this.combine(MAX_INCOME);
+            this.minIncome = this.combine(MIN_INCOME);
+            this.maxExpense = this.combine(MAX_EXPENSE);
+            this.minExpense = this.combine(MIN_EXPENSE);
+        }
+    }
+
+    /**
+     * Whether edits copy the nodes they touch.
+     */
+    private final boolean persistent;
+
+    /**
+     * Constructor for the edits of one kind of treap.
+     *
+     * @param persistent
+     *            whether edits copy the nodes they touch
+     */
+    private Treap(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    /**
+     * Returns the size of the subtree rooted at {@code t}.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @return the number of nodes in the subtree
+     */
+    static int size(Node t) {
+        int size = 0;
+        if (t != null) {
+            size = t.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total amount in cents of the subtree rooted at {@code t}.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @return the total amount of the subtree in cents
+     */
+    static long sum(Node t) {
+        long sum = 0L;
+        if (t != null) {
+            sum = t.sum;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the key under which {@code amount} competes for one kind of
+     * extreme: every kind becomes a largest key, and amounts of the wrong sign
+     * get negative infinity.
+     *
+     * @param amount
+     *            the amount of a record
+     * @param kind
+     *            the kind of extreme
+     * @return the key of {@code amount}
+     */
+    private static float key(float amount, int kind) {
+        float key = Float.NEGATIVE_INFINITY;
+        if (amount > 0) {
+            if (kind == MAX_INCOME) {
+                key = amount;
+            } else if (kind == MIN_INCOME) {
+                key = -amount;
+            }
+        } else if (amount < 0) {
+            if (kind == MAX_EXPENSE) {
+                key = -amount;
+            } else if (kind == MIN_EXPENSE) {
+                key = amount;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns the extreme of the subtree rooted at {@code t}, as a key.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @param kind
+     *            the kind of extreme
+     * @return the largest key in the subtree, or negative infinity if none
+     */
+    private static float best(Node t, int kind) {
+        float best = Float.NEGATIVE_INFINITY;
+        if (t != null) {
+            switch (kind) {
+                case MAX_INCOME:
+                    best = t.maxIncome;
+                    break;
+                case MIN_INCOME:
+                    best = t.minIncome;
+                    break;
+                case MAX_EXPENSE:
+                    best = t.maxExpense;
+                    break;
+                default:
+                    best = t.minExpense;
+                    break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns {@code t} with other children: {@code t} itself, relinked, if
+     * the treap is mutable, and a copy of it otherwise.
+     *
+     * @param t
+     *            the node
+     * @param left
+     *            the new left child, possibly null
+     * @param right
+     *            the new right child, possibly null
+     * @return the node with the new children
+     */
+    private Node link(Node t, Node left, Node right) {
+        Node result;
+        if (this.persistent) {
+            result = new Node(t.record, t.cents, t.priority, left, right);
+        } else {
+            t.left = left;
+            t.right = right;
+            t.update();
+            result = t;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the subtree rooted at {@code t} into its first {@code k} nodes and
+     * the rest.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @param k
+     *            the number of nodes that go to the left part
+     * @param parts
+     *            receives the left part in {@code parts[0]} and the right part
+     *            in {@code parts[1]}
+     * @requires 0 <= k <= size(t)
+     */
+    void split(Node t, int k, Node[] parts) {
+        if (t == null) {
+            parts[0] = null;
+            parts[1] = null;
+        } else if (k <= size(t.left)) {
+            this.split(t.left, k, parts);
+            parts[1] = this.link(t, parts[1], t.right);
+        } else {
+            this.split(t.right, k - size(t.left) - 1, parts);
+            parts[0] = this.link(t, t.left, parts[0]);
+        }
+    }
+
+    /**
+     * Merges two subtrees where every node of {@code a} comes before every node
+     * of {@code b}.
+     *
+     * @param a
+     *            the root of the first subtree, possibly null
+     * @param b
+     *            the root of the second subtree, possibly null
+     * @return the root of the merged subtree
+     */
+    Node merge(Node a, Node b) {
+        Node result;
+        if (a == null) {
+            result = b;
+        } else if (b == null) {
+            result = a;
+        } else if (a.priority >= b.priority) {
+            result = this.link(a, a.left, this.merge(a.right, b));
+        } else {
+            result = this.link(b, this.merge(a, b.left), b.right);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts {@code node} so that it becomes the node at {@code index}.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @param index
+     *            the position of the new node in the subtree
+     * @param node
+     *            the leaf to insert
+     * @return the root of the new subtree
+     * @requires 0 <= index <= size(t)
+     */
+    Node insert(Node t, int index, Node node) {
+        Node result;
+        if (t == null) {
+            result = node;
+        } else if (node.priority > t.priority) {
+            Node[] parts = new Node[2];
+            this.split(t, index, parts);
+            result = this.link(node, parts[0], parts[1]);
+        } else {
+            int leftSize = size(t.left);
+            if (index <= leftSize) {
+                result = this.link(t, this.insert(t.left, index, node),
+                        t.right);
+            } else {
+                result = this.link(t, t.left,
+                        this.insert(t.right, index - leftSize - 1, node));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the node at {@code index} and stores it in {@code removed[0]}.
+     *
+     * @param t
+     *            the root of the subtree
+     * @param index
+     *            the position of the node to remove in the subtree
+     * @param removed
+     *            receives the removed node in {@code removed[0]}
+     * @return the root of the new subtree
+     * @requires 0 <= index < size(t)
+     */
+    Node delete(Node t, int index, Node[] removed) {
+        Node result;
+        int leftSize = size(t.left);
+        if (index == leftSize) {
+            removed[0] = t;
+            result = this.merge(t.left, t.right);
+            if (!this.persistent) {
+                t.left = null;
+                t.right = null;
+            }
+        } else if (index < leftSize) {
+            result = this.link(t, this.delete(t.left, index, removed),
+                    t.right);
+        } else {
+            result = this.link(t, t.left,
+                    this.delete(t.right, index - leftSize - 1, removed));
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the record at {@code index} with {@code record}, and stores the
+     * record it held in {@code old[0]}.
+     *
+     * @param t
+     *            the root of the subtree
+     * @param index
+     *            the position of the node in the subtree
+     * @param record
+     *            the new record
+     * @param old
+     *            receives the record previously at {@code index} in
+     *            {@code old[0]}
+     * @return the root of the new subtree
+     * @requires 0 <= index < size(t)
+     */
+    Node replace(Node t, int index, Transaction record, Transaction[] old) {
+        Node result;
+        int leftSize = size(t.left);
+        if (index == leftSize) {
+            old[0] = t.record;
+            if (this.persistent) {
+                result = new Node(record, Cents.of(record), t.priority,
+                        t.left, t.right);
+            } else {
+                t.record = record;
+                t.cents = Cents.of(record);
+                t.update();
+                result = t;
+            }
+        } else if (index < leftSize) {
+            result = this.link(t, this.replace(t.left, index, record, old),
+                    t.right);
+        } else {
+            result = this.link(t, t.left,
+                    this.replace(t.right, index - leftSize - 1, record, old));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the subtree of {@code records[i]} from the shape worked out by
+     * {@code build}.
+     *
+     * @param i
+     *            the position of the root of the subtree, or -1 for none
+     * @param records
+     *            the records, in index order
+     * @param priorities
+     *            the priorities of the records
+     * @param lefts
+     *            the position of the left child of each record, or -1
+     * @param rights
+     *            the position of the right child of each record, or -1
+     * @return the root of the subtree, or null if {@code i} is -1
+     */
+    private static Node assemble(int i, Transaction[] records,
+            int[] priorities, int[] lefts, int[] rights) {
+        Node node = null;
+        if (i >= 0) {
+            Node left = assemble(lefts[i], records, priorities, lefts, rights);
+            Node right = assemble(rights[i], records, priorities, lefts,
+                    rights);
+            node = new Node(records[i], Cents.of(records[i]), priorities[i],
+                    left, right);
+        }
+        return node;
+    }
+
+    /**
+     * Builds a treap of {@code records}, in order, in linear time: the shape
+     * comes from a right spine where each record pops the records of lower
+     * priority and takes them as its left subtree, and the nodes are then
+     * made bottom up, so that a persistent treap never changes one.
+     *
+     * @param records
+     *            the records, in index order
+     * @return the root of the treap
+     */
+    static Node build(Transaction[] records) {
+        int n = records.length;
+        int[] priorities = new int[n];
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
+        int[] spine = new int[n];
+        int top = 0;
+        for (int i = 0; i < n; i++) {
+            priorities[i] = ThreadLocalRandom.current().nextInt();
+            int popped = -1;
+            while (top > 0 && priorities[spine[top - 1]] < priorities[i]) {
+                top--;
+                popped = spine[top];
+            }
+            lefts[i] = popped;
+            rights[i] = -1;
+            if (top > 0) {
+                rights[spine[top - 1]] = i;
+            }
+            spine[top] = i;
+            top++;
+        }
+        int root = -1;
+        if (top > 0) {
+            root = spine[0];
+        }
+        return assemble(root, records, priorities, lefts, rights);
+    }
+
+    /**
+     * Returns the total amount in cents of the first {@code k} nodes.
+     *
+     * @param t
+     *            the root of the subtree, possibly null
+     * @param k
+     *            the number of leading nodes to add up
+     * @return the total amount in cents of the first {@code k} nodes
+     * @requires 0 <= k <= size(t)
+     */
+    static long prefix(Node t, int k) {
+        long total = 0L;
+        Node n = t;
+        int remaining = k;
+        while (remaining > 0) {
+            int leftSize = size(n.left);
+            if (remaining <= leftSize) {
+                n = n.left;
+            } else {
+                total += sum(n.left) + n.cents;
+                remaining -= leftSize + 1;
+                n = n.right;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the smallest index holding the extreme of one kind, walking down
+     * to the leftmost node whose key matches the root's.
+     *
+     * @param root
+     *            the root of the treap, possibly null
+     * @param kind
+     *            the kind of extreme
+     * @return the index of the extreme, or 0 if there is none
+     */
+    static int extremeIndex(Node root, int kind) {
+        int index = 0;
+        float target = best(root, kind);
+        Node n = root;
+        if (target == Float.NEGATIVE_INFINITY) {
+            n = null;
+        }
+        while (n != null) {
+            if (best(n.left, kind) == target) {
+                n = n.left;
+            } else if (key(n.record.amount(), kind) == target) {
+                index += size(n.left);
+                n = null;
+            } else {
+                index += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns an iterator over a run of the treap rooted at {@code root}, in
+     * order, from the latest to the earliest record.
+     *
+     * @param root
+     *            the root of the treap, possibly null
+     * @param fromIndex
+     *            the index of the first record in the run
+     * @param count
+     *            the number of records in the run
+     * @return the iterator
+     * @requires 0 <= fromIndex and 0 <= count and
+     *           fromIndex + count <= size(root)
+     */
+    static Iterator<Transaction> iterator(Node root, int fromIndex,
+            int count) {
+        return new TreapIterator(root, fromIndex, count);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for a treap, walking a run
+     * of it in order.
+     */
+    private static final class TreapIterator implements Iterator<Transaction> {
+
+        /**
+         * The nodes whose record and right subtree are still to be visited.
+         */
+        private final Deque<Node> pending;
+
+        /**
+         * The number of records still to be returned.
+         */
+        private int remaining;
+
+        /**
+         * Constructor for a run of {@code count} records from
+         * {@code fromIndex}.
+         *
+         * @param root
+         *            the root of the treap, possibly null
+         * @param fromIndex
+         *            the index of the first record in the run
+         * @param count
+         *            the number of records in the run
+         */
+        private TreapIterator(Node root, int fromIndex, int count) {
+            this.pending = new ArrayDeque<>();
+            this.remaining = count;
+            // Keep the ancestors whose record comes at or after fromIndex
+            Node n = root;
+            int k = fromIndex;
+            while (n != null) {
+                int leftSize = size(n.left);
+                if (k <= leftSize) {
+                    this.pending.push(n);
+                    if (k == leftSize) {
+                        n = null;
+                    } else {
+                        n = n.left;
+                    }
+                } else {
+                    k -= leftSize + 1;
+                    n = n.right;
+                }
+            }
+        }
+
+        /**
+         * Pushes {@code t} and its chain of left descendants.
+         *
+         * @param t
+         *            the root of the subtree to visit next, possibly null
+         */
+        private void descend(Node t) {
+            Node n = t;
+            while (n != null) {
+                this.pending.push(n);
+                n = n.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.remaining--;
+            Node n = this.pending.pop();
+            this.descend(n.right);
+            return n.record;
+        }
+    }
+}
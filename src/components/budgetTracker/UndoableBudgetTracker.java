@@ -0,0 +1,662 @@
+package components.budgetTracker;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+
+/**
+ * {@code BudgetTracker} that logs the inverse of every change it makes to
+ * another tracker, so changes can be undone, redone, and rolled back to named
+ * checkpoints. Each mutation is one step of the log, holding the operations
+ * that undo it: inserting, deleting, replacing or moving one record, adding or
+ * removing a batch of the latest records, renaming, or swapping in a whole
+ * tracker. Applying an operation returns the operation that undoes it, so an
+ * undone step becomes a step of the redo log, and the other way round.
+ *
+ * <p>
+ * Undoing a step costs about as much as the change it undoes: one indexed
+ * edit for an indexed edit, time in the size of the batch for
+ * {@code addAll}, {@code append} and {@code mergeOrdered}, and constant time
+ * for {@code clear} and {@code transferFrom}, whose old tracker is kept in
+ * the log. Rolling back K steps never rebuilds the ledger. Undo only restores
+ * this tracker: the trackers that {@code append}, {@code mergeOrdered} and
+ * {@code transferFrom} emptied stay empty. A new mutation drops the redo log,
+ * and the checkpoints of the steps it dropped. Over a
+ * {@code DatedBudgetTracker}, the records that undo and redo put back keep
+ * their timestamps.
+ * </p>
+ *
+ * <p>
+ * {@code newInstance} returns an empty undoable tracker over an empty tracker
+ * of the wrapped kind.
+ * </p>
+ *
+ * @convention <pre>
+ * [$this.rep is not null] and
+ * [undoing the steps of $this.undo, latest first, turns $this.rep back into
+ *  the tracker this started from, or last cleared its history from] and
+ * [redoing the steps of $this.redo, latest first, replays the steps undone
+ *  since the last mutation] and
+ * [every value of $this.checkpoints is at most |$this.undo|]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.rep
+ * </pre>
+ */
+public final class UndoableBudgetTracker extends BudgetTrackerSecondary {
+    /*
+     * Private members
+     */
+
+    /**
+     * Kind of operation: insert {@code record} at {@code index}, dated
+     * {@code saved} if it is not null.
+     */
+    private static final int INSERT = 0;
+
+    /**
+     * Kind of operation: delete the record at {@code index}.
+     */
+    private static final int DELETE = 1;
+
+    /**
+     * Kind of operation: replace the record at {@code index} with
+     * {@code record}.
+     */
+    private static final int REPLACE = 2;
+
+    /**
+     * Kind of operation: move the record at {@code index} to {@code other}.
+     */
+    private static final int MOVE = 3;
+
+    /**
+     * Kind of operation: add the records of the batch {@code saved}.
+     */
+    private static final int ADD_BATCH = 4;
+
+    /**
+     * Kind of operation: remove the {@code index} latest records.
+     */
+    private static final int REMOVE_BATCH = 5;
+
+    /**
+     * Kind of operation: set the account name to {@code saved}.
+     */
+    private static final int RENAME = 6;
+
+    /**
+     * Kind of operation: replace the wrapped tracker with {@code saved}.
+     */
+    private static final int SWAP = 7;
+
+    /**
+     * One operation of the log.
+     *
+     * @param kind
+     *            the kind of operation
+     * @param index
+     *            the index, or number of records, it works on
+     * @param other
+     *            the index a record moves to
+     * @param record
+     *            the record it inserts or puts in place
+     * @param saved
+     *            the batch, timestamp, account name or tracker it puts back
+     */
+    private record Op(int kind, int index, int other, Transaction record,
+            Object saved) {
+    }
+
+    /**
+     * Records that an operation puts back.
+     *
+     * @param records
+     *            the records, earliest first
+     * @param stamps
+     *            their timestamps, earliest first, or null if the wrapped
+     *            tracker is not a {@code DatedBudgetTracker}
+     */
+    private record Batch(Transaction[] records, long[] stamps) {
+    }
+
+    /**
+     * The tracker being changed.
+     */
+    private BudgetTracker rep;
+
+    /**
+     * Steps that undo the changes made so far, latest on top; each holds its
+     * operations in the order they are to be applied.
+     */
+    private Deque<Op[]> undo;
+
+    /**
+     * Steps that redo the changes undone since the last mutation, latest on
+     * top.
+     */
+    private Deque<Op[]> redo;
+
+    /**
+     * The number of steps in {@code undo} at each checkpoint, by name.
+     */
+    private Map<String, Integer> checkpoints;
+
+    /**
+     * Starts an empty history.
+     */
+    private void createNewHistory() {
+        this.undo = new ArrayDeque<>();
+        this.redo = new ArrayDeque<>();
+        this.checkpoints = new HashMap<>();
+    }
+
+    /**
+     * Logs a step of a new mutation, dropping the redo log and the
+     * checkpoints of the steps it held.
+     *
+     * @param ops
+     *            the operations that undo the mutation, in order
+     */
+    private void log(Op... ops) {
+        this.undo.push(ops);
+        if (!this.redo.isEmpty()) {
+            this.redo.clear();
+            int depth = this.undo.size();
+            // Checkpoints past this step name states that are gone
+            this.checkpoints.values().removeIf(steps -> steps >= depth);
+        }
+    }
+
+    /**
+     * Returns the records of {@code tracker}, earliest first.
+     *
+     * @param tracker
+     *            the tracker to read
+     * @param count
+     *            the number of latest records to read
+     * @return the {@code count} latest records of {@code tracker}, earliest
+     *         first
+     * @requires count <= |tracker|
+     */
+    private static Transaction[] latest(BudgetTracker tracker, int count) {
+        Transaction[] records = new Transaction[count];
+        int i = count - 1;
+        for (Transaction record : tracker.view(0, count)) {
+            records[i] = record;
+            i--;
+        }
+        return records;
+    }
+
+    /**
+     * Returns the timestamp of the record at {@code index} of {@code rep}, or
+     * null if {@code rep} is not a {@code DatedBudgetTracker}.
+     *
+     * @param index
+     *            the index of the record
+     * @return its timestamp, or null
+     * @requires index < |$this.rep|
+     */
+    private Long stampAt(int index) {
+        Long stamp = null;
+        if (this.rep instanceof DatedBudgetTracker) {
+            stamp = ((DatedBudgetTracker) this.rep).timestampAt(index);
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns the {@code count} latest records of {@code rep}, with their
+     * timestamps if it is a {@code DatedBudgetTracker}.
+     *
+     * @param count
+     *            the number of latest records to read
+     * @return the batch of those records, earliest first
+     * @requires count <= |$this.rep|
+     */
+    private Batch latestBatch(int count) {
+        long[] stamps = null;
+        if (this.rep instanceof DatedBudgetTracker) {
+            DatedBudgetTracker dated = (DatedBudgetTracker) this.rep;
+            stamps = new long[count];
+            for (int i = 0; i < count; i++) {
+                stamps[count - 1 - i] = dated.timestampAt(i);
+            }
+        }
+        return new Batch(latest(this.rep, count), stamps);
+    }
+
+    /**
+     * Applies {@code op} to {@code rep} and returns the operation that undoes
+     * it.
+     *
+     * @param op
+     *            the operation to apply
+     * @return the inverse of {@code op}
+     */
+    private Op apply(Op op) {
+        Op inverse;
+        switch (op.kind()) {
+            case INSERT:
+                if (op.saved() != null
+                        && this.rep instanceof DatedBudgetTracker) {
+                    ((DatedBudgetTracker) this.rep).addToIndex(op.index(),
+                            op.record().amount(), op.record().description(),
+                            (Long) op.saved());
+                } else {
+                    this.rep.addToIndex(op.index(), op.record().amount(),
+                            op.record().description());
+                }
+                inverse = new Op(DELETE, op.index(), 0, null, null);
+                break;
+            case DELETE:
+                Long stamp = this.stampAt(op.index());
+                inverse = new Op(INSERT, op.index(), 0,
+                        this.rep.removeIndex(op.index()), stamp);
+                break;
+            case REPLACE:
+                inverse = new Op(REPLACE, op.index(), 0,
+                        this.rep.modifyIndex(op.index(), op.record().amount(),
+                                op.record().description()),
+                        null);
+                break;
+            case MOVE:
+                this.rep.changeIndex(op.index(), op.other());
+                inverse = new Op(MOVE, op.other(), op.index(), null, null);
+                break;
+            case ADD_BATCH:
+                Batch batch = (Batch) op.saved();
+                Transaction[] records = batch.records();
+                float[] amounts = new float[records.length];
+                String[] descriptions = new String[records.length];
+                for (int i = 0; i < records.length; i++) {
+                    amounts[i] = records[i].amount();
+                    descriptions[i] = records[i].description();
+                }
+                if (batch.stamps() != null
+                        && this.rep instanceof DatedBudgetTracker) {
+                    ((DatedBudgetTracker) this.rep).addAll(amounts,
+                            descriptions, batch.stamps(), records.length);
+                } else {
+                    this.rep.addAll(amounts, descriptions, records.length);
+                }
+                inverse = new Op(REMOVE_BATCH, records.length, 0, null, null);
+                break;
+            case REMOVE_BATCH:
+                Batch removed = this.latestBatch(op.index());
+                for (int i = 0; i < op.index(); i++) {
+                    this.rep.remove();
+                }
+                inverse = new Op(ADD_BATCH, 0, 0, null, removed);
+                break;
+            case RENAME:
+                inverse = new Op(RENAME, 0, 0, null,
+                        this.rep.getAccountName());
+                this.rep.setAccountName((String) op.saved());
+                break;
+            default:
+                inverse = new Op(SWAP, 0, 0, null, this.rep);
+                this.rep = (BudgetTracker) op.saved();
+                break;
+        }
+        return inverse;
+    }
+
+    /**
+     * Applies the operations of {@code step} in order and returns the step
+     * that undoes it.
+     *
+     * @param step
+     *            the operations to apply, in order
+     * @return the operations that undo {@code step}, in order
+     */
+    private Op[] apply(Op[] step) {
+        Op[] inverse = new Op[step.length];
+        for (int i = 0; i < step.length; i++) {
+            inverse[step.length - 1 - i] = this.apply(step[i]);
+        }
+        return inverse;
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor that takes over the contents of {@code tracker}, with an
+     * empty history.
+     *
+     * @param tracker
+     *            the tracker to change through this
+     * @clears tracker
+     * @requires tracker is not a MappedBudgetTracker
+     * @ensures this = #tracker
+     */
+    public UndoableBudgetTracker(BudgetTracker tracker) {
+        assert tracker != null : "Violation of: tracker is not null";
+        assert !(tracker instanceof MappedBudgetTracker) : "Violation of: "
+                + "tracker is not a MappedBudgetTracker";
+        this.rep = tracker.newInstance();
+        this.rep.transferFrom(tracker);
+        this.createNewHistory();
+    }
+
+    /*
+     * History methods
+     */
+
+    /**
+     * Reports whether there is a change to undo.
+     *
+     * @return whether {@code undo} may be called
+     */
+    public boolean canUndo() {
+        return !this.undo.isEmpty();
+    }
+
+    /**
+     * Reports whether there is an undone change to redo.
+     *
+     * @return whether {@code redo} may be called
+     */
+    public boolean canRedo() {
+        return !this.redo.isEmpty();
+    }
+
+    /**
+     * Undoes the latest change that is not undone yet.
+     *
+     * @updates this
+     * @requires canUndo()
+     * @ensures this = [this as it was before that change]
+     */
+    public void undo() {
+        assert this.canUndo() : "Violation of: canUndo()";
+        this.redo.push(this.apply(this.undo.pop()));
+    }
+
+    /**
+     * Redoes the latest undone change.
+     *
+     * @updates this
+     * @requires canRedo()
+     * @ensures this = [this as it was before that change was undone]
+     */
+    public void redo() {
+        assert this.canRedo() : "Violation of: canRedo()";
+        this.undo.push(this.apply(this.redo.pop()));
+    }
+
+    /**
+     * Names the current state, so that {@code rollback} can return to it;
+     * replaces any earlier checkpoint of the same name.
+     *
+     * @param name
+     *            the name of the checkpoint
+     * @requires name is not null
+     */
+    public void checkpoint(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.checkpoints.put(name, this.undo.size());
+    }
+
+    /**
+     * Reports whether there is a checkpoint named {@code name}.
+     *
+     * @param name
+     *            the name of the checkpoint
+     * @return whether {@code rollback(name)} may be called
+     */
+    public boolean hasCheckpoint(String name) {
+        return this.checkpoints.containsKey(name);
+    }
+
+    /**
+     * Undoes every change made since the checkpoint named {@code name}, in
+     * time in the number of changes; they can still be redone.
+     *
+     * @param name
+     *            the name of the checkpoint
+     * @updates this
+     * @requires hasCheckpoint(name)
+     * @ensures this = [this as it was at the checkpoint]
+     */
+    public void rollback(String name) {
+        assert this.hasCheckpoint(name) : "Violation of: hasCheckpoint(name)";
+        int depth = this.checkpoints.get(name);
+        // Redo may have taken the log past a checkpoint set before an undo
+        while (this.undo.size() > depth) {
+            this.undo();
+        }
+        while (this.undo.size() < depth) {
+            this.redo();
+        }
+    }
+
+    /**
+     * Forgets every change made so far, and every checkpoint; the changes can
+     * no longer be undone or redone.
+     */
+    public void clearHistory() {
+        this.createNewHistory();
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public BudgetTracker newInstance() {
+        return new UndoableBudgetTracker(this.rep.newInstance());
+    }
+
+    @Override
+    public void clear() {
+        this.log(new Op(SWAP, 0, 0, null, this.rep));
+        this.rep = this.rep.newInstance();
+    }
+
+    @Override
+    public void transferFrom(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof UndoableBudgetTracker : "Violation of: "
+                + "source is of dynamic type UndoableBudgetTracker";
+        UndoableBudgetTracker localSource = (UndoableBudgetTracker) source;
+        this.log(new Op(SWAP, 0, 0, null, this.rep));
+        this.rep = localSource.rep;
+        localSource.rep = this.rep.newInstance();
+        localSource.createNewHistory();
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public int length() {
+        return this.rep.length();
+    }
+
+    @Override
+    public Transaction remove() {
+        assert this.rep.length() > 0 : "Violation of: |this| > 0";
+        Long stamp = this.stampAt(0);
+        Transaction record = this.rep.remove();
+        this.log(new Op(INSERT, 0, 0, record, stamp));
+        return record;
+    }
+
+    @Override
+    public void add(float amount, String description) {
+        this.rep.add(amount, description);
+        this.log(new Op(DELETE, 0, 0, null, null));
+    }
+
+    @Override
+    public void add(Transaction record) {
+        this.rep.add(record);
+        this.log(new Op(DELETE, 0, 0, null, null));
+    }
+
+    @Override
+    public float balance() {
+        return this.rep.balance();
+    }
+
+    @Override
+    public void setAccountName(String name) {
+        assert name != null : "Violation of: name is not null";
+        this.log(new Op(RENAME, 0, 0, null, this.rep.getAccountName()));
+        this.rep.setAccountName(name);
+    }
+
+    @Override
+    public String getAccountName() {
+        return this.rep.getAccountName();
+    }
+
+    @Override
+    public Iterable<Transaction> view(int fromIndex, int count) {
+        return this.rep.view(fromIndex, count);
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return this.rep.iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return this.rep.spliterator();
+    }
+
+    /*
+     * Secondary methods: edits are logged, queries go to the wrapped tracker
+     */
+
+    @Override
+    public void addToIndex(int index, float amount, String description) {
+        this.rep.addToIndex(index, amount, description);
+        this.log(new Op(DELETE, index, 0, null, null));
+    }
+
+    @Override
+    public Transaction modifyIndex(int index, float amount,
+            String description) {
+        Transaction old = this.rep.modifyIndex(index, amount, description);
+        this.log(new Op(REPLACE, index, 0, old, null));
+        return old;
+    }
+
+    @Override
+    public Transaction removeIndex(int index) {
+        Long stamp = this.stampAt(index);
+        Transaction old = this.rep.removeIndex(index);
+        this.log(new Op(INSERT, index, 0, old, stamp));
+        return old;
+    }
+
+    @Override
+    public void changeIndex(int curIndex, int index) {
+        this.rep.changeIndex(curIndex, index);
+        this.log(new Op(MOVE, index, curIndex, null, null));
+    }
+
+    @Override
+    public void addAll(float[] amounts, String[] descriptions, int count) {
+        this.rep.addAll(amounts, descriptions, count);
+        this.log(new Op(REMOVE_BATCH, count, 0, null, null));
+    }
+
+    @Override
+    public void append(BudgetTracker source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        int count = source.length();
+        this.rep.append(source);
+        this.log(new Op(REMOVE_BATCH, count, 0, null, null));
+    }
+
+    @Override
+    public void mergeOrdered(BudgetTracker source,
+            Comparator<Transaction> order) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert order != null : "Violation of: order is not null";
+        int count = source.length();
+        // The records of rep after the earliest of source are the ones moved
+        int moved = 0;
+        if (count > 0) {
+            Transaction earliest = source.view(count - 1, 1).iterator()
+                    .next();
+            Iterator<Transaction> records = this.rep.iterator();
+            boolean after = true;
+            while (after && records.hasNext()) {
+                after = order.compare(records.next(), earliest) > 0;
+                if (after) {
+                    moved++;
+                }
+            }
+        }
+        Batch tail = this.latestBatch(moved);
+        this.rep.mergeOrdered(source, order);
+        this.log(new Op(REMOVE_BATCH, moved + count, 0, null, null),
+                new Op(ADD_BATCH, 0, 0, null, tail));
+    }
+
+    @Override
+    public float rangeSum(int from, int to) {
+        return this.rep.rangeSum(from, to);
+    }
+
+    @Override
+    public float balanceAt(int index) {
+        return this.rep.balanceAt(index);
+    }
+
+    @Override
+    public int maxIncomeIndex() {
+        return this.rep.maxIncomeIndex();
+    }
+
+    @Override
+    public int minIncomeIndex() {
+        return this.rep.minIncomeIndex();
+    }
+
+    @Override
+    public int maxExpenseIndex() {
+        return this.rep.maxExpenseIndex();
+    }
+
+    @Override
+    public int minExpenseIndex() {
+        return this.rep.minExpenseIndex();
+    }
+
+    @Override
+    public int keywordCount(String keyword) {
+        return this.rep.keywordCount(keyword);
+    }
+
+    @Override
+    public float keywordTotal(String keyword) {
+        return this.rep.keywordTotal(keyword);
+    }
+
+    @Override
+    public long balanceCents() {
+        return this.rep.balanceCents();
+    }
+
+    @Override
+    public long keywordTotalCents(String keyword) {
+        return this.rep.keywordTotalCents(keyword);
+    }
+}
@@ -0,0 +1,152 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTracker;
+import components.budgetTracker.BudgetTracker2;
+
+/**
+ * JUnit test fixture for {@code BudgetFilterReport}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetFilterReportTest {
+    /*
+     * Useful constants
+     */
+
+    /**
+     * Descriptions of the records, in the order they are added.
+     */
+    private final String[] descriptions = { "Coffee shop", "Coffee",
+            "Shop rent", "Coffee shop refund", "Lunch", "Coffee shop" };
+
+    /**
+     * Amounts of the records, in the order they are added.
+     */
+    private final float[] amounts = { -4.5f, -2.25f, -800.0f, 4.5f, -12.0f,
+            -3.75f };
+
+    /**
+     * Returns a report on a tracker holding {@code descriptions} and
+     * {@code amounts}.
+     *
+     * @return the report
+     */
+    private BudgetFilterReport report() {
+        BudgetTracker budgetTracker = new BudgetTracker2();
+        for (int i = 0; i < this.descriptions.length; i++) {
+            budgetTracker.add(this.amounts[i], this.descriptions[i]);
+        }
+        return new BudgetFilterReport(budgetTracker);
+    }
+
+    /**
+     * Asserts that the batch matches of every keyword agree with the matches
+     * of that keyword alone.
+     *
+     * @param report
+     *            the report
+     * @param matches
+     *            the batch matches
+     */
+    private static void assertSameMatches(BudgetFilterReport report,
+            Map<String, BudgetFilterReport.KeywordMatches> matches) {
+        for (Map.Entry<String, BudgetFilterReport.KeywordMatches> entry : matches
+                .entrySet()) {
+            String keyword = entry.getKey();
+            assertEquals(report.transactionsWithKeyword(keyword),
+                    entry.getValue().transactions());
+            assertEquals(report.totalWithKeyword(keyword),
+                    entry.getValue().total(), 0.0f);
+        }
+    }
+
+    /**
+     * Test of transactionsWithKeywords with keywords nested in one another
+     * and overlapping in the descriptions.
+     */
+    @Test
+    public void nestedAndOverlappingTest() {
+        /*
+         * Setup variables
+         */
+        BudgetFilterReport report = this.report();
+        List<String> keywords = Arrays.asList("Coffee shop", "Coffee", "shop",
+                "ee sh", "Shop", "Dinner");
+
+        /*
+         * Call the method
+         */
+        Map<String, BudgetFilterReport.KeywordMatches> matches = report
+                .transactionsWithKeywords(keywords);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(keywords, Arrays.asList(matches.keySet().toArray()));
+        final int coffeeShops = 3;
+        final int coffees = 4;
+        assertEquals(coffeeShops,
+                matches.get("Coffee shop").transactions().size());
+        assertEquals(coffees, matches.get("Coffee").transactions().size());
+        assertEquals(coffeeShops, matches.get("ee sh").transactions().size());
+        assertEquals(1, matches.get("Shop").transactions().size());
+        assertTrue(matches.get("Dinner").transactions().isEmpty());
+        assertSameMatches(report, matches);
+    }
+
+    /**
+     * Test that repeated keywords are reported once.
+     */
+    @Test
+    public void repeatedTest() {
+        /*
+         * Setup variables
+         */
+        BudgetFilterReport report = this.report();
+
+        /*
+         * Call the method
+         */
+        Map<String, BudgetFilterReport.KeywordMatches> matches = report
+                .transactionsWithKeywords(
+                        Arrays.asList("Lunch", "Coffee", "Lunch"));
+
+        /*
+         * Evaluation
+         */
+        assertEquals(Arrays.asList("Lunch", "Coffee"),
+                Arrays.asList(matches.keySet().toArray()));
+        assertEquals(1, matches.get("Lunch").transactions().size());
+        assertSameMatches(report, matches);
+    }
+
+    /**
+     * Test of transactionsWithKeywords with no keywords.
+     */
+    @Test
+    public void emptyTest() {
+        /*
+         * Setup variables
+         */
+        BudgetFilterReport report = this.report();
+
+        /*
+         * Call the method
+         */
+        Map<String, BudgetFilterReport.KeywordMatches> matches = report
+                .transactionsWithKeywords(Collections.<String>emptyList());
+
+        /*
+         * Evaluation
+         */
+        assertTrue(matches.isEmpty());
+    }
+}
@@ -0,0 +1,234 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTracker;
+import components.budgetTracker.BudgetTracker2;
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code BudgetSummaryReport}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetSummaryReportTest {
+    /*
+     * Useful constants
+     */
+
+    /**
+     * Delta for comparing statistics.
+     */
+    private final double delta = 1e-9;
+
+    /**
+     * Relative tolerance for comparing statistics summed in another order.
+     */
+    private final double relative = 1e-9;
+
+    /**
+     * Number of records of the ledger summarized in parallel, enough for
+     * several chunks.
+     */
+    private final int records = 200000;
+
+    /**
+     * Seed of the random amounts.
+     */
+    private final long seed = 7L;
+
+    /**
+     * Bound on the magnitude of the random amounts, in cents.
+     */
+    private final int centsBound = 100000;
+
+    /**
+     * Known incomes, in the order they are added.
+     */
+    private final float[] incomes = { 10.0f, 40.0f, 20.0f, 30.0f };
+
+    /**
+     * Known expenses, in the order they are added.
+     */
+    private final float[] expenses = { -10.0f, -20.0f };
+
+    /**
+     * Index of the largest income, 40.
+     */
+    private final int maxIncomeIndex = 4;
+
+    /**
+     * Index of the smallest income, 10.
+     */
+    private final int minIncomeIndex = 6;
+
+    /**
+     * Index of the smallest expense, -10.
+     */
+    private final int minExpenseIndex = 5;
+
+    /**
+     * Mean of {@code incomes}.
+     */
+    private final double incomeMean = 25.0;
+
+    /**
+     * Population variance of {@code incomes}.
+     */
+    private final double incomeVariance = 125.0;
+
+    /**
+     * Mean of the magnitudes of {@code expenses}.
+     */
+    private final double expenseMean = 15.0;
+
+    /**
+     * Population variance of the magnitudes of {@code expenses}.
+     */
+    private final double expenseVariance = 25.0;
+
+    /**
+     * Asserts that two statistics agree, up to the rounding of sums added up
+     * in another order.
+     *
+     * @param expected
+     *            the expected statistics
+     * @param actual
+     *            the actual statistics
+     */
+    private void assertSameStatistics(BudgetSummaryReport.Statistics expected,
+            BudgetSummaryReport.Statistics actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.sum(), actual.sum(),
+                this.relative * Math.abs(expected.sum()));
+        assertEquals(expected.mean(), actual.mean(),
+                this.relative * Math.abs(expected.mean()));
+        assertEquals(expected.variance(), actual.variance(),
+                this.relative * Math.abs(expected.variance()));
+        assertEquals(expected.maxIndex(), actual.maxIndex());
+        assertEquals(expected.minIndex(), actual.minIndex());
+    }
+
+    /**
+     * Test of summarize on a known data set.
+     */
+    @Test
+    public void summarizeTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = new BudgetTracker2();
+        budgetTracker.add(this.incomes[0], "Income 1");
+        budgetTracker.add(this.expenses[0], "Expense 1");
+        budgetTracker.add(this.incomes[1], "Income 2");
+        budgetTracker.add(0.0f, "Nothing");
+        budgetTracker.add(this.incomes[2], "Income 3");
+        budgetTracker.add(this.expenses[1], "Expense 2");
+        budgetTracker.add(this.incomes[this.incomes.length - 1], "Income 4");
+        BudgetSummaryReport report = new BudgetSummaryReport(budgetTracker);
+
+        /*
+         * Call the method
+         */
+        BudgetSummaryReport.Summary summary = report.summarize();
+
+        /*
+         * Evaluation
+         */
+        BudgetSummaryReport.Statistics income = summary.income();
+        assertEquals(this.incomes.length, income.count());
+        assertEquals(this.incomeMean * this.incomes.length, income.sum(),
+                this.delta);
+        assertEquals(this.incomeMean, income.mean(), this.delta);
+        assertEquals(this.incomeVariance, income.variance(), this.delta);
+        // Index 0 is the latest record
+        assertEquals(this.maxIncomeIndex, income.maxIndex());
+        assertEquals(this.minIncomeIndex, income.minIndex());
+        BudgetSummaryReport.Statistics expense = summary.expense();
+        assertEquals(this.expenses.length, expense.count());
+        assertEquals(this.expenseMean, expense.mean(), this.delta);
+        assertEquals(this.expenseVariance, expense.variance(), this.delta);
+        assertEquals(1, expense.maxIndex());
+        assertEquals(this.minExpenseIndex, expense.minIndex());
+    }
+
+    /**
+     * Test of summarize on an empty tracker.
+     */
+    @Test
+    public void summarizeEmptyTest() {
+        /*
+         * Setup variables
+         */
+        BudgetSummaryReport report = new BudgetSummaryReport(
+                new BudgetTracker2());
+
+        /*
+         * Call the methods
+         */
+        BudgetSummaryReport.Summary summary = report.summarize();
+        BudgetSummaryReport.Summary parallel = report.summarizeParallel();
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0L, summary.income().count());
+        assertEquals(0.0, summary.income().mean(), 0.0);
+        assertEquals(0.0, summary.income().variance(), 0.0);
+        assertEquals(0, summary.expense().maxIndex());
+        assertSameStatistics(summary.income(), parallel.income());
+        assertSameStatistics(summary.expense(), parallel.expense());
+    }
+
+    /**
+     * Test that summarizeParallel, merging chunks with Chan's formula, agrees
+     * with the serial summary.
+     */
+    @Test
+    public void summarizeParallelTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = new BudgetTracker2();
+        Random random = new Random(this.seed);
+        for (int i = 0; i < this.records; i++) {
+            int cents = random.nextInt(2 * this.centsBound) - this.centsBound;
+            budgetTracker.add(cents / BudgetTracker.ROUNDING, "Record");
+        }
+        BudgetSummaryReport report = new BudgetSummaryReport(budgetTracker);
+
+        /*
+         * Call the methods
+         */
+        BudgetSummaryReport.Summary serial = report.summarize();
+        BudgetSummaryReport.Summary parallel = report.summarizeParallel();
+
+        /*
+         * Evaluation
+         */
+        assertSameStatistics(serial.income(), parallel.income());
+        assertSameStatistics(serial.expense(), parallel.expense());
+        assertEquals(this.records - zeroAmounts(budgetTracker),
+                serial.income().count() + serial.expense().count());
+    }
+
+    /**
+     * Returns the number of records of {@code budgetTracker} whose amount is
+     * zero.
+     *
+     * @param budgetTracker
+     *            the tracker to count
+     * @return the number of records with amount zero
+     */
+    private static int zeroAmounts(BudgetTracker budgetTracker) {
+        int count = 0;
+        for (Transaction record : budgetTracker) {
+            if (record.amount() == 0.0f) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code KeywordAutomaton}.
+ *
+ * @author Chenyang Zong
+ */
+public class KeywordAutomatonTest {
+
+    /**
+     * Test of matches with keywords that overlap in the text.
+     */
+    @Test
+    public void overlappingTest() {
+        /*
+         * Setup variables
+         */
+        KeywordAutomaton automaton = new KeywordAutomaton(
+                Arrays.asList("abc", "bcd", "cde", "xyz"));
+
+        /*
+         * Call the method
+         */
+        int[] ids = automaton.matches("abcde");
+
+        /*
+         * Evaluation
+         */
+        final int[] expected = { 0, 1, 2 };
+        assertArrayEquals(expected, ids);
+    }
+
+    /**
+     * Test of matches with keywords nested in one another, given in an order
+     * that differs from the order in which they end in the text.
+     */
+    @Test
+    public void nestedTest() {
+        /*
+         * Setup variables
+         */
+        KeywordAutomaton automaton = new KeywordAutomaton(
+                Arrays.asList("hers", "his", "she", "he"));
+
+        /*
+         * Call the method
+         */
+        int[] ids = automaton.matches("ushers");
+
+        /*
+         * Evaluation
+         */
+        final int[] expected = { 0, 2, 3 };
+        assertArrayEquals(expected, ids);
+        assertEquals("she", automaton.keyword(2));
+    }
+
+    /**
+     * Test that repeated keywords count once, and that a keyword occurring
+     * many times is reported once.
+     */
+    @Test
+    public void repeatedTest() {
+        /*
+         * Setup variables
+         */
+        KeywordAutomaton automaton = new KeywordAutomaton(
+                Arrays.asList("a", "b", "a"));
+
+        /*
+         * Call the method
+         */
+        int[] ids = automaton.matches("aaaa");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(2, automaton.size());
+        assertEquals("b", automaton.keyword(1));
+        assertArrayEquals(new int[] { 0 }, ids);
+    }
+
+    /**
+     * Test of matches with no keywords and with the empty keyword.
+     */
+    @Test
+    public void emptyTest() {
+        /*
+         * Setup variables
+         */
+        KeywordAutomaton none = new KeywordAutomaton(
+                Collections.<String>emptyList());
+        KeywordAutomaton blank = new KeywordAutomaton(Arrays.asList("", "a"));
+
+        /*
+         * Call the methods
+         */
+        int[] noIds = none.matches("anything");
+        int[] blankIds = blank.matches("");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0, none.size());
+        assertArrayEquals(new int[0], noIds);
+        assertArrayEquals(new int[] { 0 }, blankIds);
+    }
+
+    /**
+     * Test that a call of matches does not report the keywords found by an
+     * earlier call.
+     */
+    @Test
+    public void successiveCallsTest() {
+        /*
+         * Setup variables
+         */
+        KeywordAutomaton automaton = new KeywordAutomaton(
+                Arrays.asList("coffee", "tea"));
+
+        /*
+         * Call the method
+         */
+        int[] first = automaton.matches("coffee and tea");
+        int[] second = automaton.matches("tea");
+        int[] third = automaton.matches("water");
+
+        /*
+         * Evaluation
+         */
+        assertArrayEquals(new int[] { 0, 1 }, first);
+        assertArrayEquals(new int[] { 1 }, second);
+        assertArrayEquals(new int[0], third);
+    }
+}
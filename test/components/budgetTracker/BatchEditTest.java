@@ -0,0 +1,346 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code BatchEdit}.
+ *
+ * @author Chenyang Zong
+ */
+public class BatchEditTest {
+
+    /**
+     * Tracker over a {@code BudgetTracker2} where one mutation fails, as a
+     * journal write might, after a given number of them succeed.
+     */
+    private static final class FailingBudgetTracker
+            extends BudgetTrackerSecondary {
+
+        /**
+         * The tracker the calls go to.
+         */
+        private BudgetTracker rep;
+
+        /**
+         * Number of mutations left before the one that fails, or -1 if none
+         * fails.
+         */
+        private int left;
+
+        /**
+         * Constructor.
+         *
+         * @param rep
+         *            the tracker the calls go to
+         * @param left
+         *            the number of mutations before the one that fails, or
+         *            -1
+         */
+        private FailingBudgetTracker(BudgetTracker rep, int left) {
+            this.rep = rep;
+            this.left = left;
+        }
+
+        /**
+         * Counts a mutation, failing if it is the one that fails.
+         */
+        private void mutate() {
+            if (this.left == 0) {
+                this.left = -1;
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+            if (this.left > 0) {
+                this.left--;
+            }
+        }
+
+        @Override
+        public BudgetTracker newInstance() {
+            return new FailingBudgetTracker(this.rep.newInstance(), -1);
+        }
+
+        @Override
+        public void clear() {
+            this.rep.clear();
+        }
+
+        @Override
+        public void transferFrom(BudgetTracker source) {
+            this.rep.transferFrom(((FailingBudgetTracker) source).rep);
+        }
+
+        @Override
+        public int length() {
+            return this.rep.length();
+        }
+
+        @Override
+        public Transaction remove() {
+            this.mutate();
+            return this.rep.remove();
+        }
+
+        @Override
+        public void add(float amount, String description) {
+            this.mutate();
+            this.rep.add(amount, description);
+        }
+
+        @Override
+        public void add(Transaction record) {
+            this.add(record.amount(), record.description());
+        }
+
+        @Override
+        public Iterable<Transaction> view(int fromIndex, int count) {
+            return this.rep.view(fromIndex, count);
+        }
+
+        @Override
+        public float balance() {
+            return this.rep.balance();
+        }
+
+        @Override
+        public void setAccountName(String name) {
+            this.rep.setAccountName(name);
+        }
+
+        @Override
+        public String getAccountName() {
+            return this.rep.getAccountName();
+        }
+
+        @Override
+        public Iterator<Transaction> iterator() {
+            return this.rep.iterator();
+        }
+    }
+
+    /**
+     * Returns the records of {@code tracker}, latest first.
+     *
+     * @param tracker
+     *            the tracker to read
+     * @return the records of {@code tracker}
+     */
+    private static List<Transaction> records(BudgetTracker tracker) {
+        List<Transaction> records = new ArrayList<>();
+        for (Transaction record : tracker) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Test of committing a few edits, and of discarding edits.
+     */
+    @Test
+    public void commitTest() {
+        /*
+         * Setup variables
+         */
+        final float balance = 100.0f;
+        final int three = 3;
+        BudgetTracker budgetTracker = new BudgetTracker1L("Test Account",
+                balance);
+        BudgetTracker expected = new BudgetTracker1L("Test Account", balance);
+        for (int i = 0; i < three; i++) {
+            budgetTracker.add(i, "Record " + i);
+            expected.add(i, "Record " + i);
+        }
+        BatchEdit edit = new BatchEdit(budgetTracker);
+
+        /*
+         * Call the methods
+         */
+        edit.addToIndex(1, -1.0f, "Lunch");
+        edit.discard();
+        edit.modifyIndex(2, -2.0f, "Rent");
+        edit.addToIndex(three, 1.0f, "Refund");
+        edit.changeIndex(0, three);
+        edit.removeIndex(1);
+        int length = edit.length();
+        edit.commit();
+        expected.modifyIndex(2, -2.0f, "Rent");
+        expected.addToIndex(three, 1.0f, "Refund");
+        expected.changeIndex(0, three);
+        expected.removeIndex(1);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(three, length);
+        assertEquals(records(expected), records(budgetTracker));
+        assertEquals(expected.balance(), budgetTracker.balance(), 0.0f);
+        assertEquals(1, edit.pieces());
+        assertEquals(three, edit.length());
+    }
+
+    /**
+     * Test that random batches leave every kernel exactly as applying the
+     * same edits one by one does.
+     */
+    @Test
+    public void sequentialTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 200;
+        final int batches = 50;
+        final int edits = 40;
+        final int kinds = 4;
+        final int cents = 10000;
+        Random random = new Random(size);
+        BudgetTracker[] trackers = { new BudgetTracker1L(),
+            new BudgetTracker2(), new BudgetTracker3(), new BudgetTracker4() };
+
+        for (BudgetTracker budgetTracker : trackers) {
+            BudgetTracker expected = budgetTracker.newInstance();
+            for (int i = 0; i < size; i++) {
+                budgetTracker.add(i, "Record " + i);
+                expected.add(i, "Record " + i);
+            }
+            BatchEdit edit = new BatchEdit(budgetTracker);
+            for (int b = 0; b < batches; b++) {
+                /*
+                 * Call the methods
+                 */
+                for (int e = 0; e < edits; e++) {
+                    int length = expected.length();
+                    float amount = random.nextInt(cents)
+                            / BudgetTracker.ROUNDING;
+                    int kind = random.nextInt(kinds);
+                    if (kind == 0 || length == 0) {
+                        int index = random.nextInt(length + 1);
+                        edit.addToIndex(index, amount, "Added " + e);
+                        expected.addToIndex(index, amount, "Added " + e);
+                    } else if (kind == 1) {
+                        int index = random.nextInt(length);
+                        edit.modifyIndex(index, amount, "Modified " + e);
+                        expected.modifyIndex(index, amount, "Modified " + e);
+                    } else if (kind == 2) {
+                        int index = random.nextInt(length);
+                        edit.removeIndex(index);
+                        expected.removeIndex(index);
+                    } else {
+                        int curIndex = random.nextInt(length);
+                        int index = random.nextInt(length);
+                        edit.changeIndex(curIndex, index);
+                        expected.changeIndex(curIndex, index);
+                    }
+                }
+                edit.commit();
+
+                /*
+                 * Evaluation
+                 */
+                assertEquals(records(expected), records(budgetTracker));
+                assertEquals(expected.balance(), budgetTracker.balance(),
+                        0.0f);
+            }
+        }
+    }
+
+    /**
+     * Test that a commit the tracker fails partway through leaves the tracker
+     * as it was and keeps the session.
+     */
+    @Test
+    public void failedCommitTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 10;
+        final int mutations = 12;
+        final float amount = 0.5f;
+        final int deep = 7;
+        FailingBudgetTracker budgetTracker = new FailingBudgetTracker(
+                new BudgetTracker2(), -1);
+        BudgetTracker expected = new BudgetTracker2();
+        for (int i = 0; i < size; i++) {
+            budgetTracker.add(i, "Record " + i);
+            expected.add(i, "Record " + i);
+        }
+        List<Transaction> before = records(budgetTracker);
+        BatchEdit edit = new BatchEdit(budgetTracker);
+        edit.modifyIndex(deep, amount, "Modified");
+        edit.addToIndex(2, amount, "Added");
+        expected.modifyIndex(deep, amount, "Modified");
+        expected.addToIndex(2, amount, "Added");
+        // Fails while adding the records back, after taking out eight
+        budgetTracker.left = mutations;
+
+        /*
+         * Call the methods
+         */
+        String message = "";
+        try {
+            edit.commit();
+        } catch (UncheckedIOException e) {
+            message = e.getCause().getMessage();
+        }
+        List<Transaction> failed = records(budgetTracker);
+        edit.commit();
+
+        /*
+         * Evaluation
+         */
+        assertEquals("Disk full", message);
+        assertEquals(before, failed);
+        assertEquals(records(expected), records(budgetTracker));
+    }
+
+    /**
+     * Test that a commit over a {@code DatedBudgetTracker} keeps the
+     * timestamps of the records it takes out and puts back.
+     */
+    @Test
+    public void datedCommitTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 5;
+        final int modified = 3;
+        final long hour = 3_600_000L;
+        final float amount = 2.5f;
+        DatedBudgetTracker budgetTracker = new DatedBudgetTracker(
+                new BudgetTracker1L());
+        for (int i = 0; i < size; i++) {
+            budgetTracker.add(i, "Record " + i, i * hour);
+        }
+        BatchEdit edit = new BatchEdit(budgetTracker);
+        edit.modifyIndex(modified, amount, "Modified");
+        edit.addToIndex(1, amount, "Added");
+
+        /*
+         * Call the method
+         */
+        edit.commit();
+
+        /*
+         * Evaluation
+         */
+        assertEquals(size + 1, budgetTracker.length());
+        assertEquals(DatedBudgetTracker.UNDATED, budgetTracker.timestampAt(1));
+        // Index 0 and indexes 2 on hold records 4 down to 0, in order
+        assertEquals((size - 1) * hour, budgetTracker.timestampAt(0));
+        for (int index = 2; index <= size; index++) {
+            assertEquals((size - index) * hour,
+                    budgetTracker.timestampAt(index));
+        }
+        assertEquals(new Transaction(amount, "Modified"),
+                budgetTracker.view(modified + 1, 1).iterator().next());
+    }
+}
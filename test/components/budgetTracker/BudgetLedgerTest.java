@@ -0,0 +1,172 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code BudgetLedger}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetLedgerTest {
+
+    /**
+     * Test of put, get and remove.
+     */
+    @Test
+    public void accountsTest() {
+        /*
+         * Setup variables
+         */
+        BudgetLedger ledger = new BudgetLedger();
+        BudgetTracker checking = new BudgetTracker1L("Checking");
+        BudgetTracker savings = new BudgetTracker2("Savings");
+        BudgetTracker newChecking = new BudgetTracker3("Checking");
+
+        /*
+         * Call the methods
+         */
+        BudgetTracker first = ledger.put(checking);
+        ledger.put(savings);
+        BudgetTracker replaced = ledger.put(newChecking);
+        BudgetTracker removed = ledger.remove("Savings");
+
+        /*
+         * Evaluation
+         */
+        assertNull(first);
+        assertSame(checking, replaced);
+        assertSame(savings, removed);
+        assertSame(newChecking, ledger.get("Checking"));
+        assertNull(ledger.get("Savings"));
+        assertNull(ledger.remove("Savings"));
+        assertEquals(1, ledger.size());
+    }
+
+    /**
+     * Test of the reports of an empty ledger.
+     */
+    @Test
+    public void emptyReportsTest() {
+        /*
+         * Setup variables
+         */
+        BudgetLedger ledger = new BudgetLedger();
+        ledger.put(new BudgetTracker1L("Empty"));
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0L, ledger.totalBalanceCents());
+        assertNull(ledger.maxIncome());
+        assertNull(ledger.maxExpense());
+        assertEquals(0L, ledger.keywordCount("Rent"));
+        assertEquals(0.0f, ledger.keywordTotal("Rent"), 0.0f);
+    }
+
+    /**
+     * Test of the reports across many accounts.
+     */
+    @Test
+    public void reportsTest() {
+        /*
+         * Setup variables
+         */
+        final int accounts = 3000;
+        final int shards = 16;
+        BudgetLedger ledger = new BudgetLedger(shards, new ForkJoinPool());
+        long balance = 0L;
+        long rentCount = 0L;
+        long rentCents = 0L;
+        for (int a = 0; a < accounts; a++) {
+            BudgetTracker tracker = new BudgetTracker2("Account " + a,
+                    a / 100.0f);
+            balance += a;
+            for (int r = 1; r <= a % 5; r++) {
+                int cents = (a * 7 + r * 13) % 10000 - 5000;
+                String description = "Groceries";
+                if (r % 2 == 0) {
+                    description = "Rent " + r;
+                    rentCount++;
+                    rentCents += cents;
+                }
+                tracker.add(cents / 100.0f, description);
+                balance += cents;
+            }
+            ledger.put(tracker);
+        }
+        BudgetTracker big = new BudgetTracker3("Big spender");
+        big.add(-60.0f, "Groceries");
+        big.add(-9999.99f, "Yacht");
+        big.add(12345.67f, "Bonus");
+        ledger.put(big);
+        final long bigCents = 228568L;
+        balance += bigCents;
+
+        /*
+         * Call the methods
+         */
+        long total = ledger.totalBalanceCents();
+        BudgetLedger.AccountRecord income = ledger.maxIncome();
+        BudgetLedger.AccountRecord expense = ledger.maxExpense();
+        long count = ledger.keywordCount("Rent");
+        float rent = ledger.keywordTotal("Rent");
+
+        /*
+         * Evaluation
+         */
+        final float yacht = -9999.99f;
+        final float bonus = 12345.67f;
+        assertEquals(accounts + 1, ledger.size());
+        assertEquals(balance, total);
+        assertEquals(new BudgetLedger.AccountRecord("Big spender", 0,
+                new Transaction(bonus, "Bonus")), income);
+        assertEquals(new BudgetLedger.AccountRecord("Big spender", 1,
+                new Transaction(yacht, "Yacht")), expense);
+        assertEquals(rentCount, count);
+        assertEquals(Cents.toAmount(rentCents), rent, 0.0f);
+    }
+
+    /**
+     * Test that the totals stay exact for balances with more cents than a
+     * float holds exactly.
+     */
+    @Test
+    public void largeBalancesTest() {
+        /*
+         * Setup variables
+         */
+        final int accounts = 8;
+        final long salary = 16777218L;
+        BudgetLedger ledger = new BudgetLedger();
+        long balance = 0L;
+        long salaries = 0L;
+        for (int a = 0; a < accounts; a++) {
+            BudgetTracker2 tracker = new BudgetTracker2("Account " + a);
+            tracker.addCents(salary + a, "Salary");
+            tracker.addCents(-a, "Coffee");
+            ledger.put(tracker);
+            balance += salary;
+            salaries += salary + a;
+        }
+
+        /*
+         * Call the methods
+         */
+        long total = ledger.totalBalanceCents();
+        long salaryTotal = ledger.keywordTotalCents("Salary");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(balance, total);
+        assertEquals(salaries, salaryTotal);
+    }
+}
@@ -0,0 +1,24 @@
+package components.budgetTracker;
+
+/**
+ * Customized JUnit test fixture for {@code BudgetTracker2}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetTracker2Test extends BudgetTrackerTest {
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new BudgetTracker2();
+    }
+
+    @Override
+    protected final BudgetTracker2 accountNameConstructor(String accountName) {
+        return new BudgetTracker2(accountName);
+    }
+
+    @Override
+    protected final BudgetTracker2 accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new BudgetTracker2(accountName, balance);
+    }
+}
@@ -0,0 +1,24 @@
+package components.budgetTracker;
+
+/**
+ * Customized JUnit test fixture for {@code BudgetTracker3}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetTracker3Test extends BudgetTrackerTest {
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new BudgetTracker3();
+    }
+
+    @Override
+    protected final BudgetTracker3 accountNameConstructor(String accountName) {
+        return new BudgetTracker3(accountName);
+    }
+
+    @Override
+    protected final BudgetTracker3 accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new BudgetTracker3(accountName, balance);
+    }
+}
@@ -0,0 +1,105 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code BudgetTracker4}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetTracker4Test extends BudgetTrackerTest {
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new BudgetTracker4();
+    }
+
+    @Override
+    protected final BudgetTracker4 accountNameConstructor(String accountName) {
+        return new BudgetTracker4(accountName);
+    }
+
+    @Override
+    protected final BudgetTracker4 accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new BudgetTracker4(accountName, balance);
+    }
+
+    /**
+     * Test of snapshot, with edits to the tracker after it was taken.
+     */
+    @Test
+    public void snapshotTest() {
+        /*
+         * Setup variables
+         */
+        final float opening = 100.0f;
+        BudgetTracker4 budgetTracker = this
+                .accountNameAndBalanceConstructor("Checking", opening);
+        budgetTracker.add(-10.0f, "Lunch");
+        budgetTracker.add(50.0f, "Refund");
+        budgetTracker.add(-20.0f, "Gas");
+        BudgetTracker4 expected = this
+                .accountNameAndBalanceConstructor("Checking", opening);
+        expected.add(-10.0f, "Lunch");
+        expected.add(50.0f, "Refund");
+        expected.add(-20.0f, "Gas");
+
+        /*
+         * Call the methods
+         */
+        BudgetTracker snapshot = budgetTracker.snapshot();
+        budgetTracker.add(-5.0f, "Coffee");
+        budgetTracker.modifyIndex(2, 60.0f, "Refund");
+        budgetTracker.removeIndex(3);
+        budgetTracker.changeIndex(0, 1);
+        budgetTracker.keywordCount("Gas");
+
+        /*
+         * Evaluation
+         */
+        final float balance = 135.0f;
+        final float lunch = -10.0f;
+        assertEquals(expected.length(), snapshot.length());
+        Iterator<Transaction> records = snapshot.iterator();
+        for (Transaction record : expected) {
+            assertEquals(record, records.next());
+        }
+        assertFalse(records.hasNext());
+        assertEquals("Checking", snapshot.getAccountName());
+        assertEquals(opening + 20.0f, snapshot.balance(), 0.0f);
+        assertEquals(1, snapshot.keywordCount("Lunch"));
+        assertEquals(lunch, snapshot.keywordTotal("Lunch"), 0.0f);
+        assertEquals(0, budgetTracker.keywordCount("Lunch"));
+        assertEquals(3, budgetTracker.length());
+        assertEquals(balance, budgetTracker.balance(), 0.0f);
+    }
+
+    /**
+     * Test that a record cannot be added to a snapshot.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotAddTest() {
+        BudgetTracker4 budgetTracker = this.accountNameConstructor("Checking");
+        budgetTracker.add(-10.0f, "Lunch");
+        BudgetTracker snapshot = budgetTracker.snapshot();
+        snapshot.add(1.0f, "Interest");
+    }
+
+    /**
+     * Test that a record cannot be removed from a snapshot.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotRemoveTest() {
+        BudgetTracker4 budgetTracker = this.accountNameConstructor("Checking");
+        budgetTracker.add(-10.0f, "Lunch");
+        BudgetTracker snapshot = budgetTracker.snapshot();
+        snapshot.remove();
+    }
+}
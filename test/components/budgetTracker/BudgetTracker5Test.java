@@ -0,0 +1,126 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code BudgetTracker5}.
+ *
+ * @author Chenyang Zong
+ */
+public class BudgetTracker5Test extends BudgetTrackerTest {
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new BudgetTracker5();
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return new BudgetTracker5(accountName);
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new BudgetTracker5(accountName, balance);
+    }
+
+    /**
+     * Test that growing and editing the off-heap columns keeps the records and
+     * the report queries equal to those of {@code BudgetTracker2}.
+     */
+    @Test
+    public void columnsTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 1000;
+        final int edits = 200;
+        final int cents = 20000;
+        Random random = new Random(size);
+        BudgetTracker budgetTracker = new BudgetTracker5("Checking", 1.0f);
+        BudgetTracker expected = new BudgetTracker2("Checking", 1.0f);
+
+        /*
+         * Call the methods
+         */
+        for (int i = 0; i < size; i++) {
+            float amount = (random.nextInt(cents) - cents / 2)
+                    / BudgetTracker.ROUNDING;
+            budgetTracker.add(amount, "Record " + i % 10);
+            expected.add(amount, "Record " + i % 10);
+        }
+        for (int e = 0; e < edits; e++) {
+            int index = random.nextInt(expected.length());
+            int other = random.nextInt(expected.length());
+            float amount = (random.nextInt(cents) - cents / 2)
+                    / BudgetTracker.ROUNDING;
+            budgetTracker.modifyIndex(index, amount, "Edited");
+            expected.modifyIndex(index, amount, "Edited");
+            budgetTracker.changeIndex(index, other);
+            expected.changeIndex(index, other);
+            budgetTracker.addToIndex(other, -amount, "Inserted");
+            expected.addToIndex(other, -amount, "Inserted");
+            budgetTracker.removeIndex(index);
+            expected.removeIndex(index);
+            assertEquals(expected.balanceAt(index),
+                    budgetTracker.balanceAt(index), 0.0f);
+        }
+
+        /*
+         * Evaluation
+         */
+        assertEquals(expected.length(), budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), 0.0f);
+        assertEquals(expected.maxIncomeIndex(), budgetTracker.maxIncomeIndex());
+        assertEquals(expected.minIncomeIndex(), budgetTracker.minIncomeIndex());
+        assertEquals(expected.maxExpenseIndex(),
+                budgetTracker.maxExpenseIndex());
+        assertEquals(expected.minExpenseIndex(),
+                budgetTracker.minExpenseIndex());
+        assertEquals(expected.rangeSum(edits, size),
+                budgetTracker.rangeSum(edits, size), 0.0f);
+        assertEquals(expected.keywordTotal("Edited"),
+                budgetTracker.keywordTotal("Edited"), 0.0f);
+        Iterator<Transaction> records = expected.iterator();
+        for (Transaction record : budgetTracker) {
+            assertEquals(records.next(), record);
+        }
+    }
+
+    /**
+     * Test that a cleared tracker can be used again.
+     */
+    @Test
+    public void clearReuseTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 100;
+        BudgetTracker budgetTracker = new BudgetTracker5();
+        for (int i = 0; i < size; i++) {
+            budgetTracker.add(i, "Record");
+        }
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.clear();
+        budgetTracker.add(2.0f, "After");
+        budgetTracker.add(-1.0f, "After");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(2, budgetTracker.length());
+        assertEquals(1.0f, budgetTracker.balance(), 0.0f);
+        assertEquals(1, budgetTracker.maxIncomeIndex());
+        assertEquals(new Transaction(-1.0f, "After"), budgetTracker.remove());
+    }
+}
@@ -1,8 +1,16 @@
 package components.budgetTracker;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -53,6 +61,26 @@ public abstract class BudgetTrackerTest {
      */
     private final int three = 3;
 
+    /**
+     * Number of records with random amounts.
+     */
+    private final int randomRecords = 10000;
+
+    /**
+     * Seed of the random amounts.
+     */
+    private final long seed = 42L;
+
+    /**
+     * Bound on the magnitude of the random amounts, in cents.
+     */
+    private final int centsBound = 1000000;
+
+    /**
+     * Opening balance that is not a whole number.
+     */
+    private final float oddBalance = 12.34f;
+
     /**
      * Invokes the {@code BudgetTracker} no-argument constructor for the
      * implementation under test and returns the result.
@@ -479,6 +507,35 @@ public abstract class BudgetTrackerTest {
         assertEquals("Test Account has 0 records.", str);
     }
 
+    /**
+     * Test of view method.
+     */
+    @Test
+    public void viewTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Test Transaction 1");
+        budgetTracker.add(this.amount2, "Test Transaction 2");
+        budgetTracker.add(this.amount3, "Test Transaction 3");
+
+        /*
+         * Call the method
+         */
+        Iterator<Transaction> iterator = budgetTracker.view(1, 2).iterator();
+
+        /*
+         * Evaluation
+         */
+        assertEquals("Test Transaction 2", iterator.next().description());
+        assertEquals("Test Transaction 1", iterator.next().description());
+        assertEquals(false, iterator.hasNext());
+        assertEquals(this.three, budgetTracker.length());
+        assertEquals(this.amount1 + this.amount2 + this.amount3,
+                budgetTracker.balance(), this.delta);
+    }
+
     /*
      * Test of secondary methods
      */
@@ -669,4 +726,535 @@ public abstract class BudgetTrackerTest {
         assertEquals("Test Transaction 2",
                 budgetTracker.remove().description());
     }
+
+    /**
+     * Test of rangeSum method.
+     */
+    @Test
+    public void rangeSumTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Test Transaction 1");
+        budgetTracker.add(this.amount2, "Test Transaction 2");
+        budgetTracker.add(this.amount3, "Test Transaction 3");
+
+        /*
+         * Call the method
+         */
+        float sum = budgetTracker.rangeSum(1, this.three);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(this.amount1 + this.amount2, sum, this.delta);
+        assertEquals(0.0f, budgetTracker.rangeSum(1, 1), this.delta);
+        assertEquals(this.three, budgetTracker.length());
+    }
+
+    /**
+     * Test of balanceAt method.
+     */
+    @Test
+    public void balanceAtTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this
+                .accountNameAndBalanceConstructor("Test Account", this.balance);
+        budgetTracker.add(this.amount1, "Test Transaction 1");
+        budgetTracker.add(this.amount2, "Test Transaction 2");
+        budgetTracker.add(this.amount3, "Test Transaction 3");
+
+        /*
+         * Call the method
+         */
+        float balanceAt = budgetTracker.balanceAt(1);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(this.balance + this.amount1 + this.amount2, balanceAt,
+                this.delta);
+        assertEquals(this.balance, budgetTracker.balanceAt(this.three),
+                this.delta);
+        assertEquals(this.three, budgetTracker.length());
+    }
+
+    /**
+     * Test of balanceAt method with amounts that are not whole numbers, where
+     * a running balance kept in {@code float} would drift.
+     */
+    @Test
+    public void balanceAtCentsTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.accountNameAndBalanceConstructor(
+                "Test Account", this.oddBalance);
+        Random random = new Random(this.seed);
+        for (int i = 0; i < this.randomRecords; i++) {
+            int cents = random.nextInt(2 * this.centsBound) - this.centsBound;
+            budgetTracker.add(cents / BudgetTrackerKernel.ROUNDING, "Record");
+        }
+
+        /*
+         * Call the methods
+         */
+        float latest = budgetTracker.balanceAt(0);
+        float opening = budgetTracker.balanceAt(budgetTracker.length());
+
+        /*
+         * Evaluation
+         */
+        assertEquals(budgetTracker.balance(), latest, 0.0f);
+        assertEquals(this.oddBalance, opening, 0.0f);
+        assertEquals(budgetTracker.balance() - budgetTracker.rangeSum(0, 2),
+                budgetTracker.balanceAt(2), this.delta);
+    }
+
+    /**
+     * Test of maxIncomeIndex, minIncomeIndex, maxExpenseIndex and
+     * minExpenseIndex methods.
+     */
+    @Test
+    public void extremeIndexTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Test Transaction 1");
+        budgetTracker.add(-this.amount2, "Test Transaction 2");
+        budgetTracker.add(this.amount3, "Test Transaction 3");
+        budgetTracker.add(-this.amount1, "Test Transaction 4");
+
+        /*
+         * Call the methods
+         */
+        int maxIncome = budgetTracker.maxIncomeIndex();
+        int minIncome = budgetTracker.minIncomeIndex();
+        int maxExpense = budgetTracker.maxExpenseIndex();
+        int minExpense = budgetTracker.minExpenseIndex();
+        budgetTracker.removeIndex(1);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(1, maxIncome);
+        assertEquals(this.three, minIncome);
+        assertEquals(2, maxExpense);
+        assertEquals(0, minExpense);
+        assertEquals(2, budgetTracker.minIncomeIndex());
+        assertEquals(2, budgetTracker.maxIncomeIndex());
+        assertEquals(0, this.noArgConstructor().maxExpenseIndex());
+    }
+
+    /**
+     * Test of keywordCount and keywordTotal methods.
+     */
+    @Test
+    public void keywordTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Grocery store");
+        budgetTracker.add(this.amount2, "Salary");
+        budgetTracker.add(-this.amount3, "Grocery market");
+
+        /*
+         * Call the methods
+         */
+        int count = budgetTracker.keywordCount("Grocery");
+        float total = budgetTracker.keywordTotal("Grocery");
+        budgetTracker.modifyIndex(2, this.amount2, "Rent");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(2, count);
+        assertEquals(this.amount1 - this.amount3, total, this.delta);
+        assertEquals(1, budgetTracker.keywordCount("Grocery"));
+        assertEquals(-this.amount3, budgetTracker.keywordTotal("ocer"),
+                this.delta);
+        assertEquals(this.three, budgetTracker.keywordCount(""));
+        assertEquals(0, budgetTracker.keywordCount("Mortgage"));
+    }
+
+    /**
+     * Test of balanceCents and keywordTotalCents methods.
+     */
+    @Test
+    public void centsTest() {
+        /*
+         * Setup variables
+         */
+        final float opening = 1234.56f;
+        final float coffee = -3.45f;
+        final float salary = 2500.01f;
+        BudgetTracker budgetTracker = this
+                .accountNameAndBalanceConstructor("Test Account", opening);
+        budgetTracker.add(coffee, "Coffee shop");
+        budgetTracker.add(salary, "Salary");
+        budgetTracker.add(coffee, "Coffee");
+
+        /*
+         * Call the methods
+         */
+        long balance = budgetTracker.balanceCents();
+        long coffeeTotal = budgetTracker.keywordTotalCents("Coffee");
+        long none = budgetTracker.keywordTotalCents("Mortgage");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(Cents.of(opening) + 2 * Cents.of(coffee)
+                + Cents.of(salary), balance);
+        assertEquals(2 * Cents.of(coffee), coffeeTotal);
+        assertEquals(0L, none);
+        assertEquals(Cents.toAmount(balance), budgetTracker.balance(), 0.0f);
+    }
+
+    /**
+     * Test of keywordCount and keywordTotal methods as descriptions go out of
+     * use and come back.
+     */
+    @Test
+    public void keywordReuseTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(-this.amount1, "Coffee shop");
+        budgetTracker.add(this.amount2, "Salary");
+        budgetTracker.add(-this.amount1, "Coffee shop");
+        budgetTracker.add(-this.amount3, "aaaa");
+        int before = budgetTracker.keywordCount("Coffee");
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.removeIndex(1);
+        budgetTracker.removeIndex(2);
+        budgetTracker.removeIndex(0);
+        int removed = budgetTracker.keywordCount("Coffee");
+        int removedRepeat = budgetTracker.keywordCount("aaa");
+        budgetTracker.add(-this.amount2, "Coffee shop");
+        budgetTracker.add(this.amount1, "aaaa");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(2, before);
+        assertEquals(0, removed);
+        assertEquals(0, removedRepeat);
+        assertEquals(1, budgetTracker.keywordCount("Coffee"));
+        assertEquals(-this.amount2, budgetTracker.keywordTotal("shop"),
+                this.delta);
+        assertEquals(1, budgetTracker.keywordCount("aaa"));
+        assertEquals(this.amount2, budgetTracker.keywordTotal("Sal"),
+                this.delta);
+        assertEquals(this.three, budgetTracker.keywordCount(""));
+    }
+
+    /**
+     * Test of addAll method.
+     */
+    @Test
+    public void addAllTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        BudgetTracker expected = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Coffee");
+        expected.add(this.amount1, "Coffee");
+        float[] amounts = { -this.amount2, this.amount3, -this.amount1, 0.0f };
+        String[] descriptions = { "Rent", "Salary", "Coffee", "Unused" };
+        for (int i = 0; i < this.three; i++) {
+            expected.add(amounts[i], descriptions[i]);
+        }
+
+        /*
+         * Call the method
+         */
+        budgetTracker.addAll(amounts, descriptions, this.three);
+        budgetTracker.addAll(amounts, descriptions, 0);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(expected.length(), budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), this.delta);
+        Iterator<Transaction> records = expected.iterator();
+        for (Transaction record : budgetTracker) {
+            assertEquals(records.next(), record);
+        }
+        assertEquals(expected.maxIncomeIndex(), budgetTracker.maxIncomeIndex());
+        assertEquals(expected.maxExpenseIndex(),
+                budgetTracker.maxExpenseIndex());
+        assertEquals(expected.balanceAt(2), budgetTracker.balanceAt(2),
+                this.delta);
+        assertEquals(2, budgetTracker.keywordCount("Coffee"));
+        assertEquals(new Transaction(-this.amount1, "Coffee"),
+                budgetTracker.remove());
+    }
+
+    /**
+     * Test of addAll method, after queries that build the running totals,
+     * extremes and keyword index.
+     */
+    @Test
+    public void addAllAfterQueriesTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        BudgetTracker expected = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "Coffee");
+        expected.add(this.amount1, "Coffee");
+        budgetTracker.balanceAt(0);
+        budgetTracker.maxIncomeIndex();
+        budgetTracker.keywordCount("Coffee");
+        float[] amounts = { -this.amount2, this.amount3, -this.amount1 };
+        String[] descriptions = { "Rent", "Salary", "Coffee" };
+        for (int i = 0; i < this.three; i++) {
+            expected.add(amounts[i], descriptions[i]);
+        }
+
+        /*
+         * Call the method
+         */
+        budgetTracker.addAll(amounts, descriptions, this.three);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(expected.balanceCents(), budgetTracker.balanceCents());
+        for (int i = 0; i <= this.three + 1; i++) {
+            assertEquals(expected.balanceAt(i), budgetTracker.balanceAt(i),
+                    this.delta);
+        }
+        assertEquals(expected.rangeSum(1, this.three),
+                budgetTracker.rangeSum(1, this.three), this.delta);
+        assertEquals(expected.maxIncomeIndex(), budgetTracker.maxIncomeIndex());
+        assertEquals(expected.minExpenseIndex(),
+                budgetTracker.minExpenseIndex());
+        assertEquals(2, budgetTracker.keywordCount("Coffee"));
+        assertEquals(expected.keywordTotalCents("Coffee"),
+                budgetTracker.keywordTotalCents("Coffee"));
+    }
+
+    /**
+     * Test of the keyword queries after many descriptions have come and gone,
+     * enough for the descriptions no record carries any more to be dropped.
+     */
+    @Test
+    public void descriptionChurnTest() {
+        /*
+         * Setup variables
+         */
+        final int churn = 200;
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(-this.amount1, "Lunch");
+        budgetTracker.add(this.amount3, "Salary");
+        budgetTracker.keywordCount("Lunch");
+
+        /*
+         * Call the methods
+         */
+        for (int i = 0; i < churn; i++) {
+            budgetTracker.add(-1.0f, "Coffee " + i);
+            budgetTracker.modifyIndex(0, -2.0f, "Tea " + i);
+            budgetTracker.removeIndex(0);
+        }
+        budgetTracker.add(-this.amount2, "Lunch again");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(this.three, budgetTracker.length());
+        assertEquals(2, budgetTracker.keywordCount("Lunch"));
+        assertEquals(-this.amount1 - this.amount2,
+                budgetTracker.keywordTotal("Lunch"), this.delta);
+        assertEquals(0, budgetTracker.keywordCount("Coffee"));
+        assertEquals(0, budgetTracker.keywordCount("Tea"));
+        assertEquals(1, budgetTracker.keywordCount("Sal"));
+        assertEquals(new Transaction(-this.amount2, "Lunch again"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(this.amount3, "Salary"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(-this.amount1, "Lunch"),
+                budgetTracker.remove());
+    }
+
+    /**
+     * Test of spliterator method.
+     */
+    @Test
+    public void spliteratorTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 5000;
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        for (int i = 0; i < size; i++) {
+            budgetTracker.add(i, "Record " + i);
+        }
+
+        /*
+         * Call the method
+         */
+        Spliterator<Transaction> rest = budgetTracker.spliterator();
+        long before = rest.estimateSize();
+        Spliterator<Transaction> prefix = rest.trySplit();
+
+        /*
+         * Evaluation
+         */
+        assertTrue(rest.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(rest.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(size, before);
+        assertNotNull(prefix);
+        assertTrue(prefix.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(size, prefix.estimateSize() + rest.estimateSize());
+        List<Transaction> records = new ArrayList<>();
+        prefix.forEachRemaining(records::add);
+        rest.forEachRemaining(records::add);
+        Iterator<Transaction> expected = budgetTracker.iterator();
+        for (Transaction record : records) {
+            assertEquals(expected.next(), record);
+        }
+        assertEquals(size, records.size());
+    }
+
+    /**
+     * Test of stream and parallelStream methods.
+     */
+    @Test
+    public void streamTest() {
+        /*
+         * Setup variables
+         */
+        final int size = 10000;
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        for (int i = 0; i < size; i++) {
+            budgetTracker.add(i % this.three - 1, "Record " + i);
+        }
+
+        /*
+         * Call the methods
+         */
+        List<Transaction> sequential = budgetTracker.stream()
+                .collect(Collectors.toList());
+        List<Transaction> parallel = budgetTracker.parallelStream()
+                .collect(Collectors.toList());
+        long expenses = budgetTracker.parallelStream()
+                .filter(record -> record.amount() < 0).count();
+
+        /*
+         * Evaluation
+         */
+        assertEquals(size, sequential.size());
+        assertEquals(sequential, parallel);
+        assertEquals(new Transaction(-1.0f, "Record " + (size - 1)),
+                parallel.get(0));
+        assertEquals((size + 2) / this.three, expenses);
+    }
+
+    /**
+     * Test of append method, from a tracker of the same kind and from a
+     * {@code BudgetTracker1L}.
+     */
+    @Test
+    public void appendTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this
+                .accountNameAndBalanceConstructor("Joint", this.balance);
+        budgetTracker.add(this.amount1, "Salary");
+        budgetTracker.add(-this.amount2, "Rent");
+        BudgetTracker same = this.accountNameAndBalanceConstructor("Savings",
+                this.balance);
+        same.add(this.amount3, "Interest");
+        same.add(-this.amount1, "Fee");
+        BudgetTracker other = new BudgetTracker1L("Cash");
+        other.add(-this.amount3, "Rent");
+        // Build the keyword indexes that append has to keep right
+        budgetTracker.keywordCount("Rent");
+        same.keywordCount("Fee");
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.append(same);
+        budgetTracker.append(other);
+
+        /*
+         * Evaluation
+         */
+        final int five = 5;
+        assertEquals(five, budgetTracker.length());
+        assertEquals(0, same.length());
+        assertEquals(0, other.length());
+        assertEquals(this.balance + this.amount1 - this.amount2 + this.amount3
+                - this.amount1 - this.amount3, budgetTracker.balance(),
+                this.delta);
+        assertEquals(2, budgetTracker.keywordCount("Rent"));
+        assertEquals(-this.amount2 - this.amount3,
+                budgetTracker.keywordTotal("Rent"), this.delta);
+        assertEquals(0, budgetTracker.maxExpenseIndex());
+        assertEquals(new Transaction(-this.amount3, "Rent"),
+                budgetTracker.removeIndex(0));
+        assertEquals(new Transaction(-this.amount1, "Fee"),
+                budgetTracker.removeIndex(0));
+        assertEquals(new Transaction(this.amount3, "Interest"),
+                budgetTracker.removeIndex(0));
+        assertEquals(new Transaction(-this.amount2, "Rent"),
+                budgetTracker.removeIndex(0));
+    }
+
+    /**
+     * Test of mergeOrdered method, with descriptions that start with the day
+     * of the record.
+     */
+    @Test
+    public void mergeOrderedTest() {
+        /*
+         * Setup variables
+         */
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        budgetTracker.add(this.amount1, "01 Salary");
+        budgetTracker.add(-this.amount1, "03 Lunch");
+        budgetTracker.add(-this.amount2, "05 Rent");
+        BudgetTracker source = this.noArgConstructor();
+        source.add(-this.amount3, "03 Gas");
+        source.add(this.amount2, "04 Refund");
+        source.add(this.amount1, "06 Bonus");
+        Comparator<Transaction> byDay = Comparator
+                .comparing(record -> record.description().substring(0, 2));
+
+        /*
+         * Call the method
+         */
+        budgetTracker.mergeOrdered(source, byDay);
+
+        /*
+         * Evaluation
+         */
+        String[] expected = { "06 Bonus", "05 Rent", "04 Refund", "03 Gas",
+            "03 Lunch", "01 Salary" };
+        assertEquals(0, source.length());
+        assertEquals(expected.length, budgetTracker.length());
+        assertEquals(-this.amount2, budgetTracker.balance(), this.delta);
+        int i = 0;
+        for (Transaction record : budgetTracker) {
+            assertEquals(expected[i], record.description());
+            i++;
+        }
+        assertEquals(-this.amount1 - this.amount2 - this.amount3
+                + this.amount2, budgetTracker.rangeSum(1, 5), this.delta);
+    }
 }
@@ -0,0 +1,160 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code CategorizedBudgetTracker} over
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+public class CategorizedBudgetTrackerTest extends BudgetTrackerTest {
+
+    /**
+     * Returns the first word of {@code description} as its category.
+     *
+     * @param description
+     *            the description
+     * @return its first word
+     */
+    private static String firstWord(String description) {
+        String category = description;
+        int space = description.indexOf(' ');
+        if (space >= 0) {
+            category = description.substring(0, space);
+        }
+        return category;
+    }
+
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new CategorizedBudgetTracker(new BudgetTracker1L());
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return new CategorizedBudgetTracker(new BudgetTracker1L(accountName));
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new CategorizedBudgetTracker(
+                new BudgetTracker1L(accountName, balance));
+    }
+
+    /**
+     * Test of the category totals through every kind of mutation.
+     */
+    @Test
+    public void categoryTotalTest() {
+        /*
+         * Setup variables
+         */
+        final float rent = -1200.0f;
+        final int three = 3;
+        BudgetTracker plain = new BudgetTracker2();
+        plain.add(rent, "Rent 02/01");
+        CategorizedBudgetTracker budgetTracker = new CategorizedBudgetTracker(
+                plain, CategorizedBudgetTrackerTest::firstWord);
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.add(-1.5f, "Lunch 02/17");
+        budgetTracker.addToIndex(2, -2.0f, "Lunch 02/16");
+        budgetTracker.addAll(new float[] { -1.0f, -3.0f },
+                new String[] { "Coffee 02/18", "Lunch 02/18" }, 2);
+        float lunchBefore = budgetTracker.categoryTotal("Lunch");
+        budgetTracker.modifyIndex(0, -2.5f, "Dinner 02/18");
+        budgetTracker.changeIndex(0, three);
+        Transaction removed = budgetTracker.removeIndex(1);
+        budgetTracker.remove();
+
+        /*
+         * Evaluation
+         */
+        final float lunchTotal = -6.5f;
+        assertEquals(lunchTotal, lunchBefore, 0.0f);
+        assertEquals(new Transaction(-1.5f, "Lunch 02/17"), removed);
+        assertEquals(-2.0f, budgetTracker.categoryTotal("Lunch"), 0.0f);
+        assertEquals(1, budgetTracker.categoryCount("Lunch"));
+        assertEquals(0.0f, budgetTracker.categoryTotal("Coffee"), 0.0f);
+        assertEquals(-2.5f, budgetTracker.categoryTotal("Dinner"), 0.0f);
+        assertEquals(rent, budgetTracker.categoryTotal("Rent"), 0.0f);
+        assertEquals(0, budgetTracker.categoryCount("Groceries"));
+        assertEquals("Rent", budgetTracker.categoryAt(0));
+        assertEquals(three, budgetTracker.length());
+    }
+
+    /**
+     * Test that records added through the tracker share one copy of each
+     * description.
+     */
+    @Test
+    public void sharedDescriptionTest() {
+        /*
+         * Setup variables
+         */
+        CategorizedBudgetTracker budgetTracker = new CategorizedBudgetTracker(
+                new BudgetTracker1L());
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.add(-1.0f, new StringBuilder("Coffee").toString());
+        budgetTracker.add(-2.0f, new StringBuilder("Coffee").toString());
+
+        /*
+         * Evaluation
+         */
+        assertSame(budgetTracker.remove().description(),
+                budgetTracker.remove().description());
+        assertEquals(0, budgetTracker.categoryCount("Coffee"));
+    }
+
+    /**
+     * Test of the category totals after many descriptions and categories
+     * have come and gone, enough for the unused ones to be dropped.
+     */
+    @Test
+    public void categoryChurnTest() {
+        /*
+         * Setup variables
+         */
+        final int churn = 200;
+        final float rent = -1200.0f;
+        CategorizedBudgetTracker budgetTracker = new CategorizedBudgetTracker(
+                new BudgetTracker1L(), CategorizedBudgetTrackerTest::firstWord);
+        budgetTracker.add(rent, "Rent 02/01");
+        budgetTracker.add(-1.0f, "Lunch 02/01");
+
+        /*
+         * Call the methods
+         */
+        for (int i = 0; i < churn; i++) {
+            budgetTracker.add(-2.0f, "Lunch 03/" + i);
+            budgetTracker.add(-1.0f, "Gift" + i + " 03/01");
+            budgetTracker.remove();
+            budgetTracker.remove();
+        }
+        budgetTracker.add(-3.0f, "Lunch 04/01");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(1, budgetTracker.categoryCount("Rent"));
+        assertEquals(rent, budgetTracker.categoryTotal("Rent"), 0.0f);
+        assertEquals(2, budgetTracker.categoryCount("Lunch"));
+        assertEquals(-4.0f, budgetTracker.categoryTotal("Lunch"), 0.0f);
+        assertEquals(0, budgetTracker.categoryCount("Gift0"));
+        assertEquals("Lunch", budgetTracker.categoryAt(0));
+        assertEquals("Lunch", budgetTracker.categoryAt(1));
+        assertEquals("Rent", budgetTracker.categoryAt(2));
+    }
+}
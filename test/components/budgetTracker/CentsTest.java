@@ -0,0 +1,54 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code Cents}.
+ *
+ * @author Chenyang Zong
+ */
+public class CentsTest {
+
+    /**
+     * Test of toAmount on an amount too large for a float to hold every
+     * cent of, which must still come out as the nearest float.
+     */
+    @Test
+    public void toAmountLargeTest() {
+        /*
+         * Setup variables
+         */
+        final long cents = 16777217L;
+        final double rounding = 100.0;
+
+        /*
+         * Call the method
+         */
+        float amount = Cents.toAmount(cents);
+
+        /*
+         * Evaluation
+         */
+        assertEquals((float) (cents / rounding), amount, 0.0f);
+    }
+
+    /**
+     * Test that of and toAmount round-trip small amounts exactly.
+     */
+    @Test
+    public void roundTripTest() {
+        /*
+         * Setup variables
+         */
+        final long bound = 100000L;
+
+        /*
+         * Call the methods and evaluate
+         */
+        for (long cents = -bound; cents <= bound; cents++) {
+            assertEquals(cents, Cents.of(Cents.toAmount(cents)));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code ConcurrentBudgetTracker} over
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+public class ConcurrentBudgetTrackerTest extends BudgetTrackerTest {
+
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new ConcurrentBudgetTracker(new BudgetTracker1L());
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return new ConcurrentBudgetTracker(new BudgetTracker1L(accountName));
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new ConcurrentBudgetTracker(
+                new BudgetTracker1L(accountName, balance));
+    }
+
+    /**
+     * Test of writers and readers working on one tracker at the same time.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        /*
+         * Setup variables
+         */
+        final int writers = 4;
+        final int readers = 4;
+        final int adds = 2000;
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        AtomicInteger torn = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < adds; i++) {
+                    budgetTracker.add(1.0f, "Deposit");
+                    budgetTracker.addToIndex(budgetTracker.length() / 2, -1.0f,
+                            "Fee");
+                    budgetTracker.removeIndex(0);
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < adds; i++) {
+                    // Every record counts one, so a consistent copy adds up
+                    int count = 0;
+                    float total = 0.0f;
+                    for (Transaction record : budgetTracker) {
+                        count++;
+                        total += Math.abs(record.amount());
+                    }
+                    if (total != count) {
+                        torn.incrementAndGet();
+                    }
+                    budgetTracker.balance();
+                }
+            }));
+        }
+
+        /*
+         * Call the methods
+         */
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0, torn.get());
+        assertEquals(writers * adds, budgetTracker.length());
+        int count = 0;
+        for (Transaction record : budgetTracker) {
+            count++;
+            assertEquals(1.0f, Math.abs(record.amount()), 0.0f);
+        }
+        assertEquals(writers * adds, count);
+    }
+
+    /**
+     * Test of readers asking the secondary queries at the same time, each
+     * round right after a write leaves the lazy indexes behind.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void concurrentQueriesTest() throws InterruptedException {
+        /*
+         * Setup variables
+         */
+        final int readers = 8;
+        final int rounds = 20;
+        final int records = 5000;
+        final int spread = 7;
+        BudgetTracker budgetTracker = this.noArgConstructor();
+        BudgetTracker reference = new BudgetTracker2();
+        for (int i = 0; i < records; i++) {
+            float amount = i % spread - spread / 2;
+            budgetTracker.add(amount, "Shop " + i % spread);
+            reference.add(amount, "Shop " + i % spread);
+        }
+        AtomicInteger wrong = new AtomicInteger();
+
+        /*
+         * Call the methods
+         */
+        for (int round = 0; round < rounds; round++) {
+            budgetTracker.add(round, "Shop " + round);
+            reference.add(round, "Shop " + round);
+            int half = reference.length() / 2;
+            float sum = reference.rangeSum(0, half);
+            float balance = reference.balanceAt(half);
+            int maxIncome = reference.maxIncomeIndex();
+            int minExpense = reference.minExpenseIndex();
+            int count = reference.keywordCount("Shop 1");
+            float total = reference.keywordTotal("Shop 1");
+            List<Thread> threads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                threads.add(new Thread(() -> {
+                    if (budgetTracker.rangeSum(0, half) != sum
+                            || budgetTracker.balanceAt(half) != balance
+                            || budgetTracker.maxIncomeIndex() != maxIncome
+                            || budgetTracker.minExpenseIndex() != minExpense
+                            || budgetTracker.keywordCount("Shop 1") != count
+                            || budgetTracker
+                                    .keywordTotal("Shop 1") != total) {
+                        wrong.incrementAndGet();
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0, wrong.get());
+    }
+}
@@ -0,0 +1,148 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code DatedBudgetTracker} over
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+public class DatedBudgetTrackerTest extends BudgetTrackerTest {
+
+    /**
+     * Milliseconds in a day.
+     */
+    private static final long DAY = 86_400_000L;
+
+    /**
+     * Returns the time of noon on {@code day}, UTC.
+     *
+     * @param day
+     *            the day
+     * @return noon of {@code day} in epoch milliseconds
+     */
+    private static long noon(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli()
+                + DAY / 2;
+    }
+
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new DatedBudgetTracker(new BudgetTracker1L());
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return new DatedBudgetTracker(new BudgetTracker1L(accountName));
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new DatedBudgetTracker(
+                new BudgetTracker1L(accountName, balance));
+    }
+
+    /**
+     * Test of {@code between} after dated records are added, edited and
+     * moved.
+     */
+    @Test
+    public void betweenTest() {
+        /*
+         * Setup variables
+         */
+        final LocalDate first = LocalDate.of(2025, 2, 17);
+        final int three = 3;
+        final int four = 4;
+        DatedBudgetTracker budgetTracker = new DatedBudgetTracker(
+                new BudgetTracker1L());
+        budgetTracker.add(-1.0f, "Breakfast", noon(first));
+        budgetTracker.add(-2.0f, "Lunch", noon(first) + 1);
+        budgetTracker.add(-three, "Dinner", noon(first.plusDays(1)));
+        budgetTracker.add(4.0f, "Undated");
+        budgetTracker.addToIndex(three, -5.0f, "Rent", noon(first) - 1);
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.modifyIndex(2, -2.5f, "Brunch");
+        budgetTracker.changeIndex(0, three);
+        List<Transaction> firstDay = budgetTracker.between(noon(first) - DAY,
+                noon(first) + DAY / 2);
+        List<Transaction> all = budgetTracker.between(Long.MIN_VALUE + 1,
+                Long.MAX_VALUE);
+        budgetTracker.removeIndex(2);
+        List<Transaction> afterRemove = budgetTracker
+                .between(noon(first) - DAY, noon(first) + DAY / 2);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(List.of(new Transaction(-5.0f, "Rent"),
+                new Transaction(-1.0f, "Breakfast"),
+                new Transaction(-2.5f, "Brunch")), firstDay);
+        assertEquals(four, all.size());
+        assertEquals(List.of(new Transaction(-1.0f, "Breakfast"),
+                new Transaction(-2.5f, "Brunch")), afterRemove);
+        assertEquals(noon(first) + 1, budgetTracker.timestampAt(1));
+        assertEquals(DatedBudgetTracker.UNDATED,
+                budgetTracker.timestampAt(2));
+    }
+
+    /**
+     * Test of the day and month totals as records come and go.
+     */
+    @Test
+    public void rollupTest() {
+        /*
+         * Setup variables
+         */
+        final LocalDate day = LocalDate.of(2025, 2, 28);
+        final float rent = -1200.0f;
+        final float salary = 3000.25f;
+        final int three = 3;
+        DatedBudgetTracker budgetTracker = new DatedBudgetTracker(
+                new BudgetTracker2());
+        budgetTracker.addAll(new float[] { rent, salary, -1.0f },
+                new String[] { "Rent", "Salary", "Coffee" },
+                new long[] { noon(day), noon(day.plusDays(1)),
+                    DatedBudgetTracker.UNDATED },
+                three);
+
+        /*
+         * Call the methods
+         */
+        float dayBefore = budgetTracker.dayTotal(day);
+        float februaryBefore = budgetTracker.monthTotal(YearMonth.from(day));
+        float marchBefore = budgetTracker.monthTotal(
+                YearMonth.from(day.plusDays(1)));
+        budgetTracker.modifyIndex(2, rent - 1.0f, "Rent and fees");
+        float dayAfterModify = budgetTracker.dayTotal(day);
+        budgetTracker.remove();
+        budgetTracker.remove();
+        float marchAfterRemove = budgetTracker.monthTotal(
+                YearMonth.from(day.plusDays(1)));
+
+        /*
+         * Evaluation
+         */
+        assertEquals(rent, dayBefore, 0.0f);
+        assertEquals(rent, februaryBefore, 0.0f);
+        assertEquals(salary, marchBefore, 0.0f);
+        assertEquals(rent - 1.0f, dayAfterModify, 0.0f);
+        assertEquals(0.0f, marchAfterRemove, 0.0f);
+        assertEquals(rent - 1.0f,
+                budgetTracker.monthTotal(YearMonth.from(day)), 0.0f);
+    }
+}
@@ -0,0 +1,324 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code JournaledBudgetTracker} over
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+public class JournaledBudgetTrackerTest extends BudgetTrackerTest {
+
+    /**
+     * Number of mutations that share one {@code fsync} in the fixtures.
+     */
+    private static final int GROUP_SIZE = 4;
+
+    /**
+     * Number of random records in the round-trip fixture.
+     */
+    private static final int RANDOM_RECORDS = 10000;
+
+    /**
+     * Seed of the random amounts.
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * Bound on the magnitude of the random amounts, in cents.
+     */
+    private static final int CENTS_BOUND = 1000000;
+
+    /**
+     * Journals {@code tracker} in a fresh temporary file.
+     *
+     * @param tracker
+     *            the tracker to journal
+     * @return the journaled tracker
+     */
+    private static JournaledBudgetTracker journaled(BudgetTracker tracker) {
+        try {
+            File file = File.createTempFile("budget-journal", ".btj");
+            file.deleteOnExit();
+            return JournaledBudgetTracker.create(file.toPath(), tracker,
+                    GROUP_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return journaled(new BudgetTracker1L());
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return journaled(new BudgetTracker1L(accountName));
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return journaled(new BudgetTracker1L(accountName, balance));
+    }
+
+    /**
+     * Test of reopening a journal after every kind of mutation.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void reopenTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        final float balance = 100.0f;
+        final int three = 3;
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker.create(
+                file.toPath(), new BudgetTracker1L("Test Account", balance),
+                GROUP_SIZE);
+        budgetTracker.add(1.0f, "Coffee");
+        budgetTracker.add(-2.5f, "Caf\u00e9 au lait");
+        budgetTracker.addToIndex(2, three, "Refund");
+        budgetTracker.modifyIndex(0, -1.25f, "Lunch");
+        budgetTracker.changeIndex(0, 2);
+        budgetTracker.add(4.0f, "Groceries");
+        budgetTracker.removeIndex(1);
+        budgetTracker.remove();
+        budgetTracker.setAccountName("Renamed");
+        budgetTracker.close();
+
+        /*
+         * Call the method
+         */
+        BudgetTracker reopened = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+
+        /*
+         * Evaluation
+         */
+        assertEquals("Renamed", reopened.getAccountName());
+        assertEquals(budgetTracker.length(), reopened.length());
+        assertEquals(budgetTracker.balance(), reopened.balance(), 0.0f);
+        Iterator<Transaction> expected = budgetTracker.iterator();
+        for (Transaction record : reopened) {
+            assertEquals(expected.next(), record);
+        }
+    }
+
+    /**
+     * Test of reopening a journal whose last frame was cut short.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void tornTailTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker
+                .create(file.toPath(), new BudgetTracker1L(), GROUP_SIZE);
+        budgetTracker.add(1.0f, "Coffee");
+        budgetTracker.close();
+        // A frame that claims more bytes than were written before a crash
+        final byte[] torn = { 0, 0, 0, 64, 1, 2, 3, 4, 1 };
+        Files.write(file.toPath(), torn, StandardOpenOption.APPEND);
+
+        /*
+         * Call the method
+         */
+        JournaledBudgetTracker reopened = JournaledBudgetTracker
+                .open(file.toPath(), BudgetTracker1L::new, GROUP_SIZE);
+        reopened.add(2.0f, "Lunch");
+        reopened.close();
+        BudgetTracker reloaded = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(2, reloaded.length());
+        assertEquals(new Transaction(2.0f, "Lunch"), reloaded.remove());
+        assertEquals(new Transaction(1.0f, "Coffee"), reloaded.remove());
+    }
+
+    /**
+     * Test that a journal over {@code BudgetTracker1L} with many non-round
+     * amounts reopens to exactly the same balances.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void roundTripCentsTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        final float opening = 12.34f;
+        BudgetTracker source = new BudgetTracker1L("Test Account", opening);
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_RECORDS; i++) {
+            int cents = random.nextInt(2 * CENTS_BOUND) - CENTS_BOUND;
+            source.add(cents / BudgetTracker.ROUNDING, "Record");
+        }
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker
+                .create(file.toPath(), source, GROUP_SIZE);
+        budgetTracker.close();
+
+        /*
+         * Call the method
+         */
+        JournaledBudgetTracker reopened = JournaledBudgetTracker
+                .open(file.toPath(), BudgetTracker1L::new, GROUP_SIZE);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(RANDOM_RECORDS, reopened.length());
+        assertEquals(opening, reopened.balanceAt(reopened.length()), 0.0f);
+        assertEquals(budgetTracker.balance(), reopened.balance(), 0.0f);
+        reopened.close();
+    }
+
+    /**
+     * Test that a journaled tracker taken over by
+     * {@code ConcurrentBudgetTracker} keeps writing its file, including across
+     * {@code clear}.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void concurrentTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker
+                .create(file.toPath(), new BudgetTracker1L("Test Account"), 1);
+        budgetTracker.add(1.0f, "Coffee");
+
+        /*
+         * Call the method
+         */
+        BudgetTracker concurrent = new ConcurrentBudgetTracker(budgetTracker);
+        concurrent.add(2.0f, "Lunch");
+        BudgetTracker afterAdd = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+        concurrent.clear();
+        concurrent.add(3.0f, "Dinner");
+        BudgetTracker afterClear = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(0, budgetTracker.length());
+        assertEquals(2, afterAdd.length());
+        assertEquals(new Transaction(2.0f, "Lunch"), afterAdd.remove());
+        assertEquals(new Transaction(1.0f, "Coffee"), afterAdd.remove());
+        assertEquals(1, afterClear.length());
+        assertEquals(new Transaction(3.0f, "Dinner"), afterClear.remove());
+    }
+
+    /**
+     * Test that an opening balance with more cents than a float holds
+     * exactly reopens to the same balance.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void largeOpeningTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        final long cents = 16777217L;
+        final float opening = Cents.toAmount(cents);
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker.create(
+                file.toPath(), new BudgetTracker1L("Test Account", opening),
+                GROUP_SIZE);
+        budgetTracker.close();
+
+        /*
+         * Call the method
+         */
+        BudgetTracker reopened = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(cents, Cents.of(reopened.balance()));
+    }
+
+    /**
+     * Test that a record too large for one frame is refused without being
+     * applied, and that the journal still reopens.
+     *
+     * @throws IOException
+     *             if the journal cannot be written or read
+     */
+    @Test
+    public void oversizedRecordTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        File file = File.createTempFile("budget-journal", ".btj");
+        file.deleteOnExit();
+        final int oversized = 1 << 24;
+        JournaledBudgetTracker budgetTracker = JournaledBudgetTracker
+                .create(file.toPath(), new BudgetTracker1L(), GROUP_SIZE);
+        budgetTracker.add(1.0f, "Coffee");
+        String description = "x".repeat(oversized);
+        boolean refused = false;
+
+        /*
+         * Call the method
+         */
+        try {
+            budgetTracker.add(2.0f, description);
+        } catch (UncheckedIOException e) {
+            refused = true;
+        }
+        budgetTracker.add(3.0f, "Dinner");
+        budgetTracker.close();
+        BudgetTracker reopened = JournaledBudgetTracker.load(file.toPath(),
+                BudgetTracker1L::new);
+
+        /*
+         * Evaluation
+         */
+        assertTrue(refused);
+        assertEquals(2, budgetTracker.length());
+        assertEquals(2, reopened.length());
+        assertEquals(new Transaction(3.0f, "Dinner"), reopened.remove());
+        assertEquals(new Transaction(1.0f, "Coffee"), reopened.remove());
+    }
+}
@@ -0,0 +1,169 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code MappedBudgetTracker}, which is read-only and
+ * so is checked against the {@code BudgetTracker1L} its snapshot was written
+ * from.
+ *
+ * @author Chenyang Zong
+ */
+public class MappedBudgetTrackerTest {
+
+    /**
+     * Writes a snapshot of {@code tracker} to a fresh temporary file and maps
+     * it.
+     *
+     * @param tracker
+     *            the tracker to write
+     * @return the mapped snapshot
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    private static MappedBudgetTracker mapped(BudgetTracker tracker)
+            throws IOException {
+        File file = File.createTempFile("budget-snapshot", ".bts");
+        file.deleteOnExit();
+        MappedBudgetTracker.writeSnapshot(tracker, file.toPath());
+        return new MappedBudgetTracker(file.toPath());
+    }
+
+    /**
+     * Returns a small ledger with repeated descriptions and tied amounts.
+     *
+     * @return the ledger
+     */
+    private static BudgetTracker ledger() {
+        final float balance = 100.0f;
+        final float coffee = -3.5f;
+        final float refund = 12.25f;
+        BudgetTracker tracker = new BudgetTracker1L("Test Account", balance);
+        tracker.add(coffee, "Coffee");
+        tracker.add(refund, "Refund");
+        tracker.add(-1.0f, "Caf\u00e9 au lait");
+        tracker.add(coffee, "Coffee");
+        tracker.add(refund, "Refund for coffee");
+        return tracker;
+    }
+
+    /**
+     * Test of mapping the snapshot of an empty tracker.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    @Test
+    public void emptyTest() throws IOException {
+        BudgetTracker expected = new BudgetTracker1L();
+        MappedBudgetTracker budgetTracker = mapped(expected);
+        assertEquals(0, budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), 0.0f);
+        assertEquals(expected.getAccountName(),
+                budgetTracker.getAccountName());
+        assertEquals(false, budgetTracker.iterator().hasNext());
+        assertEquals(0, budgetTracker.maxIncomeIndex());
+        assertEquals(0, budgetTracker.keywordCount(""));
+    }
+
+    /**
+     * Test that a snapshot holds the records, name and balance it was written
+     * from.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    @Test
+    public void recordsTest() throws IOException {
+        BudgetTracker expected = ledger();
+        MappedBudgetTracker budgetTracker = mapped(expected);
+        assertEquals(expected.getAccountName(),
+                budgetTracker.getAccountName());
+        assertEquals(expected.length(), budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), 0.0f);
+        Iterator<Transaction> records = expected.iterator();
+        for (Transaction record : budgetTracker) {
+            assertEquals(records.next(), record);
+        }
+        Iterator<Transaction> tail = expected.view(2, 2).iterator();
+        for (Transaction record : budgetTracker.view(2, 2)) {
+            assertEquals(tail.next(), record);
+        }
+    }
+
+    /**
+     * Test that the report queries give the answers of the tracker the
+     * snapshot was written from.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    @Test
+    public void queriesTest() throws IOException {
+        BudgetTracker expected = ledger();
+        MappedBudgetTracker budgetTracker = mapped(expected);
+        assertEquals(expected.maxIncomeIndex(), budgetTracker.maxIncomeIndex());
+        assertEquals(expected.minIncomeIndex(), budgetTracker.minIncomeIndex());
+        assertEquals(expected.maxExpenseIndex(),
+                budgetTracker.maxExpenseIndex());
+        assertEquals(expected.minExpenseIndex(),
+                budgetTracker.minExpenseIndex());
+        for (String keyword : new String[] { "Coffee", "offee", "Refund", "",
+                "Caf\u00e9", "Rent" }) {
+            assertEquals(expected.keywordCount(keyword),
+                    budgetTracker.keywordCount(keyword));
+            assertEquals(expected.keywordTotal(keyword),
+                    budgetTracker.keywordTotal(keyword), 0.0f);
+        }
+        for (int i = 0; i <= expected.length(); i++) {
+            assertEquals(expected.balanceAt(i), budgetTracker.balanceAt(i),
+                    0.0f);
+            assertEquals(expected.rangeSum(0, i), budgetTracker.rangeSum(0, i),
+                    0.0f);
+        }
+    }
+
+    /**
+     * Test that a snapshot cannot be changed.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyTest() throws IOException {
+        MappedBudgetTracker budgetTracker = mapped(ledger());
+        budgetTracker.add(1.0f, "Coffee");
+    }
+
+    /**
+     * Test that writing a snapshot replaces the previous one.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written or mapped
+     */
+    @Test
+    public void rewriteTest() throws IOException {
+        File file = File.createTempFile("budget-snapshot", ".bts");
+        file.deleteOnExit();
+        BudgetTracker expected = ledger();
+        MappedBudgetTracker.writeSnapshot(expected, file.toPath());
+        expected.remove();
+        MappedBudgetTracker.writeSnapshot(expected, file.toPath());
+        MappedBudgetTracker budgetTracker = new MappedBudgetTracker(
+                file.toPath());
+        assertEquals(expected.length(), budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), 0.0f);
+        Iterator<Transaction> records = expected.iterator();
+        for (Transaction record : budgetTracker) {
+            assertEquals(records.next(), record);
+        }
+    }
+}
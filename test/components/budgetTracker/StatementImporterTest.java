@@ -0,0 +1,237 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code StatementImporter}.
+ *
+ * @author Chenyang Zong
+ */
+public class StatementImporterTest {
+
+    /**
+     * Test of importing a CSV statement with a header, quoted fields and
+     * assorted amount formats.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void csvTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        String csv = "Date,Description,Amount\r\n"
+                + "2025-01-02,Coffee,-3.50\r\n"
+                + "2025-01-03,\"Rent, January\",\"(1,200.00)\"\r\n"
+                + "\r\n"
+                + "2025-01-04,\"The \"\"Good\"\" Deli\",$12.345\n"
+                + "2025-01-05,\"Two\nlines\",+7\n";
+        BudgetTracker budgetTracker = new BudgetTracker2();
+
+        /*
+         * Call the method
+         */
+        int imported = StatementImporter.importCsv(new StringReader(csv),
+                budgetTracker, 2, 1, true);
+
+        /*
+         * Evaluation
+         */
+        final int four = 4;
+        final float rent = -1200.0f;
+        final float deli = 12.35f;
+        final float two = 7.0f;
+        assertEquals(four, imported);
+        assertEquals(four, budgetTracker.length());
+        assertEquals(new Transaction(two, "Two\nlines"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(deli, "The \"Good\" Deli"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(rent, "Rent, January"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(-3.5f, "Coffee"), budgetTracker.remove());
+    }
+
+    /**
+     * Test of importing a CSV statement larger than the parser's buffer and
+     * batches.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void csvLargeTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        final int rows = 100_000;
+        StringBuilder csv = new StringBuilder();
+        BudgetTracker expected = new BudgetTracker1L();
+        for (int i = 0; i < rows; i++) {
+            String description = "Shop " + (i % 100);
+            csv.append(i).append(".25,").append(description).append('\n');
+            expected.add(i + 0.25f, description);
+        }
+        BudgetTracker budgetTracker = new BudgetTracker1L();
+
+        /*
+         * Call the method
+         */
+        StatementImporter.importCsv(new StringReader(csv.toString()),
+                budgetTracker, 0, 1, false);
+
+        /*
+         * Evaluation
+         */
+        assertEquals(rows, budgetTracker.length());
+        assertEquals(expected.balance(), budgetTracker.balance(), 1.0f);
+        assertEquals(expected.keywordCount("Shop 7"),
+                budgetTracker.keywordCount("Shop 7"));
+        assertEquals(expected.remove(), budgetTracker.remove());
+    }
+
+    /**
+     * Test that a bad amount stops the import after the records before it.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void csvBadAmountTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        String csv = "1.00,Coffee\nabc,Lunch\n2.00,Dinner\n";
+        BudgetTracker budgetTracker = new BudgetTracker3();
+
+        /*
+         * Call the method
+         */
+        String message = "";
+        try {
+            StatementImporter.importCsv(new StringReader(csv), budgetTracker,
+                    0, 1, false);
+        } catch (IOException e) {
+            message = e.getMessage();
+        }
+
+        /*
+         * Evaluation
+         */
+        assertEquals("Not an amount on line 2: \"abc\"", message);
+        assertEquals(1, budgetTracker.length());
+    }
+
+    /**
+     * Test that an amount too long to hold in cents is rejected rather than
+     * overflowing.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void csvLongAmountTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        String csv = "9999999999999999.99,Largest\n"
+                + "99999999999999999,Too long\n";
+        BudgetTracker budgetTracker = new BudgetTracker3();
+
+        /*
+         * Call the method
+         */
+        String message = "";
+        try {
+            StatementImporter.importCsv(new StringReader(csv), budgetTracker,
+                    0, 1, false);
+        } catch (IOException e) {
+            message = e.getMessage();
+        }
+
+        /*
+         * Evaluation
+         */
+        assertEquals("Not an amount on line 2: \"99999999999999999\"",
+                message);
+        assertEquals(1, budgetTracker.length());
+    }
+
+    /**
+     * Test of importing an OFX 1 statement in SGML form.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void ofxSgmlTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1>"
+                + "<STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<TRNAMT>-4.20\n"
+                + "<NAME>Caf&eacute; &amp; Bar\n</STMTTRN>\n"
+                + "<STMTTRN>\n<TRNTYPE>CREDIT\n<TRNAMT>1500.00\n"
+                + "<MEMO>Payroll\n</STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+        BudgetTracker budgetTracker = new BudgetTracker1L();
+
+        /*
+         * Call the method
+         */
+        int imported = StatementImporter.importOfx(new StringReader(ofx),
+                budgetTracker);
+
+        /*
+         * Evaluation
+         */
+        final float payroll = 1500.0f;
+        assertEquals(2, imported);
+        assertEquals(new Transaction(payroll, "Payroll"),
+                budgetTracker.remove());
+        assertEquals(new Transaction(-4.2f, "Caf&eacute; & Bar"),
+                budgetTracker.remove());
+    }
+
+    /**
+     * Test of importing an OFX 2 statement in XML form.
+     *
+     * @throws IOException
+     *             if the statement cannot be parsed
+     */
+    @Test
+    public void ofxXmlTest() throws IOException {
+        /*
+         * Setup variables
+         */
+        String ofx = "<?xml version=\"1.0\"?><OFX><STMTTRN>"
+                + "<TRNAMT>-12.00</TRNAMT><NAME>Books &#38; more</NAME>"
+                + "<MEMO>Ignored</MEMO></STMTTRN><STMTTRN><TRNAMT>3</TRNAMT>"
+                + "</STMTTRN></OFX>";
+        BudgetTracker budgetTracker = new BudgetTracker2();
+
+        /*
+         * Call the method
+         */
+        StatementImporter.importOfx(new StringReader(ofx), budgetTracker);
+
+        /*
+         * Evaluation
+         */
+        final float books = -12.0f;
+        final float three = 3.0f;
+        assertEquals(2, budgetTracker.length());
+        assertEquals(new Transaction(three, ""), budgetTracker.remove());
+        assertEquals(new Transaction(books, "Books & more"),
+                budgetTracker.remove());
+    }
+}
@@ -0,0 +1,136 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * JUnit test fixture for {@code TransactionIngestor}.
+ *
+ * @author Chenyang Zong
+ */
+public class TransactionIngestorTest {
+
+    /**
+     * Test of offering to a full stripe and draining it.
+     */
+    @Test
+    public void fullTest() {
+        /*
+         * Setup variables
+         */
+        final int capacity = 4;
+        TransactionIngestor ingestor = new TransactionIngestor(1, capacity);
+        BudgetTracker budgetTracker = new BudgetTracker1L();
+
+        /*
+         * Call the methods
+         */
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(ingestor.offer(i, "Record " + i));
+        }
+        boolean overflow = ingestor.offer(-1.0f, "Overflow");
+        int drained = ingestor.drainTo(budgetTracker);
+        boolean after = ingestor.offer(-1.0f, "After");
+        int drainedAgain = ingestor.drainTo(budgetTracker);
+
+        /*
+         * Evaluation
+         */
+        final float total = 5.0f;
+        assertFalse(overflow);
+        assertTrue(after);
+        assertEquals(capacity, drained);
+        assertEquals(1, drainedAgain);
+        assertEquals(capacity + 1, budgetTracker.length());
+        assertEquals(total, budgetTracker.balance(), 0.0f);
+        assertEquals(new Transaction(-1.0f, "After"), budgetTracker.remove());
+        assertEquals(new Transaction(capacity - 1, "Record 3"),
+                budgetTracker.remove());
+        assertEquals(0, ingestor.drainTo(budgetTracker));
+    }
+
+    /**
+     * Test of many producers offering while one consumer drains.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void producersTest() throws InterruptedException {
+        /*
+         * Setup variables
+         */
+        final int producers = 8;
+        final int offers = 20000;
+        final int stripes = 4;
+        final int capacity = 64;
+        TransactionIngestor ingestor = new TransactionIngestor(stripes,
+                capacity);
+        BudgetTracker budgetTracker = new BudgetTracker2();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String description = "Producer " + p;
+            threads.add(new Thread(() -> {
+                int i = 0;
+                while (i < offers) {
+                    // A full stripe is the caller's to handle; retry here
+                    if (ingestor.offer(i, description)) {
+                        i++;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Thread consumer = new Thread(() -> {
+            while (!done.get()) {
+                ingestor.drainTo(budgetTracker);
+            }
+            ingestor.drainTo(budgetTracker);
+        });
+
+        /*
+         * Call the methods
+         */
+        consumer.start();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        consumer.join();
+
+        /*
+         * Evaluation
+         */
+        final double sum = (double) offers * (offers - 1) / 2 * producers;
+        assertEquals(producers * offers, budgetTracker.length());
+        assertEquals(sum, budgetTracker.balance(), sum * 1e-6);
+        // Each producer's records arrive in order: latest first, descending
+        int[] next = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            next[p] = offers - 1;
+        }
+        for (Transaction record : budgetTracker) {
+            int p = Integer.parseInt(record.description().substring(
+                    "Producer ".length()));
+            assertEquals(next[p], (int) record.amount());
+            next[p]--;
+        }
+        for (int p = 0; p < producers; p++) {
+            assertEquals(-1, next[p]);
+        }
+    }
+}
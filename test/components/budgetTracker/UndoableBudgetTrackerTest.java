@@ -0,0 +1,243 @@
+package components.budgetTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.budgetTracker.BudgetTrackerKernel.Transaction;
+
+/**
+ * Customized JUnit test fixture for {@code UndoableBudgetTracker} over
+ * {@code BudgetTracker1L}.
+ *
+ * @author Chenyang Zong
+ */
+public class UndoableBudgetTrackerTest extends BudgetTrackerTest {
+
+    @Override
+    protected final BudgetTracker noArgConstructor() {
+        return new UndoableBudgetTracker(new BudgetTracker1L());
+    }
+
+    @Override
+    protected final BudgetTracker accountNameConstructor(String accountName) {
+        return new UndoableBudgetTracker(new BudgetTracker1L(accountName));
+    }
+
+    @Override
+    protected final BudgetTracker accountNameAndBalanceConstructor(
+            String accountName, float balance) {
+        return new UndoableBudgetTracker(
+                new BudgetTracker1L(accountName, balance));
+    }
+
+    /**
+     * Returns the state of {@code tracker}: its account name, balance and
+     * records, latest first.
+     *
+     * @param tracker
+     *            the tracker to read
+     * @return the state of {@code tracker}
+     */
+    private static List<Object> state(BudgetTracker tracker) {
+        List<Object> state = new ArrayList<>();
+        state.add(tracker.getAccountName());
+        state.add(tracker.balance());
+        for (Transaction record : tracker) {
+            state.add(record);
+        }
+        return state;
+    }
+
+    /**
+     * Test of undoing and redoing every kind of mutation.
+     */
+    @Test
+    public void undoRedoTest() {
+        /*
+         * Setup variables
+         */
+        final float balance = 100.0f;
+        final int three = 3;
+        UndoableBudgetTracker budgetTracker = new UndoableBudgetTracker(
+                new BudgetTracker1L("Test Account", balance));
+        budgetTracker.add(1.0f, "Coffee");
+        budgetTracker.clearHistory();
+        List<List<Object>> states = new ArrayList<>();
+        states.add(state(budgetTracker));
+        BudgetTracker other = new BudgetTracker1L();
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.add(-2.5f, "Lunch");
+        states.add(state(budgetTracker));
+        budgetTracker.addToIndex(2, three, "Refund");
+        states.add(state(budgetTracker));
+        budgetTracker.modifyIndex(0, -1.25f, "Snack");
+        states.add(state(budgetTracker));
+        budgetTracker.changeIndex(0, 2);
+        states.add(state(budgetTracker));
+        budgetTracker.removeIndex(1);
+        states.add(state(budgetTracker));
+        budgetTracker.addAll(new float[] { 2.0f, -4.0f },
+                new String[] { "Gift", "Groceries" }, 2);
+        states.add(state(budgetTracker));
+        budgetTracker.remove();
+        states.add(state(budgetTracker));
+        other.add(-three, "Bus");
+        budgetTracker.append(other);
+        states.add(state(budgetTracker));
+        other.add(0.5f, "Interest");
+        other.add(-0.5f, "Fee");
+        budgetTracker.mergeOrdered(other,
+                (a, b) -> Float.compare(a.amount(), b.amount()));
+        states.add(state(budgetTracker));
+        budgetTracker.setAccountName("Renamed");
+        states.add(state(budgetTracker));
+        budgetTracker.clear();
+        states.add(state(budgetTracker));
+
+        /*
+         * Evaluation
+         */
+        for (int i = states.size() - 2; i >= 0; i--) {
+            budgetTracker.undo();
+            assertEquals(states.get(i), state(budgetTracker));
+        }
+        assertFalse(budgetTracker.canUndo());
+        for (int i = 1; i < states.size(); i++) {
+            budgetTracker.redo();
+            assertEquals(states.get(i), state(budgetTracker));
+        }
+        assertFalse(budgetTracker.canRedo());
+    }
+
+    /**
+     * Test of rolling back to checkpoints, and of a mutation dropping the
+     * redo log.
+     */
+    @Test
+    public void checkpointTest() {
+        /*
+         * Setup variables
+         */
+        final int edits = 1000;
+        UndoableBudgetTracker budgetTracker = new UndoableBudgetTracker(
+                new BudgetTracker2());
+        budgetTracker.add(1.0f, "Opening");
+        List<Object> start = state(budgetTracker);
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.checkpoint("start");
+        for (int i = 0; i < edits; i++) {
+            budgetTracker.addToIndex(i / 2, i, "Record " + i);
+        }
+        List<Object> middle = state(budgetTracker);
+        budgetTracker.checkpoint("middle");
+        for (int i = 0; i < edits; i++) {
+            budgetTracker.modifyIndex(i, -i, "Edit " + i);
+        }
+        budgetTracker.rollback("start");
+        List<Object> rolledBack = state(budgetTracker);
+        budgetTracker.rollback("middle");
+        List<Object> rolledForward = state(budgetTracker);
+        budgetTracker.undo();
+        budgetTracker.add(2.0f, "Branch");
+
+        /*
+         * Evaluation
+         */
+        assertEquals(start, rolledBack);
+        assertEquals(middle, rolledForward);
+        assertFalse(budgetTracker.canRedo());
+        assertTrue(budgetTracker.hasCheckpoint("start"));
+        assertFalse(budgetTracker.hasCheckpoint("middle"));
+        budgetTracker.rollback("start");
+        assertEquals(start, state(budgetTracker));
+        budgetTracker.clearHistory();
+        assertFalse(budgetTracker.canRedo());
+        assertFalse(budgetTracker.hasCheckpoint("start"));
+    }
+
+    /**
+     * Returns the tracker that {@code tracker} wraps, which it does not
+     * expose.
+     *
+     * @param tracker
+     *            the undoable tracker
+     * @return the tracker it wraps
+     * @throws ReflectiveOperationException
+     *             if the field cannot be read
+     */
+    private static BudgetTracker wrapped(UndoableBudgetTracker tracker)
+            throws ReflectiveOperationException {
+        Field rep = UndoableBudgetTracker.class.getDeclaredField("rep");
+        rep.setAccessible(true);
+        return (BudgetTracker) rep.get(tracker);
+    }
+
+    /**
+     * Test that undo and redo over a {@code DatedBudgetTracker} put back
+     * records with their timestamps.
+     *
+     * @throws ReflectiveOperationException
+     *             if the wrapped tracker cannot be read
+     */
+    @Test
+    public void datedUndoTest() throws ReflectiveOperationException {
+        /*
+         * Setup variables
+         */
+        final long first = 1_000L;
+        final long second = 2_000L;
+        final long third = 3_000L;
+        final long fourth = 4_000L;
+        DatedBudgetTracker dated = new DatedBudgetTracker(
+                new BudgetTracker1L());
+        dated.add(1.0f, "First", first);
+        dated.add(2.0f, "Second", second);
+        dated.add(-1.0f, "Third", third);
+        UndoableBudgetTracker budgetTracker = new UndoableBudgetTracker(dated);
+        DatedBudgetTracker rep = (DatedBudgetTracker) wrapped(budgetTracker);
+
+        /*
+         * Call the methods
+         */
+        budgetTracker.removeIndex(1);
+        budgetTracker.remove();
+        budgetTracker.undo();
+        budgetTracker.undo();
+        long[] undone = { rep.timestampAt(0), rep.timestampAt(1),
+            rep.timestampAt(2) };
+        budgetTracker.redo();
+        budgetTracker.redo();
+        budgetTracker.undo();
+        budgetTracker.undo();
+        DatedBudgetTracker other = new DatedBudgetTracker(
+                new BudgetTracker1L());
+        other.add(-2.0f, "Fourth", fourth);
+        budgetTracker.append(other);
+        budgetTracker.undo();
+        budgetTracker.redo();
+
+        /*
+         * Evaluation
+         */
+        assertEquals(third, undone[0]);
+        assertEquals(second, undone[1]);
+        assertEquals(first, undone[2]);
+        assertEquals(fourth, rep.timestampAt(0));
+        assertEquals(third, rep.timestampAt(1));
+        assertEquals(second, rep.timestampAt(2));
+        assertEquals(first, rep.timestampAt(2 + 1));
+    }
+}